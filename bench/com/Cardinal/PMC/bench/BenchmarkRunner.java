@@ -0,0 +1,39 @@
+package com.Cardinal.PMC.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package with the GC profiler, so every result
+ * comes with its allocation rate. The load and parse benchmarks report both
+ * their throughput and their sampled latency percentiles, p99 included.
+ * <p>
+ * The benchmarks are compiled with JMH and its annotation processor on the
+ * class path, alongside the library and jsoup. Any JMH command line option may
+ * be passed, such as a regular expression selecting the benchmarks to run:
+ * 
+ * <pre>
+ * java com.Cardinal.PMC.bench.BenchmarkRunner ThreadBenchmark -p size=HUGE
+ * </pre>
+ * 
+ * Set the <code>pmc.corpus</code> system property to benchmark saved pages
+ * instead of the generated {@link Corpus}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions command = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(command).addProfiler(GCProfiler.class);
+		if (command.getIncludes().isEmpty())
+			options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,475 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.net.MemoryPageFetcher;
+import com.Cardinal.PMC.net.Page;
+
+/**
+ * A class used to build the pages the benchmarks load. Every page is generated
+ * from a fixed seed with the markup the loaders read, as named by
+ * {@link ElementIdentifiers}, wrapped in the header, navigation, scripts and
+ * footer every PlanetMinecraft page carries, so results are comparable between
+ * runs and machines without touching the network.
+ * <p>
+ * Pages saved from the site can be benchmarked instead by pointing the
+ * <code>pmc.corpus</code> system property at a directory of HTML files named by
+ * {@link MemoryPageFetcher#fileName(String)}. A saved page replaces the
+ * generated page of the same URL.
+ * 
+ * @author Cardinal System
+ *
+ */
+public final class Corpus {
+
+	/**
+	 * The URL of every generated page starts with this.
+	 */
+	public static final String SITE = "https://www.planetminecraft.com";
+
+	/**
+	 * The submission types, as shown in a submission page's context links.
+	 */
+	public static final String[] SUBMISSION_TYPES = { "Projects", "Skins", "Texture Packs", "Servers", "Mods",
+			"Blogs" };
+
+	private static final String[] WORDS = { "minecraft", "build", "castle", "redstone", "survival", "the", "a", "of",
+			"with", "and", "server", "texture", "world", "map", "pixel", "art", "creeper", "village", "update",
+			"download", "thanks", "awesome", "really", "nice", "work", "to", "is", "my", "first", "try" };
+
+	/**
+	 * The number of forums and project feed pages, as loaded by
+	 * <code>ThreadLoader.getPages(1, FEED_PAGES + 1)</code>.
+	 */
+	public static final int FEED_PAGES = 5;
+
+	/**
+	 * The URL the forums feed pages are numbered from.
+	 */
+	public static final String FEED = SITE + "/forums/?thread_sort=newest";
+
+	/**
+	 * The URL the project feed pages are numbered from, as loaded by
+	 * <code>SubmissionLoader.getTypePages(1, FEED_PAGES + 1, Type.PROJECTS)</code>.
+	 */
+	public static final String SUBMISSION_FEED = SITE + "/resources/projects?order=order_latest";
+
+	/**
+	 * The size of a forums thread.
+	 * 
+	 * @author Cardinal System
+	 *
+	 */
+	public enum ThreadSize {
+		SMALL(5), MEDIUM(60), HUGE(600);
+
+		private final int replies;
+
+		private ThreadSize(int replies) {
+			this.replies = replies;
+		}
+
+		/**
+		 * Gets the number of replies a thread of this size has.
+		 * 
+		 * @return the number of replies.
+		 */
+		public int getReplies() {
+			return replies;
+		}
+	}
+
+	private Corpus() {
+	}
+
+	/**
+	 * Creates a fetcher serving every page of the corpus.
+	 * 
+	 * @return the fetcher.
+	 */
+	public static MemoryPageFetcher fetcher() {
+		String directory = System.getProperty("pmc.corpus");
+		Path saved = directory == null ? null : Paths.get(directory);
+		MemoryPageFetcher fetcher = new MemoryPageFetcher(saved);
+		for (Map.Entry<String, String> page : pages().entrySet())
+			if (saved == null || !Files.isRegularFile(saved.resolve(MemoryPageFetcher.fileName(page.getKey()))))
+				fetcher.put(page.getKey(), page.getValue());
+		return fetcher;
+	}
+
+	/**
+	 * Gets the URLs of every page of the corpus.
+	 * 
+	 * @return the URLs.
+	 */
+	public static List<String> urls() {
+		return new ArrayList<String>(pages().keySet());
+	}
+
+	/**
+	 * Gets the page at the given URL from a fresh corpus.
+	 * 
+	 * @param url the URL of the page.
+	 * @return the page.
+	 */
+	public static Page page(String url) {
+		try {
+			return fetcher().fetch(url);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("No corpus page for " + url, e);
+		}
+	}
+
+	/**
+	 * Gets the URL of the thread of the given size.
+	 * 
+	 * @param size the thread size.
+	 * @return the URL.
+	 */
+	public static String threadURL(ThreadSize size) {
+		return SITE + "/forums/minecraft/discussion/bench-" + size.name().toLowerCase() + "-thread-"
+				+ (1000 + size.ordinal()) + "/";
+	}
+
+	/**
+	 * Gets the URL of the submission of the given type.
+	 * 
+	 * @param type the submission type, one of {@link #SUBMISSION_TYPES}.
+	 * @return the URL.
+	 */
+	public static String submissionURL(String type) {
+		return SITE + "/" + type.toLowerCase().replace(' ', '-') + "/bench-submission/";
+	}
+
+	/**
+	 * Gets the URL of the user whose profile is in the corpus.
+	 * 
+	 * @return the URL.
+	 */
+	public static String userURL() {
+		return SITE + "/member/bench-user/";
+	}
+
+	/**
+	 * Generates every page of the corpus, keyed by URL.
+	 */
+	private static Map<String, String> pages() {
+		Map<String, String> pages = new LinkedHashMap<String, String>();
+		for (ThreadSize size : ThreadSize.values())
+			pages.put(threadURL(size), thread(size));
+		for (int page = 1; page <= FEED_PAGES; page++)
+			pages.put(FEED + "&p=" + page, feed(page));
+		for (int page = 1; page <= FEED_PAGES; page++)
+			pages.put(SUBMISSION_FEED + "&p=" + page, submissionFeed(page));
+		for (String type : SUBMISSION_TYPES)
+			pages.put(submissionURL(type), submission(type));
+		pages.put(userURL(), profile());
+		pages.put(userURL() + "about/", about());
+		pages.put(userURL() + "subscribers/", team(40));
+		pages.put(userURL() + "subscriptions/", team(25));
+		pages.put(userURL() + "submissions/", submissions());
+		return pages;
+	}
+
+	private static String thread(ThreadSize size) {
+		Random random = new Random(size.ordinal());
+		StringBuilder html = open("Bench " + size.name().toLowerCase() + " thread", random);
+
+		html.append("<div id=\"").append(ElementIdentifiers.CONTEXT_HEADER).append("\"><div class=\"")
+				.append(ElementIdentifiers.CRUMB).append("\">");
+		html.append("<a class=\"").append(ElementIdentifiers.CATEGORY).append("\" href=\"/forums/\">Forums</a>");
+		html.append("<a class=\"").append(ElementIdentifiers.CATEGORY)
+				.append("\" href=\"/forums/minecraft/\">Minecraft</a>");
+		html.append("<a class=\"").append(ElementIdentifiers.CATEGORY)
+				.append("\" href=\"/forums/minecraft/discussion/\">Discussion</a>");
+		html.append("</div></div>");
+
+		html.append("<div class=\"").append(ElementIdentifiers.MINIINFO).append("\">");
+		member(html, random.nextInt(5000));
+		html.append("</div>");
+
+		html.append("<div class=\"").append(ElementIdentifiers.STATS).append("\"><span>").append(random.nextInt(200))
+				.append("</span> emeralds <span>").append(size.getReplies()).append("</span> replies <span>")
+				.append(String.format(Locale.ROOT, "%,d", random.nextInt(2_000_000))).append("</span> views ");
+		timestamp(html, random);
+		html.append("</div>");
+
+		html.append("<div id=\"").append(ElementIdentifiers.THREADID).append("\" ")
+				.append(ElementIdentifiers.IDATTR).append("=\"").append(1000 + size.ordinal()).append("\"></div>");
+		html.append("<div class=\"").append(ElementIdentifiers.CONTENT).append("\">");
+		paragraphs(html, random, 3);
+		html.append("</div>");
+
+		html.append("<div class=\"").append(ElementIdentifiers.REPLYCONTAINER).append("\">");
+		for (int i = 0; i < size.getReplies(); i++) {
+			int parent = i == 0 ? 0 : random.nextInt(4) == 0 ? 20_000 + random.nextInt(i) : 0;
+			html.append("<div class=\"").append(ElementIdentifiers.REPLY).append("\" ")
+					.append(ElementIdentifiers.IDATTR).append("=\"").append(20_000 + i).append("\" ")
+					.append(ElementIdentifiers.PARENTIDATTR).append("=\"").append(parent).append("\">");
+			html.append("<div class=\"").append(ElementIdentifiers.SCORECONTAINER).append("\"><div class=\"")
+					.append(ElementIdentifiers.SCOREBOX).append("\"><a class=\"up\" href=\"#\"></a><span class=\"")
+					.append(ElementIdentifiers.SCORE).append("\">").append(random.nextInt(30))
+					.append("</span><a class=\"down\" href=\"#\"></a></div></div>");
+			html.append("<div class=\"").append(ElementIdentifiers.CONTENTBOX).append("\"><div class=\"")
+					.append(ElementIdentifiers.MEMBERBOX).append("\">");
+			member(html, random.nextInt(5000));
+			html.append("<div class=\"").append(ElementIdentifiers.TIMEBOX).append("\">");
+			timestamp(html, random);
+			html.append("</div></div><div class=\"").append(ElementIdentifiers.REPLYMESSAGE).append("\">");
+			paragraphs(html, random, 1 + random.nextInt(3));
+			html.append("</div></div></div>");
+		}
+		html.append("</div>");
+
+		return close(html, random);
+	}
+
+	private static String submission(String type) {
+		Random random = new Random(type.hashCode());
+		StringBuilder html = open("Bench " + type, random);
+
+		html.append("<div class=\"").append(ElementIdentifiers.TYPE).append("\"><a href=\"/\">Home</a> &rsaquo; <a href=\"/")
+				.append(type.toLowerCase().replace(' ', '-')).append("/\">").append(type).append("</a></div>");
+		html.append("<h1>Bench ").append(type).append(" submission</h1>");
+		html.append("<div class=\"").append(ElementIdentifiers.MINIINFO).append("\">");
+		member(html, random.nextInt(5000));
+		html.append("</div>");
+
+		switch (type) {
+		case "Blogs":
+			html.append("<div id=\"").append(ElementIdentifiers.RESOURCE_EMBED).append("\"><textarea name=\"")
+					.append(ElementIdentifiers.EMBED_CODE)
+					.append("\">&lt;a href=\"").append(submissionURL(type))
+					.append("\"&gt;&lt;img src=\"https://static.planetminecraft.com/files/blog.jpg\"&gt;&lt;/a&gt;</textarea></div>");
+			break;
+		case "Skins":
+			html.append("<div class=\"").append(ElementIdentifiers.ANGELS).append("\">");
+			for (int i = 0; i < 4; i++)
+				html.append("<img src=\"https://static.planetminecraft.com/files/skin_").append(i).append(".png\">");
+			html.append("</div>");
+			break;
+		case "Texture Packs":
+			break;
+		default:
+			html.append("<div class=\"gallery\">");
+			for (int i = 0; i < 12; i++)
+				html.append("<img class=\"").append(ElementIdentifiers.RESOURCE_IMG)
+						.append("\" src=\"https://static.planetminecraft.com/files/image_").append(i).append(".jpg\">");
+			html.append("<a class=\"").append(ElementIdentifiers.RESOURCE_NO_DRAG)
+					.append("\" data-rsVideo=\"https://www.youtube.com/embed/bench\"></a></div>");
+			html.append("<div id=\"").append(ElementIdentifiers.VIDEO_GALLERY)
+					.append("\"><iframe src=\"https://www.youtube.com/embed/bench\"></iframe></div>");
+		}
+
+		html.append("<div id=\"").append(ElementIdentifiers.DETAILS).append("\"><div class=\"")
+				.append(ElementIdentifiers.DATEDIV).append("\">");
+		timestamp(html, random);
+		html.append("</div><div class=\"").append(ElementIdentifiers.DETAILSBOX).append("\"><span>")
+				.append(random.nextInt(500)).append("</span><span>")
+				.append(String.format(Locale.ROOT, "%,d", random.nextInt(2_000_000))).append("</span><span>")
+				.append(random.nextInt(100)).append("</span><span>").append(random.nextInt(1000))
+				.append("</span><span>").append(random.nextInt(300)).append("</span></div></div>");
+
+		if (!type.equals("Blogs") && !type.equals("Servers"))
+			html.append("<div class=\"").append(ElementIdentifiers.DOWNLOAD)
+					.append("\"><a href=\"/download/bench/\">Download</a><a href=\"https://mirror.example.com/bench.zip\">Mirror</a></div>");
+		if (type.equals("Servers"))
+			html.append("<form name=\"").append(ElementIdentifiers.SERVERIP)
+					.append("\"><input type=\"text\" value=\"play.example.com\" readonly></form>");
+
+		html.append("<span id=\"").append(ElementIdentifiers.SUBID).append("\">").append(4000 + random.nextInt(1000))
+				.append("</span>");
+		html.append("<div id=\"").append(ElementIdentifiers.TAGS).append("\">");
+		for (int i = 0; i < 8; i++)
+			html.append("<a href=\"/tags/").append(word(random)).append("/\">").append(word(random)).append("</a>");
+		html.append("</div>");
+		html.append("<div id=\"").append(ElementIdentifiers.TEXT).append("\">");
+		paragraphs(html, random, 8);
+		html.append("</div>");
+
+		html.append("<div id=\"").append(ElementIdentifiers.COMMENTS).append("\">");
+		for (int i = 0; i < 40; i++) {
+			html.append("<div class=\"").append(ElementIdentifiers.COMMENTITEM).append("\"><div class=\"")
+					.append(ElementIdentifiers.COMMENTHEADER).append("\">");
+			int user = random.nextInt(5000);
+			html.append("<a href=\"/member/user").append(user).append("/\"><img src=\"/avatar.png\"></a>");
+			member(html, user);
+			timestamp(html, random);
+			html.append("</div><div class=\"").append(ElementIdentifiers.COMMENTTEXT).append("\">");
+			sentence(html, random);
+			html.append("<br>");
+			sentence(html, random);
+			html.append("</div><span class=\"").append(ElementIdentifiers.COMMENTID).append("\">")
+					.append(90_000 + i).append("</span></div>");
+		}
+		html.append("</div>");
+
+		return close(html, random);
+	}
+
+	private static String profile() {
+		Random random = new Random(1);
+		StringBuilder html = open("bench-user", random);
+		html.append("<div id=\"").append(ElementIdentifiers.MEMBERTITLE).append("\"><h1>bench-user</h1></div>");
+		html.append("<div id=\"").append(ElementIdentifiers.PROFILEBAR).append("\" ")
+				.append(ElementIdentifiers.PROFILEID).append("=\"4242\"></div>");
+		paragraphs(html, random, 6);
+		return close(html, random);
+	}
+
+	private static String about() {
+		Random random = new Random(2);
+		StringBuilder html = open("bench-user", random);
+		html.append("<span class=\"member-rank-class\">Journeyman</span>");
+		html.append("<span class=\"stat level submenu_trigger\">Level 42</span>");
+		html.append("<div id=\"").append(ElementIdentifiers.ABOUT).append("\">About bench-user ");
+		html.append("<div id=\"").append(ElementIdentifiers.ABOUTMORE).append("\"><div class=\"")
+				.append(ElementIdentifiers.INFOPANE).append("\"><div class=\"").append(ElementIdentifiers.CARDSTATS)
+				.append("\"><table class=\"").append(ElementIdentifiers.STATSTABLE).append("\"><tbody>");
+		for (int i = 0; i < 13; i++) {
+			String value = i == 12 ? "Jan 5, 2015" : String.format(Locale.ROOT, "%,d", random.nextInt(2_000_000));
+			html.append("<tr><th>Stat ").append(i).append("</th><td class=\"").append(ElementIdentifiers.TABLESTAT)
+					.append("\">").append(value).append("</td></tr>");
+		}
+		html.append("</tbody></table></div></div></div></div>");
+		return close(html, random);
+	}
+
+	private static String feed(int page) {
+		Random random = new Random(100 + page);
+		StringBuilder html = open("Forums", random);
+		html.append("<div class=\"thread_list\">");
+		for (int i = 0; i < 25; i++) {
+			html.append("<div class=\"").append(ElementIdentifiers.THREADBOX).append("\"><h3 class=\"")
+					.append(ElementIdentifiers.THREADLINK).append("\"><a href=\"/forums/minecraft/discussion/")
+					.append(word(random)).append("-").append(page * 100 + i).append("/\">");
+			sentence(html, random);
+			html.append("</a></h3><div class=\"").append(ElementIdentifiers.STATS)
+					.append("\">in <a href=\"/forums/minecraft/discussion/\">Discussion</a> by ");
+			member(html, random.nextInt(5000));
+			html.append("</div><p>");
+			sentence(html, random);
+			html.append("</p></div>");
+		}
+		html.append("</div>");
+		return close(html, random);
+	}
+
+	private static String submissionFeed(int page) {
+		Random random = new Random(200 + page);
+		StringBuilder html = open("Minecraft Projects", random);
+		html.append("<ul class=\"resource_list\">");
+		for (int i = 0; i < 25; i++) {
+			html.append("<li class=\"").append(ElementIdentifiers.RESOURCE.trim()).append("\"><div class=\"")
+					.append(ElementIdentifiers.RINFO).append("\"><a class=\"r-title\" href=\"/project/")
+					.append(word(random)).append("-").append(page * 100 + i).append("/\">");
+			sentence(html, random);
+			html.append("</a><div class=\"").append(ElementIdentifiers.AUTHOR).append("\">by ");
+			member(html, random.nextInt(5000));
+			html.append("</div><p>");
+			sentence(html, random);
+			html.append("</p></div></li>");
+		}
+		html.append("</ul>");
+		return close(html, random);
+	}
+
+	private static String submissions() {
+		Random random = new Random(3);
+		StringBuilder html = open("bench-user", random);
+		for (String type : SUBMISSION_TYPES) {
+			html.append("<div class=\"").append(ElementIdentifiers.RESOURCE).append("\"><a href=\"")
+					.append(submissionURL(type).substring(SITE.length())).append("\">Bench ").append(type)
+					.append("</a><p>");
+			sentence(html, random);
+			html.append("</p></div>");
+		}
+		return close(html, random);
+	}
+
+	private static String team(int members) {
+		Random random = new Random(members);
+		StringBuilder html = open("bench-user", random);
+		for (int i = 0; i < members; i++) {
+			html.append("<div class=\"").append(ElementIdentifiers.TEAMCELL).append("\">");
+			member(html, random.nextInt(5000));
+			html.append("</div>");
+		}
+		return close(html, random);
+	}
+
+	/**
+	 * Starts a page with the head and navigation every page carries.
+	 */
+	private static StringBuilder open(String title, Random random) {
+		StringBuilder html = new StringBuilder(1 << 16);
+		html.append("<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\"><title>").append(title)
+				.append("</title>");
+		for (int i = 0; i < 6; i++)
+			html.append("<link rel=\"stylesheet\" href=\"/css/bundle_").append(i).append(".css\">");
+		html.append("<script>window.dataLayer = window.dataLayer || []; function gtag(){dataLayer.push(arguments);}")
+				.append(" if (document.cookie.indexOf('a') < 0) { gtag('js', new Date()); }</script>");
+		html.append("</head><body><div id=\"header\"><ul class=\"menu\">");
+		for (int i = 0; i < 40; i++)
+			html.append("<li><a href=\"/").append(word(random)).append("/\">").append(word(random)).append("</a></li>");
+		html.append("</ul></div><div id=\"center\">");
+		return html;
+	}
+
+	/**
+	 * Finishes a page with the footer and scripts every page carries.
+	 */
+	private static String close(StringBuilder html, Random random) {
+		html.append("</div><div id=\"footer\">");
+		for (int i = 0; i < 30; i++)
+			html.append("<a href=\"/").append(word(random)).append("/\">").append(word(random)).append("</a> ");
+		html.append("<p>&copy; PlanetMinecraft.com</p></div>");
+		html.append("<script src=\"/js/bundle.js\"></script></body></html>");
+		return html.toString();
+	}
+
+	private static void member(StringBuilder html, int id) {
+		html.append("<a href=\"/member/user").append(id).append("/\">user").append(id).append("</a>");
+	}
+
+	private static void timestamp(StringBuilder html, Random random) {
+		html.append("<abbr class=\"timeago\" title=\"")
+				.append(String.format(Locale.ROOT, "%04d-%02d-%02dT%02d:%02d:%02d-04:00", 2012 + random.nextInt(8),
+						1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+						random.nextInt(60)))
+				.append("\">some time ago</abbr>");
+	}
+
+	private static void paragraphs(StringBuilder html, Random random, int count) {
+		for (int i = 0; i < count; i++) {
+			html.append("<p>");
+			for (int j = 1 + random.nextInt(4); j > 0; j--) {
+				sentence(html, random);
+				if (random.nextInt(4) == 0)
+					html.append("<br>");
+			}
+			html.append("</p>");
+		}
+	}
+
+	private static void sentence(StringBuilder html, Random random) {
+		for (int i = 4 + random.nextInt(12); i > 0; i--) {
+			html.append(word(random));
+			html.append(i == 1 ? ". " : random.nextInt(10) == 0 ? ", " : " ");
+		}
+	}
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+}
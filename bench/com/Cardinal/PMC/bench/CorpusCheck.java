@@ -0,0 +1,259 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.Forums.ThreadLoader;
+import com.Cardinal.PMC.Members.UserLoader;
+import com.Cardinal.PMC.Members.Submissions.Submission;
+import com.Cardinal.PMC.Members.Submissions.SubmissionLoader;
+import com.Cardinal.PMC.cache.EntityArchive;
+import com.Cardinal.PMC.net.MemoryPageFetcher;
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.util.FeedScanner;
+
+/**
+ * Checks that the library reads the {@link Corpus} the same way through its
+ * fast paths as through the paths they replace, and that what it writes reads
+ * back as it was. Unlike the benchmarks this needs nothing but the library and
+ * jsoup, so it can be run after every change:
+ *
+ * <pre>
+ * java com.Cardinal.PMC.bench.CorpusCheck
+ * </pre>
+ *
+ * Every mismatch is printed, and the check exits with status 1 if there were
+ * any. Set the <code>pmc.corpus</code> system property to check saved pages
+ * instead of the generated corpus.
+ *
+ * @author Cardinal System
+ *
+ */
+public class CorpusCheck {
+
+	private static final String GHOST = "ghost";
+
+	private static int checks, failures;
+
+	public static void main(String[] args) throws IOException {
+		checkSubmissionArchive();
+		checkFeedScanner();
+		System.out.println(checks + " checks, " + failures + " failed");
+		if (failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Reads the forums and project feed pages both with a {@link FeedScanner}
+	 * and by parsing them, as the loaders do with
+	 * {@link ThreadLoader#setScanFeeds(boolean)} disabled, and checks both read
+	 * the same items. The corpus pages must be scanned without falling back to
+	 * parsing. Edited copies of the first pages, with markup the scanner has to
+	 * get right or give up on, are read both ways too.
+	 */
+	private static void checkFeedScanner() throws IOException {
+		MemoryPageFetcher fetcher = Corpus.fetcher();
+		for (int page = 1; page <= Corpus.FEED_PAGES; page++) {
+			String threads = Corpus.FEED + "&p=" + page, submissions = Corpus.SUBMISSION_FEED + "&p=" + page;
+			check(scans(fetcher.fetch(threads), ElementIdentifiers.THREADBOX, ElementIdentifiers.STATS),
+					threads + " was not scanned");
+			check(scans(fetcher.fetch(submissions), ElementIdentifiers.RINFO, ElementIdentifiers.AUTHOR),
+					submissions + " was not scanned");
+		}
+		checkFeeds(fetcher, "corpus", Corpus.FEED_PAGES);
+
+		String threads = fetcher.fetch(Corpus.FEED + "&p=1").getBody();
+		String submissions = fetcher.fetch(Corpus.SUBMISSION_FEED + "&p=1").getBody();
+		int scanned = 0;
+		Map<String, UnaryOperator<String>> edits = edits();
+		for (Map.Entry<String, UnaryOperator<String>> edit : edits.entrySet()) {
+			MemoryPageFetcher edited = new MemoryPageFetcher()
+					.put(Corpus.FEED + "&p=1", edit.getValue().apply(threads))
+					.put(Corpus.SUBMISSION_FEED + "&p=1", edit.getValue().apply(submissions));
+			if (scans(edited.fetch(Corpus.FEED + "&p=1"), ElementIdentifiers.THREADBOX, ElementIdentifiers.STATS))
+				scanned++;
+			if (scans(edited.fetch(Corpus.SUBMISSION_FEED + "&p=1"), ElementIdentifiers.RINFO,
+					ElementIdentifiers.AUTHOR))
+				scanned++;
+			checkFeeds(edited, edit.getKey(), 1);
+		}
+		System.out.println(scanned + " of " + edits.size() * 2 + " edited feed pages scanned, the rest parsed");
+	}
+
+	/**
+	 * Reads the given number of forums and project feed pages with a loader
+	 * scanning them and one parsing them, and checks both read the same items.
+	 * Both ignore the user <code>ghost</code>.
+	 */
+	private static void checkFeeds(MemoryPageFetcher fetcher, String name, int pages) throws IOException {
+		ThreadLoader scanning = new ThreadLoader(fetcher).ignoreUsers(GHOST);
+		ThreadLoader parsing = new ThreadLoader(fetcher).setScanFeeds(false).ignoreUsers(GHOST);
+		List<String> expected = new ArrayList<String>(), actual = new ArrayList<String>();
+		parsing.getPages(1, pages + 1).forEach(thread -> expected.add(thread.getURL() + " \"" + thread.getTitle()
+				+ "\" by " + thread.getAuthor().getURL() + " in " + thread.getCategory()));
+		scanning.getPages(1, pages + 1).forEach(thread -> actual.add(thread.getURL() + " \"" + thread.getTitle()
+				+ "\" by " + thread.getAuthor().getURL() + " in " + thread.getCategory()));
+		checkSame(expected, actual, name + " forums feed");
+
+		SubmissionLoader scanningSubmissions = new SubmissionLoader(fetcher).ignoreUsers(GHOST);
+		SubmissionLoader parsingSubmissions = new SubmissionLoader(fetcher).setScanFeeds(false).ignoreUsers(GHOST);
+		expected.clear();
+		actual.clear();
+		parsingSubmissions.getTypePages(1, pages + 1, Submission.Type.PROJECTS)
+				.forEach(submission -> expected.add(submission.getURL()));
+		scanningSubmissions.getTypePages(1, pages + 1, Submission.Type.PROJECTS)
+				.forEach(submission -> actual.add(submission.getURL()));
+		checkSame(expected, actual, name + " project feed");
+	}
+
+	/**
+	 * Checks the items read by scanning match the items read by parsing,
+	 * printing the first that does not.
+	 */
+	private static void checkSame(List<String> expected, List<String> actual, String name) {
+		int i = 0;
+		while (i < expected.size() && i < actual.size() && expected.get(i).equals(actual.get(i)))
+			i++;
+		check(expected.size() == actual.size() && i == expected.size(),
+				name + " item " + i + " scanned as " + (i < actual.size() ? actual.get(i) : "nothing")
+						+ ", parsed as " + (i < expected.size() ? expected.get(i) : "nothing"));
+	}
+
+	/**
+	 * Gets the edits the feed pages are read with, keyed by name. Each either
+	 * keeps the page within what the scanner supports or takes it past.
+	 */
+	private static Map<String, UnaryOperator<String>> edits() {
+		Map<String, UnaryOperator<String>> edits = new LinkedHashMap<String, UnaryOperator<String>>();
+		edits.put("upper case tags", html -> html.replace("<div", "<DIV").replace("</div>", "</DIV>")
+				.replace("<a ", "<A ").replace("</a>", "</A>"));
+		edits.put("unquoted attributes",
+				html -> html.replace("class=\"" + ElementIdentifiers.THREADBOX + "\"", "class=" + ElementIdentifiers.THREADBOX)
+						.replace("href=\"/", "href='/").replace("/\">", "/'>"));
+		edits.put("extra classes",
+				html -> html.replace("class=\"" + ElementIdentifiers.THREADBOX + "\"",
+						"class=\"sticky " + ElementIdentifiers.THREADBOX + " \"").replace(
+								"class=\"" + ElementIdentifiers.RINFO + "\"", "class=\"" + ElementIdentifiers.RINFO + " featured\""));
+		edits.put("character references", html -> html.replace(" the ", " &amp; &#39;q&#39; &lt;b&gt;&nbsp;&quot; "));
+		edits.put("other character references", html -> html.replace(" the ", " th&eacute; &#x27;q&#8217; &amp "));
+		edits.put("comments", html -> html.replace("</a>", "<!-- </div><a href=\"/x/\">x</a> --></a>"));
+		edits.put("unclosed paragraphs", html -> html.replace("</p>", ""));
+		edits.put("markup in scripts", html -> html.replace("<body>", "<body><script>document.write('<div class=\""
+				+ ElementIdentifiers.THREADBOX + "\"><a href=\"/x/\">x</a></div>');</script>"));
+		edits.put("rows in a table",
+				html -> html.replace("<div id=\"center\">", "<div id=\"center\"><table><tr><td>")
+						.replace("<div id=\"footer\">", "</td></tr></table><div id=\"footer\">"));
+		edits.put("rows outside table cells",
+				html -> html.replace("<div id=\"center\">", "<div id=\"center\"><table>")
+						.replace("<div id=\"footer\">", "</table><div id=\"footer\">"));
+		edits.put("null characters", html -> html.replace(" the ", " th\0e "));
+		edits.put("base URL", html -> html.replace("<head>", "<head><base href=\"https://example.com/mirror/\">"));
+		edits.put("ignored author", html -> {
+			// Renames the author of every third row, the first link after "in" or "by".
+			StringBuilder edited = new StringBuilder(html);
+			int row = 0;
+			for (int link = edited.indexOf("<a href=\""); link != -1; link = edited.indexOf("<a href=\"", link + 1)) {
+				String before = edited.substring(Math.max(0, link - 3), link);
+				if ((before.equals("in ") || before.equals("by ")) && row++ % 3 == 2) {
+					int start = edited.indexOf(">", link) + 1;
+					edited.replace(start, edited.indexOf("<", start), GHOST);
+				}
+			}
+			return edited.toString();
+		});
+		return edits;
+	}
+
+	/**
+	 * Checks whether a {@link FeedScanner} reads the whole page without falling
+	 * back to parsing it.
+	 */
+	private static boolean scans(Page page, String rowClass, String authorClass) {
+		return new FeedScanner(rowClass, authorClass).scan(page.getBody(), page.getURL(), row -> true);
+	}
+
+	/**
+	 * Writes a submission of every type to an archive and reads it back, both
+	 * loaded and as the lazily loaded stubs the feed and stream methods return,
+	 * including anonymous subclasses.
+	 */
+	private static void checkSubmissionArchive() throws IOException {
+		MemoryPageFetcher fetcher = Corpus.fetcher();
+		SubmissionLoader loader = new SubmissionLoader(fetcher).setUserLoader(new UserLoader(fetcher));
+		List<Submission> loaded = new ArrayList<Submission>(), stubs = new ArrayList<Submission>(),
+				anonymous = new ArrayList<Submission>();
+		for (String type : Corpus.SUBMISSION_TYPES) {
+			String url = Corpus.submissionURL(type);
+			loaded.add(loader.load(url));
+			stubs.add(new Submission(url, loader));
+			anonymous.add(new Submission(url, loader) {
+			});
+		}
+		checkArchive(loader, loaded, "loaded");
+		checkArchive(loader, stubs, "stub");
+		checkArchive(loader, anonymous, "anonymous stub");
+	}
+
+	/**
+	 * Writes the given submissions to an archive and checks each reads back with
+	 * the same kind and fields.
+	 */
+	private static void checkArchive(SubmissionLoader loader, List<Submission> submissions, String name)
+			throws IOException {
+		Path file = Files.createTempFile("pmc-check", ".archive");
+		try {
+			int written = loader.writeArchive(file, submissions);
+			check(written == submissions.size(), name + " archive wrote " + written + " of " + submissions.size());
+			try (EntityArchive<Submission> archive = loader.openArchive(file)) {
+				for (Submission expected : submissions) {
+					Submission actual;
+					try {
+						actual = archive.get(expected.getURL());
+					} catch (IOException e) {
+						check(false, name + " " + expected.getURL() + " could not be read: " + e);
+						continue;
+					}
+					check(actual != null && kind(actual) == kind(expected) && actual.getID() == expected.getID()
+							&& Objects.equals(actual.getTitle(), expected.getTitle())
+							&& actual.getType() == expected.getType()
+							&& Arrays.equals(actual.getTags(), expected.getTags())
+							&& Objects.equals(actual.getTimestamp(), expected.getTimestamp())
+							&& actual.getDescription().outerHtml().equals(expected.getDescription().outerHtml()),
+							name + " " + expected.getURL() + " read back as " + actual);
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Counts a check, printing the message if it failed.
+	 */
+	private static void check(boolean passed, String message) {
+		checks++;
+		if (!passed) {
+			failures++;
+			System.out.println("FAILED: " + message);
+		}
+	}
+
+	/**
+	 * Gets the class a submission is written as, skipping anonymous subclasses.
+	 */
+	private static Class<?> kind(Object entity) {
+		Class<?> kind = entity.getClass();
+		while (kind.isAnonymousClass())
+			kind = kind.getSuperclass();
+		return kind;
+	}
+}
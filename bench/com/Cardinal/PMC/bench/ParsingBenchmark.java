@@ -0,0 +1,79 @@
+package com.Cardinal.PMC.bench;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.bench.Corpus.ThreadSize;
+import com.Cardinal.PMC.util.Parsing;
+
+/**
+ * Benchmarks the timestamp and count parsing of the reply-heavy thread path
+ * against the split and regex based parsing it replaced. Every operation parses
+ * all the reply timestamps or view counts of the {@link ThreadSize#HUGE} thread.
+ * 
+ * @author Cardinal System
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+	private String[] timestamps, counts;
+
+	@Setup
+	public void setup() {
+		Element doc = Corpus.page(Corpus.threadURL(ThreadSize.HUGE)).parse();
+		timestamps = doc.getElementsByTag(ElementIdentifiers.DATETIME).eachAttr("title").toArray(new String[0]);
+		counts = new String[timestamps.length];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = String.format(Locale.ROOT, "%,d", (long) timestamps[i].hashCode() & 0xFFFFFF);
+	}
+
+	@Benchmark
+	public void parseDateTime(Blackhole blackhole) {
+		for (String timestamp : timestamps)
+			blackhole.consume(Parsing.parseDateTime(timestamp));
+	}
+
+	@Benchmark
+	public void splitDateTime(Blackhole blackhole) {
+		for (String timestamp : timestamps) {
+			String[] dateAndTime = timestamp.split("T");
+			String[] date = dateAndTime[0].split("-");
+			String[] time = dateAndTime[1].split(":");
+			blackhole.consume(LocalDateTime.of(Integer.parseInt(date[0]), Integer.parseInt(date[1]),
+					Integer.parseInt(date[2]), Integer.parseInt(time[0]), Integer.parseInt(time[1])));
+		}
+	}
+
+	@Benchmark
+	public void parseCount(Blackhole blackhole) {
+		for (String count : counts)
+			blackhole.consume(Parsing.parseCount(count));
+	}
+
+	@Benchmark
+	public void replaceAllCount(Blackhole blackhole) {
+		for (String count : counts)
+			blackhole.consume(Integer.parseInt(count.replaceAll(",", "")));
+	}
+}
@@ -0,0 +1,101 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.Cardinal.PMC.Forums.Thread;
+import com.Cardinal.PMC.Forums.ThreadLoader;
+import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.Members.UserLoader;
+import com.Cardinal.PMC.Members.Submissions.Submission;
+import com.Cardinal.PMC.Members.Submissions.SubmissionLoader;
+import com.Cardinal.PMC.net.RecordingPageFetcher;
+import com.Cardinal.PMC.net.ReplayPageFetcher;
+
+/**
+ * Benchmarks the loaders end to end against recorded responses served by a
+ * {@link ReplayPageFetcher}, with the network round trip replaced by an
+ * artificial latency. Unless the <code>pmc.replay</code> system property
+ * points at a directory recorded with a {@link RecordingPageFetcher}, the
+ * {@link Corpus} is recorded to a temporary directory first.
+ * 
+ * @author Cardinal System
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReplayBenchmark {
+
+	/**
+	 * The latency of every response, in milliseconds.
+	 */
+	@Param({ "0", "20" })
+	public int latency;
+
+	private ThreadLoader threads;
+	private UserLoader users;
+	private SubmissionLoader submissions;
+	private User user;
+
+	@Setup
+	public void setup() throws IOException {
+		String recorded = System.getProperty("pmc.replay");
+		Path directory = recorded != null ? Paths.get(recorded) : record();
+
+		ReplayPageFetcher fetcher = new ReplayPageFetcher(directory).setLatency(Duration.ofMillis(latency));
+		users = new UserLoader(fetcher);
+		threads = new ThreadLoader(fetcher).setUserLoader(users);
+		submissions = new SubmissionLoader(fetcher).setUserLoader(users);
+		user = users.getLazyUser(Corpus.userURL());
+	}
+
+	@Benchmark
+	public List<Thread> getPages() throws IOException {
+		return threads.getPages(1, Corpus.FEED_PAGES + 1);
+	}
+
+	@Benchmark
+	public User loadUser() throws IOException, ParseException {
+		users.getCache().clear();
+		return users.loadUser(Corpus.userURL());
+	}
+
+	@Benchmark
+	public List<Submission> loadUserSubmissions() throws IOException {
+		submissions.getCache().clear();
+		return submissions.loadUserSubmissions(user);
+	}
+
+	/**
+	 * Records every page of the corpus to a temporary directory.
+	 */
+	private static Path record() throws IOException {
+		Path directory = Files.createTempDirectory("pmc-replay");
+		RecordingPageFetcher recorder = new RecordingPageFetcher(directory, Corpus.fetcher());
+		for (String url : Corpus.urls())
+			recorder.fetch(url);
+		return directory;
+	}
+}
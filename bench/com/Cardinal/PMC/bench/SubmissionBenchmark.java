@@ -0,0 +1,66 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.Cardinal.PMC.Members.UserLoader;
+import com.Cardinal.PMC.Members.Submissions.Submission;
+import com.Cardinal.PMC.Members.Submissions.SubmissionLoader;
+import com.Cardinal.PMC.net.MemoryPageFetcher;
+import com.Cardinal.PMC.net.Page;
+
+/**
+ * Benchmarks loading a submission of every type. Each type reads its media
+ * differently, so the <code>load</code> stage covers every branch of the
+ * loader's media extraction.
+ * 
+ * @author Cardinal System
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubmissionBenchmark {
+
+	@Param({ "Projects", "Skins", "Texture Packs", "Servers", "Mods", "Blogs" })
+	public String type;
+
+	private String url;
+	private Page page;
+	private SubmissionLoader loader;
+
+	@Setup
+	public void setup() throws IOException {
+		MemoryPageFetcher fetcher = Corpus.fetcher();
+		url = Corpus.submissionURL(type);
+		page = fetcher.fetch(url);
+		loader = new SubmissionLoader(fetcher).setUserLoader(new UserLoader(fetcher));
+	}
+
+	@Benchmark
+	public Document parse() {
+		return page.parse();
+	}
+
+	@Benchmark
+	public Submission load() throws IOException {
+		loader.getCache().clear();
+		return loader.load(url);
+	}
+}
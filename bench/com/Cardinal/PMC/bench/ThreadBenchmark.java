@@ -0,0 +1,68 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.Cardinal.PMC.Forums.Thread;
+import com.Cardinal.PMC.Forums.ThreadLoader;
+import com.Cardinal.PMC.Members.UserLoader;
+import com.Cardinal.PMC.bench.Corpus.ThreadSize;
+import com.Cardinal.PMC.net.MemoryPageFetcher;
+import com.Cardinal.PMC.net.Page;
+
+/**
+ * Benchmarks loading forums threads of every {@link ThreadSize}. The
+ * <code>parse</code> stage only builds the page's DOM, the <code>load</code>
+ * stage is the whole of {@link ThreadLoader#load(String)}: parsing, finding the
+ * thread's elements, and building the thread and its replies.
+ * 
+ * @author Cardinal System
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadBenchmark {
+
+	@Param({ "SMALL", "MEDIUM", "HUGE" })
+	public ThreadSize size;
+
+	private String url;
+	private Page page;
+	private ThreadLoader loader;
+
+	@Setup
+	public void setup() throws IOException {
+		MemoryPageFetcher fetcher = Corpus.fetcher();
+		url = Corpus.threadURL(size);
+		page = fetcher.fetch(url);
+		loader = new ThreadLoader(fetcher).setUserLoader(new UserLoader(fetcher));
+	}
+
+	@Benchmark
+	public Document parse() {
+		return page.parse();
+	}
+
+	@Benchmark
+	public Thread load() throws IOException {
+		loader.getCache().clear();
+		return loader.load(url);
+	}
+}
@@ -0,0 +1,68 @@
+package com.Cardinal.PMC.bench;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.Members.UserLoader;
+import com.Cardinal.PMC.net.MemoryPageFetcher;
+import com.Cardinal.PMC.net.Page;
+
+/**
+ * Benchmarks loading a user from their profile, about, subscriber and
+ * subscription pages. The loader runs its page loads on the benchmark thread so
+ * only parsing and extraction are measured.
+ * 
+ * @author Cardinal System
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+
+	private String url;
+	private Page profile, about;
+	private UserLoader loader;
+
+	@Setup
+	public void setup() throws IOException {
+		MemoryPageFetcher fetcher = Corpus.fetcher();
+		url = Corpus.userURL();
+		profile = fetcher.fetch(url);
+		about = fetcher.fetch(url + "about/");
+		loader = new UserLoader(fetcher).setExecutor(Runnable::run);
+	}
+
+	@Benchmark
+	public Document parseProfile() {
+		return profile.parse();
+	}
+
+	@Benchmark
+	public Document parseAbout() {
+		return about.parse();
+	}
+
+	@Benchmark
+	public User load() throws IOException, ParseException {
+		loader.getCache().clear();
+		return loader.loadUser(url);
+	}
+}
@@ -1,15 +1,20 @@
 package com.Cardinal.PMC.Forums;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
+import com.Cardinal.PMC.util.Content;
+import com.Cardinal.PMC.util.PostTree;
 
 /**
  * A class used to represent a reply/comment on a {@link Thread}.
@@ -19,13 +24,11 @@ import com.Cardinal.PMC.Members.User;
  */
 public class Reply {
 
-	private static HashMap<Integer, Reply> replies = new HashMap<Integer, Reply>();
-
 	private User author;
 	private int emeralds, ID, parentID;
-	private Element content;
+	private Content content;
 	private LocalDateTime timestamp;
-	private List<Integer> children;
+	private PostTree<Reply> tree;
 
 	/**
 	 * Constructs a new {@link Reply} object.
@@ -44,19 +47,32 @@ public class Reply {
 	 *            the reply's timestamp.
 	 */
 	public Reply(User author, int emeralds, int iD, int parentID, Element content, LocalDateTime timestamp) {
+		this(author, emeralds, iD, parentID, Content.of(content), timestamp);
+	}
+
+	/**
+	 * Constructs a new {@link Reply} object whose content may not be parsed yet.
+	 * 
+	 * @param author
+	 *            the reply's author.
+	 * @param emeralds
+	 *            the reply's emeralds/likes.
+	 * @param iD
+	 *            the reply's ID.
+	 * @param parentID
+	 *            the ID of this reply's parent.
+	 * @param content
+	 *            the reply's content.
+	 * @param timestamp
+	 *            the reply's timestamp.
+	 */
+	Reply(User author, int emeralds, int iD, int parentID, Content content, LocalDateTime timestamp) {
 		this.author = author;
 		this.emeralds = emeralds;
 		this.ID = iD;
 		this.parentID = parentID;
 		this.content = content;
 		this.timestamp = timestamp;
-
-		children = new ArrayList<Integer>();
-
-		replies.put(ID, this);
-		if (parentID != 0) {
-			replies.get(parentID).addChild(ID);
-		}
 	}
 
 	/**
@@ -95,7 +111,7 @@ public class Reply {
 	 * @return the reply message.
 	 */
 	public Element getContent() {
-		return content;
+		return content == null ? null : content.getElement();
 	}
 
 	/**
@@ -106,22 +122,32 @@ public class Reply {
 	}
 
 	/**
-	 * Adds a child reply to this reply.
+	 * Gets the IDs of all direct replies to this reply.
+	 * 
+	 * @return the IDs of replies to this reply, empty if this reply does not
+	 *         belong to a thread.
+	 */
+	public int[] getChildIDs() {
+		return tree == null ? new int[0] : tree.getChildIDs(ID);
+	}
+
+	/**
+	 * Gets all direct replies to this reply.
 	 * 
-	 * @param ID
-	 *            the ID of the child.
+	 * @return replies to this reply, empty if this reply does not belong to a
+	 *         thread.
 	 */
-	public void addChild(int ID) {
-		this.children.add(ID);
+	public List<Reply> getChildren() {
+		return tree == null ? List.of() : tree.getChildren(ID);
 	}
 
 	/**
-	 * Gets all replies to this reply.
+	 * Gets the number of replies under this reply, counting replies to replies.
 	 * 
-	 * @return replies to this reply.
+	 * @return the reply count.
 	 */
-	public List<Integer> getChildren() {
-		return this.children;
+	public int getReplyCount() {
+		return tree == null ? 0 : tree.getSubtreeCount(ID);
 	}
 
 	@Override
@@ -129,20 +155,80 @@ public class Reply {
 		return "ID: " + ID + "\nAuthor: " + author.toString() + "\nEmeralds: " + emeralds + "\nTime: "
 				+ timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nContent: [\n\t" + content
 				+ "\n]"
-				+ (children.isEmpty() ? ""
-						: "\nReplies: {\n\t" + children.stream().map(replies::get).map(Reply::toString)
+				+ (getChildren().isEmpty() ? ""
+						: "\nReplies: {\n\t" + getChildren().stream().map(Reply::toString)
 								.collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t") + "\n}");
 	}
 
 	/**
-	 * (Statically) Gets the reply that matches the given ID.
+	 * Reads replies written by {@link Reply#writeAll(List, SnapshotWriter)}.
+	 * 
+	 * @param in
+	 *            the snapshot reader.
+	 * @param users
+	 *            resolves user URLs to users.
+	 * @return the replies, or null if they were written as null.
+	 * @throws IOException
+	 *             there was an error reading the replies.
+	 */
+	static List<Reply> readAll(SnapshotReader in, Function<String, User> users) throws IOException {
+		int[] ids = in.readInts();
+		if (ids == null)
+			return null;
+		int[] parents = in.readInts(), emeralds = in.readInts();
+		if (parents == null || emeralds == null || parents.length != ids.length || emeralds.length != ids.length)
+			throw new IOException("Damaged reply tree");
+		List<Reply> replies = new ArrayList<Reply>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			User author = users.apply(in.readSymbol());
+			LocalDateTime timestamp = in.readTimestamp();
+			replies.add(new Reply(author, emeralds[i], ids[i], parents[i], Content.read(in), timestamp));
+		}
+		return replies;
+	}
+
+	/**
+	 * Writes the given replies to a snapshot. The reply tree is written as arrays
+	 * of IDs and parent IDs, followed by each reply's author, timestamp and
+	 * content.
+	 * 
+	 * @param replies
+	 *            the replies, or null.
+	 * @param out
+	 *            the snapshot writer.
+	 * @throws IOException
+	 *             there was an error writing the replies.
+	 */
+	static void writeAll(List<Reply> replies, SnapshotWriter out) throws IOException {
+		if (replies == null) {
+			out.writeInts(null);
+			return;
+		}
+		int[] ids = new int[replies.size()], parents = new int[ids.length], emeralds = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			Reply reply = replies.get(i);
+			ids[i] = reply.ID;
+			parents[i] = reply.parentID;
+			emeralds[i] = reply.emeralds;
+		}
+		out.writeInts(ids);
+		out.writeInts(parents);
+		out.writeInts(emeralds);
+		for (Reply reply : replies) {
+			out.writeSymbol(reply.author == null ? null : reply.author.getURL());
+			out.writeTimestamp(reply.timestamp);
+			Content.write(reply.content, out);
+		}
+	}
+
+	/**
+	 * Sets the reply tree of the thread this reply belongs to.
 	 * 
-	 * @param ID
-	 *            the reply ID.
-	 * @return the matching reply.
+	 * @param tree
+	 *            the thread's reply tree.
 	 */
-	public static Reply getReplyByID(int ID) {
-		return replies.get(ID);
+	void setTree(PostTree<Reply> tree) {
+		this.tree = tree;
 	}
 
 }
\ No newline at end of file
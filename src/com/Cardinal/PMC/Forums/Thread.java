@@ -1,20 +1,30 @@
 package com.Cardinal.PMC.Forums;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
+import com.Cardinal.PMC.util.Content;
+import com.Cardinal.PMC.util.PostTree;
 
 /**
- * A class used to represent a forums thread.
+ * A class used to represent a forums thread. Threads created by a
+ * {@link ThreadLoader} load themselves lazily the first time an unloaded value
+ * is requested, and throw an {@link UncheckedIOException} if they cannot be
+ * loaded. Values are loaded and read while holding the thread's lock, so a
+ * thread shared between threads is never seen partly loaded.
  * 
  * @author Cardinal System
  *
@@ -23,12 +33,14 @@ public class Thread {
 
 	private String title, url;
 	private Boolean locked;
-	private Element content;
+	private Content content;
 	private User author;
 	private int emeralds = -1, views = -1, ID = -1;
 	private Category category;
 	private LocalDateTime timestamp;
 	private List<Reply> replies;
+	private PostTree<Reply> replyTree;
+	private ThreadLoader loader;
 
 	/**
 	 * Constructs a new {@link Thread} object.
@@ -48,7 +60,7 @@ public class Thread {
 		this.url = url;
 		this.title = title;
 		this.locked = locked;
-		this.content = content;
+		this.content = Content.of(content);
 		this.author = author;
 		this.category = category;
 		this.emeralds = (int) details[0];
@@ -56,6 +68,8 @@ public class Thread {
 		this.timestamp = (LocalDateTime) details[2];
 		this.ID = ID;
 		this.replies = replies;
+		this.replyTree = new PostTree<Reply>(replies, Reply::getID, Reply::getParentID);
+		replies.forEach(reply -> reply.setTree(replyTree));
 	}
 
 	/**
@@ -73,15 +87,28 @@ public class Thread {
 		this.category = category;
 	}
 
+	/**
+	 * Constructs a new, lazily loaded thread. The thread page is downloaded with
+	 * the given loader the first time an unloaded value is requested.
+	 * 
+	 * @param url    the URL of this thread.
+	 * @param loader the loader used to load this thread, or null to leave it
+	 *               unloaded.
+	 */
+	public Thread(String url, ThreadLoader loader) {
+		this.url = url;
+		this.loader = loader;
+	}
+
 	/**
 	 * Gets the reply with the given ID.
 	 * 
 	 * @param ID the reply ID.
-	 * @return The reply. Null if this thread is not loaded or does not contain a
-	 *         reply with the given ID.
+	 * @return The reply. Null if this thread does not contain a reply with the
+	 *         given ID.
 	 */
 	public Reply getReplyByID(int ID) {
-		return replies.stream().filter(t -> t.getID() == ID).findAny().get();
+		return getReplyTree().get(ID);
 	}
 
 	/**
@@ -98,102 +125,104 @@ public class Thread {
 	 * 
 	 * @return the ID.
 	 */
-	public int getID() {
+	public synchronized int getID() {
 		if (ID == -1)
-			throw new UnloadedResourceExcpetion(url, "threadID");
-		else
-			return ID;
+			lazyLoad("threadID");
+		return ID;
 	}
 
 	/**
 	 * @return the thread title.
 	 */
-	public String getTitle() {
+	public synchronized String getTitle() {
 		if (title == null)
-			throw new UnloadedResourceExcpetion(url, "threadTitle");
-		else
-			return title;
+			lazyLoad("threadTitle");
+		return title;
 	}
 
 	/**
 	 * @return <b>true</b> if this thread is locked<br>
 	 *         <b>false</b> if this thread is not locked.
 	 */
-	public boolean isLocked() {
+	public synchronized boolean isLocked() {
 		if (locked == null)
-			throw new UnloadedResourceExcpetion(url, "threadStatus");
-		else
-			return locked;
+			lazyLoad("threadStatus");
+		return locked;
 	}
 
 	/**
 	 * @return the thread description.
 	 */
-	public Element getContent() {
+	public synchronized Element getContent() {
 		if (content == null)
-			throw new UnloadedResourceExcpetion(url, "threadContent");
-		else
-			return content;
+			lazyLoad("threadContent");
+		return content.getElement();
 	}
 
 	/**
 	 * @return the thread's author.
 	 */
-	public User getAuthor() {
+	public synchronized User getAuthor() {
 		if (author == null)
-			throw new UnloadedResourceExcpetion(url, "threadAuthor");
-		else
-			return author;
+			lazyLoad("threadAuthor");
+		return author;
 	}
 
 	/**
 	 * @return the thread's emerald count;
 	 */
-	public int getEmeralds() {
+	public synchronized int getEmeralds() {
 		if (emeralds == -1)
-			throw new UnloadedResourceExcpetion(url, "threadVotes");
-		else
-			return emeralds;
+			lazyLoad("threadVotes");
+		return emeralds;
 	}
 
 	/**
 	 * @return the thread's views.
 	 */
-	public int getViews() {
+	public synchronized int getViews() {
 		if (views == -1)
-			throw new UnloadedResourceExcpetion(url, "threadViews");
-		else
-			return views;
+			lazyLoad("threadViews");
+		return views;
 	}
 
 	/**
 	 * @return the thread's category.
 	 */
-	public Category getCategory() {
+	public synchronized Category getCategory() {
 		if (category == null)
-			throw new UnloadedResourceExcpetion(url, "threadCategory");
-		else
-			return category;
+			lazyLoad("threadCategory");
+		return category;
 	}
 
 	/**
 	 * @return the thread's timestamp.
 	 */
-	public LocalDateTime getTimestamp() {
+	public synchronized LocalDateTime getTimestamp() {
 		if (timestamp == null)
-			throw new UnloadedResourceExcpetion(url, "threadTimestamp");
-		else
-			return timestamp;
+			lazyLoad("threadTimestamp");
+		return timestamp;
 	}
 
 	/**
 	 * @return the thread's replies.
 	 */
-	public List<Reply> getReplies() {
+	public synchronized List<Reply> getReplies() {
 		if (replies == null)
-			throw new UnloadedResourceExcpetion(url, "threadReplies");
-		else
-			return replies;
+			lazyLoad("threadReplies");
+		return replies;
+	}
+
+	/**
+	 * Gets the tree of this thread's replies, which finds replies by ID and walks
+	 * them depth first.
+	 * 
+	 * @return the reply tree.
+	 */
+	public synchronized PostTree<Reply> getReplyTree() {
+		if (replyTree == null)
+			lazyLoad("threadReplies");
+		return replyTree;
 	}
 
 	/**
@@ -202,7 +231,7 @@ public class Thread {
 	 * @return true: the thread is loaded.<br>
 	 *         false: the thread is not loaded.
 	 */
-	public boolean isLoaded() {
+	public synchronized boolean isLoaded() {
 		return title != null && content != null && author != null && emeralds != -1 && views != -1 && ID != -1
 				&& category != null && timestamp != null && replies != null;
 	}
@@ -213,31 +242,116 @@ public class Thread {
 	 * @param loader the thread loader.
 	 * @throws IOException there was an error loading this thread.
 	 */
-	public void load(ThreadLoader loader) throws IOException {
+	public synchronized void load(ThreadLoader loader) throws IOException {
 		Thread t = loader.getThread(url);
+		this.title = t.getTitle();
 		this.author = t.getAuthor();
 		this.locked = t.isLocked();
 		this.category = t.getCategory();
-		this.content = t.getContent();
+		this.content = t.content;
 		this.emeralds = t.getEmeralds();
 		this.ID = t.getID();
 		this.replies = t.getReplies();
+		this.replyTree = t.getReplyTree();
 		this.timestamp = t.getTimestamp();
 		this.views = t.getViews();
 	}
 
+	/**
+	 * Reads a thread written by {@link Thread#write(SnapshotWriter)}.
+	 * 
+	 * @param in     the snapshot reader.
+	 * @param users  resolves user URLs to users.
+	 * @param loader the loader used to load any values the thread was written
+	 *               without.
+	 * @return the thread.
+	 * @throws IOException there was an error reading the thread.
+	 */
+	static Thread read(SnapshotReader in, Function<String, User> users, ThreadLoader loader) throws IOException {
+		Thread thread = new Thread(in.readString(), loader);
+		thread.title = in.readString();
+		thread.locked = in.readBoolean();
+		thread.content = Content.read(in);
+		thread.author = users.apply(in.readSymbol());
+		thread.emeralds = in.readInt();
+		thread.views = in.readInt();
+		thread.ID = in.readInt();
+		String category = in.readSymbol();
+		try {
+			thread.category = category == null ? null : Category.valueOf(category);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown category: " + category, e);
+		}
+		thread.timestamp = in.readTimestamp();
+		List<Reply> replies = Reply.readAll(in, users);
+		if (replies != null) {
+			thread.replies = replies;
+			thread.replyTree = new PostTree<Reply>(replies, Reply::getID, Reply::getParentID);
+			replies.forEach(reply -> reply.setTree(thread.replyTree));
+		}
+		return thread;
+	}
+
+	/**
+	 * Sets the loader used to lazily load this thread.
+	 * 
+	 * @param loader the thread loader.
+	 */
+	void setLoader(ThreadLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Writes this thread to a snapshot as it is, without loading it.
+	 * 
+	 * @param out the snapshot writer.
+	 * @throws IOException there was an error writing the thread.
+	 */
+	synchronized void write(SnapshotWriter out) throws IOException {
+		out.writeString(url);
+		out.writeString(title);
+		out.writeBoolean(locked);
+		Content.write(content, out);
+		out.writeSymbol(author == null ? null : author.getURL());
+		out.writeInt(emeralds);
+		out.writeInt(views);
+		out.writeInt(ID);
+		out.writeSymbol(category == null ? null : category.name());
+		out.writeTimestamp(timestamp);
+		Reply.writeAll(replies, out);
+	}
+
+	/**
+	 * Loads this thread with its loader, unless it is already loaded.
+	 * 
+	 * @param request the requested resource data.
+	 * @throws UnloadedResourceExcpetion this thread has no loader.
+	 * @throws UncheckedIOException      there was an error loading this thread.
+	 */
+	private synchronized void lazyLoad(String request) {
+		if (isLoaded())
+			return;
+		if (loader == null)
+			throw new UnloadedResourceExcpetion(url, request);
+		try {
+			load(loader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return this.url;
 	}
 
-	public String toPrettyString() {
+	public synchronized String toPrettyString() {
 		try {
 			return "ID: " + ID + "\nCategory: " + category.toString() + "\nURL: " + url + "\nLocked: " + locked
 					+ "\nTitle: " + title + "\nAuthor: " + author.toString() + "\nEmeralds: " + emeralds + "\nViews: "
 					+ views + "\nTime: " + timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a"))
-					+ "\nContent: [\n\t" + content.text().replaceAll("\n", "\n\t") + "\n]" + "\nReplies: {\n\t"
-					+ replies.stream().filter(r -> r.getParentID() == 0).map(t -> t.toString())
+					+ "\nContent: [\n\t" + content.getText().replaceAll("\n", "\n\t") + "\n]" + "\nReplies: {\n\t"
+					+ replyTree.getRoots().stream().map(t -> t.toString())
 							.collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 					+ "\n}";
 		} catch (NullPointerException e) {
@@ -1,22 +1,53 @@
 package com.Cardinal.PMC.Forums;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
 
 import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.cache.EntityArchive;
+import com.Cardinal.PMC.cache.EntityCache;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.Forums.Thread.Feed;
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.Members.UserLoader;
 import com.Cardinal.PMC.lang.MissingPostException;
+import com.Cardinal.PMC.metrics.CacheOutcome;
+import com.Cardinal.PMC.metrics.LoaderMetrics;
+import com.Cardinal.PMC.metrics.MeteredPageFetcher;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.metrics.Stage;
+import com.Cardinal.PMC.net.Async;
+import com.Cardinal.PMC.net.FeedPage;
+import com.Cardinal.PMC.net.FeedPublisher;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PagePrefetcher;
+import com.Cardinal.PMC.net.PageType;
+import com.Cardinal.PMC.net.PartialResult;
+import com.Cardinal.PMC.util.ExtractionPlan;
+import com.Cardinal.PMC.util.ExtractionPlan.Extraction;
+import com.Cardinal.PMC.util.ExtractionPlan.Rule;
+import com.Cardinal.PMC.util.FeedScanner;
+import com.Cardinal.PMC.util.Parsing;
 
 /**
  * A class used for storing and loading instances of {@link Thread} objects.
@@ -26,10 +57,54 @@ import com.Cardinal.PMC.lang.MissingPostException;
  */
 public class ThreadLoader {
 	/**
-	 * A map of all threads loaded with this loader.
+	 * The elements of a thread page, found in a single pass over the page.
 	 */
-	private HashMap<String, Thread> loadedThreads = new HashMap<String, Thread>();
-	private Set<String> ignoredUsers = new HashSet<String>();
+	private static final ExtractionPlan THREAD_PAGE = new ExtractionPlan();
+	private static final Rule AUTHOR_LINK = THREAD_PAGE.first(new Evaluator.Class(ElementIdentifiers.MINIINFO))
+			.first(new Evaluator.Tag("a"));
+	private static final Rule STATS = THREAD_PAGE.first(new Evaluator.Class(ElementIdentifiers.STATS));
+	private static final Rule STATS_SPANS = STATS.all(new Evaluator.Tag("span"));
+	private static final Rule STATS_TIME = STATS.first(new Evaluator.Tag(ElementIdentifiers.DATETIME));
+	private static final Rule THREAD_ID = THREAD_PAGE.first(new Evaluator.Id(ElementIdentifiers.THREADID));
+	private static final Rule REPLIES = THREAD_PAGE.first(new Evaluator.Class(ElementIdentifiers.REPLYCONTAINER))
+			.all(new Evaluator.Class(ElementIdentifiers.REPLY));
+	private static final Rule CATEGORIES = THREAD_PAGE.first(new Evaluator.Id(ElementIdentifiers.CONTEXT_HEADER))
+			.first(new Evaluator.Class(ElementIdentifiers.CRUMB)).all(new Evaluator.Class(ElementIdentifiers.CATEGORY));
+	private static final Rule LOCKED = THREAD_PAGE.first(new Evaluator.AttributeWithValue("title", "locked"));
+	private static final Rule CONTENT = THREAD_PAGE.first(new Evaluator.Class(ElementIdentifiers.CONTENT));
+	private static final Rule TITLE = THREAD_PAGE.first(new Evaluator.Tag(ElementIdentifiers.FTITLE));
+
+	/**
+	 * A cache of the threads loaded with this loader.
+	 */
+	private final EntityCache<Thread> loadedThreads = new EntityCache<Thread>();
+	private Set<String> ignoredUsers = ConcurrentHashMap.newKeySet();
+	private final LoaderMetrics metrics = new LoaderMetrics("ThreadLoader");
+	private final MeteredPageFetcher fetcher;
+	private Executor executor = Async.defaultExecutor();
+	private volatile boolean scanFeeds = true;
+	private UserLoader userLoader;
+	private final PagePrefetcher prefetcher;
+
+	/**
+	 * Constructs a new {@link ThreadLoader} that downloads pages with the shared
+	 * {@link HttpPageFetcher}.
+	 */
+	public ThreadLoader() {
+		this(HttpPageFetcher.getDefault());
+	}
+
+	/**
+	 * Constructs a new {@link ThreadLoader} that downloads pages with the given
+	 * fetcher.
+	 * 
+	 * @param fetcher the page fetcher.
+	 */
+	public ThreadLoader(PageFetcher fetcher) {
+		this.fetcher = new MeteredPageFetcher(fetcher, metrics);
+		this.prefetcher = new PagePrefetcher(this.fetcher);
+		loadedThreads.setMetrics(metrics);
+	}
 
 	/**
 	 * Searches the given category for the given keywords.
@@ -42,19 +117,33 @@ public class ThreadLoader {
 	 */
 	public List<Thread> searchCategoryThreads(String search, Category category, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com" + category.toHREF() + "/search/?keywords=" + search;
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Thread> threadsList = new ArrayList<Thread>();
 		int p = 1;
 		while (threadsList.size() < amount) {
 			p++;
-			threadsList.addAll(getThreadPage(doc, amount - threadsList.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			threadsList.addAll(getThreadPage(page, amount - threadsList.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return threadsList;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#searchCategoryThreads(String, Category, int)}, run on
+	 * this loader's {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param search   search keywords.
+	 * @param category the category to search under.
+	 * @param amount   the amount of threads to get.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> searchCategoryThreadsAsync(String search, Category category, int amount) {
+		return Async.supply(() -> searchCategoryThreads(search, category, amount), executor);
+	}
+
 	/**
 	 * Searches the forums for the given keywords.
 	 * 
@@ -65,19 +154,32 @@ public class ThreadLoader {
 	 */
 	public List<Thread> searchThreads(String search, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com/forums/search/?keywords=" + search;
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Thread> threadsList = new ArrayList<Thread>();
 		int p = 1;
 		while (threadsList.size() < amount) {
 			p++;
-			threadsList.addAll(getThreadPage(doc, amount - threadsList.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			threadsList.addAll(getThreadPage(page, amount - threadsList.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return threadsList;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#searchThreads(String, int)}, run on this loader's
+	 * {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param search search keywords.
+	 * @param amount the amount of threads to get.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> searchThreadsAsync(String search, int amount) {
+		return Async.supply(() -> searchThreads(search, amount), executor);
+	}
+
 	/**
 	 * Gets the given number of threads from the given category in order of newest
 	 * to oldest.
@@ -89,42 +191,98 @@ public class ThreadLoader {
 	 */
 	public List<Thread> getCategory(Category category, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com" + category.toHREF() + "?thread_sort=newest";
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Thread> threadsList = new ArrayList<Thread>();
 		int p = 1;
 		while (threadsList.size() < amount) {
 			p++;
-			threadsList.addAll(getThreadPage(doc, amount - threadsList.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			threadsList.addAll(getThreadPage(page, amount - threadsList.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return threadsList;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getCategory(Category, int)}, run on this loader's
+	 * {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param category the category.
+	 * @param amount   the number of threads to get.
+	 * @return a future of the threads.
+	 */
+	public CompletableFuture<List<Thread>> getCategoryAsync(Category category, int amount) {
+		return Async.supply(() -> getCategory(category, amount), executor);
+	}
+
 	/**
 	 * Gets all the threads under the given category in the specified page range.
+	 * The pages are downloaded concurrently, see
+	 * {@link ThreadLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param category  the category to get from.
 	 * @return the unloaded threads.
 	 * @throws IOException there was an error getting the threads.
 	 */
-	public List<Thread> getCateoryPages(int startPage, int endPage, Category category) throws IOException {
+	public List<Thread> getCategoryPages(int startPage, int endPage, Category category) throws IOException {
 		String url = "https://www.planetminecraft.com" + category.toHREF();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+	/**
+	 * Gets all the threads under the given category in the specified page range.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category to get from.
+	 * @return the unloaded threads.
+	 * @throws IOException there was an error getting the threads.
+	 * @deprecated misspelled, use
+	 *             {@link ThreadLoader#getCategoryPages(int, int, Category)}.
+	 */
+	@Deprecated
+	public List<Thread> getCateoryPages(int startPage, int endPage, Category category) throws IOException {
+		return getCategoryPages(startPage, endPage, category);
+	}
 
-		List<Thread> threadsList = new ArrayList<Thread>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			threadsList.addAll(getThreadPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getCategoryPages(int, int, Category)}, downloading
+	 * its pages on this loader's {@linkplain ThreadLoader#getExecutor()
+	 * executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category to get from.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> getCategoryPagesAsync(int startPage, int endPage, Category category) {
+		String url = "https://www.planetminecraft.com" + category.toHREF();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		return threadsList;
+	/**
+	 * A version of {@link ThreadLoader#getCategoryPages(int, int, Category)}
+	 * that keeps going when a page cannot be read, returning the threads
+	 * of the other pages along with the pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category to get from.
+	 * @return the unloaded threads and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Thread> getCategoryPagesPartial(int startPage, int endPage,
+			Category category) throws IOException {
+		String url = "https://www.planetminecraft.com" + category.toHREF();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
@@ -139,25 +297,41 @@ public class ThreadLoader {
 	 */
 	public List<Thread> getFeedCategory(Category category, Feed feedType, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com" + category.toHREF() + feedType.toString();
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Thread> threadsList = new ArrayList<Thread>();
 		int p = 1;
 		while (threadsList.size() < amount) {
 			p++;
-			threadsList.addAll(getThreadPage(doc, amount - threadsList.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			threadsList.addAll(getThreadPage(page, amount - threadsList.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return threadsList;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getFeedCategory(Category, Feed, int)}, run on this
+	 * loader's {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param category the category.
+	 * @param feedType used to sort the thread feed.
+	 * @param amount   the number of threads to get.
+	 * @return a future of the threads.
+	 */
+	public CompletableFuture<List<Thread>> getFeedCategoryAsync(Category category, Feed feedType, int amount) {
+		return Async.supply(() -> getFeedCategory(category, feedType, amount), executor);
+	}
+
 	/**
 	 * Gets all the threads under the given category in the specified page range in
 	 * order as defined by given feed.
+	 * The pages are downloaded concurrently, see
+	 * {@link ThreadLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param feedType  used to sort the thread feed.
 	 * @param category  the category to get from.
 	 * @return the unloaded threads.
@@ -166,43 +340,99 @@ public class ThreadLoader {
 	public List<Thread> getFeedCategoryPages(int startPage, int endPage, Feed feedType, Category category)
 			throws IOException {
 		String url = "https://www.planetminecraft.com" + category.toHREF() + feedType.toString();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
-
-		List<Thread> threadsList = new ArrayList<Thread>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			threadsList.addAll(getThreadPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getFeedCategoryPages(int, int, Feed, Category)},
+	 * downloading its pages on this loader's
+	 * {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param feedType  used to sort the thread feed.
+	 * @param category  the category to get from.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> getFeedCategoryPagesAsync(int startPage, int endPage, Feed feedType,
+			Category category) {
+		String url = "https://www.planetminecraft.com" + category.toHREF() + feedType.toString();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		return threadsList;
+	/**
+	 * A version of {@link ThreadLoader#getFeedCategoryPages(int, int, Feed,
+	 * Category)} that keeps going when a page cannot be read, returning
+	 * the threads of the other pages along with the pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param feedType  used to sort the thread feed.
+	 * @param category  the category to get from.
+	 * @return the unloaded threads and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Thread> getFeedCategoryPagesPartial(int startPage, int endPage, Feed feedType,
+			Category category) throws IOException {
+		String url = "https://www.planetminecraft.com" + category.toHREF() + feedType.toString();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
 	 * Gets all the threads in the specified page range ordered as defined by the
 	 * given feed.
+	 * The pages are downloaded concurrently, see
+	 * {@link ThreadLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param feedType  used to sort the thread feed.
 	 * @return the unloaded threads.
 	 * @throws IOException there was an error getting the threads.
 	 */
 	public List<Thread> getFeedPages(int startPage, int endPage, Thread.Feed feedType) throws IOException {
 		String url = "https://www.planetminecraft.com/forums" + feedType.toString();
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Thread> threadsList = new ArrayList<Thread>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			threadsList.addAll(getThreadPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getFeedPages(int, int, Thread.Feed)}, downloading
+	 * its pages on this loader's {@linkplain ThreadLoader#getExecutor()
+	 * executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param feedType  used to sort the thread feed.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> getFeedPagesAsync(int startPage, int endPage, Thread.Feed feedType) {
+		String url = "https://www.planetminecraft.com/forums" + feedType.toString();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		return threadsList;
+	/**
+	 * A version of {@link ThreadLoader#getFeedPages(int, int, Thread.Feed)}
+	 * that keeps going when a page cannot be read, returning the threads
+	 * of the other pages along with the pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param feedType  used to sort the thread feed.
+	 * @return the unloaded threads and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Thread> getFeedPagesPartial(int startPage, int endPage,
+			Thread.Feed feedType) throws IOException {
+		String url = "https://www.planetminecraft.com/forums" + feedType.toString();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
@@ -217,19 +447,70 @@ public class ThreadLoader {
 	 */
 	public List<Thread> getFeedThreads(Feed feedType, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com/forums" + feedType.toString();
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Thread> threadsList = new ArrayList<Thread>();
 		int p = 1;
 		while (threadsList.size() < amount) {
 			p++;
-			threadsList.addAll(getThreadPage(doc, amount - threadsList.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			threadsList.addAll(getThreadPage(page, amount - threadsList.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return threadsList;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link ThreadLoader#getFeedThreads(Feed, int)}, run on this loader's
+	 * {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param feedType used to sort the thread feed.
+	 * @param amount   the number of threads to get.
+	 * @return a future of the threads.
+	 */
+	public CompletableFuture<List<Thread>> getFeedThreadsAsync(Feed feedType, int amount) {
+		return Async.supply(() -> getFeedThreads(feedType, amount), executor);
+	}
+
+	/**
+	 * Gets the cache of the threads loaded with this loader. Its size and time
+	 * to live can be tuned through the cache.
+	 * 
+	 * @return the cache.
+	 */
+	public EntityCache<Thread> getCache() {
+		return loadedThreads;
+	}
+
+	/**
+	 * Gets the executor this loader's asynchronous methods run on. Defaults to
+	 * {@link Async#defaultExecutor()}.
+	 * 
+	 * @return the executor.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the fetcher this loader downloads pages with.
+	 * 
+	 * @return the fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher.getFetcher();
+	}
+
+	/**
+	 * Gets the metrics this loader reports to. Defaults to {@link Metrics#NOOP}.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics.getMetrics();
+	}
+
 	/**
 	 * Gets the set of ignored users.
 	 * 
@@ -241,6 +522,8 @@ public class ThreadLoader {
 
 	/**
 	 * Gets all the threads in the specified page range.
+	 * The pages are downloaded concurrently, see
+	 * {@link ThreadLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the page to start on.
 	 * @param endPage   the page to end on.
@@ -249,29 +532,84 @@ public class ThreadLoader {
 	 */
 	public List<Thread> getPages(int startPage, int endPage) throws IOException {
 		String url = "https://www.planetminecraft.com/forums/?thread_sort=newest";
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Thread> threadsList = new ArrayList<Thread>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			threadsList.addAll(getThreadPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of {@link ThreadLoader#getPages(int, int)},
+	 * downloading its pages on this loader's
+	 * {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the page to start on.
+	 * @param endPage   the page to end on.
+	 * @return a future of the unloaded threads.
+	 */
+	public CompletableFuture<List<Thread>> getPagesAsync(int startPage, int endPage) {
+		String url = "https://www.planetminecraft.com/forums/?thread_sort=newest";
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
+	}
 
-		return threadsList;
+	/**
+	 * A version of {@link ThreadLoader#getPages(int, int)} that keeps going
+	 * when a page cannot be read, returning the threads of the other
+	 * pages along with the pages that failed.
+	 * 
+	 * @param startPage the page to start on.
+	 * @param endPage   the page to end on.
+	 * @return the unloaded threads and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Thread> getPagesPartial(int startPage, int endPage) throws IOException {
+		String url = "https://www.planetminecraft.com/forums/?thread_sort=newest";
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getThreadPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
 	 * Gets the thread with the given URL. If the thread is not already loaded,
-	 * {@link ThreadLoader#load(String)} will be invoked.
+	 * {@link ThreadLoader#load(String)} will be invoked. Concurrent calls for the
+	 * same URL share a single load.
 	 * 
 	 * @param url the URL of the thread to load.
 	 * @return the {@link Thread} representation of the given thread.
 	 * @throws IOException there was an error loading the thread.
 	 */
 	public Thread getThread(String url) throws IOException {
-		return loadedThreads.containsKey(url) ? loadedThreads.get(url) : load(url);
+		return loadedThreads.getOrLoad(url, () -> load(url));
+	}
+
+	/**
+	 * An asynchronous version of {@link ThreadLoader#getThread(String)}, run on
+	 * this loader's {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param url the URL of the thread to load.
+	 * @return a future of the {@link Thread} representation of the given thread.
+	 */
+	public CompletableFuture<Thread> getThreadAsync(String url) {
+		return Async.supply(() -> getThread(url), executor);
+	}
+
+	/**
+	 * Gets the thread with the given URL if it is already loaded, or a lazily
+	 * loaded thread that downloads its page on first access.
+	 * 
+	 * @param url the URL of the thread.
+	 * @return the {@link Thread} representation of the given thread.
+	 */
+	public Thread getLazyThread(String url) {
+		Thread thread = loadedThreads.peek(url);
+		return thread != null ? thread : new Thread(url, this);
+	}
+
+	/**
+	 * Gets the loader authors and other users are lazily loaded with.
+	 * 
+	 * @return the user loader, or null if users are left unloaded.
+	 */
+	public UserLoader getUserLoader() {
+		return userLoader;
 	}
 
 	/**
@@ -312,7 +650,8 @@ public class ThreadLoader {
 	}
 
 	/**
-	 * Loads the given URL into a {@link Thread} object.
+	 * Loads the given URL into a {@link Thread} object. If the thread has been
+	 * loaded before and has not changed since, the loaded thread is returned.
 	 * 
 	 * @param url the location of the thread.
 	 * @return the {@link Thread} representation of the given thread.
@@ -320,9 +659,17 @@ public class ThreadLoader {
 	 * 
 	 */
 	public Thread load(String url) throws IOException {
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
-
+		Thread loaded = loadedThreads.peek(url);
+		Page page = loaded == null ? fetcher.fetch(url) : fetcher.revalidate(url);
+		if (page.isNotModified())
+			return loaded;
+		PageType type = PageType.of(url);
+		CacheOutcome outcome = loaded == null ? CacheOutcome.MISS : CacheOutcome.MODIFIED;
+		Document document = metrics.parse(type, page, outcome);
+
+		long time = System.nanoTime();
 		try {
+			Extraction doc = THREAD_PAGE.extract(document);
 			User author = getAuthor(doc);
 			Object[] stats = getDetails(doc);
 			int id = getThreadID(doc);
@@ -331,17 +678,30 @@ public class ThreadLoader {
 			String title = getTitle(doc);
 			Element content = getContent(doc);
 			boolean locked = getLockedStatus(doc);
+			metrics.stage(type, Stage.EXTRACT, time);
 
-			Thread thread = new Thread(url, category, locked, title, content, author, stats, id, replies);
+			Thread thread = metrics.build(type, page, outcome,
+					() -> new Thread(url, category, locked, title, content, author, stats, id, replies));
 			loadedThreads.put(url, thread);
 
 			return thread;
 		} catch (IndexOutOfBoundsException e) {
-
+			metrics.failure(type);
 			throw new MissingPostException(url, e);
 		}
 	}
 
+	/**
+	 * An asynchronous version of {@link ThreadLoader#load(String)}, run on this
+	 * loader's {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param url the location of the thread.
+	 * @return a future of the {@link Thread} representation of the given thread.
+	 */
+	public CompletableFuture<Thread> loadAsync(String url) {
+		return Async.supply(() -> load(url), executor);
+	}
+
 	/**
 	 * Loads all the threads by the given user.
 	 * 
@@ -352,21 +712,129 @@ public class ThreadLoader {
 	public List<Thread> loadUserThreads(User user) throws IOException {
 		String userURL = user.getURL();
 		userURL += userURL.endsWith("/") ? "forum/" : "/forum/";
-		Document doc = Jsoup.connect(userURL).userAgent("PMCAPI").post();
+		Document doc = fetch(userURL);
 
 		List<Thread> threads = new ArrayList<Thread>();
 		for (Element thread : doc.getElementsByClass(ElementIdentifiers.THREADLINK)) {
 			String link = thread.absUrl("href");
-			if (loadedThreads.containsKey(link)) {
-				threads.add(loadedThreads.get(link));
-			} else {
-				threads.add(load(link));
-			}
+			threads.add(getThread(link));
 		}
 
 		return threads;
 	}
 
+	/**
+	 * An asynchronous version of {@link ThreadLoader#loadUserThreads(User)},
+	 * run on this loader's {@linkplain ThreadLoader#getExecutor() executor}.
+	 * 
+	 * @param user the user who's threads to load.
+	 * @return a future of the threads.
+	 */
+	public CompletableFuture<List<Thread>> loadUserThreadsAsync(User user) {
+		return Async.supply(() -> loadUserThreads(user), executor);
+	}
+
+	/**
+	 * Opens an archive written by
+	 * {@link ThreadLoader#writeArchive(Path, Iterable)}. The archive is mapped
+	 * into memory and each thread is only materialized when it is looked up, with
+	 * its content left unparsed until it is requested. Materialized threads are
+	 * not cached.
+	 * 
+	 * @param file the archive file.
+	 * @return the archive.
+	 * @throws IOException the file is not a thread archive, is of another
+	 *                     version, or could not be mapped.
+	 */
+	public EntityArchive<Thread> openArchive(Path file) throws IOException {
+		return EntityArchive.open(file, "threads", in -> Thread.read(in, snapshotUsers(), this));
+	}
+
+	/**
+	 * Publishes the threads of the given category in order of newest to oldest.
+	 * Pages are downloaded as the subscriber requests threads, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param category the category.
+	 * @return a publisher of the unloaded threads.
+	 */
+	public Flow.Publisher<Thread> publishCategory(Category category) {
+		return new FeedPublisher<Thread>(() -> streamCategory(category), executor);
+	}
+
+	/**
+	 * Publishes the threads of the given category in the order specified by the
+	 * given {@linkplain Feed}.
+	 * Pages are downloaded as the subscriber requests threads, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param category the category.
+	 * @param feedType used to sort the thread feed.
+	 * @return a publisher of the unloaded threads.
+	 */
+	public Flow.Publisher<Thread> publishFeedCategory(Category category, Feed feedType) {
+		return new FeedPublisher<Thread>(() -> streamFeedCategory(category, feedType), executor);
+	}
+
+	/**
+	 * Publishes the threads of all categories in the order specified by the given
+	 * {@linkplain Feed}.
+	 * Pages are downloaded as the subscriber requests threads, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param feedType used to sort the thread feed.
+	 * @return a publisher of the unloaded threads.
+	 */
+	public Flow.Publisher<Thread> publishFeedThreads(Feed feedType) {
+		return new FeedPublisher<Thread>(() -> streamFeedThreads(feedType), executor);
+	}
+
+	/**
+	 * Publishes the threads under the given category that match the given
+	 * keywords.
+	 * Pages are downloaded as the subscriber requests threads, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param search   search keywords.
+	 * @param category the category to search under.
+	 * @return a publisher of the unloaded threads.
+	 */
+	public Flow.Publisher<Thread> publishSearchCategoryThreads(String search, Category category) {
+		return new FeedPublisher<Thread>(() -> streamSearchCategoryThreads(search, category), executor);
+	}
+
+	/**
+	 * Publishes the threads on the forums that match the given keywords.
+	 * Pages are downloaded as the subscriber requests threads, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param search search keywords.
+	 * @return a publisher of the unloaded threads.
+	 */
+	public Flow.Publisher<Thread> publishSearchThreads(String search) {
+		return new FeedPublisher<Thread>(() -> streamSearchThreads(search), executor);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link ThreadLoader#writeSnapshot(Path)} into
+	 * this loader's cache, without downloading or parsing any pages. Thread and
+	 * reply content is only parsed once it is requested, and authors are taken
+	 * from the {@linkplain ThreadLoader#getUserLoader() user loader}'s cache, so
+	 * reading the user loader's snapshot first restores them loaded.
+	 * 
+	 * @param file the snapshot file.
+	 * @return the number of threads read.
+	 * @throws IOException the snapshot is damaged, of another version, or could
+	 *                     not be read. Nothing is cached unless the whole
+	 *                     snapshot is read.
+	 */
+	public int readSnapshot(Path file) throws IOException {
+		Function<String, User> users = snapshotUsers();
+		Map<String, Thread> threads = SnapshotReader.read(file, "threads", in -> Thread.read(in, users, this));
+		threads.forEach(loadedThreads::put);
+		return threads.size();
+	}
+
 	/**
 	 * Removes a user from the ignored list.
 	 * 
@@ -385,75 +853,279 @@ public class ThreadLoader {
 		this.ignoredUsers.remove(user.getName());
 	}
 
+	/**
+	 * Sets the executor this loader's asynchronous methods (and concurrent page
+	 * downloads) run on.
+	 * 
+	 * @param executor the executor.
+	 * @return this loader.
+	 */
+	public ThreadLoader setExecutor(Executor executor) {
+		this.executor = executor;
+		prefetcher.setExecutor(executor);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of pages downloaded at once by the page range
+	 * methods. Defaults to 4.
+	 * 
+	 * @param max the maximum (at least 1).
+	 * @return this loader.
+	 */
+	public ThreadLoader setMaxConcurrentPages(int max) {
+		prefetcher.setMaxConcurrency(max);
+		return this;
+	}
+
+	/**
+	 * Sets whether the stream and publish methods download the next page in the
+	 * background while the current one is consumed. Disabled by default, see
+	 * {@link PagePrefetcher#setPrefetchNextPage(boolean)}.
+	 * 
+	 * @param prefetch whether to prefetch the next page.
+	 * @return this loader.
+	 */
+	public ThreadLoader setPrefetchNextPage(boolean prefetch) {
+		prefetcher.setPrefetchNextPage(prefetch);
+		return this;
+	}
+
+	/**
+	 * Sets whether feed pages are read with a {@link FeedScanner} instead of
+	 * being parsed. Enabled by default; the scanner reads the same threads as
+	 * parsing and falls back to it on markup it does not support, so this only
+	 * needs disabling to rule the scanner out.
+	 * 
+	 * @param scan whether to scan feed pages.
+	 * @return this loader.
+	 */
+	public ThreadLoader setScanFeeds(boolean scan) {
+		this.scanFeeds = scan;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics this loader reports the time taken by every stage of its
+	 * loads, the bytes it downloads, its cache lookups and the pages it fails to
+	 * read to, labeled <code>ThreadLoader</code>.
+	 * 
+	 * @param metrics the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 * @return this loader.
+	 */
+	public ThreadLoader setMetrics(Metrics metrics) {
+		this.metrics.setMetrics(metrics);
+		return this;
+	}
+
+	/**
+	 * Sets the loader authors and other users found by this loader are lazily
+	 * loaded with.
+	 * 
+	 * @param userLoader the user loader, or null to leave users unloaded.
+	 * @return this loader.
+	 */
+	public ThreadLoader setUserLoader(UserLoader userLoader) {
+		this.userLoader = userLoader;
+		return this;
+	}
+
+	/**
+	 * Streams the threads of the given category in order of newest to oldest.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param category the category.
+	 * @return a stream of the unloaded threads.
+	 */
+	public Stream<Thread> streamCategory(Category category) {
+		String url = "https://www.planetminecraft.com" + category.toHREF() + "?thread_sort=newest";
+		return prefetcher.stream(url, page -> readThreadPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the threads of the given category in the order specified by the given
+	 * {@linkplain Feed}.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param category the category.
+	 * @param feedType used to sort the thread feed.
+	 * @return a stream of the unloaded threads.
+	 */
+	public Stream<Thread> streamFeedCategory(Category category, Feed feedType) {
+		String url = "https://www.planetminecraft.com" + category.toHREF() + feedType.toString();
+		return prefetcher.stream(url, page -> readThreadPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the threads of all categories in the order specified by the given
+	 * {@linkplain Feed}.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param feedType used to sort the thread feed.
+	 * @return a stream of the unloaded threads.
+	 */
+	public Stream<Thread> streamFeedThreads(Feed feedType) {
+		String url = "https://www.planetminecraft.com/forums" + feedType.toString();
+		return prefetcher.stream(url, page -> readThreadPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the threads under the given category that match the given keywords.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param search   search keywords.
+	 * @param category the category to search under.
+	 * @return a stream of the unloaded threads.
+	 */
+	public Stream<Thread> streamSearchCategoryThreads(String search, Category category) {
+		String url = "https://www.planetminecraft.com" + category.toHREF() + "/search/?keywords=" + search;
+		return prefetcher.stream(url, page -> readThreadPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the threads on the forums that match the given keywords.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param search search keywords.
+	 * @return a stream of the unloaded threads.
+	 */
+	public Stream<Thread> streamSearchThreads(String search) {
+		String url = "https://www.planetminecraft.com/forums/search/?keywords=" + search;
+		return prefetcher.stream(url, page -> readThreadPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Writes the given threads to an archive file, which
+	 * {@link ThreadLoader#openArchive(Path)} looks threads up in by ID or URL
+	 * without reading the whole archive. Threads that are not loaded yet are
+	 * loaded first.
+	 * 
+	 * @param file    the archive file.
+	 * @param threads the threads, such as the output of a stream method.
+	 * @return the number of threads written.
+	 * @throws IOException there was an error writing the archive or loading a
+	 *                     thread.
+	 */
+	public int writeArchive(Path file, Iterable<Thread> threads) throws IOException {
+		return EntityArchive.write(file, "threads", threads, Thread::getID, Thread::getURL, Thread::write);
+	}
+
+	/**
+	 * Writes the threads in this loader's cache to a snapshot file, which
+	 * {@link ThreadLoader#readSnapshot(Path)} reads back in a later run. The file
+	 * is only replaced once the snapshot is complete.
+	 * 
+	 * @param file the snapshot file.
+	 * @return the number of threads written.
+	 * @throws IOException there was an error writing the snapshot.
+	 */
+	public int writeSnapshot(Path file) throws IOException {
+		return SnapshotWriter.write(file, "threads", loadedThreads.toMap(), Thread::write);
+	}
+
+	/**
+	 * Downloads and parses the page at the given URL.
+	 * 
+	 * @param url the page URL.
+	 * @return the page document.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	private Document fetch(String url) throws IOException {
+		return metrics.parse(PageType.of(url), fetcher.fetch(url));
+	}
+
+	/**
+	 * Creates a user for the given profile URL, bound to the
+	 * {@linkplain ThreadLoader#getUserLoader() user loader}.
+	 * 
+	 * @param url the profile URL.
+	 * @return the unloaded user.
+	 */
+	private User newUser(String url) {
+		return new User(url, userLoader);
+	}
+
+	/**
+	 * Creates the function that resolves the user URLs of a snapshot being read.
+	 * Each URL resolves to a single user: the user loader's cached user, or a new
+	 * unloaded one.
+	 * 
+	 * @return the user resolver.
+	 */
+	private Function<String, User> snapshotUsers() {
+		Map<String, User> users = new HashMap<String, User>();
+		return url -> url == null ? null
+				: users.computeIfAbsent(url, u -> userLoader != null ? userLoader.getLazyUser(u) : newUser(u));
+	}
+
 	/**
 	 * Gets the thread author for the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return the thread author.
 	 */
-	private User getAuthor(Document doc) {
-		Element miniInfo = doc.getElementsByClass(ElementIdentifiers.MINIINFO).first();
-		Elements loc = miniInfo.getElementsByTag("a");
-		Element link = loc.first();
-		return new User(link.absUrl("href"));
+	private User getAuthor(Extraction doc) {
+		Element link = doc.get(AUTHOR_LINK);
+		return newUser(link.absUrl("href"));
 	}
 
 	/**
 	 * Gets the thread category for the given thread.
 	 * 
-	 * @param doc the forums thread.
+	 * @param doc the elements of the forums thread page.
 	 * @return the thread category.
 	 */
-	private Category getCategory(Document doc) {
-		return Category.parseCategory(
-				doc.getElementById(ElementIdentifiers.CONTEXT_HEADER).getElementsByClass(ElementIdentifiers.CRUMB)
-						.first().getElementsByClass(ElementIdentifiers.CATEGORY).get(2).attr("href"));
+	private Category getCategory(Extraction doc) {
+		return Category.parseCategory(doc.getAll(CATEGORIES).get(2).attr("href"));
 	}
 
-	private boolean getLockedStatus(Document doc) {
-		return !doc.getElementsByAttributeValue("title", "locked").isEmpty();
+	private boolean getLockedStatus(Extraction doc) {
+		return doc.get(LOCKED) != null;
 	}
 
 	/**
 	 * Gets the thread description/content for the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return the thread content.
 	 */
-	private Element getContent(Document doc) {
-		Elements content = doc.getElementsByClass(ElementIdentifiers.CONTENT);
-		if (content.isEmpty()) {
+	private Element getContent(Extraction doc) {
+		Element content = doc.get(CONTENT);
+		if (content == null) {
 			return new Element(ElementIdentifiers.CONTENT);
 		}
 
-		return content.first();
+		return content;
 	}
 
 	/**
 	 * Gets the emeralds, vies, and timestamp for the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return an object array of thread's details in this form: <br>
 	 *         <code>[emeralds, views, timestamp]</code>
 	 */
-	private Object[] getDetails(Document doc) {
-		Element data = doc.getElementsByClass(ElementIdentifiers.STATS).first();
-		Elements stats = data.getElementsByTag("span");
+	private Object[] getDetails(Extraction doc) {
+		Elements stats = doc.getAll(STATS_SPANS);
 		int emeralds = Integer.parseInt(stats.first().ownText());
-		int views = Integer.parseInt(stats.get(2).ownText().replaceAll(",", ""));
-		LocalDateTime time = parseDateTime(data.getElementsByTag(ElementIdentifiers.DATETIME).first().attr("title"));
+		int views = Parsing.parseCount(stats.get(2).ownText());
+		LocalDateTime time = Parsing.parseDateTime(doc.get(STATS_TIME).attr("title"));
 		return new Object[] { emeralds, views, time };
 	}
 
 	/**
 	 * Gets the comments/replies on the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return the thread replies.
 	 */
-	private List<Reply> getReplies(Document doc) {
-		Element cont = doc.getElementsByClass(ElementIdentifiers.REPLYCONTAINER).first();
-		Elements replies = cont.getElementsByClass(ElementIdentifiers.REPLY);
+	private List<Reply> getReplies(Extraction doc) {
+		Elements replies = doc.getAll(REPLIES);
 		List<Reply> list = new ArrayList<Reply>();
 		for (Element reply : replies) {
 			int emeralds;
@@ -468,10 +1140,10 @@ public class ThreadLoader {
 			Element member = content.getElementsByClass(ElementIdentifiers.MEMBERBOX).first();
 			Element link = member.getElementsByTag("a").first();
 
-			LocalDateTime time = parseDateTime(member.getElementsByClass(ElementIdentifiers.TIMEBOX).first()
+			LocalDateTime time = Parsing.parseDateTime(member.getElementsByClass(ElementIdentifiers.TIMEBOX).first()
 					.getElementsByTag(ElementIdentifiers.DATETIME).first().attr("title"));
 
-			User user = new User(link.absUrl("href"));
+			User user = newUser(link.absUrl("href"));
 
 			Element mes = content.getElementsByClass(ElementIdentifiers.REPLYMESSAGE).first();
 			mes.select("br").append("\n");
@@ -488,22 +1160,80 @@ public class ThreadLoader {
 	/**
 	 * Gets the ID for the given thread.
 	 * 
-	 * @param doc the thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return the ID.
 	 */
-	private int getThreadID(Document doc) {
-		Element visit = doc.getElementById(ElementIdentifiers.THREADID);
+	private int getThreadID(Extraction doc) {
+		Element visit = doc.get(THREAD_ID);
 		return Integer.parseInt(visit.attr(ElementIdentifiers.IDATTR));
 	}
 
 	/**
 	 * Gets the all the thread URLs and their authors from the given page.
 	 * 
-	 * @param doc   the threads page document.
+	 * @param page  the threads page.
 	 * @param limit the maximum amount of threads to get.
 	 * @return the unloaded threads.
+	 * @see ThreadLoader#readThreadPage(Page, int)
+	 */
+	private List<Thread> getThreadPage(Page page, int limit) {
+		return readThreadPage(page, limit).getItems();
+	}
+
+	/**
+	 * Gets the all the thread URLs and their authors from the given page, along
+	 * with the number of threads on the page including those by ignored users.
+	 * The page is scanned with a {@link FeedScanner}, and only parsed if the
+	 * scanner cannot handle its markup.
+	 * 
+	 * @param page  the threads page.
+	 * @param limit the maximum amount of threads to get.
+	 * @return the unloaded threads and the row count.
+	 */
+	private FeedPage<Thread> readThreadPage(Page page, int limit) {
+		long time = System.nanoTime();
+		List<Thread> threadsList = new ArrayList<Thread>();
+		int[] index = { 0, limit };
+		FeedScanner scanner = new FeedScanner(ElementIdentifiers.THREADBOX, ElementIdentifiers.STATS);
+		boolean scanned = scanFeeds && scanner.scan(page.getBody(), page.getURL(), row -> {
+			if (index[0]++ > index[1])
+				return true;
+			String author = row.getAuthor();
+			if (row.getURL() == null || author == null)
+				return false;
+			User user = newUser(row.getAuthorURL());
+			if (ignoredUsers.contains(author)) {
+				index[1]++;
+				return true;
+			}
+			String categoryHref = row.getCategoryHref();
+			if (categoryHref == null)
+				return false;
+			Thread thread = new Thread(row.getURL(), row.getTitle(), user, Category.parseCategory(categoryHref));
+			thread.setLoader(this);
+			threadsList.add(thread);
+			return true;
+		});
+		if (scanned) {
+			metrics.stage(PageType.FEED, Stage.PARSE, time);
+			return new FeedPage<Thread>(threadsList, index[0]);
+		}
+		Document doc = metrics.parse(PageType.FEED, page);
+		time = System.nanoTime();
+		FeedPage<Thread> parsed = readThreadPage(doc, limit);
+		metrics.stage(PageType.FEED, Stage.EXTRACT, time);
+		return parsed;
+	}
+
+	/**
+	 * Gets the all the thread URLs and their authors from the given page, along
+	 * with the number of threads on the page including those by ignored users.
+	 * 
+	 * @param doc   the threads page document.
+	 * @param limit the maximum amount of threads to get.
+	 * @return the unloaded threads and the row count.
 	 */
-	private List<Thread> getThreadPage(Document doc, int limit) {
+	private FeedPage<Thread> readThreadPage(Document doc, int limit) {
 		List<Thread> threadsList = new ArrayList<Thread>();
 		Elements boxes = doc.getElementsByClass(ElementIdentifiers.THREADBOX);
 		for (int i = 0; i <= limit && i < boxes.size(); i++) {
@@ -513,46 +1243,26 @@ public class ThreadLoader {
 			String threadUrl = titleUrl.absUrl("href");
 			String title = titleUrl.ownText();
 			Element auth = box.getElementsByClass(ElementIdentifiers.STATS).get(0).getElementsByTag("a").first();
-			User user = new User(auth.absUrl("href"));
+			User user = newUser(auth.absUrl("href"));
 			if (ignoredUsers.contains(auth.ownText())) {
 				limit++;
 			} else {
-				threadsList.add(new Thread(threadUrl, title, user, Category.parseCategory(hrefs.get(1).attr("href"))));
+				Thread thread = new Thread(threadUrl, title, user, Category.parseCategory(hrefs.get(1).attr("href")));
+				thread.setLoader(this);
+				threadsList.add(thread);
 			}
 		}
-		return threadsList;
+		return new FeedPage<Thread>(threadsList, boxes.size());
 	}
 
 	/**
 	 * Gets the thread title for the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the forums thread page.
 	 * @return the thread title.
 	 */
-	private String getTitle(Document doc) {
-		Elements title = doc.getElementsByTag(ElementIdentifiers.FTITLE);
-		return title.first().ownText();
-	}
-
-	/**
-	 * Converts the given date-time string into a {@link LocalDateTime} object.
-	 * 
-	 * @param datetime the date-time string to convert.
-	 * @return the {@link LocalDateTime} representation of the given date-time
-	 *         string.
-	 */
-	private LocalDateTime parseDateTime(String datetime) {
-		String[] dateAndTime = datetime.split("T");
-		String[] date = dateAndTime[0].split("-");
-		String[] time = dateAndTime[1].split(":");
-
-		int year = Integer.parseInt(date[0]);
-		int month = Integer.parseInt(date[1]);
-		int day = Integer.parseInt(date[2]);
-		int hour = Integer.parseInt(time[0]);
-		int minute = Integer.parseInt(time[1]);
-
-		return LocalDateTime.of(year, month, day, hour, minute);
+	private String getTitle(Extraction doc) {
+		return doc.get(TITLE).ownText();
 	}
 
 }
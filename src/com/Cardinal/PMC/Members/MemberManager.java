@@ -1,6 +1,14 @@
 package com.Cardinal.PMC.Members;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
 import com.Cardinal.PMC.Members.Walls.WallPostLoader;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.PageFetcher;
 
 /**
  * A class used to organize user related loading.
@@ -17,8 +25,19 @@ public class MemberManager {
 	 * Constructs a new {@link MemberManager}.
 	 */
 	public MemberManager() {
-		userLoader = new UserLoader();
-		wallLoader = new WallPostLoader();
+		this(HttpPageFetcher.getDefault());
+	}
+
+	/**
+	 * Constructs a new {@link MemberManager} whose loaders download pages with the
+	 * given fetcher.
+	 * 
+	 * @param fetcher
+	 *            the page fetcher.
+	 */
+	public MemberManager(PageFetcher fetcher) {
+		userLoader = new UserLoader(fetcher);
+		wallLoader = new WallPostLoader(fetcher).setUserLoader(userLoader);
 	}
 
 	/**
@@ -39,4 +58,62 @@ public class MemberManager {
 		return wallLoader;
 	}
 
+	/**
+	 * Reads the snapshots written by {@link MemberManager#writeSnapshot(Path)}
+	 * into the caches of both loaders, users first. Missing snapshots are
+	 * skipped.
+	 * 
+	 * @param directory
+	 *            the snapshot directory.
+	 * @return the number of users and wall posts read.
+	 * @throws IOException
+	 *             a snapshot is damaged, of another version, or could not be
+	 *             read.
+	 */
+	public int readSnapshot(Path directory) throws IOException {
+		Path users = directory.resolve("users.snapshot"), posts = directory.resolve("wallposts.snapshot");
+		int read = 0;
+		if (Files.exists(users))
+			read += userLoader.readSnapshot(users);
+		if (Files.exists(posts))
+			read += wallLoader.readSnapshot(posts);
+		return read;
+	}
+
+	/**
+	 * Sets the executor the asynchronous methods of both loaders run on.
+	 * 
+	 * @param executor
+	 *            the executor.
+	 */
+	public void setExecutor(Executor executor) {
+		userLoader.setExecutor(executor);
+		wallLoader.setExecutor(executor);
+	}
+
+	/**
+	 * Sets the metrics both loaders report to.
+	 * 
+	 * @param metrics
+	 *            the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 */
+	public void setMetrics(Metrics metrics) {
+		userLoader.setMetrics(metrics);
+		wallLoader.setMetrics(metrics);
+	}
+
+	/**
+	 * Writes the caches of both loaders to snapshots in the given directory.
+	 * 
+	 * @param directory
+	 *            the snapshot directory.
+	 * @return the number of users and wall posts written.
+	 * @throws IOException
+	 *             there was an error writing a snapshot.
+	 */
+	public int writeSnapshot(Path directory) throws IOException {
+		return userLoader.writeSnapshot(directory.resolve("users.snapshot"))
+				+ wallLoader.writeSnapshot(directory.resolve("wallposts.snapshot"));
+	}
+
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.util.Content;
 
 /**
  * A class used to represent a blog submission.
@@ -38,7 +39,7 @@ public class Blog extends Submission {
 		this.type = Type.BLOGS;
 		this.title = title;
 		this.media = media;
-		this.description = description;
+		this.description = Content.of(description);
 		this.tags = tags;
 		this.author = author;
 		this.diamonds = diamonds;
@@ -50,6 +51,17 @@ public class Blog extends Submission {
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Constructs a new, unloaded {@link Blog}, which is filled in when it is read
+	 * from a snapshot.
+	 * 
+	 * @param url the blog's URL.
+	 */
+	Blog(String url) {
+		super(url);
+		this.type = Type.BLOGS;
+	}
+
 	public enum Category {
 		ALL, ARTICLE, TUTORIAL, REVIEW, INTERVIEW, STORY, LETSPLAY, ART, COMIC, OTHER;
 
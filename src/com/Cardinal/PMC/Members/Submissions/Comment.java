@@ -1,12 +1,15 @@
 package com.Cardinal.PMC.Members.Submissions;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.function.Function;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 
 /**
  * A class used to represent a comment on a {@link Submission}.
@@ -15,33 +18,17 @@ import com.Cardinal.PMC.Members.User;
  *
  */
 public class Comment {
-	private static HashMap<Integer, Comment> comments = new HashMap<Integer, Comment>();
-
 	private User author;
 
 	private int ID;
 	private String content;
 	private LocalDateTime timestamp;
-	private List<Integer> children;
 
 	public Comment(User author, int iD, String content, LocalDateTime timestamp) {
 		this.author = author;
 		ID = iD;
 		this.content = content;
 		this.timestamp = timestamp;
-		comments.put(iD, this);
-	}
-
-	/**
-	 * Add's a reply to this comment.
-	 * 
-	 * @param ID
-	 *            the reply ID.
-	 */
-	public void addChild(int ID) {
-		if (children == null)
-			children = new ArrayList<Integer>();
-		children.add(ID);
 	}
 
 	/**
@@ -74,6 +61,48 @@ public class Comment {
 		return timestamp;
 	}
 
+	/**
+	 * Reads comments written by {@link Comment#writeAll(List, SnapshotWriter)}.
+	 * 
+	 * @param in    the snapshot reader.
+	 * @param users resolves user URLs to users.
+	 * @return the comments, or null if they were written as null.
+	 * @throws IOException there was an error reading the comments.
+	 */
+	public static List<Comment> readAll(SnapshotReader in, Function<String, User> users) throws IOException {
+		int[] ids = in.readInts();
+		if (ids == null)
+			return null;
+		List<Comment> comments = new ArrayList<Comment>(ids.length);
+		for (int id : ids) {
+			User author = users.apply(in.readSymbol());
+			LocalDateTime timestamp = in.readTimestamp();
+			comments.add(new Comment(author, id, in.readString(), timestamp));
+		}
+		return comments;
+	}
+
+	/**
+	 * Writes the given comments to a snapshot: an array of their IDs, followed by
+	 * each comment's author, timestamp and content.
+	 * 
+	 * @param comments the comments, or null.
+	 * @param out      the snapshot writer.
+	 * @throws IOException there was an error writing the comments.
+	 */
+	public static void writeAll(List<Comment> comments, SnapshotWriter out) throws IOException {
+		if (comments == null) {
+			out.writeInts(null);
+			return;
+		}
+		out.writeInts(comments.stream().mapToInt(Comment::getID).toArray());
+		for (Comment comment : comments) {
+			out.writeSymbol(comment.author == null ? null : comment.author.getURL());
+			out.writeTimestamp(comment.timestamp);
+			out.writeString(comment.content);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "ID: " + ID + "\nAuthor: " + author.toString() + "\nTime: "
@@ -81,14 +110,4 @@ public class Comment {
 				+ "\n]";
 	}
 
-	/**
-	 * Gets the comment who matches the given ID.
-	 * 
-	 * @param ID
-	 *            the comment ID.
-	 * @return the matching comment, or null if it hasn't been loaded.
-	 */
-	public static Comment getCommentByID(int ID) {
-		return comments.get(ID);
-	}
 }
\ No newline at end of file
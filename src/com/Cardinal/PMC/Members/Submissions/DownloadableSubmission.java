@@ -1,7 +1,11 @@
 package com.Cardinal.PMC.Members.Submissions;
 
 import java.io.IOException;
+import java.util.function.Function;
 
+import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
 
 /**
@@ -25,9 +29,9 @@ public class DownloadableSubmission extends Submission {
 	 * 
 	 * @return the download URL.
 	 */
-	public String getDownload() {
+	public synchronized String getDownload() {
 		if (downloadUrl == null)
-			throw new UnloadedResourceExcpetion(url, "submissionDownload");
+			lazyLoad("submissionDownload");
 		return downloadUrl;
 	}
 
@@ -36,17 +40,31 @@ public class DownloadableSubmission extends Submission {
 	 * 
 	 * @return the download URLs.
 	 */
-	public String[] getMirrorDownloads() {
+	public synchronized String[] getMirrorDownloads() {
 		if (mirrorDownloads == null)
-			throw new UnloadedResourceExcpetion(url, "submissionMirrors");
+			lazyLoad("submissionMirrors");
 		return mirrorDownloads;
 	}
 
 	@Override
-	public Submission load(SubmissionLoader loader) throws IOException {
+	public synchronized Submission load(SubmissionLoader loader) throws IOException {
 		super.load(loader);
 		this.downloadUrl = ((DownloadableSubmission) loader.getSubmission(url)).getDownload();
 		this.mirrorDownloads = ((DownloadableSubmission) loader.getSubmission(url)).getMirrorDownloads();
 		return this;
 	}
+
+	@Override
+	void readFields(SnapshotReader in, Function<String, User> users) throws IOException {
+		super.readFields(in, users);
+		this.downloadUrl = in.readString();
+		this.mirrorDownloads = in.readStrings();
+	}
+
+	@Override
+	void writeFields(SnapshotWriter out) throws IOException {
+		super.writeFields(out);
+		out.writeString(downloadUrl);
+		out.writeStrings(mirrorDownloads);
+	}
 }
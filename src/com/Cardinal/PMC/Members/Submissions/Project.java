@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.util.Content;
 
 /**
  * A class used to represent a project submission.
@@ -47,7 +48,7 @@ public class Project extends DownloadableSubmission {
 		this.title = title;
 		this.downloadUrl = downloadurl;
 		this.mirrorDownloads = mirrorDownloads;
-		this.description = description;
+		this.description = Content.of(description);
 		this.tags = tags;
 		this.author = author;
 		this.diamonds = diamonds;
@@ -59,15 +60,26 @@ public class Project extends DownloadableSubmission {
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Constructs a new, unloaded {@link Project}, which is filled in when it is read
+	 * from a snapshot.
+	 * 
+	 * @param url the project's URL.
+	 */
+	Project(String url) {
+		super(url);
+		this.type = Type.PROJECTS;
+	}
+
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return "ID: " + ID + "\nType: Project\nURL: " + url + "\nMedia: "
 				+ Arrays.toString(media != null ? media : new String[1]) + "\nTitle: " + title + "\nAuthor: " + author
 				+ "\nTime: " + timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nDiamonds: "
 				+ diamonds + "\nViews: " + views + " | " + viewsToday + " today\nFavorites: " + favorites
 				+ "\nDownload: " + downloadUrl + "\nDownload Mirrors:"
 				+ Arrays.toString(mirrorDownloads != null ? mirrorDownloads : new String[1]) + "\nTags: "
-				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.text().replaceAll("\n", "\n\t")
+				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.getText().replaceAll("\n", "\n\t")
 				+ "\n]\nComments: {\n\t"
 				+ comments.stream().map(c -> c.toString()).collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 				+ "\n}";
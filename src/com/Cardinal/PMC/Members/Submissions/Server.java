@@ -5,11 +5,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
+import com.Cardinal.PMC.util.Content;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
 
 /**
@@ -47,7 +51,7 @@ public class Server extends Submission {
 		this.url = url;
 		this.title = title;
 		this.media = media;
-		this.description = description;
+		this.description = Content.of(description);
 		this.tags = tags;
 		this.author = author;
 		this.diamonds = diamonds;
@@ -61,32 +65,55 @@ public class Server extends Submission {
 		this.type = Type.SERVERS;
 	}
 
+	/**
+	 * Constructs a new, unloaded {@link Server}, which is filled in when it is read
+	 * from a snapshot.
+	 * 
+	 * @param url the server's URL.
+	 */
+	Server(String url) {
+		super(url);
+		this.type = Type.SERVERS;
+	}
+
 	/**
 	 * Gets this server's IP.
 	 * 
 	 * @return the IP.
 	 */
-	public String getIP() {
+	public synchronized String getIP() {
 		if (ip == null)
-			throw new UnloadedResourceExcpetion(url, "serverIP");
+			lazyLoad("serverIP");
 		return ip;
 	}
 
 	@Override
-	public Submission load(SubmissionLoader loader) throws IOException {
+	public synchronized Submission load(SubmissionLoader loader) throws IOException {
 		super.load(loader);
 		this.ip = ((Server) loader.getSubmission(url)).getIP();
 		return this;
 	}
 
 	@Override
-	public String toString() {
+	void readFields(SnapshotReader in, Function<String, User> users) throws IOException {
+		super.readFields(in, users);
+		this.ip = in.readString();
+	}
+
+	@Override
+	void writeFields(SnapshotWriter out) throws IOException {
+		super.writeFields(out);
+		out.writeString(ip);
+	}
+
+	@Override
+	public synchronized String toString() {
 		return "ID: " + ID + "\nType: Server\nURL: " + url + "\nMedia: "
 				+ Arrays.toString(media != null ? media : new String[1]) + "\nTitle: " + title + "\nIP: " + ip
 				+ "\nAuthor: " + author + "\nTime: "
 				+ timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nDiamonds: " + diamonds
 				+ "\nViews: " + views + " | " + viewsToday + " today\nFavorites: " + favorites + "\nTags: "
-				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.text().replaceAll("\n", "\n\t")
+				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.getText().replaceAll("\n", "\n\t")
 				+ "\n]\nComments: {\n\t"
 				+ comments.stream().map(c -> c.toString()).collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 				+ "\n}";
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.util.Content;
 
 /**
  * A class used to represent a skin submission.
@@ -45,7 +46,7 @@ public class Skin extends DownloadableSubmission {
 		this.media = media;
 		this.downloadUrl = downloadurl;
 		this.mirrorDownloads = mirrorDownloads;
-		this.description = description;
+		this.description = Content.of(description);
 		this.tags = tags;
 		this.author = author;
 		this.diamonds = diamonds;
@@ -58,14 +59,25 @@ public class Skin extends DownloadableSubmission {
 		this.type = Type.SKINS;
 	}
 
+	/**
+	 * Constructs a new, unloaded {@link Skin}, which is filled in when it is read
+	 * from a snapshot.
+	 * 
+	 * @param url the skin's URL.
+	 */
+	Skin(String url) {
+		super(url);
+		this.type = Type.SKINS;
+	}
+
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return "ID: " + ID + "\nType: Skin\nURL: " + url + "\nMedia: "
 				+ Arrays.toString(media != null ? media : new String[1]) + "\nTitle: " + title + "\nAuthor: " + author
 				+ "\nTime: " + timestamp.format(FORMATTER) + "\nDiamonds: " + diamonds + "\nViews: " + views + " | "
 				+ viewsToday + " today\nFavorites: " + favorites + "\nDownload: " + downloadUrl + "\nDownload Mirrors:"
 				+ Arrays.toString(mirrorDownloads != null ? mirrorDownloads : new String[1]) + "\nTags: "
-				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.text().replaceAll("\n", "\n\t")
+				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.getText().replaceAll("\n", "\n\t")
 				+ "\n]\nComments: {\n\t"
 				+ comments.stream().map(c -> c.toString()).collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 				+ "\n}";
@@ -1,19 +1,29 @@
 package com.Cardinal.PMC.Members.Submissions;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
+import com.Cardinal.PMC.util.Content;
+import com.Cardinal.PMC.util.PostTree;
 
 /**
- * A class used to represent a submission.
+ * A class used to represent a submission. Submissions created by a
+ * {@link SubmissionLoader} load themselves lazily the first time an unloaded
+ * value is requested, and throw an {@link UncheckedIOException} if they cannot
+ * be loaded. Loading and reading a submission's values are synchronized on the
+ * submission, including in subclasses, so it is never seen partly loaded.
  * 
  * @author Cardinal System
  *
@@ -22,13 +32,17 @@ public class Submission {
 
 	protected static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a");
 	protected String url, title, tags[];
-	protected Element description;
+	protected Content description;
 	protected User author;
 	protected int diamonds = -1, views = -1, viewsToday = -1, favorites = -1, ID = -1;
 	protected List<Comment> comments;
+	private List<Comment> treeComments;
+	private PostTree<Comment> commentTree;
 	protected LocalDateTime timestamp;
 	protected Type type;
 	protected String[] media;
+	private SubmissionLoader loader;
+	private boolean lazilyLoaded;
 
 	/**
 	 * Constructs a new (unloaded) submission with the given URL.
@@ -39,6 +53,20 @@ public class Submission {
 		this.url = url;
 	}
 
+	/**
+	 * Constructs a new, lazily loaded submission. The submission page is
+	 * downloaded with the given loader the first time an unloaded value is
+	 * requested.
+	 * 
+	 * @param url    the URL of the submission.
+	 * @param loader the loader used to load this submission, or null to leave it
+	 *               unloaded.
+	 */
+	public Submission(String url, SubmissionLoader loader) {
+		this.url = url;
+		this.loader = loader;
+	}
+
 	/**
 	 * Gets this submission's URL.
 	 * 
@@ -53,9 +81,9 @@ public class Submission {
 	 * 
 	 * @return the ID.
 	 */
-	public int getID() {
+	public synchronized int getID() {
 		if (ID == -1)
-			throw new UnloadedResourceExcpetion(url, "submissionID");
+			lazyLoad("submissionID");
 		return ID;
 	}
 
@@ -64,9 +92,9 @@ public class Submission {
 	 * 
 	 * @return the author.
 	 */
-	public User getAuthor() {
+	public synchronized User getAuthor() {
 		if (author == null)
-			throw new UnloadedResourceExcpetion(url, "submissionAuthor");
+			lazyLoad("submissionAuthor");
 		return author;
 	}
 
@@ -75,9 +103,9 @@ public class Submission {
 	 * 
 	 * @return the title.
 	 */
-	public String getTitle() {
+	public synchronized String getTitle() {
 		if (title == null)
-			throw new UnloadedResourceExcpetion(url, "submissionTitle");
+			lazyLoad("submissionTitle");
 		return title;
 	}
 
@@ -86,9 +114,9 @@ public class Submission {
 	 * 
 	 * @return media URLs.
 	 */
-	public String[] getMedia() {
+	public synchronized String[] getMedia() {
 		if (media == null)
-			throw new UnloadedResourceExcpetion(url, "submissionMedia");
+			lazyLoad("submissionMedia");
 		return media;
 	}
 
@@ -97,10 +125,10 @@ public class Submission {
 	 * 
 	 * @return the description.
 	 */
-	public Element getDescription() {
+	public synchronized Element getDescription() {
 		if (description == null)
-			throw new UnloadedResourceExcpetion(url, "submissionDesc");
-		return description;
+			lazyLoad("submissionDesc");
+		return description.getElement();
 	}
 
 	/**
@@ -108,9 +136,9 @@ public class Submission {
 	 * 
 	 * @return the diamond count.
 	 */
-	public int getDiamonds() {
+	public synchronized int getDiamonds() {
 		if (diamonds == -1)
-			throw new UnloadedResourceExcpetion(url, "submissionVotes");
+			lazyLoad("submissionVotes");
 		return diamonds;
 	}
 
@@ -119,9 +147,9 @@ public class Submission {
 	 * 
 	 * @return the views.
 	 */
-	public int getViews() {
+	public synchronized int getViews() {
 		if (views == -1)
-			throw new UnloadedResourceExcpetion(url, "submissionViews");
+			lazyLoad("submissionViews");
 		return views;
 	}
 
@@ -130,9 +158,9 @@ public class Submission {
 	 * 
 	 * @return the views from today.
 	 */
-	public int getViewsToday() {
+	public synchronized int getViewsToday() {
 		if (viewsToday == -1)
-			throw new UnloadedResourceExcpetion(url, "submissionViewsToday");
+			lazyLoad("submissionViewsToday");
 		return viewsToday;
 	}
 
@@ -141,9 +169,9 @@ public class Submission {
 	 * 
 	 * @return the favorites.
 	 */
-	public int getFavorites() {
+	public synchronized int getFavorites() {
 		if (favorites == -1)
-			throw new UnloadedResourceExcpetion(url, "submissionFavorites");
+			lazyLoad("submissionFavorites");
 		return favorites;
 	}
 
@@ -152,20 +180,45 @@ public class Submission {
 	 * 
 	 * @return the replies.
 	 */
-	public List<Comment> getComments() {
+	public synchronized List<Comment> getComments() {
 		if (comments == null)
-			throw new UnloadedResourceExcpetion(url, "submissionComments");
+			lazyLoad("submissionComments");
 		return comments;
 	}
 
+	/**
+	 * Gets the tree of the comments on this submission, which finds comments by ID.
+	 * 
+	 * @return the comment tree.
+	 */
+	public synchronized PostTree<Comment> getCommentTree() {
+		List<Comment> comments = getComments();
+		if (treeComments != comments) {
+			commentTree = new PostTree<Comment>(comments, Comment::getID, comment -> 0);
+			treeComments = comments;
+		}
+		return commentTree;
+	}
+
+	/**
+	 * Gets the comment on this submission with the given ID.
+	 * 
+	 * @param ID the comment ID.
+	 * @return the comment, or null if this submission has no comment with the
+	 *         given ID.
+	 */
+	public Comment getCommentByID(int ID) {
+		return getCommentTree().get(ID);
+	}
+
 	/**
 	 * Gets this submission's timestamp.
 	 * 
 	 * @return the timestamp.
 	 */
-	public LocalDateTime getTimestamp() {
+	public synchronized LocalDateTime getTimestamp() {
 		if (timestamp == null)
-			throw new UnloadedResourceExcpetion(url, "submissionDate");
+			lazyLoad("submissionDate");
 		return timestamp;
 	}
 
@@ -174,9 +227,9 @@ public class Submission {
 	 * 
 	 * @return the tags.
 	 */
-	public String[] getTags() {
+	public synchronized String[] getTags() {
 		if (tags == null)
-			throw new UnloadedResourceExcpetion(url, "submissionTags");
+			lazyLoad("submissionTags");
 		return tags;
 	}
 
@@ -185,9 +238,9 @@ public class Submission {
 	 * 
 	 * @return the type.
 	 */
-	public Type getType() {
+	public synchronized Type getType() {
 		if (type == null)
-			throw new UnloadedResourceExcpetion(url, "submissionType");
+			lazyLoad("submissionType");
 		return type;
 	}
 
@@ -203,33 +256,173 @@ public class Submission {
 	 * @return this, once it is loaded.
 	 * @throws IOException there was an error loading the submission.
 	 */
-	public Submission load(SubmissionLoader loader) throws IOException {
+	public synchronized Submission load(SubmissionLoader loader) throws IOException {
 		Submission sub = loader.getSubmission(url);
 		this.author = sub.getAuthor();
 		this.comments = sub.getComments();
 		this.media = Arrays.stream(sub.getMedia())
 				.map(s -> s != null && s.contains("youtube") ? s.replaceAll("embed\\/", "watch?v=") : s)
 				.toArray(String[]::new);
-		this.description = sub.getDescription();
+		this.description = sub.description;
 		this.diamonds = sub.getDiamonds();
 		this.favorites = sub.getFavorites();
 		this.ID = sub.getID();
 		this.tags = sub.getTags();
 		this.timestamp = sub.getTimestamp();
 		this.title = sub.getTitle();
+		this.type = sub.getType();
 		this.views = sub.getViews();
 		this.viewsToday = sub.getViewsToday();
 		return this;
 	}
 
+	/**
+	 * Reads a submission written by {@link Submission#write(SnapshotWriter)}.
+	 * 
+	 * @param in     the snapshot reader.
+	 * @param users  resolves user URLs to users.
+	 * @param loader the loader used to load any values the submission was written
+	 *               without.
+	 * @return the submission.
+	 * @throws IOException there was an error reading the submission.
+	 */
+	static Submission read(SnapshotReader in, Function<String, User> users, SubmissionLoader loader)
+			throws IOException {
+		String kind = in.readSymbol();
+		String url = in.readString();
+		Submission submission;
+		switch (kind == null ? "" : kind) {
+		case "Blog":
+			submission = new Blog(url);
+			break;
+		case "DownloadableSubmission":
+			submission = new DownloadableSubmission(url);
+			break;
+		case "Mod":
+			submission = new Mod(url);
+			break;
+		case "Project":
+			submission = new Project(url);
+			break;
+		case "Server":
+			submission = new Server(url);
+			break;
+		case "Skin":
+			submission = new Skin(url);
+			break;
+		case "Submission":
+			submission = new Submission(url);
+			break;
+		case "TexturePack":
+			submission = new TexturePack(url);
+			break;
+		default:
+			throw new IOException("Unknown submission kind: " + kind);
+		}
+		submission.loader = loader;
+		submission.readFields(in, users);
+		return submission;
+	}
+
+	/**
+	 * Reads the fields written by {@link Submission#writeFields(SnapshotWriter)}
+	 * into this submission.
+	 * 
+	 * @param in    the snapshot reader.
+	 * @param users resolves user URLs to users.
+	 * @throws IOException there was an error reading the fields.
+	 */
+	void readFields(SnapshotReader in, Function<String, User> users) throws IOException {
+		this.title = in.readString();
+		this.tags = in.readStrings();
+		this.media = in.readStrings();
+		this.description = Content.read(in);
+		this.author = users.apply(in.readSymbol());
+		this.diamonds = in.readInt();
+		this.views = in.readInt();
+		this.viewsToday = in.readInt();
+		this.favorites = in.readInt();
+		this.ID = in.readInt();
+		this.comments = Comment.readAll(in, users);
+		this.timestamp = in.readTimestamp();
+		String type = in.readSymbol();
+		try {
+			this.type = type == null ? null : Type.valueOf(type);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown submission type: " + type, e);
+		}
+	}
+
+	/**
+	 * Writes this submission to a snapshot as it is, without loading it. The
+	 * kind written is the name of the submission's class, or of the class an
+	 * anonymous subclass extends.
+	 * 
+	 * @param out the snapshot writer.
+	 * @throws IOException there was an error writing the submission.
+	 */
+	synchronized void write(SnapshotWriter out) throws IOException {
+		Class<?> kind = getClass();
+		while (kind.isAnonymousClass())
+			kind = kind.getSuperclass();
+		out.writeSymbol(kind.getSimpleName());
+		out.writeString(url);
+		writeFields(out);
+	}
+
+	/**
+	 * Writes the fields of this submission to a snapshot. Subclasses with fields
+	 * of their own write them after these.
+	 * 
+	 * @param out the snapshot writer.
+	 * @throws IOException there was an error writing the fields.
+	 */
+	void writeFields(SnapshotWriter out) throws IOException {
+		out.writeString(title);
+		out.writeStrings(tags);
+		out.writeStrings(media);
+		Content.write(description, out);
+		out.writeSymbol(author == null ? null : author.getURL());
+		out.writeInt(diamonds);
+		out.writeInt(views);
+		out.writeInt(viewsToday);
+		out.writeInt(favorites);
+		out.writeInt(ID);
+		Comment.writeAll(comments, out);
+		out.writeTimestamp(timestamp);
+		out.writeSymbol(type == null ? null : type.name());
+	}
+
+	/**
+	 * Loads this submission with its loader, unless it has already been lazily
+	 * loaded.
+	 * 
+	 * @param request the requested resource data.
+	 * @throws UnloadedResourceExcpetion this submission has no loader.
+	 * @throws UncheckedIOException      there was an error loading this
+	 *                                   submission.
+	 */
+	protected synchronized void lazyLoad(String request) {
+		if (lazilyLoaded)
+			return;
+		if (loader == null)
+			throw new UnloadedResourceExcpetion(url, request);
+		try {
+			load(loader);
+			lazilyLoaded = true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		try {
 			return "ID: " + ID + "\nType: " + type.toString().toUpperCase() + "\nURL: " + url + "\nMedia: "
 					+ Arrays.toString(media != null ? media : new String[1]) + "\nTitle: " + title + "\nAuthor: "
 					+ author + "\nTime: " + timestamp.format(FORMATTER) + "\nDiamonds: " + diamonds + "\nViews: "
 					+ views + " | " + viewsToday + " today\nFavorites: " + favorites + "\nTags: "
-					+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.text().replaceAll("\n", "\n\t")
+					+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.getText().replaceAll("\n", "\n\t")
 					+ "\n]\nComments: {\n\t" + comments.stream().map(c -> c.toString())
 							.collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 					+ "\n}";
@@ -1,33 +1,122 @@
 package com.Cardinal.PMC.Members.Submissions;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
 
 import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.cache.EntityArchive;
+import com.Cardinal.PMC.cache.EntityCache;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.Members.UserLoader;
 import com.Cardinal.PMC.Members.Submissions.Blog.Category;
 import com.Cardinal.PMC.Members.Submissions.Submission.Feed;
 import com.Cardinal.PMC.Members.Submissions.Submission.Type;
 import com.Cardinal.PMC.lang.MissingPostException;
+import com.Cardinal.PMC.metrics.CacheOutcome;
+import com.Cardinal.PMC.metrics.LoaderMetrics;
+import com.Cardinal.PMC.metrics.MeteredPageFetcher;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.metrics.Stage;
+import com.Cardinal.PMC.net.Async;
+import com.Cardinal.PMC.net.FeedPage;
+import com.Cardinal.PMC.net.FeedPublisher;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PagePrefetcher;
+import com.Cardinal.PMC.net.PageType;
+import com.Cardinal.PMC.net.PartialResult;
+import com.Cardinal.PMC.util.ExtractionPlan;
+import com.Cardinal.PMC.util.ExtractionPlan.Extraction;
+import com.Cardinal.PMC.util.ExtractionPlan.Rule;
+import com.Cardinal.PMC.util.FeedScanner;
+import com.Cardinal.PMC.util.Parsing;
 
 public class SubmissionLoader {
 
 	/**
-	 * A map of all submissions loaded with this loader.
+	 * The elements of a submission page, found in a single pass over the page.
 	 */
-	private HashMap<String, Submission> loadedSubmissions = new HashMap<String, Submission>();
-	private Set<String> ignoredUsers = new HashSet<String>();
+	private static final ExtractionPlan SUBMISSION_PAGE = new ExtractionPlan();
+	private static final Rule TYPES = SUBMISSION_PAGE.all(new Evaluator.Class(ElementIdentifiers.TYPE));
+	private static final Rule AUTHOR_LINK = SUBMISSION_PAGE.first(new Evaluator.Class(ElementIdentifiers.MINIINFO))
+			.first(new Evaluator.Tag("a"));
+	private static final Rule COMMENT_ITEMS = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.COMMENTS))
+			.all(new Evaluator.Class(ElementIdentifiers.COMMENTITEM));
+	private static final Rule TITLE = SUBMISSION_PAGE.first(new Evaluator.Tag(ElementIdentifiers.STITLE));
+	private static final Rule EMBED_CODES = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.RESOURCE_EMBED))
+			.all(new Evaluator.AttributeWithValue("name", ElementIdentifiers.EMBED_CODE));
+	private static final Rule ANGELS = SUBMISSION_PAGE.all(new Evaluator.Class(ElementIdentifiers.ANGELS));
+	private static final Rule IMAGES = SUBMISSION_PAGE.all(new Evaluator.Class(ElementIdentifiers.RESOURCE_IMG));
+	private static final Rule VIDEOS = SUBMISSION_PAGE.all(new Evaluator.Class(ElementIdentifiers.RESOURCE_NO_DRAG));
+	private static final Rule GALLERY_VIDEOS = SUBMISSION_PAGE
+			.first(new Evaluator.Id(ElementIdentifiers.VIDEO_GALLERY)).all(new Evaluator.Tag("iframe"));
+	private static final Rule RESOURCE_INFO = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.DETAILS));
+	private static final Rule DATE_TIME = RESOURCE_INFO.first(new Evaluator.Class(ElementIdentifiers.DATEDIV))
+			.first(new Evaluator.Tag(ElementIdentifiers.DATETIME));
+	private static final Rule DETAILS = RESOURCE_INFO.first(new Evaluator.Class(ElementIdentifiers.DETAILSBOX))
+			.all(new Evaluator.Tag("span"));
+	private static final Rule DOWNLOADS = SUBMISSION_PAGE.first(new Evaluator.Class(ElementIdentifiers.DOWNLOAD))
+			.all(new Evaluator.Tag("a"));
+	private static final Rule ID = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.SUBID));
+	private static final Rule TAGS = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.TAGS))
+			.all(new Evaluator.Tag("a"));
+	private static final Rule DESCRIPTION = SUBMISSION_PAGE.first(new Evaluator.Id(ElementIdentifiers.TEXT));
+	private static final Rule SERVER_INPUTS = SUBMISSION_PAGE
+			.first(new Evaluator.AttributeWithValue("name", ElementIdentifiers.SERVERIP)).all(new Evaluator.Tag("input"));
+
+	/**
+	 * A cache of the submissions loaded with this loader.
+	 */
+	private final EntityCache<Submission> loadedSubmissions = new EntityCache<Submission>();
+	private Set<String> ignoredUsers = ConcurrentHashMap.newKeySet();
+	private final LoaderMetrics metrics = new LoaderMetrics("SubmissionLoader");
+	private final MeteredPageFetcher fetcher;
+	private Executor executor = Async.defaultExecutor();
+	private volatile boolean scanFeeds = true;
+	private UserLoader userLoader;
+	private final PagePrefetcher prefetcher;
+
+	/**
+	 * Constructs a new {@link SubmissionLoader} that downloads pages with the shared
+	 * {@link HttpPageFetcher}.
+	 */
+	public SubmissionLoader() {
+		this(HttpPageFetcher.getDefault());
+	}
+
+	/**
+	 * Constructs a new {@link SubmissionLoader} that downloads pages with the given
+	 * fetcher.
+	 * 
+	 * @param fetcher the page fetcher.
+	 */
+	public SubmissionLoader(PageFetcher fetcher) {
+		this.fetcher = new MeteredPageFetcher(fetcher, metrics);
+		this.prefetcher = new PagePrefetcher(this.fetcher);
+		loadedSubmissions.setMetrics(metrics);
+	}
 
 	/**
 	 * Searches under the specified type of submission for the given keywords as
@@ -44,19 +133,36 @@ public class SubmissionLoader {
 			throws IOException {
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString() + "&keywords="
 				+ search;
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#searchSubmissionsFeed(String, Type, Feed, int)},
+	 * run on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param search   search keywords.
+	 * @param type     the type of submission to search.
+	 * @param feedType used to sort the blogs.
+	 * @param amount   the amount of submissions to get.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> searchSubmissionsFeedAsync(String search, Type type, Feed feedType,
+			int amount) {
+		return Async.supply(() -> searchSubmissionsFeed(search, type, feedType, amount), executor);
+	}
+
 	/**
 	 * Searches under the specified type of submission for the given keywords.
 	 * 
@@ -68,25 +174,41 @@ public class SubmissionLoader {
 	 */
 	public List<Submission> searchSubmissions(String search, Type type, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?keywords=" + search;
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#searchSubmissions(String, Type, int)}, run on
+	 * this loader's {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param search search keywords.
+	 * @param type   the type of submission to search.
+	 * @param amount the amount of submissions to get.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> searchSubmissionsAsync(String search, Type type, int amount) {
+		return Async.supply(() -> searchSubmissions(search, type, amount), executor);
+	}
+
 	/**
 	 * Gets all the blogs under the given category in the specified page range as
 	 * defined by the given feed.
+	 * The pages are downloaded concurrently, see
+	 * {@link SubmissionLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param category  the category.
 	 * @param feedType  used to sort the blogs.
 	 * @return the unloaded blogs.
@@ -95,41 +217,98 @@ public class SubmissionLoader {
 	public List<Submission> getBlogFeedPages(int startPage, int endPage, Blog.Category category, Feed feedType)
 			throws IOException {
 		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + feedType.toString();
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Submission> submissions = new ArrayList<Submission>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			submissions.addAll(getSubmissionPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getBlogFeedPages(int, int, Blog.Category, Feed)},
+	 * downloading its pages on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category.
+	 * @param feedType  used to sort the blogs.
+	 * @return a future of the unloaded blogs.
+	 */
+	public CompletableFuture<List<Submission>> getBlogFeedPagesAsync(int startPage, int endPage,
+			Blog.Category category, Feed feedType) {
+		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + feedType.toString();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		return submissions;
+	/**
+	 * A version of {@link SubmissionLoader#getBlogFeedPages(int, int,
+	 * Blog.Category, Feed)} that keeps going when a page cannot be read,
+	 * returning the blogs of the other pages along with the pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category.
+	 * @param feedType  used to sort the blogs.
+	 * @return the unloaded blogs and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Submission> getBlogFeedPagesPartial(int startPage, int endPage, Blog.Category category,
+			Feed feedType) throws IOException {
+		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + feedType.toString();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
 	 * Gets all the blogs under the given category in the specified page range.
+	 * The pages are downloaded concurrently, see
+	 * {@link SubmissionLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param category  the category.
 	 * @return the unloaded blogs.
 	 * @throws IOException there was an error getting the blogs.
 	 */
 	public List<Submission> getBlogPages(int startPage, int endPage, Blog.Category category) throws IOException {
 		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + Feed.NEW.toString();
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Submission> submissions = new ArrayList<Submission>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			submissions.addAll(getSubmissionPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getBlogPages(int, int, Blog.Category)},
+	 * downloading its pages on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category.
+	 * @return a future of the unloaded blogs.
+	 */
+	public CompletableFuture<List<Submission>> getBlogPagesAsync(int startPage, int endPage, Blog.Category category) {
+		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + Feed.NEW.toString();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		return submissions;
+	/**
+	 * A version of {@link SubmissionLoader#getBlogPages(int, int,
+	 * Blog.Category)} that keeps going when a page cannot be read,
+	 * returning the blogs of the other pages along with the pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param category  the category.
+	 * @return the unloaded blogs and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Submission> getBlogPagesPartial(int startPage, int endPage,
+			Blog.Category category) throws IOException {
+		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + Feed.NEW.toString();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
 	}
 
 	/**
@@ -143,18 +322,31 @@ public class SubmissionLoader {
 	 */
 	public List<Submission> getBlogs(Blog.Category category, int amount) throws IOException {
 		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + Feed.NEW.toString();
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getBlogs(Blog.Category, int)}, run on this
+	 * loader's {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param category the blog category.
+	 * @param amount   the amount of blogs to get.
+	 * @return a future of the unloaded blogs.
+	 */
+	public CompletableFuture<List<Submission>> getBlogsAsync(Blog.Category category, int amount) {
+		return Async.supply(() -> getBlogs(category, amount), executor);
+	}
+
 	/**
 	 * Gets the specified number of unloaded blogs from the given blog category in
 	 * the specified order.
@@ -168,27 +360,45 @@ public class SubmissionLoader {
 	public List<Submission> getBlogsFeed(Blog.Category category, Submission.Feed feedType, int amount)
 			throws IOException {
 		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + feedType.toString();
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getBlogsFeed(Blog.Category, Submission.Feed, int)},
+	 * run on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param category the blog category.
+	 * @param feedType used to sort the blog feed.
+	 * @param amount   the amount of blogs to get.
+	 * @return a future of the unloaded blogs.
+	 */
+	public CompletableFuture<List<Submission>> getBlogsFeedAsync(Blog.Category category, Submission.Feed feedType,
+			int amount) {
+		return Async.supply(() -> getBlogsFeed(category, feedType, amount), executor);
+	}
+
 	/**
 	 * Gets all the submissions under the given submission type in the specified
 	 * page range ordered as defined by the given feed. Use
 	 * {@link SubmissionLoader#getBlogFeedPages(int, int, Category, Feed)} for
 	 * blogs.
+	 * The pages are downloaded concurrently, see
+	 * {@link SubmissionLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param type      the submissions type.
 	 * @param feedType  used to sort the blog feed.
 	 * @return the unloaded submissions.
@@ -200,17 +410,92 @@ public class SubmissionLoader {
 			throw new IllegalArgumentException("SubmissionLoader#getType cannot be used to get blogs!");
 
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString();
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Submission> submissions = new ArrayList<Submission>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			submissions.addAll(getSubmissionPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getFeedTypePages(int, int, Submission.Type, Feed)},
+	 * downloading its pages on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param type      the submissions type.
+	 * @param feedType  used to sort the blog feed.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> getFeedTypePagesAsync(int startPage, int endPage, Submission.Type type,
+			Feed feedType) {
+		if (type.equals(Submission.Type.BLOGS))
+			return CompletableFuture.failedFuture(
+					new IllegalArgumentException("SubmissionLoader#getType cannot be used to get blogs!"));
 
-		return submissions;
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString();
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * A version of {@link SubmissionLoader#getFeedTypePages(int, int,
+	 * Submission.Type, Feed)} that keeps going when a page cannot be
+	 * read, returning the submissions of the other pages along with the
+	 * pages that failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param type      the submissions type.
+	 * @param feedType  used to sort the blog feed.
+	 * @return the unloaded submissions and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Submission> getFeedTypePagesPartial(int startPage, int endPage,
+			Submission.Type type, Feed feedType) throws IOException {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#getFeedTypePagesPartial cannot be used to get blogs!");
+
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString();
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Gets the cache of the submissions loaded with this loader. Its size and time
+	 * to live can be tuned through the cache.
+	 * 
+	 * @return the cache.
+	 */
+	public EntityCache<Submission> getCache() {
+		return loadedSubmissions;
+	}
+
+	/**
+	 * Gets the executor this loader's asynchronous methods run on. Defaults to
+	 * {@link Async#defaultExecutor()}.
+	 * 
+	 * @return the executor.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the fetcher this loader downloads pages with.
+	 * 
+	 * @return the fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher.getFetcher();
+	}
+
+	/**
+	 * Gets the metrics this loader reports to. Defaults to {@link Metrics#NOOP}.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics.getMetrics();
 	}
 
 	/**
@@ -224,14 +509,39 @@ public class SubmissionLoader {
 
 	/**
 	 * Gets the submission with the given URL. If the submission is not already
-	 * loaded, {@link SubmissionLoader#load(String)} will be invoked.
+	 * loaded, {@link SubmissionLoader#load(String)} will be invoked. Concurrent
+	 * calls for the same URL share a single load.
 	 * 
 	 * @param url the URL of the submission to load.
 	 * @return the {@link Submission} representation of the given submission.
 	 * @throws IOException there was an error loading the submission.
 	 */
 	public Submission getSubmission(String url) throws IOException {
-		return loadedSubmissions.containsKey(url) ? loadedSubmissions.get(url) : load(url);
+		return loadedSubmissions.getOrLoad(url, () -> load(url));
+	}
+
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getSubmission(String)}, run on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param url the URL of the submission to load.
+	 * @return a future of the {@link Submission} representation of the given submission.
+	 */
+	public CompletableFuture<Submission> getSubmissionAsync(String url) {
+		return Async.supply(() -> getSubmission(url), executor);
+	}
+
+	/**
+	 * Gets the submission with the given URL if it is already loaded, or a lazily
+	 * loaded submission that downloads its page on first access.
+	 * 
+	 * @param url the URL of the submission.
+	 * @return the {@link Submission} representation of the given submission.
+	 */
+	public Submission getLazySubmission(String url) {
+		Submission submission = loadedSubmissions.peek(url);
+		return submission != null ? submission : new Submission(url, this);
 	}
 
 	/**
@@ -247,19 +557,32 @@ public class SubmissionLoader {
 			throw new IllegalArgumentException("SubmissionLoader#getType cannot be used to get blogs!");
 
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?order=order_latest";
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getType(Submission.Type, int)}, run on this
+	 * loader's {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param type   the type of submission to get.
+	 * @param amount the amount of submissions to get.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> getTypeAsync(Submission.Type type, int amount) {
+		return Async.supply(() -> getType(type, amount), executor);
+	}
+
 	/**
 	 * Gets the unloaded submissions of the given type in the order specified by the
 	 * given {@link Feed}. Use {@link SubmissionLoader#getBlogs(Category, int)} for
@@ -276,26 +599,44 @@ public class SubmissionLoader {
 			throw new IllegalArgumentException("SubmissionLoader#getTypeFeed cannot be used to get blogs!");
 
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString();
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Page page = fetcher.fetch(url);
 
 		List<Submission> submissions = new ArrayList<Submission>();
 		int p = 1;
 		while (submissions.size() < amount) {
 			p++;
-			submissions.addAll(getSubmissionPage(doc, amount - submissions.size()));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
+			submissions.addAll(getSubmissionPage(page, amount - submissions.size()));
+			page = fetcher.fetch(url + "&p=" + p);
 		}
 
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getTypeFeed(Submission.Type, Submission.Feed, int)},
+	 * run on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param type     the type of submission to get.
+	 * @param feedType used to sort the submission feed.
+	 * @param amount   the amount of submissions to get.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> getTypeFeedAsync(Submission.Type type, Submission.Feed feedType,
+			int amount) {
+		return Async.supply(() -> getTypeFeed(type, feedType, amount), executor);
+	}
+
 	/**
 	 * Gets all the submissions under the given submission type in the specified
 	 * page range. Use {@link SubmissionLoader#getBlogPages(int, int, Category)} for
 	 * blogs.
+	 * The pages are downloaded concurrently, see
+	 * {@link SubmissionLoader#setMaxConcurrentPages(int)}.
 	 * 
 	 * @param startPage the start page.
-	 * @param endPage   the end page.
+	 * @param endPage   the end page (exclusive).
 	 * @param type      the submissions type.
 	 * @return the unloaded submissions.
 	 * @throws IOException there was an error getting the submissions.
@@ -305,17 +646,60 @@ public class SubmissionLoader {
 			throw new IllegalArgumentException("SubmissionLoader#getTypePages cannot be used to get blogs!");
 
 		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?order=order_latest";
-		Document doc = Jsoup.connect(url + "&p=" + startPage).userAgent("PMCAPI").post();
+		return prefetcher.getPages(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
 
-		List<Submission> submissions = new ArrayList<Submission>();
-		int p = startPage;
-		while (p < endPage) {
-			p++;
-			submissions.addAll(getSubmissionPage(doc, Integer.MAX_VALUE));
-			doc = Jsoup.connect(url + "&p=" + p).userAgent("PMCAPI").post();
-		}
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#getTypePages(int, int, Submission.Type)},
+	 * downloading its pages on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param type      the submissions type.
+	 * @return a future of the unloaded submissions.
+	 */
+	public CompletableFuture<List<Submission>> getTypePagesAsync(int startPage, int endPage, Submission.Type type) {
+		if (type.equals(Submission.Type.BLOGS))
+			return CompletableFuture.failedFuture(
+					new IllegalArgumentException("SubmissionLoader#getTypePages cannot be used to get blogs!"));
 
-		return submissions;
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?order=order_latest";
+		return prefetcher.getPagesAsync(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * A version of {@link SubmissionLoader#getTypePages(int, int,
+	 * Submission.Type)} that keeps going when a page cannot be read,
+	 * returning the submissions of the other pages along with the pages that
+	 * failed.
+	 * 
+	 * @param startPage the start page.
+	 * @param endPage   the end page (exclusive).
+	 * @param type      the submissions type.
+	 * @return the unloaded submissions and the failed pages.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public PartialResult<Submission> getTypePagesPartial(int startPage, int endPage,
+			Submission.Type type) throws IOException {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#getTypePagesPartial cannot be used to get blogs!");
+
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?order=order_latest";
+		return prefetcher.getPagesPartial(PagePrefetcher.range(url, startPage, endPage),
+				page -> getSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Gets the loader authors and other users are lazily loaded with.
+	 * 
+	 * @return the user loader, or null if users are left unloaded.
+	 */
+	public UserLoader getUserLoader() {
+		return userLoader;
 	}
 
 	/**
@@ -356,7 +740,20 @@ public class SubmissionLoader {
 	}
 
 	/**
-	 * Loads the given URL into a {@link Submission} object.
+	 * An asynchronous version of {@link SubmissionLoader#load(Submission)}, run
+	 * on this loader's {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param submission
+	 * @return a future of the loded {@link Submission}
+	 */
+	public CompletableFuture<Submission> loadAsync(Submission submission) {
+		return Async.supply(() -> load(submission), executor);
+	}
+
+	/**
+	 * Loads the given URL into a {@link Submission} object. If the submission has
+	 * been loaded before and has not changed since, the loaded submission is
+	 * returned.
 	 * 
 	 * @param url the URL to load.
 	 * @return the {@link Submission} representation.
@@ -364,8 +761,17 @@ public class SubmissionLoader {
 	 */
 
 	public Submission load(String url) throws IOException {
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Submission loaded = loadedSubmissions.peek(url);
+		Page page = loaded == null ? fetcher.fetch(url) : fetcher.revalidate(url);
+		if (page.isNotModified())
+			return loaded;
+		PageType pageType = PageType.of(url);
+		CacheOutcome outcome = loaded == null ? CacheOutcome.MISS : CacheOutcome.MODIFIED;
+		Document document = metrics.parse(pageType, page, outcome);
+
+		long time = System.nanoTime();
 		try {
+			Extraction doc = SUBMISSION_PAGE.extract(document);
 			String type = getType(doc);
 			switch (type) {
 			case "Projects": {
@@ -386,9 +792,11 @@ public class SubmissionLoader {
 				String[] tags = getTags(doc);
 				Element desc = getDescription(doc);
 
-				Project project = new Project(url, title, media, download, mirrors, desc, tags, author,
-						(int) details[0], (int) details[1], (int) details[2], (int) details[3], id, comments,
-						(LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				Project project = metrics.build(pageType, page, outcome,
+						() -> new Project(url, title, media, download, mirrors, desc, tags, author, (int) details[0],
+								(int) details[1], (int) details[2], (int) details[3], id, comments,
+								(LocalDateTime) details[4]));
 
 				loadedSubmissions.put(url, project);
 				return project;
@@ -411,8 +819,11 @@ public class SubmissionLoader {
 				String[] tags = getTags(doc);
 				Element desc = getDescription(doc);
 
-				Skin skin = new Skin(url, title, media, download, mirrors, desc, tags, author, (int) details[0],
-						(int) details[1], (int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				Skin skin = metrics.build(pageType, page, outcome,
+						() -> new Skin(url, title, media, download, mirrors, desc, tags, author, (int) details[0],
+								(int) details[1], (int) details[2], (int) details[3], id, comments,
+								(LocalDateTime) details[4]));
 
 				loadedSubmissions.put(url, skin);
 				return skin;
@@ -435,9 +846,11 @@ public class SubmissionLoader {
 				String[] tags = getTags(doc);
 				Element desc = getDescription(doc);
 
-				TexturePack pack = new TexturePack(url, title, media, download, mirrors, desc, tags, author,
-						(int) details[0], (int) details[1], (int) details[2], (int) details[3], id, comments,
-						(LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				TexturePack pack = metrics.build(pageType, page, outcome,
+						() -> new TexturePack(url, title, media, download, mirrors, desc, tags, author,
+								(int) details[0], (int) details[1], (int) details[2], (int) details[3], id, comments,
+								(LocalDateTime) details[4]));
 				loadedSubmissions.put(url, pack);
 				return pack;
 			}
@@ -455,8 +868,10 @@ public class SubmissionLoader {
 				Element desc = getDescription(doc);
 				String ip = getServerIP(doc);
 
-				Server server = new Server(url, title, ip, media, desc, tags, author, (int) details[0],
-						(int) details[1], (int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				Server server = metrics.build(pageType, page, outcome,
+						() -> new Server(url, title, ip, media, desc, tags, author, (int) details[0], (int) details[1],
+								(int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]));
 
 				loadedSubmissions.put(url, server);
 				return server;
@@ -479,8 +894,11 @@ public class SubmissionLoader {
 				String[] tags = getTags(doc);
 				Element desc = getDescription(doc);
 
-				Mod mod = new Mod(url, title, media, download, mirrors, desc, tags, author, (int) details[0],
-						(int) details[1], (int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				Mod mod = metrics.build(pageType, page, outcome,
+						() -> new Mod(url, title, media, download, mirrors, desc, tags, author, (int) details[0],
+								(int) details[1], (int) details[2], (int) details[3], id, comments,
+								(LocalDateTime) details[4]));
 
 				loadedSubmissions.put(url, mod);
 				return mod;
@@ -497,14 +915,17 @@ public class SubmissionLoader {
 				String[] tags = getTags(doc);
 				Element desc = getDescription(doc);
 
-				Blog blog = new Blog(url, title, media, desc, tags, author, (int) details[0], (int) details[1],
-						(int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]);
+				metrics.stage(pageType, Stage.EXTRACT, time);
+				Blog blog = metrics.build(pageType, page, outcome,
+						() -> new Blog(url, title, media, desc, tags, author, (int) details[0], (int) details[1],
+								(int) details[2], (int) details[3], id, comments, (LocalDateTime) details[4]));
 
 				loadedSubmissions.put(url, blog);
 				return blog;
 			}
 			}
 		} catch (IndexOutOfBoundsException e) {
+			metrics.failure(pageType);
 			throw new MissingPostException(url, e);
 		}
 		return null;
@@ -520,12 +941,12 @@ public class SubmissionLoader {
 	public List<Submission> loadUserSubmissions(User user) throws IOException {
 		String userUrl = user.getURL();
 		userUrl += userUrl.endsWith("/") ? "submissions/" : "/submissions/";
-		Document doc = Jsoup.connect(userUrl).userAgent("PMCAPI").post();
+		Document doc = fetch(userUrl);
 		List<String> urls = getSubmissionURLs(doc);
 		List<Submission> submissions = new ArrayList<Submission>();
 		for (String url : urls) {
 			if (loadedSubmissions.containsKey(url)) {
-				submissions.add(loadedSubmissions.get(url));
+				submissions.add(loadedSubmissions.peek(url));
 			} else {
 				submissions.add(getSubmission(url));
 			}
@@ -534,6 +955,143 @@ public class SubmissionLoader {
 		return submissions;
 	}
 
+	/**
+	 * An asynchronous version of
+	 * {@link SubmissionLoader#loadUserSubmissions(User)}, run on this loader's
+	 * {@linkplain SubmissionLoader#getExecutor() executor}.
+	 * 
+	 * @param user the user who's submissions to load.
+	 * @return a future of the submissions.
+	 */
+	public CompletableFuture<List<Submission>> loadUserSubmissionsAsync(User user) {
+		return Async.supply(() -> loadUserSubmissions(user), executor);
+	}
+
+	/**
+	 * Opens an archive written by
+	 * {@link SubmissionLoader#writeArchive(Path, Iterable)}. The archive is
+	 * mapped into memory and each submission is only materialized when it is
+	 * looked up, with its description left unparsed until it is requested.
+	 * Materialized submissions are not cached.
+	 * 
+	 * @param file the archive file.
+	 * @return the archive.
+	 * @throws IOException the file is not a submission archive, is of another
+	 *                     version, or could not be mapped.
+	 */
+	public EntityArchive<Submission> openArchive(Path file) throws IOException {
+		return EntityArchive.open(file, "submissions", in -> Submission.read(in, snapshotUsers(), this));
+	}
+
+	/**
+	 * Publishes the blogs under the given category in order of newest to oldest.
+	 * Pages are downloaded as the subscriber requests blogs, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param category the blog category.
+	 * @return a publisher of the unloaded blogs.
+	 */
+	public Flow.Publisher<Submission> publishBlogs(Blog.Category category) {
+		return new FeedPublisher<Submission>(() -> streamBlogs(category), executor);
+	}
+
+	/**
+	 * Publishes the blogs under the given category in the specified order.
+	 * Pages are downloaded as the subscriber requests blogs, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param category the blog category.
+	 * @param feedType used to sort the blog feed.
+	 * @return a publisher of the unloaded blogs.
+	 */
+	public Flow.Publisher<Submission> publishBlogsFeed(Blog.Category category, Submission.Feed feedType) {
+		return new FeedPublisher<Submission>(() -> streamBlogsFeed(category, feedType), executor);
+	}
+
+	/**
+	 * Publishes the submissions of the given type that match the given keywords.
+	 * Pages are downloaded as the subscriber requests submissions, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param search search keywords.
+	 * @param type   the type of submission to search.
+	 * @return a publisher of the unloaded submissions.
+	 */
+	public Flow.Publisher<Submission> publishSearchSubmissions(String search, Type type) {
+		return new FeedPublisher<Submission>(() -> streamSearchSubmissions(search, type), executor);
+	}
+
+	/**
+	 * Publishes the submissions of the given type that match the given keywords,
+	 * in the order defined by the given feed.
+	 * Pages are downloaded as the subscriber requests submissions, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param search   search keywords.
+	 * @param type     the type of submission to search.
+	 * @param feedType used to sort the submissions.
+	 * @return a publisher of the unloaded submissions.
+	 */
+	public Flow.Publisher<Submission> publishSearchSubmissionsFeed(String search, Type type, Feed feedType) {
+		return new FeedPublisher<Submission>(() -> streamSearchSubmissionsFeed(search, type, feedType), executor);
+	}
+
+	/**
+	 * Publishes the submissions of the given type in order of newest to oldest. Use
+	 * {@link SubmissionLoader#publishBlogs(Blog.Category)} for blogs.
+	 * Pages are downloaded as the subscriber requests submissions, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param type the type of submission to publish.
+	 * @return a publisher of the unloaded submissions.
+	 */
+	public Flow.Publisher<Submission> publishType(Submission.Type type) {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#publishType cannot be used to get blogs!");
+
+		return new FeedPublisher<Submission>(() -> streamType(type), executor);
+	}
+
+	/**
+	 * Publishes the submissions of the given type in the order specified by the
+	 * given {@link Feed}. Use
+	 * {@link SubmissionLoader#publishBlogsFeed(Blog.Category, Submission.Feed)}
+	 * for blogs.
+	 * Pages are downloaded as the subscriber requests submissions, see
+	 * {@link FeedPublisher}.
+	 * 
+	 * @param type     the type of submission to publish.
+	 * @param feedType used to sort the submission feed.
+	 * @return a publisher of the unloaded submissions.
+	 */
+	public Flow.Publisher<Submission> publishTypeFeed(Submission.Type type, Submission.Feed feedType) {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#publishTypeFeed cannot be used to get blogs!");
+
+		return new FeedPublisher<Submission>(() -> streamTypeFeed(type, feedType), executor);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link SubmissionLoader#writeSnapshot(Path)}
+	 * into this loader's cache, without downloading or parsing any pages.
+	 * Descriptions are only parsed once they are requested, and authors are taken
+	 * from the {@linkplain SubmissionLoader#getUserLoader() user loader}'s cache,
+	 * so reading the user loader's snapshot first restores them loaded.
+	 * 
+	 * @param file the snapshot file.
+	 * @return the number of submissions read.
+	 * @throws IOException the snapshot is damaged, of another version, or could
+	 *                     not be read. Nothing is cached unless the whole
+	 *                     snapshot is read.
+	 */
+	public int readSnapshot(Path file) throws IOException {
+		Function<String, User> users = snapshotUsers();
+		Map<String, Submission> submissions = SnapshotReader.read(file, "submissions",
+				in -> Submission.read(in, users, this));
+		submissions.forEach(loadedSubmissions::put);
+		return submissions.size();
+	}
+
 	/**
 	 * Removes a user from the ignored list.
 	 * 
@@ -552,32 +1110,265 @@ public class SubmissionLoader {
 		this.ignoredUsers.remove(user.getName());
 	}
 
+	/**
+	 * Sets the executor this loader's asynchronous methods (and concurrent page
+	 * downloads) run on.
+	 * 
+	 * @param executor the executor.
+	 * @return this loader.
+	 */
+	public SubmissionLoader setExecutor(Executor executor) {
+		this.executor = executor;
+		prefetcher.setExecutor(executor);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of pages downloaded at once by the page range
+	 * methods. Defaults to 4.
+	 * 
+	 * @param max the maximum (at least 1).
+	 * @return this loader.
+	 */
+	public SubmissionLoader setMaxConcurrentPages(int max) {
+		prefetcher.setMaxConcurrency(max);
+		return this;
+	}
+
+	/**
+	 * Sets whether the stream and publish methods download the next page in the
+	 * background while the current one is consumed. Disabled by default, see
+	 * {@link PagePrefetcher#setPrefetchNextPage(boolean)}.
+	 * 
+	 * @param prefetch whether to prefetch the next page.
+	 * @return this loader.
+	 */
+	public SubmissionLoader setPrefetchNextPage(boolean prefetch) {
+		prefetcher.setPrefetchNextPage(prefetch);
+		return this;
+	}
+
+	/**
+	 * Sets whether feed pages are read with a {@link FeedScanner} instead of
+	 * being parsed. Enabled by default; the scanner reads the same submissions as
+	 * parsing and falls back to it on markup it does not support, so this only
+	 * needs disabling to rule the scanner out.
+	 * 
+	 * @param scan whether to scan feed pages.
+	 * @return this loader.
+	 */
+	public SubmissionLoader setScanFeeds(boolean scan) {
+		this.scanFeeds = scan;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics this loader reports the time taken by every stage of its
+	 * loads, the bytes it downloads, its cache lookups and the pages it fails to
+	 * read to, labeled <code>SubmissionLoader</code>.
+	 * 
+	 * @param metrics the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 * @return this loader.
+	 */
+	public SubmissionLoader setMetrics(Metrics metrics) {
+		this.metrics.setMetrics(metrics);
+		return this;
+	}
+
+	/**
+	 * Sets the loader authors and other users found by this loader are lazily
+	 * loaded with.
+	 * 
+	 * @param userLoader the user loader, or null to leave users unloaded.
+	 * @return this loader.
+	 */
+	public SubmissionLoader setUserLoader(UserLoader userLoader) {
+		this.userLoader = userLoader;
+		return this;
+	}
+
+	/**
+	 * Streams the blogs under the given category in order of newest to oldest.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param category the blog category.
+	 * @return a stream of the unloaded blogs.
+	 */
+	public Stream<Submission> streamBlogs(Blog.Category category) {
+		return streamBlogsFeed(category, Feed.NEW);
+	}
+
+	/**
+	 * Streams the blogs under the given category in the specified order.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param category the blog category.
+	 * @param feedType used to sort the blog feed.
+	 * @return a stream of the unloaded blogs.
+	 */
+	public Stream<Submission> streamBlogsFeed(Blog.Category category, Submission.Feed feedType) {
+		String url = "https://www.planetminecraft.com/resources/blogs/" + category.toString() + feedType.toString();
+		return prefetcher.stream(url, page -> readSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the submissions of the given type that match the given keywords.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param search search keywords.
+	 * @param type   the type of submission to search.
+	 * @return a stream of the unloaded submissions.
+	 */
+	public Stream<Submission> streamSearchSubmissions(String search, Type type) {
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?keywords=" + search;
+		return prefetcher.stream(url, page -> readSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the submissions of the given type that match the given keywords, in
+	 * the order defined by the given feed.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param search   search keywords.
+	 * @param type     the type of submission to search.
+	 * @param feedType used to sort the submissions.
+	 * @return a stream of the unloaded submissions.
+	 */
+	public Stream<Submission> streamSearchSubmissionsFeed(String search, Type type, Feed feedType) {
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString() + "&keywords="
+				+ search;
+		return prefetcher.stream(url, page -> readSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the submissions of the given type in order of newest to oldest. Use
+	 * {@link SubmissionLoader#streamBlogs(Blog.Category)} for blogs.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param type the type of submission to stream.
+	 * @return a stream of the unloaded submissions.
+	 */
+	public Stream<Submission> streamType(Submission.Type type) {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#streamType cannot be used to get blogs!");
+
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + "?order=order_latest";
+		return prefetcher.stream(url, page -> readSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Streams the submissions of the given type in the order specified by the
+	 * given {@link Feed}. Use
+	 * {@link SubmissionLoader#streamBlogsFeed(Blog.Category, Submission.Feed)} for
+	 * blogs.
+	 * Pages are downloaded as the stream is consumed, see
+	 * {@link PagePrefetcher#stream(String, Function)}.
+	 * 
+	 * @param type     the type of submission to stream.
+	 * @param feedType used to sort the submission feed.
+	 * @return a stream of the unloaded submissions.
+	 */
+	public Stream<Submission> streamTypeFeed(Submission.Type type, Submission.Feed feedType) {
+		if (type.equals(Submission.Type.BLOGS))
+			throw new IllegalArgumentException("SubmissionLoader#streamTypeFeed cannot be used to get blogs!");
+
+		String url = "https://www.planetminecraft.com/resources/" + type.toString() + feedType.toString();
+		return prefetcher.stream(url, page -> readSubmissionPage(page, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Writes the given submissions to an archive file, which
+	 * {@link SubmissionLoader#openArchive(Path)} looks submissions up in by ID or
+	 * URL without reading the whole archive. Submissions that are not loaded yet
+	 * are loaded first.
+	 * 
+	 * @param file        the archive file.
+	 * @param submissions the submissions, such as the output of a stream method.
+	 * @return the number of submissions written.
+	 * @throws IOException there was an error writing the archive or loading a
+	 *                     submission.
+	 */
+	public int writeArchive(Path file, Iterable<? extends Submission> submissions) throws IOException {
+		return EntityArchive.write(file, "submissions", submissions, Submission::getID, Submission::getURL,
+				Submission::write);
+	}
+
+	/**
+	 * Writes the submissions in this loader's cache to a snapshot file, which
+	 * {@link SubmissionLoader#readSnapshot(Path)} reads back in a later run. The
+	 * file is only replaced once the snapshot is complete.
+	 * 
+	 * @param file the snapshot file.
+	 * @return the number of submissions written.
+	 * @throws IOException there was an error writing the snapshot.
+	 */
+	public int writeSnapshot(Path file) throws IOException {
+		return SnapshotWriter.write(file, "submissions", loadedSubmissions.toMap(), Submission::write);
+	}
+
+	/**
+	 * Downloads and parses the page at the given URL.
+	 * 
+	 * @param url the page URL.
+	 * @return the page document.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	private Document fetch(String url) throws IOException {
+		return metrics.parse(PageType.of(url), fetcher.fetch(url));
+	}
+
+	/**
+	 * Creates a user for the given profile URL, bound to the
+	 * {@linkplain SubmissionLoader#getUserLoader() user loader}.
+	 * 
+	 * @param url the profile URL.
+	 * @return the unloaded user.
+	 */
+	private User newUser(String url) {
+		return new User(url, userLoader);
+	}
+
+	/**
+	 * Creates the function that resolves the user URLs of a snapshot being read.
+	 * Each URL resolves to a single user: the user loader's cached user, or a new
+	 * unloaded one.
+	 * 
+	 * @return the user resolver.
+	 */
+	private Function<String, User> snapshotUsers() {
+		Map<String, User> users = new HashMap<String, User>();
+		return url -> url == null ? null
+				: users.computeIfAbsent(url, u -> userLoader != null ? userLoader.getLazyUser(u) : newUser(u));
+	}
+
 	/**
 	 * Gets the thread author for the given forums thread.
 	 * 
-	 * @param doc the forums thread document.
+	 * @param doc the elements of the submission page.
 	 * @return the thread author.
 	 */
-	private User getAuthor(Document doc) {
-		Element miniInfo = doc.getElementsByClass(ElementIdentifiers.MINIINFO).first();
-		Elements loc = miniInfo.getElementsByTag("a");
-		Element link = loc.first();
-		return new User(link.absUrl("href"));
+	private User getAuthor(Extraction doc) {
+		Element link = doc.get(AUTHOR_LINK);
+		return newUser(link.absUrl("href"));
 	}
 
 	/**
 	 * Get's the URLs to any media (videos/thumbnails) in the given submission's
 	 * header.
 	 * 
-	 * @param doc  the submission document
+	 * @param doc  the elements of the submission page.
 	 * @param type the submission type as specified by
-	 *             {@link SubmissionLoader#getType(Document)}.
+	 *             {@link SubmissionLoader#getType(Extraction)}.
 	 * @return the media URLs.
 	 */
-	private String[] getMedia(Document doc, String type) {
+	private String[] getMedia(Extraction doc, String type) {
 		if (type.equalsIgnoreCase("Blogs")) {
-			Element embed = doc.getElementById(ElementIdentifiers.RESOURCE_EMBED);
-			Elements els = embed.getElementsByAttributeValue("name", ElementIdentifiers.EMBED_CODE);
+			Elements els = doc.getAll(EMBED_CODES);
 			Element textarea = els.get(0);
 			String text = textarea.text();
 			Document d = Jsoup.parse(text);
@@ -586,26 +1377,25 @@ public class SubmissionLoader {
 			String thumbnail = img.attr("src");
 			return new String[] { thumbnail };
 		} else if (type.equalsIgnoreCase("Skins")) {
-			Elements angels = doc.getElementsByClass(ElementIdentifiers.ANGELS);
+			Elements angels = doc.getAll(ANGELS);
 			Element angel = angels.get(0);
 			Elements imgs = angel.getElementsByTag("img");
 			Element img = imgs.get(0);
 			return new String[] { img.attr("src") };
 		} else if (type.equalsIgnoreCase("Projects") || type.equalsIgnoreCase("Servers")
 				|| type.equalsIgnoreCase("Projects") || type.equalsIgnoreCase("Mods")) {
-			Elements imgs = doc.getElementsByClass(ElementIdentifiers.RESOURCE_IMG);
+			Elements imgs = doc.getAll(IMAGES);
 			if (!imgs.isEmpty()) {
 				String[] thumbnails = imgs.stream().map(e -> e.attr("src")).toArray(String[]::new);
-				Elements vids = doc.getElementsByClass(ElementIdentifiers.RESOURCE_NO_DRAG);
+				Elements vids = doc.getAll(VIDEOS);
 				if (!vids.isEmpty()) {
 					String[] videos = vids.stream().map(e -> e.attr("data-rsVideo")).toArray(String[]::new);
-					return Stream.of(thumbnails, videos).distinct().toArray(String[]::new);
+					return Stream.of(thumbnails, videos).flatMap(Arrays::stream).distinct().toArray(String[]::new);
 				}
 				return thumbnails;
 			}
-			Element gallery = doc.getElementById(ElementIdentifiers.VIDEO_GALLERY);
-			if (gallery != null) {
-				Elements vids = gallery.getElementsByTag("iframe");
+			Elements vids = doc.getAll(GALLERY_VIDEOS);
+			if (vids != null) {
 				return vids.stream().map(e -> e.attr("src")).toArray(String[]::new);
 			}
 		}
@@ -616,24 +1406,24 @@ public class SubmissionLoader {
 	/**
 	 * Gets the comments on the given submission.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the comments.
 	 */
-	private List<Comment> getComments(Document doc) {
+	private List<Comment> getComments(Extraction doc) {
 		List<Comment> replies = new ArrayList<Comment>();
 
-		Element container = doc.getElementById(ElementIdentifiers.COMMENTS);
-		if (container != null) {
-			for (Element comment : container.getElementsByClass(ElementIdentifiers.COMMENTITEM)) {
+		Elements comments = doc.getAll(COMMENT_ITEMS);
+		if (comments != null) {
+			for (Element comment : comments) {
 				Element header = comment.getElementsByClass(ElementIdentifiers.COMMENTHEADER).first();
 				Element user = header.getElementsByTag("a").get(1);
 				Element text = comment.getElementsByClass(ElementIdentifiers.COMMENTTEXT).first();
 				text.select("br").append("\n");
 
 				int id = Integer.parseInt(comment.getElementsByClass(ElementIdentifiers.COMMENTID).first().ownText());
-				User author = new User(user.absUrl("href"));
+				User author = newUser(user.absUrl("href"));
 				String content = text.text();
-				LocalDateTime time = parseDateTime(header.getElementsByTag("abbr").first().attr("title"));
+				LocalDateTime time = Parsing.parseDateTime(header.getElementsByTag("abbr").first().attr("title"));
 
 				Comment reply = new Comment(author, id, content, time);
 
@@ -647,31 +1437,27 @@ public class SubmissionLoader {
 	/**
 	 * Gets the description of the given submission.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the description.
 	 */
-	private Element getDescription(Document doc) {
-		return doc.getElementById(ElementIdentifiers.TEXT);
+	private Element getDescription(Extraction doc) {
+		return doc.get(DESCRIPTION);
 	}
 
 	/**
 	 * Gets the details of the given submission.
 	 * 
-	 * @param doc the submission details.
+	 * @param doc the elements of the submission page.
 	 * @return an object array with the submission details in this order:<br>
 	 *         <code>[diamonds, views, viewsToday, favorites, timestamp]</code>
 	 */
-	private Object[] getDetails(Document doc) {
-		Element resourceInfo = doc.getElementById(ElementIdentifiers.DETAILS);
-		Element data = resourceInfo.getElementsByClass(ElementIdentifiers.DATEDIV).first();
+	private Object[] getDetails(Extraction doc) {
+		LocalDateTime time = Parsing.parseDateTime(doc.get(DATE_TIME).attr("title"));
 
-		LocalDateTime time = parseDateTime(data.getElementsByTag(ElementIdentifiers.DATETIME).first().attr("title"));
-
-		Elements details = resourceInfo.getElementsByClass(ElementIdentifiers.DETAILSBOX).first()
-				.getElementsByTag("span");
+		Elements details = doc.getAll(DETAILS);
 
 		int diamonds = Integer.parseInt(details.first().ownText());
-		int views = Integer.parseInt(details.get(1).ownText().replaceAll(",", ""));
+		int views = Parsing.parseCount(details.get(1).ownText());
 		int viewsToday = Integer.parseInt(details.get(2).ownText());
 		int favorites = Integer.parseInt(details.get(4).ownText());
 
@@ -681,58 +1467,107 @@ public class SubmissionLoader {
 	/**
 	 * Gets the download URLs for the given submission.
 	 * 
-	 * @param doc  the submission document.
+	 * @param doc  the elements of the submission page.
 	 * @param skin used to indicate whether or not the invoker is requesting a skin
 	 *             download URL.
 	 * @return the download URL.
 	 */
-	private String[] getDownloads(Document doc, boolean skin) {
-		Element download = doc.getElementsByClass(ElementIdentifiers.DOWNLOAD).first();
+	private String[] getDownloads(Extraction doc, boolean skin) {
+		Elements download = doc.getAll(DOWNLOADS);
 		if (download == null)
 			return new String[] { "No download", "" };
-		return download.getElementsByTag("a").stream().map(e -> e.absUrl("href")).toArray(String[]::new);
+		return download.stream().map(e -> e.absUrl("href")).toArray(String[]::new);
 	}
 
 	/**
 	 * Gets the submission ID for the given submission.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the ID.
 	 */
-	private int getID(Document doc) {
-		return Integer.parseInt(doc.getElementById(ElementIdentifiers.SUBID).ownText());
+	private int getID(Extraction doc) {
+		return Integer.parseInt(doc.get(ID).ownText());
 	}
 
 	/**
 	 * Gets this submission's server IP (Assuming it's a server).
 	 * 
-	 * @param doc the submission's document.
+	 * @param doc the elements of the submission page.
 	 * @return the IP.
 	 */
-	private String getServerIP(Document doc) {
-		Element e = doc.getElementsByAttributeValue("name", ElementIdentifiers.SERVERIP).first();
-		return e.getElementsByTag("input").attr("value");
+	private String getServerIP(Extraction doc) {
+		return doc.getAll(SERVER_INPUTS).attr("value");
 	}
 
 	/**
 	 * Gets the unloaded submissions on the given page.
 	 * 
-	 * @param doc    the page document.
+	 * @param page   the page.
 	 * @param amount the amount of URLs to get.
 	 * @return the unloaded submissions.
+	 * @see SubmissionLoader#readSubmissionPage(Page, int)
 	 */
-	private List<Submission> getSubmissionPage(Document doc, int amount) {
+	private List<Submission> getSubmissionPage(Page page, int amount) {
+		return readSubmissionPage(page, amount).getItems();
+	}
+
+	/**
+	 * Gets the unloaded submissions on the given page, along with the number of
+	 * submissions on the page including those by ignored users. The page is
+	 * scanned with a {@link FeedScanner}, and only parsed if the scanner cannot
+	 * handle its markup.
+	 * 
+	 * @param page   the page.
+	 * @param amount the amount of URLs to get.
+	 * @return the unloaded submissions and the row count.
+	 */
+	private FeedPage<Submission> readSubmissionPage(Page page, int amount) {
+		long time = System.nanoTime();
+		List<Submission> subs = new ArrayList<Submission>();
+		int[] rows = { 0 };
+		FeedScanner scanner = new FeedScanner(ElementIdentifiers.RINFO, ElementIdentifiers.AUTHOR);
+		boolean scanned = scanFeeds && scanner.scan(page.getBody(), page.getURL(), row -> {
+			String author = row.getAuthor();
+			if (author == null)
+				return false;
+			if (!ignoredUsers.contains(author)) {
+				if (row.getURL() == null)
+					return false;
+				subs.add(new Submission(row.getURL(), this));
+			}
+			rows[0]++;
+			return true;
+		});
+		if (scanned) {
+			metrics.stage(PageType.FEED, Stage.PARSE, time);
+			return new FeedPage<Submission>(subs, rows[0]);
+		}
+		Document doc = metrics.parse(PageType.FEED, page);
+		time = System.nanoTime();
+		FeedPage<Submission> parsed = readSubmissionPage(doc, amount);
+		metrics.stage(PageType.FEED, Stage.EXTRACT, time);
+		return parsed;
+	}
+
+	/**
+	 * Gets the unloaded submissions on the given page, along with the number of
+	 * submissions on the page including those by ignored users.
+	 * 
+	 * @param doc    the page document.
+	 * @param amount the amount of URLs to get.
+	 * @return the unloaded submissions and the row count.
+	 */
+	private FeedPage<Submission> readSubmissionPage(Document doc, int amount) {
 		Elements submissions = doc.getElementsByClass(ElementIdentifiers.RINFO);
 		List<Submission> subs = new ArrayList<Submission>();
 		for (Element submission : submissions) {
 			String author = submission.getElementsByClass(ElementIdentifiers.AUTHOR).first().getElementsByTag("a")
 					.first().ownText();
 			if (!ignoredUsers.contains(author)) {
-				subs.add(new Submission(submission.getElementsByTag("a").first().absUrl("href")) {
-				});
+				subs.add(new Submission(submission.getElementsByTag("a").first().absUrl("href"), this));
 			}
 		}
-		return subs;
+		return new FeedPage<Submission>(subs, submissions.size());
 	}
 
 	/**
@@ -753,12 +1588,11 @@ public class SubmissionLoader {
 	/**
 	 * Gets the given submission's tags.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the tags.
 	 */
-	private String[] getTags(Document doc) {
-		Element tags = doc.getElementById(ElementIdentifiers.TAGS);
-		Elements names = tags.getElementsByTag("a");
+	private String[] getTags(Extraction doc) {
+		Elements names = doc.getAll(TAGS);
 		String[] strTags = new String[names.size()];
 		for (int i = 0; i < names.size(); i++) {
 			strTags[i] = names.get(i).ownText();
@@ -769,45 +1603,24 @@ public class SubmissionLoader {
 	/**
 	 * Gets the title of the given submission.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the submission title.
 	 */
-	private String getTitle(Document doc) {
-		return doc.getElementsByTag(ElementIdentifiers.STITLE).first().ownText();
+	private String getTitle(Extraction doc) {
+		return doc.get(TITLE).ownText();
 	}
 
 	/**
 	 * Gets the category for the given submission.
 	 * 
-	 * @param doc the submission document.
+	 * @param doc the elements of the submission page.
 	 * @return the category.
 	 */
-	private String getType(Document doc) {
-		Elements category = doc.getElementsByClass(ElementIdentifiers.TYPE);
+	private String getType(Extraction doc) {
+		Elements category = doc.getAll(TYPES);
 		return category.get(0).getElementsByTag("a").get(1).ownText();
 	}
 
-	/**
-	 * Converts the given date-time string into a {@link LocalDateTime} object.
-	 * 
-	 * @param datetime the date-time string to convert.
-	 * @return the {@link LocalDateTime} representation of the given date-time
-	 *         string.
-	 */
-	private LocalDateTime parseDateTime(String datetime) {
-		String[] dateAndTime = datetime.split("T");
-		String[] date = dateAndTime[0].split("-");
-		String[] time = dateAndTime[1].split(":");
-
-		int year = Integer.parseInt(date[0]);
-		int month = Integer.parseInt(date[1]);
-		int day = Integer.parseInt(date[2]);
-		int hour = Integer.parseInt(time[0]);
-		int minute = Integer.parseInt(time[1]);
-
-		return LocalDateTime.of(year, month, day, hour, minute);
-	}
-
 	public static void main(String[] args) throws IOException {
 
 	}
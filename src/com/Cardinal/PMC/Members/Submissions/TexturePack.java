@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.util.Content;
 
 /**
  * A class used to represent a resource pack submission.
@@ -46,7 +47,7 @@ public class TexturePack extends DownloadableSubmission {
 		this.media = media;
 		this.downloadUrl = downloadurl;
 		this.mirrorDownloads = mirrorDownloads;
-		this.description = description;
+		this.description = Content.of(description);
 		this.tags = tags;
 		this.author = author;
 		this.diamonds = diamonds;
@@ -59,15 +60,26 @@ public class TexturePack extends DownloadableSubmission {
 		this.type = Type.PACKS;
 	}
 
+	/**
+	 * Constructs a new, unloaded {@link TexturePack}, which is filled in when it is read
+	 * from a snapshot.
+	 * 
+	 * @param url the texture pack's URL.
+	 */
+	TexturePack(String url) {
+		super(url);
+		this.type = Type.PACKS;
+	}
+
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return "ID: " + ID + "\nType: Resource Pack\nURL: " + url + "\nMedia: "
 				+ Arrays.toString(media != null ? media : new String[1]) + "\nTitle: " + title + "\nAuthor: " + author
 				+ "\nTime: " + timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nDiamonds: "
 				+ diamonds + "\nViews: " + views + " | " + viewsToday + " today\nFavorites: " + favorites
 				+ "\nDownload: " + downloadUrl + "\nDownload Mirrors:"
 				+ Arrays.toString(mirrorDownloads != null ? mirrorDownloads : new String[1]) + "\nTags: "
-				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.text().replaceAll("\n", "\n\t")
+				+ Arrays.toString(tags) + "\nDesc: [\n\t" + description.getText().replaceAll("\n", "\n\t")
 				+ "\n]\nComments: {\n\t"
 				+ comments.stream().map(c -> c.toString()).collect(Collectors.joining("\n\n")).replaceAll("\n", "\n\t")
 				+ "\n}";
@@ -1,22 +1,31 @@
 package com.Cardinal.PMC.Members;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.Cardinal.PMC.Forums.Thread;
 import com.Cardinal.PMC.Forums.ThreadLoader;
 import com.Cardinal.PMC.Members.Submissions.Submission;
 import com.Cardinal.PMC.Members.Submissions.SubmissionLoader;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
 
 /**
- * A class used to represent a PMC member.
+ * A class used to represent a PMC member. Users constructed with a
+ * {@link UserLoader} load their data lazily, one page at a time, and throw an
+ * {@link UncheckedIOException} if a page cannot be loaded. Each page is loaded
+ * and its values read while holding the user's lock, so other threads never
+ * see half of a page's values.
  * 
  * @author Cardinal System
  *
@@ -27,6 +36,7 @@ public class User {
 	private int xp = -1, ID, profileviews = -1, level = -1;
 	private List<User> subscribers, subscriptions;
 	private LocalDateTime joined;
+	private UserLoader loader;
 	private HashMap<String, Submission> submissions = new HashMap<String, Submission>();
 	private HashMap<String, Thread> threads = new HashMap<String, Thread>();
 
@@ -52,9 +62,11 @@ public class User {
 	 * @param joined
 	 *            the user's join date.
 	 * @param subscribers
-	 *            the user's subscribers (typically unloaded).
+	 *            the user's subscribers (typically unloaded), or null if they
+	 *            were not loaded.
 	 * @param subscriptions
-	 *            the user's subscriptions (typically unloaded).
+	 *            the user's subscriptions (typically unloaded), or null if they
+	 *            were not loaded.
 	 */
 	public User(String name, String url, String about, String clazz, int xp, int iD, int profileviews, int level,
 			LocalDateTime joined, List<User> subscribers, List<User> subscriptions) {
@@ -81,6 +93,22 @@ public class User {
 		this.url = url;
 	}
 
+	/**
+	 * Constructs a new, lazily loaded user. Each accessor downloads only the page
+	 * its data lives on (profile, about, subscribers or subscriptions) the first
+	 * time it is called, using the given loader.
+	 * 
+	 * @param url
+	 *            the user's profile URL.
+	 * @param loader
+	 *            the loader used to load this user's data, or null to leave it
+	 *            unloaded.
+	 */
+	public User(String url, UserLoader loader) {
+		this.url = url;
+		this.loader = loader;
+	}
+
 	/**
 	 * Gets a list of submissions by this user.
 	 * 
@@ -204,11 +232,10 @@ public class User {
 	 * 
 	 * @return the name.
 	 */
-	public String getName() throws UnloadedResourceExcpetion {
+	public synchronized String getName() throws UnloadedResourceExcpetion {
 		if (this.name == null)
-			throw new UnloadedResourceExcpetion(url, "username");
-		else
-			return name;
+			loadProfile("username");
+		return name;
 	}
 
 	/**
@@ -216,11 +243,10 @@ public class User {
 	 * 
 	 * @return the about.
 	 */
-	public String getAbout() throws UnloadedResourceExcpetion {
+	public synchronized String getAbout() throws UnloadedResourceExcpetion {
 		if (this.about == null)
-			throw new UnloadedResourceExcpetion(url, "userAbout");
-		else
-			return about;
+			loadAbout("userAbout");
+		return about;
 	}
 
 	/**
@@ -228,13 +254,12 @@ public class User {
 	 * 
 	 * @return the experience points.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public int getXp() throws UnloadedResourceExcpetion {
+	public synchronized int getXp() throws UnloadedResourceExcpetion {
 		if (this.xp == -1)
-			throw new UnloadedResourceExcpetion(url, "userXp");
-		else
-			return xp;
+			loadAbout("userXp");
+		return xp;
 	}
 
 	/**
@@ -242,13 +267,12 @@ public class User {
 	 * 
 	 * @return the level.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public int getLevel() throws UnloadedResourceExcpetion {
+	public synchronized int getLevel() throws UnloadedResourceExcpetion {
 		if (this.level == -1)
-			throw new UnloadedResourceExcpetion(url, "userLevel");
-		else
-			return level;
+			loadAbout("userLevel");
+		return level;
 	}
 
 	/**
@@ -256,13 +280,12 @@ public class User {
 	 * 
 	 * @return the class.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public String getRankClass() throws UnloadedResourceExcpetion {
+	public synchronized String getRankClass() throws UnloadedResourceExcpetion {
 		if (this.clazz == null)
-			throw new UnloadedResourceExcpetion(url, "userClass");
-		else
-			return clazz;
+			loadAbout("userClass");
+		return clazz;
 	}
 
 	/**
@@ -270,13 +293,12 @@ public class User {
 	 * 
 	 * @return the ID.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public int getID() throws UnloadedResourceExcpetion {
+	public synchronized int getID() throws UnloadedResourceExcpetion {
 		if (this.ID == 0)
-			throw new UnloadedResourceExcpetion(url, "userID");
-		else
-			return ID;
+			loadProfile("userID");
+		return ID;
 	}
 
 	/**
@@ -284,13 +306,12 @@ public class User {
 	 * 
 	 * @return the subscribers.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public List<User> getSubscribers() throws UnloadedResourceExcpetion {
+	public synchronized List<User> getSubscribers() throws UnloadedResourceExcpetion {
 		if (this.subscribers == null)
-			throw new UnloadedResourceExcpetion(url, "userSubscribers");
-		else
-			return subscribers;
+			loadSubscribers("userSubscribers");
+		return subscribers;
 	}
 
 	/**
@@ -298,13 +319,12 @@ public class User {
 	 * 
 	 * @return the subscriptions.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public List<User> getSubscriptions() throws UnloadedResourceExcpetion {
+	public synchronized List<User> getSubscriptions() throws UnloadedResourceExcpetion {
 		if (this.subscriptions == null)
-			throw new UnloadedResourceExcpetion(url, "userSubscriptions");
-		else
-			return subscriptions;
+			loadSubscriptions("userSubscriptions");
+		return subscriptions;
 	}
 
 	/**
@@ -312,13 +332,12 @@ public class User {
 	 * 
 	 * @return the profile views.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public int getProfileViews() throws UnloadedResourceExcpetion {
+	public synchronized int getProfileViews() throws UnloadedResourceExcpetion {
 		if (this.profileviews == -1)
-			throw new UnloadedResourceExcpetion(url, "userViews");
-		else
-			return profileviews;
+			loadAbout("userViews");
+		return profileviews;
 	}
 
 	/**
@@ -326,13 +345,12 @@ public class User {
 	 * 
 	 * @return the time joined.
 	 * @throws UnloadedResourceExcpetion
-	 *             thrown if this user has not been loaded.
+	 *             thrown if this user has not been loaded and has no loader.
 	 */
-	public LocalDateTime getJoined() throws UnloadedResourceExcpetion {
+	public synchronized LocalDateTime getJoined() throws UnloadedResourceExcpetion {
 		if (this.joined == null)
-			throw new UnloadedResourceExcpetion(url, "userTimestamp");
-		else
-			return joined;
+			loadAbout("userTimestamp");
+		return joined;
 	}
 
 	/**
@@ -345,14 +363,15 @@ public class User {
 	 * @throws ParseException
 	 *             there was an error loading the user's join date.
 	 */
-	public void load(UserLoader loader) throws IOException, ParseException {
+	public synchronized void load(UserLoader loader) throws IOException, ParseException {
 		User u = loader.getUser(url);
 		this.name = u.getName();
 		this.about = u.getAbout();
 		this.clazz = u.getRankClass();
 		this.xp = u.getXp();
 		this.ID = u.getID();
-		this.subscribers = u.getSubscribers();
+		this.subscribers = u.subscribers;
+		this.subscriptions = u.subscriptions;
 		this.profileviews = u.getProfileViews();
 		this.level = u.getLevel();
 		this.joined = u.getJoined();
@@ -385,6 +404,156 @@ public class User {
 		thr.forEach(t -> threads.put(t.getURL(), t));
 	}
 
+	/**
+	 * Reads a user written by {@link User#write(SnapshotWriter)} into the user
+	 * its URL resolves to.
+	 * 
+	 * @param in
+	 *            the snapshot reader.
+	 * @param users
+	 *            resolves user URLs to users, including the user being read.
+	 * @return the user.
+	 * @throws IOException
+	 *             there was an error reading the user.
+	 */
+	static User read(SnapshotReader in, Function<String, User> users) throws IOException {
+		User user = users.apply(in.readSymbol());
+		user.name = in.readString();
+		user.about = in.readString();
+		user.clazz = in.readSymbol();
+		user.xp = in.readInt();
+		user.ID = in.readInt();
+		user.profileviews = in.readInt();
+		user.level = in.readInt();
+		user.joined = in.readTimestamp();
+		user.subscribers = readUsers(in, users);
+		user.subscriptions = readUsers(in, users);
+		return user;
+	}
+
+	/**
+	 * Writes this user to a snapshot as it is, without loading it. Subscribers
+	 * and subscriptions are written as their URLs.
+	 * 
+	 * @param out
+	 *            the snapshot writer.
+	 * @throws IOException
+	 *             there was an error writing the user.
+	 */
+	synchronized void write(SnapshotWriter out) throws IOException {
+		out.writeSymbol(url);
+		out.writeString(name);
+		out.writeString(about);
+		out.writeSymbol(clazz);
+		out.writeInt(xp);
+		out.writeInt(ID);
+		out.writeInt(profileviews);
+		out.writeInt(level);
+		out.writeTimestamp(joined);
+		writeUsers(subscribers, out);
+		writeUsers(subscriptions, out);
+	}
+
+	/**
+	 * Loads this user's name and ID from their profile page, unless they are
+	 * already loaded.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 */
+	private synchronized void loadProfile(String request) {
+		if (name != null && ID != 0)
+			return;
+		Object[] profile = lazyLoad(request, () -> loader.getProfile(url));
+		this.name = (String) profile[0];
+		this.ID = (int) profile[1];
+	}
+
+	/**
+	 * Loads this user's details from their about page, unless they are already
+	 * loaded.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 */
+	private synchronized void loadAbout(String request) {
+		if (about != null && joined != null)
+			return;
+		Object[] details = lazyLoad(request, () -> loader.getDetails(url));
+		this.about = (String) details[0];
+		this.profileviews = (int) details[1];
+		this.xp = (int) details[2];
+		this.level = (int) details[3];
+		this.clazz = (String) details[4];
+		this.joined = (LocalDateTime) details[5];
+	}
+
+	/**
+	 * Loads this user's subscribers, unless they are already loaded.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 */
+	private synchronized void loadSubscribers(String request) {
+		if (subscribers == null)
+			subscribers = lazyLoad(request, () -> loader.getSubscribers(url));
+	}
+
+	/**
+	 * Loads this user's subscriptions, unless they are already loaded.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 */
+	private synchronized void loadSubscriptions(String request) {
+		if (subscriptions == null)
+			subscriptions = lazyLoad(request, () -> loader.getSubscriptions(url));
+	}
+
+	/**
+	 * Loads part of this user with its loader.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 * @param part
+	 *            loads the part.
+	 * @return the loaded part.
+	 * @throws UnloadedResourceExcpetion
+	 *             this user has no loader.
+	 * @throws UncheckedIOException
+	 *             there was an error loading the part.
+	 */
+	private <T> T lazyLoad(String request, Callable<T> part) {
+		if (loader == null)
+			throw new UnloadedResourceExcpetion(url, request);
+		try {
+			return part.call();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new UncheckedIOException(new IOException(e));
+		}
+	}
+
+	private static List<User> readUsers(SnapshotReader in, Function<String, User> users) throws IOException {
+		int size = in.readInt();
+		if (size == -1)
+			return null;
+		List<User> list = new ArrayList<User>(size);
+		for (int i = 0; i < size; i++)
+			list.add(users.apply(in.readSymbol()));
+		return list;
+	}
+
+	private static void writeUsers(List<User> users, SnapshotWriter out) throws IOException {
+		out.writeInt(users == null ? -1 : users.size());
+		if (users != null)
+			for (User user : users)
+				out.writeSymbol(user.url);
+	}
+
 	@Override
 	public String toString() {
 		return url;
@@ -395,13 +564,16 @@ public class User {
 	 * 
 	 * @return a fancy string.
 	 */
-	public String toVisualString() {
+	public synchronized String toVisualString() {
 		return "ID: " + ID + "\nURL: " + url + "\nName: " + name + "\nClass: " + clazz + "\nLevel: " + level
 				+ "\nExperience Points: " + xp + "\nProfile Views: " + profileviews + "\nJoined Date: "
 				+ joined.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nSubscribers: [\n\t"
-				+ subscribers.stream().map(User::toString).collect(Collectors.joining(", ")) + "\n]"
-				+ "\nSubscriptions: [\n\t"
-				+ subscriptions.stream().map(User::toString).collect(Collectors.joining(", ")) + "\n]";
+				+ (subscribers == null ? "unloaded"
+						: subscribers.stream().map(User::toString).collect(Collectors.joining(", ")))
+				+ "\n]" + "\nSubscriptions: [\n\t"
+				+ (subscriptions == null ? "unloaded"
+						: subscriptions.stream().map(User::toString).collect(Collectors.joining(", ")))
+				+ "\n]";
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package com.Cardinal.PMC.Members;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -9,22 +10,128 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
 
 import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.cache.EntityCache;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.MissingPostException;
+import com.Cardinal.PMC.metrics.CacheOutcome;
+import com.Cardinal.PMC.metrics.LoaderMetrics;
+import com.Cardinal.PMC.metrics.MeteredPageFetcher;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.metrics.Stage;
+import com.Cardinal.PMC.net.Async;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PageType;
+import com.Cardinal.PMC.util.ExtractionPlan;
+import com.Cardinal.PMC.util.ExtractionPlan.Extraction;
+import com.Cardinal.PMC.util.ExtractionPlan.Rule;
+import com.Cardinal.PMC.util.Parsing;
 
 public class UserLoader {
 
-	private HashMap<String, User> loadedUsers = new HashMap<String, User>();
+	/**
+	 * The elements of a user's profile page, found in a single pass over the
+	 * page.
+	 */
+	private static final ExtractionPlan PROFILE_PAGE = new ExtractionPlan();
+	private static final Rule NAME = PROFILE_PAGE.first(new Evaluator.Id(ElementIdentifiers.MEMBERTITLE))
+			.first(new Evaluator.Tag("h1"));
+	private static final Rule PROFILE_BAR = PROFILE_PAGE.first(new Evaluator.Id(ElementIdentifiers.PROFILEBAR));
+
+	/**
+	 * The elements of a user's about page, found in a single pass over the page.
+	 */
+	private static final ExtractionPlan ABOUT_PAGE = new ExtractionPlan();
+	private static final Rule ABOUT = ABOUT_PAGE.first(new Evaluator.Id(ElementIdentifiers.ABOUT));
+	private static final Rule RANK = ABOUT_PAGE.first(new Evaluator.Class("member-rank-class"));
+	private static final Rule LEVEL = ABOUT_PAGE.first(new Evaluator.Class("stat level submenu_trigger"));
+	private static final Rule STATS = ABOUT.first(new Evaluator.Id(ElementIdentifiers.ABOUTMORE))
+			.first(new Evaluator.Class(ElementIdentifiers.INFOPANE))
+			.first(new Evaluator.Class(ElementIdentifiers.CARDSTATS))
+			.first(new Evaluator.Class(ElementIdentifiers.STATSTABLE)).first(new Evaluator.Tag("tbody"))
+			.all(new Evaluator.Class(ElementIdentifiers.TABLESTAT));
+
+	private final EntityCache<User> loadedUsers = new EntityCache<User>();
+	private final LoaderMetrics metrics = new LoaderMetrics("UserLoader");
+	private final MeteredPageFetcher fetcher;
+	private Executor executor = Async.defaultExecutor();
+	private boolean loadSubscriptions = true;
+
+	/**
+	 * Constructs a new {@link UserLoader} that downloads pages with the shared
+	 * {@link HttpPageFetcher}.
+	 */
+	public UserLoader() {
+		this(HttpPageFetcher.getDefault());
+	}
+
+	/**
+	 * Constructs a new {@link UserLoader} that downloads pages with the given
+	 * fetcher.
+	 * 
+	 * @param fetcher
+	 *            the page fetcher.
+	 */
+	public UserLoader(PageFetcher fetcher) {
+		this.fetcher = new MeteredPageFetcher(fetcher, metrics);
+		loadedUsers.setMetrics(metrics);
+	}
+
+	/**
+	 * Gets the cache of the users loaded with this loader. Its size and time
+	 * to live can be tuned through the cache.
+	 * 
+	 * @return the cache.
+	 */
+	public EntityCache<User> getCache() {
+		return loadedUsers;
+	}
+
+	/**
+	 * Gets the executor this loader's asynchronous methods run on. Defaults to
+	 * {@link Async#defaultExecutor()}.
+	 * 
+	 * @return the executor.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the fetcher this loader downloads pages with.
+	 * 
+	 * @return the fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher.getFetcher();
+	}
+
+	/**
+	 * Gets the metrics this loader reports to. Defaults to {@link Metrics#NOOP}.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics.getMetrics();
+	}
 
 	/**
 	 * Gets a pre-loaded {@link User} that matches the given URL or loads a new
-	 * instance.
+	 * instance. Concurrent calls for the same URL share a single load.
 	 * 
 	 * @param url
 	 *            the user's profile URL.
@@ -35,11 +142,40 @@ public class UserLoader {
 	 *             there was an error loading the user's join date.
 	 */
 	public User getUser(String url) throws IOException, ParseException {
-		return loadedUsers.containsKey(url) ? loadedUsers.get(url) : loadUser(url);
+		return loadedUsers.getOrLoad(url, () -> loadUser(url));
+	}
+
+	/**
+	 * An asynchronous version of {@link UserLoader#getUser(String)}, run on
+	 * this loader's {@linkplain UserLoader#getExecutor() executor}.
+	 * 
+	 * @param url
+	 *            the user's profile URL.
+	 * @return a future of the user instance.
+	 */
+	public CompletableFuture<User> getUserAsync(String url) {
+		return Async.supply(() -> getUser(url), executor);
+	}
+
+	/**
+	 * Gets a pre-loaded {@link User} that matches the given URL or a lazily
+	 * loaded one that downloads each of its pages on first access.
+	 * 
+	 * @param url
+	 *            the user's profile URL.
+	 * @return the user instance.
+	 */
+	public User getLazyUser(String url) {
+		User user = loadedUsers.peek(url);
+		return user != null ? user : new User(url, this);
 	}
 
 	/**
-	 * Loads the given URL into a {@link User} object.
+	 * Loads the given URL into a {@link User} object. The profile, about,
+	 * subscribers and subscriptions pages are downloaded concurrently; the latter
+	 * two are skipped if {@link UserLoader#setLoadSubscriptions(boolean)} is
+	 * disabled. If the user has been loaded before and their profile has not
+	 * changed since, the loaded user is returned.
 	 * 
 	 * @param url
 	 *            the URL to load.
@@ -50,26 +186,198 @@ public class UserLoader {
 	 *             there was an error loading the user's join date.
 	 */
 	public User loadUser(String url) throws IOException, ParseException {
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		return loadUser(url, loadSubscriptions);
+	}
+
+	/**
+	 * Loads the given URL into a {@link User} object. The profile, about,
+	 * subscribers and subscriptions pages are downloaded concurrently, on the
+	 * calling thread and this loader's {@linkplain UserLoader#getExecutor()
+	 * executor}. Pages the executor has not started by the time they are needed
+	 * are downloaded on the calling thread, so this never waits on a busy
+	 * executor. If the user has been loaded before and their profile has not
+	 * changed since, the loaded user is returned.
+	 * 
+	 * @param url
+	 *            the URL to load.
+	 * @param subscriptions
+	 *            whether to load the user's subscribers and subscriptions. If
+	 *            not, they are left unloaded.
+	 * @return the user object.
+	 * @throws IOException
+	 *             there was an error loading the user.
+	 * @throws ParseException
+	 *             there was an error loading the user's join date.
+	 */
+	public User loadUser(String url, boolean subscriptions) throws IOException, ParseException {
+		User loaded = loadedUsers.peek(url);
+		Page page = null;
+		if (loaded != null) {
+			page = fetcher.revalidate(url);
+			if (page.isNotModified())
+				return loaded;
+		}
 
+		FutureTask<Object[]> details = Async.fork(() -> getDetails(url), executor);
+		FutureTask<List<User>> subs = subscriptions ? Async.fork(() -> getSubscribers(url), executor) : null;
+		FutureTask<List<User>> subbed = subscriptions ? Async.fork(() -> getSubscriptions(url), executor) : null;
+
+		PageType type = PageType.of(url);
+		CacheOutcome outcome = loaded == null ? CacheOutcome.MISS : CacheOutcome.MODIFIED;
 		try {
+			if (page == null)
+				page = fetcher.fetch(url);
+			Document document = metrics.parse(type, page, outcome);
+
+			long time = System.nanoTime();
+			Extraction doc = PROFILE_PAGE.extract(document);
 			String name = getName(doc);
 			int ID = getID(doc);
-			Object[] details = getDetails(url);
-			String about = (String) details[0];
-			int views = (int) details[1], xp = (int) details[2], level = (int) details[3];
-			List<User> subs = getSubscribers(url), subbed = getSubscriptions(url);
-			String clazz = (String) details[4];
-			LocalDateTime joined = (LocalDateTime) details[5];
-
-			User user = new User(name, url, about, clazz, xp, ID, views, level, joined, subs, subbed);
+			metrics.stage(type, Stage.EXTRACT, time);
+
+			Object[] detail = Async.join(details);
+			String about = (String) detail[0];
+			int views = (int) detail[1], xp = (int) detail[2], level = (int) detail[3];
+			String clazz = (String) detail[4];
+			LocalDateTime joined = (LocalDateTime) detail[5];
+			List<User> subscribers = subs == null ? null : Async.join(subs);
+			List<User> subscribed = subbed == null ? null : Async.join(subbed);
+
+			User user = metrics.build(type, page, outcome,
+					() -> new User(name, url, about, clazz, xp, ID, views, level, joined, subscribers, subscribed));
 			loadedUsers.put(url, user);
 			return user;
 		} catch (IndexOutOfBoundsException e) {
+			metrics.failure(type);
 			throw new MissingPostException(url, e);
+		} finally {
+			details.cancel(false);
+			if (subscriptions) {
+				subs.cancel(false);
+				subbed.cancel(false);
+			}
 		}
 	}
 
+	/**
+	 * An asynchronous version of {@link UserLoader#loadUser(String)}, run on
+	 * this loader's {@linkplain UserLoader#getExecutor() executor}.
+	 * 
+	 * @param url
+	 *            the URL to load.
+	 * @return a future of the user object.
+	 */
+	public CompletableFuture<User> loadUserAsync(String url) {
+		return Async.supply(() -> loadUser(url), executor);
+	}
+
+	/**
+	 * An asynchronous version of {@link UserLoader#loadUser(String, boolean)},
+	 * run on this loader's {@linkplain UserLoader#getExecutor() executor}.
+	 * 
+	 * @param url
+	 *            the URL to load.
+	 * @param subscriptions
+	 *            whether to load the user's subscribers and subscriptions.
+	 * @return a future of the user object.
+	 */
+	public CompletableFuture<User> loadUserAsync(String url, boolean subscriptions) {
+		return Async.supply(() -> loadUser(url, subscriptions), executor);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link UserLoader#writeSnapshot(Path)} into
+	 * this loader's cache, without downloading or parsing any pages. Read this
+	 * snapshot before those of the other loaders, so the authors they restore
+	 * are loaded users.
+	 * 
+	 * @param file
+	 *            the snapshot file.
+	 * @return the number of users read.
+	 * @throws IOException
+	 *             the snapshot is damaged, of another version, or could not be
+	 *             read. Nothing is cached unless the whole snapshot is read.
+	 */
+	public int readSnapshot(Path file) throws IOException {
+		Map<String, User> resolved = new HashMap<String, User>();
+		Function<String, User> users = url -> url == null ? null
+				: resolved.computeIfAbsent(url, u -> new User(u, this));
+		Map<String, User> read = SnapshotReader.read(file, "users", in -> User.read(in, users));
+		read.forEach(loadedUsers::put);
+		return read.size();
+	}
+
+	/**
+	 * Sets the executor this loader's asynchronous methods run on.
+	 * 
+	 * @param executor
+	 *            the executor.
+	 * @return this loader.
+	 */
+	public UserLoader setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Sets whether {@link UserLoader#loadUser(String)} and
+	 * {@link UserLoader#getUser(String)} download the subscribers and
+	 * subscriptions pages. Disable this when only the profile is needed; the
+	 * loaded users' subscribers and subscriptions are then left unloaded.
+	 * Enabled by default.
+	 * 
+	 * @param loadSubscriptions
+	 *            whether to load subscribers and subscriptions.
+	 * @return this loader.
+	 */
+	public UserLoader setLoadSubscriptions(boolean loadSubscriptions) {
+		this.loadSubscriptions = loadSubscriptions;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics this loader reports the time taken by every stage of its
+	 * loads, the bytes it downloads, its cache lookups and the pages it fails to
+	 * read to, labeled <code>UserLoader</code>. The about, subscribers and
+	 * subscriptions pages are labeled as sub-pages.
+	 * 
+	 * @param metrics
+	 *            the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 * @return this loader.
+	 */
+	public UserLoader setMetrics(Metrics metrics) {
+		this.metrics.setMetrics(metrics);
+		return this;
+	}
+
+	/**
+	 * Writes the users in this loader's cache to a snapshot file, which
+	 * {@link UserLoader#readSnapshot(Path)} reads back in a later run. The file
+	 * is only replaced once the snapshot is complete.
+	 * 
+	 * @param file
+	 *            the snapshot file.
+	 * @return the number of users written.
+	 * @throws IOException
+	 *             there was an error writing the snapshot.
+	 */
+	public int writeSnapshot(Path file) throws IOException {
+		return SnapshotWriter.write(file, "users", loadedUsers.toMap(), User::write);
+	}
+
+	/**
+	 * Downloads and parses the page at the given URL.
+	 * 
+	 * @param url
+	 *            the page URL.
+	 * @return the page document.
+	 * @throws IOException
+	 *             there was an error downloading the page.
+	 */
+	private Document fetch(String url) throws IOException {
+		return metrics.parse(PageType.of(url), fetcher.fetch(url));
+	}
+
 	/**
 	 * Loads details on the given user.
 	 * 
@@ -79,32 +387,26 @@ public class UserLoader {
 	 *         <code>[aboutMe, subscribers, profile-views, xp, level, class joinDate]</code>
 	 * @throws IOException
 	 *             there was an error loading the details.
-	 * @throws ParseException
-	 *             there was an error getting the join date.
 	 */
-	private Object[] getDetails(String url) throws IOException, ParseException {
+	Object[] getDetails(String url) throws IOException {
 		url += url.endsWith("/") ? "about/" : "/about/";
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
-		Element about = doc.getElementById(ElementIdentifiers.ABOUT);
-
-		String aboutMe = about.ownText();
-		String rank = doc.getElementsByClass("member-rank-class").first().ownText();
-		int level = Integer.parseInt(doc.getElementsByClass("stat level submenu_trigger").first().ownText()
-				.replaceFirst("Level", "").trim());
+		Document document = fetch(url);
+		long time = System.nanoTime();
+		Extraction doc = ABOUT_PAGE.extract(document);
 
-		Element table = about.getElementById(ElementIdentifiers.ABOUTMORE)
-				.getElementsByClass(ElementIdentifiers.INFOPANE).first()
-				.getElementsByClass(ElementIdentifiers.CARDSTATS).first()
-				.getElementsByClass(ElementIdentifiers.STATSTABLE).first().getElementsByTag("tbody").first();
+		String aboutMe = doc.get(ABOUT).ownText();
+		String rank = doc.get(RANK).ownText();
+		int level = Integer.parseInt(doc.get(LEVEL).ownText().replaceFirst("Level", "").trim());
 
-		Elements stats = table.getElementsByClass(ElementIdentifiers.TABLESTAT);
+		Elements stats = doc.getAll(STATS);
 
-		int views = Integer.parseInt(stats.get(1).ownText().replaceAll(",", ""));
-		int xp = Integer.parseInt(stats.get(2).ownText().replaceAll(",", ""));
+		int views = Parsing.parseCount(stats.get(1).ownText());
+		int xp = Parsing.parseCount(stats.get(2).ownText());
 
 		LocalDateTime timestamp = LocalDateTime.of(
 				LocalDate.parse(stats.get(12).ownText(), DateTimeFormatter.ofPattern("MMM d, yyyy")), LocalTime.MIN);
 
+		metrics.stage(PageType.SUB_PAGE, Stage.EXTRACT, time);
 		return new Object[] { aboutMe, views, xp, level, rank, timestamp };
 	}
 
@@ -112,22 +414,46 @@ public class UserLoader {
 	 * Gets the given user's ID.
 	 * 
 	 * @param doc
-	 *            the user document.
+	 *            the elements of the user's profile page.
 	 * @return the ID.
 	 */
-	private int getID(Document doc) {
-		return Integer.parseInt(doc.getElementById(ElementIdentifiers.PROFILEBAR).attr(ElementIdentifiers.PROFILEID));
+	private int getID(Extraction doc) {
+		return Integer.parseInt(doc.get(PROFILE_BAR).attr(ElementIdentifiers.PROFILEID));
 	}
 
 	/**
 	 * Gets the given user's name.
 	 * 
 	 * @param doc
-	 *            the user document.
+	 *            the elements of the user's profile page.
 	 * @return the username.
 	 */
-	private String getName(Document doc) {
-		return doc.getElementById(ElementIdentifiers.MEMBERTITLE).getElementsByTag("h1").first().ownText();
+	private String getName(Extraction doc) {
+		return doc.get(NAME).ownText();
+	}
+
+	/**
+	 * Loads the name and ID of the given user from their profile page.
+	 * 
+	 * @param url
+	 *            the user profile URL.
+	 * @return the profile in this order: <br>
+	 *         <code>[name, ID]</code>
+	 * @throws IOException
+	 *             there was an error loading the profile.
+	 */
+	Object[] getProfile(String url) throws IOException {
+		Document document = fetch(url);
+		long time = System.nanoTime();
+		Extraction doc = PROFILE_PAGE.extract(document);
+		try {
+			Object[] profile = new Object[] { getName(doc), getID(doc) };
+			metrics.stage(PageType.of(url), Stage.EXTRACT, time);
+			return profile;
+		} catch (IndexOutOfBoundsException e) {
+			metrics.failure(PageType.of(url));
+			throw new MissingPostException(url, e);
+		}
 	}
 
 	/**
@@ -139,13 +465,15 @@ public class UserLoader {
 	 * @throws IOException
 	 *             there was an error loading the subscriber URLs.
 	 */
-	private List<User> getSubscribers(String url) throws IOException {
+	List<User> getSubscribers(String url) throws IOException {
 		url += url.endsWith("/") ? "subscribers/" : "/subscribers/";
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Document doc = fetch(url);
+		long time = System.nanoTime();
 		List<User> subs = new ArrayList<User>();
 		for (Element team : doc.getElementsByClass(ElementIdentifiers.TEAMCELL)) {
-			subs.add(new User(team.getElementsByTag("a").first().absUrl("href")));
+			subs.add(new User(team.getElementsByTag("a").first().absUrl("href"), this));
 		}
+		metrics.stage(PageType.SUB_PAGE, Stage.EXTRACT, time);
 		return subs;
 	}
 
@@ -158,13 +486,15 @@ public class UserLoader {
 	 * @throws IOException
 	 *             there was an error loading the subscriptions URLs.
 	 */
-	private List<User> getSubscriptions(String url) throws IOException {
+	List<User> getSubscriptions(String url) throws IOException {
 		url += url.endsWith("/") ? "subscriptions/" : "/subscriptions/";
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		Document doc = fetch(url);
+		long time = System.nanoTime();
 		List<User> subs = new ArrayList<User>();
 		for (Element team : doc.getElementsByClass(ElementIdentifiers.TEAMCELL)) {
-			subs.add(new User(team.getElementsByTag("a").first().absUrl("href")));
+			subs.add(new User(team.getElementsByTag("a").first().absUrl("href"), this));
 		}
+		metrics.stage(PageType.SUB_PAGE, Stage.EXTRACT, time);
 		return subs;
 	}
 }
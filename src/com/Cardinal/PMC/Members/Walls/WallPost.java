@@ -1,19 +1,28 @@
 package com.Cardinal.PMC.Members.Walls;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.Members.User;
 import com.Cardinal.PMC.Members.Submissions.Comment;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.lang.UnloadedResourceExcpetion;
+import com.Cardinal.PMC.util.Content;
+import com.Cardinal.PMC.util.PostTree;
 
 /**
- * A class used to represent a wall post.
+ * A class used to represent a wall post. Posts constructed with a
+ * {@link WallPostLoader} load themselves lazily the first time an unloaded
+ * value is requested, and throw an {@link UncheckedIOException} if they cannot
+ * be loaded. Loading and reading a post's values are synchronized on the post.
  * 
  * @author Cardinal System
  *
@@ -23,10 +32,13 @@ public class WallPost {
 	private User author;
 	private int ID = -1;
 	private String URL;
-	private Element content;
+	private Content content;
 	private int likes = -1;
 	private LocalDateTime timestamp;
 	private List<Comment> comments;
+	private List<Comment> treeComments;
+	private PostTree<Comment> commentTree;
+	private WallPostLoader loader;
 
 	/**
 	 * Constructs a new {@link WallPost} with the given data.
@@ -50,7 +62,7 @@ public class WallPost {
 			List<Comment> comments) {
 		this.author = author;
 		ID = iD;
-		this.content = content;
+		this.content = Content.of(content);
 		URL = uRL;
 		this.likes = likes;
 		this.timestamp = timestamp;
@@ -67,6 +79,21 @@ public class WallPost {
 		this.URL = URL;
 	}
 
+	/**
+	 * Constructs a new, lazily loaded wall post. The post is downloaded with the
+	 * given loader the first time an unloaded value is requested.
+	 * 
+	 * @param URL
+	 *            the URL of the wall post.
+	 * @param loader
+	 *            the loader used to load this post, or null to leave it
+	 *            unloaded.
+	 */
+	public WallPost(String URL, WallPostLoader loader) {
+		this.URL = URL;
+		this.loader = loader;
+	}
+
 	/**
 	 * Gets the URL of this wall post.
 	 * 
@@ -81,9 +108,9 @@ public class WallPost {
 	 * 
 	 * @return the author.
 	 */
-	public User getAuthor() {
+	public synchronized User getAuthor() {
 		if (author == null)
-			throw new UnloadedResourceExcpetion(URL, "wallpostAuthor");
+			lazyLoad("wallpostAuthor");
 		return author;
 	}
 
@@ -92,9 +119,9 @@ public class WallPost {
 	 * 
 	 * @return the ID.
 	 */
-	public int getID() {
+	public synchronized int getID() {
 		if (ID == -1)
-			throw new UnloadedResourceExcpetion(URL, "wallpostID");
+			lazyLoad("wallpostID");
 		return ID;
 	}
 
@@ -103,10 +130,10 @@ public class WallPost {
 	 * 
 	 * @return the content.
 	 */
-	public Element getContent() {
+	public synchronized Element getContent() {
 		if (comments == null)
-			throw new UnloadedResourceExcpetion(URL, "wallpostDesc");
-		return content;
+			lazyLoad("wallpostDesc");
+		return content == null ? null : content.getElement();
 	}
 
 	/**
@@ -115,9 +142,9 @@ public class WallPost {
 	 * 
 	 * @return the likes.
 	 */
-	public int getLikes() {
+	public synchronized int getLikes() {
 		if (likes == -1)
-			throw new UnloadedResourceExcpetion(URL, "wallpostVotes");
+			lazyLoad("wallpostVotes");
 		return likes;
 	}
 
@@ -126,20 +153,46 @@ public class WallPost {
 	 * 
 	 * @return the timestamp.
 	 */
-	public LocalDateTime getTimestamp() {
+	public synchronized LocalDateTime getTimestamp() {
 		if (timestamp == null)
-			throw new UnloadedResourceExcpetion(URL, "wallpostDate");
+			lazyLoad("wallpostDate");
 		return timestamp;
 	}
 
+	/**
+	 * Gets the tree of the comments on this wall post, which finds comments by ID.
+	 * 
+	 * @return the comment tree.
+	 */
+	public synchronized PostTree<Comment> getCommentTree() {
+		List<Comment> comments = getComments();
+		if (treeComments != comments) {
+			commentTree = new PostTree<Comment>(comments, Comment::getID, comment -> 0);
+			treeComments = comments;
+		}
+		return commentTree;
+	}
+
+	/**
+	 * Gets the comment on this wall post with the given ID.
+	 * 
+	 * @param ID
+	 *            the comment ID.
+	 * @return the comment, or null if this post has no comment with the given
+	 *         ID.
+	 */
+	public Comment getCommentByID(int ID) {
+		return getCommentTree().get(ID);
+	}
+
 	/**
 	 * Gets the comments on this wall post.
 	 * 
 	 * @return the comments.
 	 */
-	public List<Comment> getComments() {
+	public synchronized List<Comment> getComments() {
 		if (comments == null)
-			throw new UnloadedResourceExcpetion(URL, "wallpostComments");
+			lazyLoad("wallpostComments");
 		return comments;
 	}
 
@@ -152,19 +205,84 @@ public class WallPost {
 	 * @throws IOException
 	 *             there was an error loading this.
 	 */
-	public WallPost load(WallPostLoader loader) throws IOException {
+	public synchronized WallPost load(WallPostLoader loader) throws IOException {
 		WallPost post = loader.getPost(URL);
 		this.author = post.getAuthor();
 		this.comments = post.getComments();
-		this.content = post.getContent();
+		this.content = post.content;
 		this.ID = post.getID();
 		this.likes = post.getLikes();
 		this.timestamp = post.getTimestamp();
 		return this;
 	}
 
+	/**
+	 * Reads a wall post written by {@link WallPost#write(SnapshotWriter)}.
+	 * 
+	 * @param in
+	 *            the snapshot reader.
+	 * @param users
+	 *            resolves user URLs to users.
+	 * @param loader
+	 *            the loader used to load the post if it was written unloaded.
+	 * @return the wall post.
+	 * @throws IOException
+	 *             there was an error reading the post.
+	 */
+	static WallPost read(SnapshotReader in, Function<String, User> users, WallPostLoader loader)
+			throws IOException {
+		WallPost post = new WallPost(in.readString(), loader);
+		post.author = users.apply(in.readSymbol());
+		post.ID = in.readInt();
+		post.content = Content.read(in);
+		post.likes = in.readInt();
+		post.timestamp = in.readTimestamp();
+		post.comments = Comment.readAll(in, users);
+		return post;
+	}
+
+	/**
+	 * Writes this wall post to a snapshot as it is, without loading it.
+	 * 
+	 * @param out
+	 *            the snapshot writer.
+	 * @throws IOException
+	 *             there was an error writing the post.
+	 */
+	synchronized void write(SnapshotWriter out) throws IOException {
+		out.writeString(URL);
+		out.writeSymbol(author == null ? null : author.getURL());
+		out.writeInt(ID);
+		Content.write(content, out);
+		out.writeInt(likes);
+		out.writeTimestamp(timestamp);
+		Comment.writeAll(comments, out);
+	}
+
+	/**
+	 * Loads this wall post with its loader, unless it is already loaded.
+	 * 
+	 * @param request
+	 *            the requested resource data.
+	 * @throws UnloadedResourceExcpetion
+	 *             this post has no loader.
+	 * @throws UncheckedIOException
+	 *             there was an error loading this post.
+	 */
+	private synchronized void lazyLoad(String request) {
+		if (comments != null)
+			return;
+		if (loader == null)
+			throw new UnloadedResourceExcpetion(URL, request);
+		try {
+			load(loader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return "ID: " + ID + "\nURL: " + URL + "\nAuthor: " + author.toString() + "\nLikes: " + likes + "\nTime: "
 				+ timestamp.format(DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a")) + "\nContent: [\n\t" + content
 				+ "\n]\nComments: {\n\t"
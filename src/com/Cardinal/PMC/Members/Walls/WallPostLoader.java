@@ -1,19 +1,38 @@
 package com.Cardinal.PMC.Members.Walls;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
 import com.Cardinal.PMC.ElementIdentifiers;
+import com.Cardinal.PMC.cache.EntityCache;
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
 import com.Cardinal.PMC.Members.User;
+import com.Cardinal.PMC.Members.UserLoader;
 import com.Cardinal.PMC.Members.Submissions.Comment;
 import com.Cardinal.PMC.lang.MissingPostException;
+import com.Cardinal.PMC.metrics.CacheOutcome;
+import com.Cardinal.PMC.metrics.LoaderMetrics;
+import com.Cardinal.PMC.metrics.MeteredPageFetcher;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.metrics.Stage;
+import com.Cardinal.PMC.net.Async;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PageType;
+import com.Cardinal.PMC.util.Parsing;
 
 /**
  * A class used to load wall posts.
@@ -23,11 +42,73 @@ import com.Cardinal.PMC.lang.MissingPostException;
  */
 public class WallPostLoader {
 
-	private HashMap<String, WallPost> loadedPosts = new HashMap<String, WallPost>();
+	private final EntityCache<WallPost> loadedPosts = new EntityCache<WallPost>();
+	private final LoaderMetrics metrics = new LoaderMetrics("WallPostLoader");
+	private final MeteredPageFetcher fetcher;
+	private Executor executor = Async.defaultExecutor();
+	private UserLoader userLoader;
+
+	/**
+	 * Constructs a new {@link WallPostLoader} that downloads pages with the shared
+	 * {@link HttpPageFetcher}.
+	 */
+	public WallPostLoader() {
+		this(HttpPageFetcher.getDefault());
+	}
+
+	/**
+	 * Constructs a new {@link WallPostLoader} that downloads pages with the given
+	 * fetcher.
+	 * 
+	 * @param fetcher
+	 *            the page fetcher.
+	 */
+	public WallPostLoader(PageFetcher fetcher) {
+		this.fetcher = new MeteredPageFetcher(fetcher, metrics);
+		loadedPosts.setMetrics(metrics);
+	}
+
+	/**
+	 * Gets the cache of the wall posts loaded with this loader. Its size and time
+	 * to live can be tuned through the cache.
+	 * 
+	 * @return the cache.
+	 */
+	public EntityCache<WallPost> getCache() {
+		return loadedPosts;
+	}
+
+	/**
+	 * Gets the executor this loader's asynchronous methods run on. Defaults to
+	 * {@link Async#defaultExecutor()}.
+	 * 
+	 * @return the executor.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the fetcher this loader downloads pages with.
+	 * 
+	 * @return the fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher.getFetcher();
+	}
+
+	/**
+	 * Gets the metrics this loader reports to. Defaults to {@link Metrics#NOOP}.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics.getMetrics();
+	}
 
 	/**
 	 * Gets a pre-loaded {@link WallPost} that matches the given URL or loads a new
-	 * instance.
+	 * instance. Concurrent calls for the same URL share a single load.
 	 * 
 	 * @param url
 	 *            the wall post URL.
@@ -36,7 +117,41 @@ public class WallPostLoader {
 	 *             there as an error loading the post.
 	 */
 	public WallPost getPost(String url) throws IOException {
-		return loadedPosts.containsKey(url) ? loadedPosts.get(url) : loadPost(url);
+		return loadedPosts.getOrLoad(url, () -> loadPost(url));
+	}
+
+	/**
+	 * An asynchronous version of {@link WallPostLoader#getPost(String)}, run on
+	 * this loader's {@linkplain WallPostLoader#getExecutor() executor}.
+	 * 
+	 * @param url
+	 *            the wall post URL.
+	 * @return a future of the wall post.
+	 */
+	public CompletableFuture<WallPost> getPostAsync(String url) {
+		return Async.supply(() -> getPost(url), executor);
+	}
+
+	/**
+	 * Gets a pre-loaded {@link WallPost} that matches the given URL or a lazily
+	 * loaded one that downloads its page on first access.
+	 * 
+	 * @param url
+	 *            the wall post URL.
+	 * @return the wall post.
+	 */
+	public WallPost getLazyPost(String url) {
+		WallPost post = loadedPosts.peek(url);
+		return post != null ? post : new WallPost(url, this);
+	}
+
+	/**
+	 * Gets the loader authors are lazily loaded with.
+	 * 
+	 * @return the user loader, or null if authors are left unloaded.
+	 */
+	public UserLoader getUserLoader() {
+		return userLoader;
 	}
 
 	/**
@@ -51,7 +166,7 @@ public class WallPostLoader {
 	public List<WallPost> getUserWallPosts(User user) throws IOException {
 		String userUrl = user.getURL();
 		userUrl += userUrl.endsWith("/") ? "wall/" : "/wall/";
-		Document doc = Jsoup.connect(userUrl).userAgent("PMCAPI").post();
+		Document doc = fetch(userUrl);
 
 		List<WallPost> posts = new ArrayList<WallPost>();
 		for (Element post : doc.getElementsByClass(ElementIdentifiers.OPTIONS)) {
@@ -62,7 +177,20 @@ public class WallPostLoader {
 	}
 
 	/**
-	 * Loads the given URL into a {@link WallPost} object.
+	 * An asynchronous version of {@link WallPostLoader#getUserWallPosts(User)},
+	 * run on this loader's {@linkplain WallPostLoader#getExecutor() executor}.
+	 * 
+	 * @param user
+	 *            the user who's posts to load.
+	 * @return a future of the posts.
+	 */
+	public CompletableFuture<List<WallPost>> getUserWallPostsAsync(User user) {
+		return Async.supply(() -> getUserWallPosts(user), executor);
+	}
+
+	/**
+	 * Loads the given URL into a {@link WallPost} object. If the post has been
+	 * loaded before and has not changed since, the loaded post is returned.
 	 * 
 	 * @param url
 	 *            the URL to load.
@@ -71,9 +199,16 @@ public class WallPostLoader {
 	 *             there was an error loading the post.
 	 */
 	public WallPost loadPost(String url) throws IOException {
-		Document doc = Jsoup.connect(url).userAgent("PMCAPI").post();
+		WallPost loaded = loadedPosts.peek(url);
+		Page page = loaded == null ? fetcher.fetch(url) : fetcher.revalidate(url);
+		if (page.isNotModified())
+			return loaded;
+		PageType type = PageType.of(url);
+		CacheOutcome outcome = loaded == null ? CacheOutcome.MISS : CacheOutcome.MODIFIED;
+		Document doc = metrics.parse(type, page, outcome);
 
 		WallPost post;
+		long time = System.nanoTime();
 		try {
 			User author = getAuthor(doc);
 			List<Comment> comments = getComments(doc);
@@ -81,8 +216,11 @@ public class WallPostLoader {
 			int likes = getLikes(doc);
 			LocalDateTime stamp = getTimestamp(doc);
 			int ID = getID(doc);
-			post = new WallPost(author, ID, content, url, likes, stamp, comments);
+			metrics.stage(type, Stage.EXTRACT, time);
+			post = metrics.build(type, page, outcome,
+					() -> new WallPost(author, ID, content, url, likes, stamp, comments));
 		} catch (IndexOutOfBoundsException e) {
+			metrics.failure(type);
 			throw new MissingPostException(url, e);
 		}
 
@@ -90,6 +228,130 @@ public class WallPostLoader {
 		return post;
 	}
 
+	/**
+	 * An asynchronous version of {@link WallPostLoader#loadPost(String)}, run
+	 * on this loader's {@linkplain WallPostLoader#getExecutor() executor}.
+	 * 
+	 * @param url
+	 *            the URL to load.
+	 * @return a future of the {@linkplain WallPost} object.
+	 */
+	public CompletableFuture<WallPost> loadPostAsync(String url) {
+		return Async.supply(() -> loadPost(url), executor);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link WallPostLoader#writeSnapshot(Path)}
+	 * into this loader's cache, without downloading or parsing any pages. Post
+	 * content is only parsed once it is requested, and authors are taken from the
+	 * {@linkplain WallPostLoader#getUserLoader() user loader}'s cache, so reading
+	 * the user loader's snapshot first restores them loaded.
+	 * 
+	 * @param file
+	 *            the snapshot file.
+	 * @return the number of wall posts read.
+	 * @throws IOException
+	 *             the snapshot is damaged, of another version, or could not be
+	 *             read. Nothing is cached unless the whole snapshot is read.
+	 */
+	public int readSnapshot(Path file) throws IOException {
+		Function<String, User> users = snapshotUsers();
+		Map<String, WallPost> posts = SnapshotReader.read(file, "wallposts", in -> WallPost.read(in, users, this));
+		posts.forEach(loadedPosts::put);
+		return posts.size();
+	}
+
+	/**
+	 * Sets the executor this loader's asynchronous methods run on.
+	 * 
+	 * @param executor
+	 *            the executor.
+	 * @return this loader.
+	 */
+	public WallPostLoader setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics this loader reports the time taken by every stage of its
+	 * loads, the bytes it downloads, its cache lookups and the pages it fails to
+	 * read to, labeled <code>WallPostLoader</code>.
+	 * 
+	 * @param metrics
+	 *            the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 * @return this loader.
+	 */
+	public WallPostLoader setMetrics(Metrics metrics) {
+		this.metrics.setMetrics(metrics);
+		return this;
+	}
+
+	/**
+	 * Sets the loader the authors of posts and comments are lazily loaded with.
+	 * 
+	 * @param userLoader
+	 *            the user loader, or null to leave authors unloaded.
+	 * @return this loader.
+	 */
+	public WallPostLoader setUserLoader(UserLoader userLoader) {
+		this.userLoader = userLoader;
+		return this;
+	}
+
+	/**
+	 * Writes the wall posts in this loader's cache to a snapshot file, which
+	 * {@link WallPostLoader#readSnapshot(Path)} reads back in a later run. The
+	 * file is only replaced once the snapshot is complete.
+	 * 
+	 * @param file
+	 *            the snapshot file.
+	 * @return the number of wall posts written.
+	 * @throws IOException
+	 *             there was an error writing the snapshot.
+	 */
+	public int writeSnapshot(Path file) throws IOException {
+		return SnapshotWriter.write(file, "wallposts", loadedPosts.toMap(), WallPost::write);
+	}
+
+	/**
+	 * Downloads and parses the page at the given URL.
+	 * 
+	 * @param url
+	 *            the page URL.
+	 * @return the page document.
+	 * @throws IOException
+	 *             there was an error downloading the page.
+	 */
+	private Document fetch(String url) throws IOException {
+		return metrics.parse(PageType.of(url), fetcher.fetch(url));
+	}
+
+	/**
+	 * Creates a user for the given profile URL, bound to the
+	 * {@linkplain WallPostLoader#getUserLoader() user loader}.
+	 * 
+	 * @param url
+	 *            the profile URL.
+	 * @return the unloaded user.
+	 */
+	private User newUser(String url) {
+		return new User(url, userLoader);
+	}
+
+	/**
+	 * Creates the function that resolves the user URLs of a snapshot being read.
+	 * Each URL resolves to a single user: the user loader's cached user, or a new
+	 * unloaded one.
+	 * 
+	 * @return the user resolver.
+	 */
+	private Function<String, User> snapshotUsers() {
+		Map<String, User> users = new HashMap<String, User>();
+		return url -> url == null ? null
+				: users.computeIfAbsent(url, u -> userLoader != null ? userLoader.getLazyUser(u) : newUser(u));
+	}
+
 	/**
 	 * Gets the author of the given wall post.
 	 * 
@@ -101,7 +363,7 @@ public class WallPostLoader {
 		Element header = doc.getElementsByClass(ElementIdentifiers.HEADERTABLE).first();
 		Element user = header.getElementsByTag("a").get(1);
 
-		return new User(user.absUrl("href"));
+		return newUser(user.absUrl("href"));
 	}
 
 	/**
@@ -126,8 +388,8 @@ public class WallPostLoader {
 				hyper.appendText(" (" + hyper.attr("href") + ")");
 			}
 
-			User author = new User(user.absUrl("href"));
-			LocalDateTime date = parseDateTime(time.attr("title"));
+			User author = newUser(user.absUrl("href"));
+			LocalDateTime date = Parsing.parseDateTime(time.attr("title"));
 			int id = Integer.parseInt(item.attr(ElementIdentifiers.WALLCOMMENTID));
 			String desc = content.text();
 
@@ -183,28 +445,6 @@ public class WallPostLoader {
 	private LocalDateTime getTimestamp(Document doc) {
 		Element header = doc.getElementsByClass(ElementIdentifiers.HEADERTABLE).first();
 		Element time = header.getElementsByTag("abbr").first();
-		return parseDateTime(time.attr("title"));
-	}
-
-	/**
-	 * Converts the given date-time string into a {@link LocalDateTime} object.
-	 * 
-	 * @param datetime
-	 *            the date-time string to convert.
-	 * @return the {@link LocalDateTime} representation of the given date-time
-	 *         string.
-	 */
-	private LocalDateTime parseDateTime(String datetime) {
-		String[] dateAndTime = datetime.split("T");
-		String[] date = dateAndTime[0].split("-");
-		String[] time = dateAndTime[1].split(":");
-
-		int year = Integer.parseInt(date[0]);
-		int month = Integer.parseInt(date[1]);
-		int day = Integer.parseInt(date[2]);
-		int hour = Integer.parseInt(time[0]);
-		int minute = Integer.parseInt(time[1]);
-
-		return LocalDateTime.of(year, month, day, hour, minute);
+		return Parsing.parseDateTime(time.attr("title"));
 	}
 }
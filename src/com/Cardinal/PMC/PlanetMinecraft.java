@@ -1,11 +1,24 @@
 package com.Cardinal.PMC;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 import com.Cardinal.PMC.Forums.Thread;
 import com.Cardinal.PMC.Forums.ThreadLoader;
 import com.Cardinal.PMC.Members.MemberManager;
+import com.Cardinal.PMC.Members.UserLoader;
 import com.Cardinal.PMC.Members.Submissions.SubmissionLoader;
+import com.Cardinal.PMC.metrics.JmxMetrics;
+import com.Cardinal.PMC.metrics.Metrics;
+import com.Cardinal.PMC.net.Async;
+import com.Cardinal.PMC.net.CoalescingPageFetcher;
+import com.Cardinal.PMC.net.DiskCachePageFetcher;
+import com.Cardinal.PMC.net.HttpPageFetcher;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.RetryingPageFetcher;
+import com.Cardinal.PMC.net.ThrottledPageFetcher;
 
 /**
  * A class used to represent
@@ -28,17 +41,91 @@ public class PlanetMinecraft {
 				"--- PMC-API ---\n(https://github.com/TheCardinalSystem/PMC-API/)\nAuthor: Cardinal System\nVersion: 0.0.1 BETA\nCredits: Powered by JSoup (https://jsoup.org/)\n--- PMC-API ---");
 	}
 
+	private PageFetcher fetcher;
 	private ThreadLoader threadLoader;
 	private SubmissionLoader subLoader;
 	private MemberManager memberManager;
 
 	/**
-	 * Constructs a new {@link PlanetMinecraft}.
+	 * Constructs a new {@link PlanetMinecraft} that downloads pages with the
+	 * shared {@link HttpPageFetcher}. Concurrent requests for the same page share
+	 * a single download, failed requests are retried by a
+	 * {@link RetryingPageFetcher}, and every attempt of all the loaders is paced
+	 * by one {@link ThrottledPageFetcher}.
 	 */
 	public PlanetMinecraft() {
-		this.threadLoader = new ThreadLoader();
-		this.subLoader = new SubmissionLoader();
-		this.memberManager = new MemberManager();
+		this(new CoalescingPageFetcher(
+				new RetryingPageFetcher(new ThrottledPageFetcher(HttpPageFetcher.getDefault()))));
+	}
+
+	/**
+	 * Constructs a new {@link PlanetMinecraft} like
+	 * {@link PlanetMinecraft#PlanetMinecraft()}, but keeps every page it downloads
+	 * in a {@link DiskCachePageFetcher} in the given directory. Cached pages are
+	 * served without a request until they go stale.
+	 * 
+	 * @param cacheDirectory the cache directory.
+	 * @throws IOException there was an error opening the cache.
+	 */
+	public PlanetMinecraft(Path cacheDirectory) throws IOException {
+		this(new CoalescingPageFetcher(new DiskCachePageFetcher(cacheDirectory,
+				new RetryingPageFetcher(new ThrottledPageFetcher(HttpPageFetcher.getDefault())))));
+	}
+
+	/**
+	 * Constructs a new {@link PlanetMinecraft} whose loaders all download pages
+	 * with the given fetcher. Users found by the thread, submission and wall post
+	 * loaders are lazily loaded with the shared user loader.
+	 * 
+	 * @param fetcher the page fetcher.
+	 */
+	public PlanetMinecraft(PageFetcher fetcher) {
+		this.fetcher = fetcher;
+		this.memberManager = new MemberManager(fetcher);
+		UserLoader users = memberManager.getUserManager();
+		this.threadLoader = new ThreadLoader(fetcher).setUserLoader(users);
+		this.subLoader = new SubmissionLoader(fetcher).setUserLoader(users);
+	}
+
+	/**
+	 * Gets the disk cache of this PMC instance, found by unwrapping its fetcher.
+	 * 
+	 * @return the disk cache, or null if this instance's pages are not cached on
+	 *         disk.
+	 */
+	public DiskCachePageFetcher getDiskCache() {
+		return unwrap(DiskCachePageFetcher.class);
+	}
+
+	/**
+	 * Gets the fetcher shared by all the loaders of this PMC instance.
+	 * 
+	 * @return the page fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the fetcher retrying the failed requests of this PMC instance, found by
+	 * unwrapping its fetcher.
+	 * 
+	 * @return the retrying fetcher, or null if this instance's fetcher does not
+	 *         retry.
+	 */
+	public RetryingPageFetcher getRetries() {
+		return unwrap(RetryingPageFetcher.class);
+	}
+
+	/**
+	 * Gets the throttle pacing the requests of this PMC instance, found by
+	 * unwrapping its fetcher.
+	 * 
+	 * @return the throttled fetcher, or null if this instance's fetcher is not
+	 *         throttled.
+	 */
+	public ThrottledPageFetcher getThrottle() {
+		return unwrap(ThrottledPageFetcher.class);
 	}
 
 	/**
@@ -68,4 +155,95 @@ public class PlanetMinecraft {
 		return memberManager;
 	}
 
+	/**
+	 * Restores the caches of every loader from the snapshots written by
+	 * {@link PlanetMinecraft#writeSnapshot(Path)}, so a new run starts with the
+	 * entities of the last one without downloading or parsing any pages. Users
+	 * are read first, so the authors of threads, submissions and wall posts are
+	 * restored loaded. Missing snapshots are skipped.
+	 * 
+	 * @param directory the snapshot directory.
+	 * @return the number of entities read.
+	 * @throws IOException a snapshot is damaged, of another version, or could not
+	 *                     be read.
+	 */
+	public int readSnapshot(Path directory) throws IOException {
+		Path threads = directory.resolve("threads.snapshot"), submissions = directory.resolve("submissions.snapshot");
+		int read = memberManager.readSnapshot(directory);
+		if (Files.exists(threads))
+			read += threadLoader.readSnapshot(threads);
+		if (Files.exists(submissions))
+			read += subLoader.readSnapshot(submissions);
+		return read;
+	}
+
+	/**
+	 * Sets the executor the asynchronous methods of every loader run on. By
+	 * default loaders run on {@link Async#defaultExecutor()}, which uses virtual
+	 * threads on JDK 21 and newer.
+	 * 
+	 * @param executor the executor.
+	 */
+	public void setExecutor(Executor executor) {
+		threadLoader.setExecutor(executor);
+		subLoader.setExecutor(executor);
+		memberManager.setExecutor(executor);
+	}
+
+	/**
+	 * Sets the metrics every loader reports the time taken by each stage of its
+	 * loads to, along with the bytes it downloads, its cache lookups and the
+	 * pages it fails to read. Retries are reported too if this instance's
+	 * fetcher retries failed requests.
+	 * 
+	 * @param metrics the metrics, such as a {@link JmxMetrics}, or
+	 *                {@link Metrics#NOOP} to stop reporting.
+	 */
+	public void setMetrics(Metrics metrics) {
+		threadLoader.setMetrics(metrics);
+		subLoader.setMetrics(metrics);
+		memberManager.setMetrics(metrics);
+		RetryingPageFetcher retries = getRetries();
+		if (retries != null)
+			retries.setMetrics(metrics);
+	}
+
+	/**
+	 * Writes the caches of every loader to snapshots in the given directory, one
+	 * file per loader.
+	 * 
+	 * @param directory the snapshot directory.
+	 * @return the number of entities written.
+	 * @throws IOException there was an error writing a snapshot.
+	 */
+	public int writeSnapshot(Path directory) throws IOException {
+		return memberManager.writeSnapshot(directory)
+				+ threadLoader.writeSnapshot(directory.resolve("threads.snapshot"))
+				+ subLoader.writeSnapshot(directory.resolve("submissions.snapshot"));
+	}
+
+	/**
+	 * Finds the fetcher of the given type among this instance's fetcher and the
+	 * fetchers it wraps.
+	 * 
+	 * @param type the fetcher type.
+	 * @return the fetcher, or null if there is none of the given type.
+	 */
+	private <T extends PageFetcher> T unwrap(Class<T> type) {
+		PageFetcher fetcher = this.fetcher;
+		while (fetcher != null && !type.isInstance(fetcher)) {
+			if (fetcher instanceof CoalescingPageFetcher)
+				fetcher = ((CoalescingPageFetcher) fetcher).getFetcher();
+			else if (fetcher instanceof DiskCachePageFetcher)
+				fetcher = ((DiskCachePageFetcher) fetcher).getFetcher();
+			else if (fetcher instanceof RetryingPageFetcher)
+				fetcher = ((RetryingPageFetcher) fetcher).getFetcher();
+			else if (fetcher instanceof ThrottledPageFetcher)
+				fetcher = ((ThrottledPageFetcher) fetcher).getFetcher();
+			else
+				fetcher = null;
+		}
+		return type.cast(fetcher);
+	}
+
 }
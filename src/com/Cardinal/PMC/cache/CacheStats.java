@@ -0,0 +1,118 @@
+package com.Cardinal.PMC.cache;
+
+/**
+ * A snapshot of an {@link EntityCache}'s statistics.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class CacheStats {
+
+	private final long hits, misses, loads, coalesced, loadFailures, evictions, expirations;
+
+	/**
+	 * Constructs a new {@link CacheStats}.
+	 * 
+	 * @param hits         the number of lookups that found a live entry.
+	 * @param misses       the number of lookups that found no live entry.
+	 * @param loads        the number of values loaded into the cache.
+	 * @param coalesced    the number of loads that shared a load already in
+	 *                     flight for the same key.
+	 * @param loadFailures the number of loads that threw an exception.
+	 * @param evictions    the number of entries evicted to stay within the
+	 *                     maximum weight.
+	 * @param expirations  the number of entries dropped because they outlived
+	 *                     the time to live.
+	 */
+	public CacheStats(long hits, long misses, long loads, long coalesced, long loadFailures, long evictions,
+			long expirations) {
+		this.hits = hits;
+		this.misses = misses;
+		this.loads = loads;
+		this.coalesced = coalesced;
+		this.loadFailures = loadFailures;
+		this.evictions = evictions;
+		this.expirations = expirations;
+	}
+
+	/**
+	 * Gets the number of loads that shared a load already in flight for the same
+	 * key instead of starting their own.
+	 * 
+	 * @return the coalesced load count.
+	 */
+	public long getCoalesced() {
+		return coalesced;
+	}
+
+	/**
+	 * Gets the number of entries dropped because they outlived the time to live.
+	 * 
+	 * @return the expiration count.
+	 */
+	public long getExpirations() {
+		return expirations;
+	}
+
+	/**
+	 * Gets the number of entries evicted to stay within the maximum weight.
+	 * 
+	 * @return the eviction count.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the number of lookups that found a live entry.
+	 * 
+	 * @return the hit count.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the fraction of lookups that found a live entry.
+	 * 
+	 * @return the hit rate, or 1 if there have been no lookups.
+	 */
+	public double getHitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 1 : (double) hits / requests;
+	}
+
+	/**
+	 * Gets the number of loads that threw an exception.
+	 * 
+	 * @return the load failure count.
+	 */
+	public long getLoadFailures() {
+		return loadFailures;
+	}
+
+	/**
+	 * Gets the number of values loaded into the cache. Concurrent requests for
+	 * the same key share a single load.
+	 * 
+	 * @return the load count.
+	 */
+	public long getLoads() {
+		return loads;
+	}
+
+	/**
+	 * Gets the number of lookups that found no live entry.
+	 * 
+	 * @return the miss count.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hits=" + hits + ", misses=" + misses + ", loads=" + loads + ", coalesced=" + coalesced
+				+ ", loadFailures=" + loadFailures + ", evictions=" + evictions + ", expirations=" + expirations + "]";
+	}
+}
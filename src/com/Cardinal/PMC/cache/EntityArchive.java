@@ -0,0 +1,390 @@
+package com.Cardinal.PMC.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.Cardinal.PMC.cache.SnapshotReader.EntityReader;
+import com.Cardinal.PMC.cache.SnapshotWriter.EntityWriter;
+import com.Cardinal.PMC.net.PageFetcher;
+
+/**
+ * A read-only archive of entities, mapped into memory rather than read onto
+ * the heap. Entities are materialized one at a time, only when they are
+ * looked up, so an archive of millions of entities costs little more heap than
+ * the entities actually in use.
+ * <p>
+ * An archive starts with a magic number, a format version and the kind of
+ * entity it holds. Each entity follows as a record in the
+ * {@linkplain SnapshotWriter snapshot} encoding, prefixed by its length and
+ * with a symbol table of its own, so any record can be read on its own. After
+ * the records come two indexes of 12 byte entries, an int key and the offset
+ * of its record, sorted by key: one keyed by entity ID and one keyed by the
+ * hash of the entity's canonical URL. The archive ends with the offsets of
+ * both indexes, the number of entities and the magic number again.
+ * 
+ * @author Cardinal System
+ *
+ * @param <V> the type of entity.
+ */
+public class EntityArchive<V> implements Closeable {
+
+	/**
+	 * The magic number that starts and ends every archive.
+	 */
+	public static final int MAGIC = 0x504D4341;
+
+	/**
+	 * The version of the archive format written.
+	 */
+	public static final int VERSION = 2;
+
+	private static final int CHUNK_SIZE = 1 << 30, ENTRY_SIZE = 12, TRAILER_SIZE = 24;
+
+	private final Path file;
+	private final EntityReader<? extends V> reader;
+	private final FileChannel channel;
+	private volatile MappedByteBuffer[] chunks;
+	private final long idIndex, urlIndex;
+	private final int size;
+
+	private EntityArchive(Path file, String kind, EntityReader<? extends V> reader) throws IOException {
+		this.file = file;
+		this.reader = reader;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+			for (int i = 0; i < chunks.length; i++) {
+				long start = (long) i * CHUNK_SIZE;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, length - start));
+			}
+			this.chunks = chunks;
+
+			if (length < 8 + TRAILER_SIZE || getInt(0) != MAGIC || getInt(length - 4) != MAGIC)
+				throw new IOException("Not an archive: " + file);
+			if (getInt(4) != VERSION)
+				throw new IOException("Unsupported archive version: " + getInt(4));
+			byte[] kindBytes = new byte[getInt(8) >>> 16];
+			read(10, kindBytes);
+			String actual = new String(kindBytes, StandardCharsets.UTF_8);
+			if (!kind.equals(actual))
+				throw new IOException("Archive of " + actual + ", expected " + kind);
+
+			this.idIndex = getLong(length - TRAILER_SIZE);
+			this.urlIndex = getLong(length - TRAILER_SIZE + 8);
+			this.size = getInt(length - TRAILER_SIZE + 16);
+			if (size < 0 || idIndex < 0 || urlIndex != idIndex + (long) size * ENTRY_SIZE
+					|| urlIndex + (long) size * ENTRY_SIZE != length - TRAILER_SIZE)
+				throw new IOException("Damaged archive: " + file);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens an archive written by
+	 * {@link EntityArchive#write(Path, String, Iterable, ToIntFunction, Function, EntityWriter)}.
+	 * 
+	 * @param <V>    the type of entity.
+	 * @param file   the archive file.
+	 * @param kind   the kind of entity the archive must hold.
+	 * @param reader reads a single entity from its record.
+	 * @return the archive.
+	 * @throws IOException the file is not an archive of the given kind, is of
+	 *                     another version, or could not be mapped.
+	 */
+	public static <V> EntityArchive<V> open(Path file, String kind, EntityReader<? extends V> reader)
+			throws IOException {
+		return new EntityArchive<V>(file, kind, reader);
+	}
+
+	/**
+	 * Writes the given entities to an archive file, replacing it once the archive
+	 * is complete. Entities are written one at a time, so they may come from a
+	 * lazy source such as a feed stream.
+	 * 
+	 * @param <V>      the type of entity.
+	 * @param file     the archive file.
+	 * @param kind     the kind of entity.
+	 * @param entities the entities.
+	 * @param id       gets the ID of an entity.
+	 * @param url      gets the URL of an entity.
+	 * @param writer   writes a single entity.
+	 * @return the number of entities written.
+	 * @throws IOException there was an error writing the archive, or getting the
+	 *                     ID of an entity failed.
+	 */
+	public static <V> int write(Path file, String kind, Iterable<? extends V> entities,
+			ToIntFunction<? super V> id, Function<? super V, String> url, EntityWriter<? super V> writer)
+			throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			long[] ids = new long[1024], urls = new long[1024], offsets = new long[1024];
+			int size = 0;
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeUTF(kind);
+				long position = out.size();
+
+				ByteArrayOutputStream record = new ByteArrayOutputStream(1 << 12);
+				for (V entity : entities) {
+					int entityID;
+					try {
+						entityID = id.applyAsInt(entity);
+					} catch (UncheckedIOException e) {
+						throw e.getCause();
+					}
+					String key = PageFetcher.canonical(url.apply(entity));
+
+					record.reset();
+					SnapshotWriter recordWriter = new SnapshotWriter(record);
+					recordWriter.writeString(key);
+					writer.write(entity, recordWriter);
+
+					if (size == offsets.length) {
+						ids = Arrays.copyOf(ids, size * 2);
+						urls = Arrays.copyOf(urls, size * 2);
+						offsets = Arrays.copyOf(offsets, size * 2);
+					}
+					ids[size] = indexKey(entityID, size);
+					urls[size] = indexKey(key.hashCode(), size);
+					offsets[size] = position;
+					size++;
+
+					out.writeInt(record.size());
+					record.writeTo(out);
+					position += 4 + record.size();
+				}
+
+				long idIndex = position;
+				writeIndex(out, ids, offsets, size);
+				writeIndex(out, urls, offsets, size);
+				out.writeLong(idIndex);
+				out.writeLong(idIndex + (long) size * ENTRY_SIZE);
+				out.writeInt(size);
+				out.writeInt(MAGIC);
+			}
+			SnapshotWriter.replace(temp, file);
+			return size;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Closes this archive, which can no longer be read. The mapped memory is
+	 * released once it is garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		chunks = null;
+		channel.close();
+	}
+
+	/**
+	 * Checks whether this archive holds an entity with the given URL.
+	 * 
+	 * @param url the URL.
+	 * @return true if the URL is archived.
+	 * @throws IOException this archive is closed.
+	 */
+	public boolean contains(String url) throws IOException {
+		return find(PageFetcher.canonical(url)) != -1;
+	}
+
+	/**
+	 * Materializes the entity with the given URL.
+	 * 
+	 * @param url the URL.
+	 * @return the entity, or null if it is not archived.
+	 * @throws IOException its record could not be read, or this archive is
+	 *                     closed.
+	 */
+	public V get(String url) throws IOException {
+		long offset = find(PageFetcher.canonical(url));
+		return offset == -1 ? null : read(offset);
+	}
+
+	/**
+	 * Materializes the entity with the given ID. If several entities share the
+	 * ID, the first archived one is returned.
+	 * 
+	 * @param ID the ID.
+	 * @return the entity, or null if no entity with the ID is archived.
+	 * @throws IOException its record could not be read, or this archive is
+	 *                     closed.
+	 */
+	public V getByID(int ID) throws IOException {
+		long entry = lowerBound(idIndex, ID);
+		return entry == -1 ? null : read(getLong(entry + 4));
+	}
+
+	/**
+	 * Gets the archive file.
+	 * 
+	 * @return the file.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the number of archived entities.
+	 * 
+	 * @return the size.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Streams the archived entities in ID order, materializing each one as the
+	 * stream reaches it.
+	 * 
+	 * @return a stream of the entities. It throws an
+	 *         {@link UncheckedIOException} if a record cannot be read.
+	 */
+	public Stream<V> stream() {
+		return IntStream.range(0, size).mapToObj(i -> {
+			try {
+				return read(getLong(idIndex + (long) i * ENTRY_SIZE + 4));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public String toString() {
+		return "EntityArchive [file=" + file + ", size=" + size + "]";
+	}
+
+	/**
+	 * Finds the record of the given canonical URL, comparing the URL of every
+	 * record whose URL hash matches.
+	 * 
+	 * @return the offset of the record, or -1 if there is none.
+	 */
+	private long find(String key) throws IOException {
+		int hash = key.hashCode();
+		long end = urlIndex + (long) size * ENTRY_SIZE;
+		for (long entry = lowerBound(urlIndex, hash); entry != -1 && entry < end
+				&& getInt(entry) == hash; entry += ENTRY_SIZE) {
+			long offset = getLong(entry + 4);
+			if (key.equals(new SnapshotReader(record(offset)).readString()))
+				return offset;
+		}
+		return -1;
+	}
+
+	private static long indexKey(int key, int record) {
+		return ((long) key << 32) | record;
+	}
+
+	/**
+	 * Finds the first entry of the given index with the given key.
+	 * 
+	 * @return the position of the entry, or -1 if there is none.
+	 */
+	private long lowerBound(long index, int key) throws IOException {
+		int low = 0, high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getInt(index + (long) mid * ENTRY_SIZE) < key)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		long entry = index + (long) low * ENTRY_SIZE;
+		return low < size && getInt(entry) == key ? entry : -1;
+	}
+
+	private MappedByteBuffer[] chunks() throws IOException {
+		MappedByteBuffer[] chunks = this.chunks;
+		if (chunks == null)
+			throw new IOException("Archive closed: " + file);
+		return chunks;
+	}
+
+	private int getInt(long position) throws IOException {
+		int offset = (int) (position % CHUNK_SIZE);
+		if (offset <= CHUNK_SIZE - 4)
+			return chunks()[(int) (position / CHUNK_SIZE)].getInt(offset);
+		byte[] bytes = new byte[4];
+		read(position, bytes);
+		return ByteBuffer.wrap(bytes).getInt();
+	}
+
+	private long getLong(long position) throws IOException {
+		int offset = (int) (position % CHUNK_SIZE);
+		if (offset <= CHUNK_SIZE - 8)
+			return chunks()[(int) (position / CHUNK_SIZE)].getLong(offset);
+		byte[] bytes = new byte[8];
+		read(position, bytes);
+		return ByteBuffer.wrap(bytes).getLong();
+	}
+
+	/**
+	 * Copies bytes from the mapped file, across chunks if need be.
+	 */
+	private void read(long position, byte[] bytes) throws IOException {
+		MappedByteBuffer[] chunks = chunks();
+		for (int copied = 0; copied < bytes.length;) {
+			ByteBuffer chunk = chunks[(int) (position / CHUNK_SIZE)].duplicate();
+			chunk.position((int) (position % CHUNK_SIZE));
+			int n = Math.min(chunk.remaining(), bytes.length - copied);
+			chunk.get(bytes, copied, n);
+			copied += n;
+			position += n;
+		}
+	}
+
+	/**
+	 * Materializes the entity of the record at the given offset.
+	 */
+	private V read(long offset) throws IOException {
+		SnapshotReader in = new SnapshotReader(record(offset));
+		in.readString();
+		return reader.read(in);
+	}
+
+	private byte[] record(long offset) throws IOException {
+		int length = getInt(offset);
+		if (length < 0 || offset + 4 + length > idIndex)
+			throw new IOException("Damaged record at " + offset + ": " + file);
+		byte[] record = new byte[length];
+		read(offset + 4, record);
+		return record;
+	}
+
+	private static void writeIndex(DataOutputStream out, long[] keys, long[] offsets, int size)
+			throws IOException {
+		keys = Arrays.copyOf(keys, size);
+		Arrays.sort(keys);
+		for (long key : keys) {
+			out.writeInt((int) (key >> 32));
+			out.writeLong(offsets[(int) key]);
+		}
+	}
+}
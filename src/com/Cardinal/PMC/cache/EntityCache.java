@@ -0,0 +1,364 @@
+package com.Cardinal.PMC.cache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import com.Cardinal.PMC.metrics.LoaderMetrics;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PageType;
+import com.Cardinal.PMC.net.SingleFlight;
+
+/**
+ * A thread-safe cache used by the loaders to hold the entities they have
+ * loaded. Entries expire once they outlive the cache's time to live, and the
+ * least recently used entries are evicted once the total weight of the cache
+ * exceeds its maximum. Keys are URLs, and are reduced to their
+ * {@linkplain PageFetcher#canonical(String) canonical form}. Concurrent
+ * {@link EntityCache#getOrLoad(String, Callable) loads} of the same URL are
+ * shared, so a URL is only ever loaded once at a time.
+ * 
+ * @author Cardinal System
+ *
+ * @param <V> the type of entity cached.
+ */
+public class EntityCache<V> {
+
+	/**
+	 * The maximum weight of a cache constructed without one.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 10_000;
+
+	/**
+	 * The time to live of a cache constructed without one.
+	 */
+	public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+	private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true);
+	private final SingleFlight<V> loading = new SingleFlight<V>();
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), loads = new LongAdder(),
+			loadFailures = new LongAdder(), evictions = new LongAdder(), expirations = new LongAdder();
+	private long maxWeight, weight;
+	private long ttlNanos;
+	private ToLongFunction<? super V> weigher = value -> 1;
+	private volatile LoaderMetrics metrics;
+
+	/**
+	 * Constructs a new {@link EntityCache} with the
+	 * {@linkplain EntityCache#DEFAULT_MAX_WEIGHT default maximum weight} and
+	 * {@linkplain EntityCache#DEFAULT_TTL time to live}.
+	 */
+	public EntityCache() {
+		this(DEFAULT_MAX_WEIGHT, DEFAULT_TTL);
+	}
+
+	/**
+	 * Constructs a new {@link EntityCache}.
+	 * 
+	 * @param maxWeight the maximum total weight of the cached entities. Unless
+	 *                  {@linkplain EntityCache#setWeigher(ToLongFunction) told
+	 *                  otherwise} every entity weighs 1, making this the
+	 *                  maximum number of entities.
+	 * @param ttl       how long an entity is kept after it is cached, or null to
+	 *                  keep entities until they are evicted.
+	 */
+	public EntityCache(long maxWeight, Duration ttl) {
+		setMaxWeight(maxWeight);
+		setTtl(ttl);
+	}
+
+	/**
+	 * Removes every entry from this cache. Loads in flight are unaffected.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * Checks whether this cache holds a live entry for the given key. This is not
+	 * counted as a lookup.
+	 * 
+	 * @param key the key.
+	 * @return true if the key is cached and has not expired.
+	 */
+	public synchronized boolean containsKey(String key) {
+		key = PageFetcher.canonical(key);
+		Entry<V> entry = entries.get(key);
+		return entry != null && !isExpired(entry, System.nanoTime());
+	}
+
+	/**
+	 * Gets the value cached under the given key.
+	 * 
+	 * @param key the key.
+	 * @return the value, or null if the key is not cached or has expired.
+	 */
+	public V get(String key) {
+		V value = peek(key);
+		(value == null ? misses : hits).increment();
+		report(key, value != null);
+		return value;
+	}
+
+	/**
+	 * Gets the value cached under the given key, loading and caching it if it is
+	 * not. If another thread is already loading the key, this waits for that load
+	 * instead of starting a second one.
+	 * 
+	 * @param key    the key.
+	 * @param loader the task that loads the value.
+	 * @return the cached or loaded value.
+	 * @throws IOException the load failed. Checked exceptions other than
+	 *                     {@link IOException} are wrapped in one.
+	 */
+	public V getOrLoad(String key, Callable<? extends V> loader) throws IOException {
+		V value = peek(key);
+		if (value != null) {
+			hits.increment();
+			report(key, true);
+			return value;
+		}
+		misses.increment();
+		report(key, false);
+
+		String url = PageFetcher.canonical(key);
+		return loading.run(url, () -> {
+			V loaded = peek(url);
+			if (loaded != null)
+				return loaded;
+			try {
+				loaded = loader.call();
+			} catch (Exception e) {
+				loadFailures.increment();
+				throw e;
+			}
+			loads.increment();
+			if (loaded != null)
+				put(url, loaded);
+			return loaded;
+		});
+	}
+
+	/**
+	 * Gets the maximum total weight of the cached entities.
+	 * 
+	 * @return the maximum weight.
+	 */
+	public synchronized long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Gets a snapshot of this cache's statistics.
+	 * 
+	 * @return the statistics.
+	 */
+	public CacheStats getStats() {
+		return new CacheStats(hits.sum(), misses.sum(), loads.sum(), loading.getCoalesced(), loadFailures.sum(),
+				evictions.sum(), expirations.sum());
+	}
+
+	/**
+	 * Gets how long an entity is kept after it is cached.
+	 * 
+	 * @return the time to live, or null if entities are kept until evicted.
+	 */
+	public synchronized Duration getTtl() {
+		return ttlNanos == 0 ? null : Duration.ofNanos(ttlNanos);
+	}
+
+	/**
+	 * Gets the total weight of the cached entities.
+	 * 
+	 * @return the weight.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Removes the given key from this cache.
+	 * 
+	 * @param key the key.
+	 * @return the removed value, or null if the key was not cached.
+	 */
+	public synchronized V invalidate(String key) {
+		key = PageFetcher.canonical(key);
+		Entry<V> entry = entries.remove(key);
+		if (entry == null)
+			return null;
+		weight -= entry.weight;
+		return entry.value;
+	}
+
+	/**
+	 * Gets the value cached under the given key without counting it as a lookup,
+	 * dropping the entry if it has expired.
+	 * 
+	 * @param key the key.
+	 * @return the value, or null if the key is not cached or has expired.
+	 */
+	public synchronized V peek(String key) {
+		key = PageFetcher.canonical(key);
+		Entry<V> entry = entries.get(key);
+		if (entry == null)
+			return null;
+		if (isExpired(entry, System.nanoTime())) {
+			entries.remove(key);
+			weight -= entry.weight;
+			expirations.increment();
+			return null;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Caches the given value under the given key, replacing any previous value
+	 * and evicting the least recently used entries if the cache is over its
+	 * maximum weight.
+	 * 
+	 * @param key   the key.
+	 * @param value the value.
+	 */
+	public synchronized void put(String key, V value) {
+		key = PageFetcher.canonical(key);
+		long entryWeight = weigher.applyAsLong(value);
+		long expires = ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos;
+		Entry<V> previous = entries.put(key, new Entry<V>(value, entryWeight, expires));
+		if (previous != null)
+			weight -= previous.weight;
+		weight += entryWeight;
+		evict();
+	}
+
+	/**
+	 * Sets the maximum total weight of the cached entities, evicting entries if
+	 * the cache is now over it.
+	 * 
+	 * @param maxWeight the maximum weight (at least 1).
+	 * @return this cache.
+	 */
+	public synchronized EntityCache<V> setMaxWeight(long maxWeight) {
+		if (maxWeight < 1)
+			throw new IllegalArgumentException("maxWeight must be at least 1: " + maxWeight);
+		this.maxWeight = maxWeight;
+		evict();
+		return this;
+	}
+
+	/**
+	 * Sets the loader metrics every lookup is reported to, labeled with the
+	 * {@linkplain PageType#of(String) page type} of its key.
+	 * 
+	 * @param metrics the loader metrics, or null to stop reporting.
+	 * @return this cache.
+	 */
+	public EntityCache<V> setMetrics(LoaderMetrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	/**
+	 * Sets how long an entity is kept after it is cached. This only affects
+	 * entities cached from now on.
+	 * 
+	 * @param ttl the time to live, or null to keep entities until they are
+	 *            evicted.
+	 * @return this cache.
+	 */
+	public synchronized EntityCache<V> setTtl(Duration ttl) {
+		if (ttl != null && (ttl.isNegative() || ttl.isZero()))
+			throw new IllegalArgumentException("ttl must be positive: " + ttl);
+		this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+		return this;
+	}
+
+	/**
+	 * Sets the function used to weigh entities. This only affects entities cached
+	 * from now on.
+	 * 
+	 * @param weigher the weigher. Weights must not be negative.
+	 * @return this cache.
+	 */
+	public synchronized EntityCache<V> setWeigher(ToLongFunction<? super V> weigher) {
+		this.weigher = weigher;
+		return this;
+	}
+
+	/**
+	 * Gets the number of entries in this cache, including any that have expired
+	 * but not yet been dropped.
+	 * 
+	 * @return the size.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Copies the live entries of this cache without counting them as lookups.
+	 * 
+	 * @return the values keyed by their canonical keys, least recently used
+	 *         first, so putting them into another cache in order keeps their
+	 *         order.
+	 */
+	public synchronized Map<String, V> toMap() {
+		long now = System.nanoTime();
+		Map<String, V> map = new LinkedHashMap<String, V>(entries.size() * 4 / 3 + 1);
+		for (Map.Entry<String, Entry<V>> e : entries.entrySet())
+			if (!isExpired(e.getValue(), now))
+				map.put(e.getKey(), e.getValue().value);
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		return "EntityCache [size=" + size() + ", weight=" + getWeight() + ", maxWeight=" + maxWeight + ", "
+				+ getStats() + "]";
+	}
+
+	/**
+	 * Evicts the least recently used entries until the cache is within its
+	 * maximum weight, dropping expired entries along the way.
+	 */
+	private void evict() {
+		if (weight <= maxWeight)
+			return;
+		long now = System.nanoTime();
+		Iterator<Entry<V>> it = entries.values().iterator();
+		while (weight > maxWeight && it.hasNext()) {
+			Entry<V> entry = it.next();
+			it.remove();
+			weight -= entry.weight;
+			(isExpired(entry, now) ? expirations : evictions).increment();
+		}
+	}
+
+	private boolean isExpired(Entry<V> entry, long now) {
+		return entry.expires != 0 && now - entry.expires >= 0;
+	}
+
+	private void report(String key, boolean hit) {
+		LoaderMetrics metrics = this.metrics;
+		if (metrics != null)
+			metrics.cache(PageType.of(key), hit);
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long weight;
+		private final long expires;
+
+		private Entry(V value, long weight, long expires) {
+			this.value = value;
+			this.weight = weight;
+			this.expires = expires;
+		}
+	}
+}
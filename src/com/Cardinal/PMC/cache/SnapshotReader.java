@@ -0,0 +1,324 @@
+package com.Cardinal.PMC.cache;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class used to read a snapshot written by a {@link SnapshotWriter}. Reading
+ * a snapshot never downloads or parses a page: post content is kept as HTML and
+ * only parsed once it is requested.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class SnapshotReader implements Closeable {
+
+	private final InputStream in;
+	private final byte[] buffer;
+	private final List<String> symbols = new ArrayList<String>();
+	private int position, limit;
+
+	/**
+	 * Constructs a new {@link SnapshotReader}, reading and checking the snapshot
+	 * header.
+	 * 
+	 * @param in   the stream to read from.
+	 * @param kind the kind of entity the snapshot must hold.
+	 * @throws IOException the stream is not a snapshot of the given kind, is of
+	 *                     another version, or could not be read.
+	 */
+	public SnapshotReader(InputStream in, String kind) throws IOException {
+		this.in = in;
+		this.buffer = new byte[1 << 16];
+		if (readRawInt() != SnapshotWriter.MAGIC)
+			throw new IOException("Not a snapshot");
+		int version = readInt();
+		if (version != SnapshotWriter.VERSION)
+			throw new IOException("Unsupported snapshot version: " + version);
+		String actual = readString();
+		if (!kind.equals(actual))
+			throw new IOException("Snapshot of " + actual + ", expected " + kind);
+	}
+
+	/**
+	 * Constructs a new {@link SnapshotReader} of a single record without a
+	 * header, such as an {@link EntityArchive} record.
+	 * 
+	 * @param record the record.
+	 */
+	SnapshotReader(byte[] record) {
+		this.in = InputStream.nullInputStream();
+		this.buffer = record;
+		this.limit = record.length;
+	}
+
+	/**
+	 * Reads every entity from a snapshot file. Nothing is returned unless the
+	 * whole snapshot is read.
+	 * 
+	 * @param <V>    the type of entity.
+	 * @param file   the snapshot file.
+	 * @param kind   the kind of entity.
+	 * @param reader reads a single entity.
+	 * @return the entities keyed by their cache keys, in the order they were
+	 *         written.
+	 * @throws IOException the snapshot is damaged, truncated, of another kind or
+	 *                     version, or could not be read.
+	 */
+	public static <V> Map<String, V> read(Path file, String kind, EntityReader<? extends V> reader)
+			throws IOException {
+		try (SnapshotReader in = new SnapshotReader(Files.newInputStream(file), kind)) {
+			int count = in.readInt();
+			if (count < 0)
+				throw new IOException("Negative entity count: " + count);
+			Map<String, V> entities = new LinkedHashMap<String, V>(Math.min(count, 1 << 20) * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String key = in.readString();
+				entities.put(key, reader.read(in));
+			}
+			if (in.readRawInt() != SnapshotWriter.MAGIC)
+				throw new IOException("Damaged snapshot: " + file);
+			return entities;
+		} catch (EOFException e) {
+			throw new EOFException("Truncated snapshot: " + file);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Reads a boolean that may be null.
+	 * 
+	 * @return the boolean, or null.
+	 * @throws IOException there was an error reading the boolean.
+	 */
+	public Boolean readBoolean() throws IOException {
+		byte value = readByte();
+		return value == -1 ? null : value == 1;
+	}
+
+	/**
+	 * Reads a byte array that may be null.
+	 * 
+	 * @return the bytes, or null.
+	 * @throws IOException there was an error reading the bytes.
+	 */
+	public byte[] readBytes() throws IOException {
+		int length = readLength();
+		return length == -1 ? null : readBytes(length);
+	}
+
+	/**
+	 * Reads the given number of bytes.
+	 * 
+	 * @param length the number of bytes.
+	 * @return the bytes.
+	 * @throws IOException there was an error reading the bytes.
+	 */
+	private byte[] readBytes(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		int read = Math.min(length, limit - position);
+		System.arraycopy(buffer, position, bytes, 0, read);
+		position += read;
+		while (read < length) {
+			int n = in.read(bytes, read, length - read);
+			if (n == -1)
+				throw new EOFException();
+			read += n;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Reads an int.
+	 * 
+	 * @return the int.
+	 * @throws IOException there was an error reading the int.
+	 */
+	public int readInt() throws IOException {
+		int value = readVarint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Reads an int array that may be null.
+	 * 
+	 * @return the ints, or null.
+	 * @throws IOException there was an error reading the ints.
+	 */
+	public int[] readInts() throws IOException {
+		int length = readLength();
+		if (length == -1)
+			return null;
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++)
+			values[i] = readInt();
+		return values;
+	}
+
+	/**
+	 * Reads a long.
+	 * 
+	 * @return the long.
+	 * @throws IOException there was an error reading the long.
+	 */
+	public long readLong() throws IOException {
+		return ((long) readRawInt() << 32) | (readRawInt() & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Reads a string that may be null.
+	 * 
+	 * @return the string, or null.
+	 * @throws IOException there was an error reading the string.
+	 */
+	public String readString() throws IOException {
+		int length = readLength();
+		if (length == -1)
+			return null;
+		if (length > buffer.length)
+			return new String(readBytes(length), StandardCharsets.UTF_8);
+		fill(length);
+		String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+		position += length;
+		return value;
+	}
+
+	/**
+	 * Reads a string array that may be null.
+	 * 
+	 * @return the strings, or null.
+	 * @throws IOException there was an error reading the strings.
+	 */
+	public String[] readStrings() throws IOException {
+		int length = readLength();
+		if (length == -1)
+			return null;
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++)
+			values[i] = readString();
+		return values;
+	}
+
+	/**
+	 * Reads a symbol that may be null. Every read of the same symbol returns the
+	 * same string instance.
+	 * 
+	 * @return the symbol, or null.
+	 * @throws IOException there was an error reading the symbol.
+	 */
+	public String readSymbol() throws IOException {
+		int tag = readVarint();
+		if (tag == 0)
+			return null;
+		if (tag == 1) {
+			String symbol = readString();
+			symbols.add(symbol);
+			return symbol;
+		}
+		if (tag - 2 >= symbols.size())
+			throw new IOException("Unknown symbol: " + (tag - 2));
+		return symbols.get(tag - 2);
+	}
+
+	/**
+	 * Reads a timestamp that may be null.
+	 * 
+	 * @return the timestamp, or null.
+	 * @throws IOException there was an error reading the timestamp.
+	 */
+	public LocalDateTime readTimestamp() throws IOException {
+		long seconds = readLong();
+		if (seconds == Long.MIN_VALUE)
+			return null;
+		return LocalDateTime.ofEpochSecond(seconds, readInt(), ZoneOffset.UTC);
+	}
+
+	/**
+	 * Makes sure the given number of bytes are buffered.
+	 */
+	private void fill(int bytes) throws IOException {
+		if (limit - position >= bytes)
+			return;
+		System.arraycopy(buffer, position, buffer, 0, limit - position);
+		limit -= position;
+		position = 0;
+		while (limit < bytes) {
+			int n = in.read(buffer, limit, buffer.length - limit);
+			if (n == -1)
+				throw new EOFException();
+			limit += n;
+		}
+	}
+
+	private byte readByte() throws IOException {
+		if (position == limit)
+			fill(1);
+		return buffer[position++];
+	}
+
+	/**
+	 * Reads the length of a nullable array or string.
+	 * 
+	 * @return the length, or -1 for null.
+	 */
+	private int readLength() throws IOException {
+		int length = readVarint() - 1;
+		if (length < -1)
+			throw new IOException("Invalid length: " + length);
+		return length;
+	}
+
+	private int readRawInt() throws IOException {
+		fill(4);
+		int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+				| ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+		position += 4;
+		return value;
+	}
+
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Reads a single entity from a snapshot.
+	 * 
+	 * @author Cardinal System
+	 *
+	 * @param <V> the type of entity.
+	 */
+	@FunctionalInterface
+	public interface EntityReader<V> {
+
+		/**
+		 * Reads the next entity.
+		 * 
+		 * @param in the snapshot reader.
+		 * @return the entity.
+		 * @throws IOException there was an error reading the entity.
+		 */
+		V read(SnapshotReader in) throws IOException;
+	}
+}
@@ -0,0 +1,268 @@
+package com.Cardinal.PMC.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class used to write a snapshot of loaded entities, which a
+ * {@link SnapshotReader} reads back without downloading or parsing any pages.
+ * A snapshot starts with a magic number, a format version and the kind of
+ * entity it holds, followed by the number of entities and each entity under
+ * its cache key, and ends with the magic number again so a truncated snapshot
+ * is detected.
+ * <p>
+ * Numbers are written as variable length integers and strings as their UTF-8
+ * bytes prefixed by their length. Symbols, strings that repeat across
+ * entities such as user URLs, are interned: each is written in full once and
+ * referred to by index afterwards.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class SnapshotWriter implements Closeable {
+
+	/**
+	 * The magic number that starts and ends every snapshot.
+	 */
+	public static final int MAGIC = 0x504D4353;
+
+	/**
+	 * The version of the snapshot format written.
+	 */
+	public static final int VERSION = 2;
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> symbols = new HashMap<String, Integer>();
+
+	/**
+	 * Constructs a new {@link SnapshotWriter}, writing the snapshot header.
+	 * 
+	 * @param out  the stream to write to.
+	 * @param kind the kind of entity the snapshot holds.
+	 * @throws IOException there was an error writing the header.
+	 */
+	public SnapshotWriter(OutputStream out, String kind) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.out.writeInt(MAGIC);
+		writeInt(VERSION);
+		writeString(kind);
+	}
+
+	/**
+	 * Constructs a new {@link SnapshotWriter} of a single record without a
+	 * header, such as an {@link EntityArchive} record.
+	 * 
+	 * @param out the stream to write to.
+	 */
+	SnapshotWriter(OutputStream out) {
+		this.out = new DataOutputStream(out);
+	}
+
+	/**
+	 * Writes the given entities to a snapshot file, replacing it once the
+	 * snapshot is complete.
+	 * 
+	 * @param <V>      the type of entity.
+	 * @param file     the snapshot file.
+	 * @param kind     the kind of entity.
+	 * @param entities the entities keyed by their cache keys.
+	 * @param writer   writes a single entity.
+	 * @return the number of entities written.
+	 * @throws IOException there was an error writing the snapshot.
+	 */
+	public static <V> int write(Path file, String kind, Map<String, V> entities, EntityWriter<? super V> writer)
+			throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			try (SnapshotWriter out = new SnapshotWriter(Files.newOutputStream(temp), kind)) {
+				out.writeInt(entities.size());
+				for (Map.Entry<String, V> e : entities.entrySet()) {
+					out.writeString(e.getKey());
+					writer.write(e.getValue(), out);
+				}
+				out.out.writeInt(MAGIC);
+			}
+			replace(temp, file);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return entities.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Writes a boolean that may be null.
+	 * 
+	 * @param value the boolean, or null.
+	 * @throws IOException there was an error writing the boolean.
+	 */
+	public void writeBoolean(Boolean value) throws IOException {
+		out.writeByte(value == null ? -1 : value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a byte array that may be null, prefixed by its length.
+	 * 
+	 * @param bytes the bytes, or null.
+	 * @throws IOException there was an error writing the bytes.
+	 */
+	public void writeBytes(byte[] bytes) throws IOException {
+		writeVarint(bytes == null ? 0 : bytes.length + 1);
+		if (bytes != null)
+			out.write(bytes);
+	}
+
+	/**
+	 * Writes an int, using fewer bytes the closer it is to zero.
+	 * 
+	 * @param value the int.
+	 * @throws IOException there was an error writing the int.
+	 */
+	public void writeInt(int value) throws IOException {
+		writeVarint((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Writes an int array that may be null.
+	 * 
+	 * @param values the ints, or null.
+	 * @throws IOException there was an error writing the ints.
+	 */
+	public void writeInts(int[] values) throws IOException {
+		writeVarint(values == null ? 0 : values.length + 1);
+		if (values != null)
+			for (int value : values)
+				writeInt(value);
+	}
+
+	/**
+	 * Writes a long as eight bytes.
+	 * 
+	 * @param value the long.
+	 * @throws IOException there was an error writing the long.
+	 */
+	public void writeLong(long value) throws IOException {
+		out.writeLong(value);
+	}
+
+	/**
+	 * Writes a string that may be null, prefixed by its length.
+	 * 
+	 * @param value the string, or null.
+	 * @throws IOException there was an error writing the string.
+	 */
+	public void writeString(String value) throws IOException {
+		writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes a string array that may be null.
+	 * 
+	 * @param values the strings, or null.
+	 * @throws IOException there was an error writing the strings.
+	 */
+	public void writeStrings(String[] values) throws IOException {
+		writeVarint(values == null ? 0 : values.length + 1);
+		if (values != null)
+			for (String value : values)
+				writeString(value);
+	}
+
+	/**
+	 * Writes a symbol that may be null. The first time a symbol is written it is
+	 * written in full, afterwards only its index is.
+	 * 
+	 * @param symbol the symbol, or null.
+	 * @throws IOException there was an error writing the symbol.
+	 */
+	public void writeSymbol(String symbol) throws IOException {
+		if (symbol == null) {
+			writeVarint(0);
+			return;
+		}
+		Integer index = symbols.get(symbol);
+		if (index != null) {
+			writeVarint(index + 2);
+			return;
+		}
+		symbols.put(symbol, symbols.size());
+		writeVarint(1);
+		writeString(symbol);
+	}
+
+	/**
+	 * Writes a timestamp that may be null.
+	 * 
+	 * @param timestamp the timestamp, or null.
+	 * @throws IOException there was an error writing the timestamp.
+	 */
+	public void writeTimestamp(LocalDateTime timestamp) throws IOException {
+		if (timestamp == null) {
+			out.writeLong(Long.MIN_VALUE);
+			return;
+		}
+		out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+		writeInt(timestamp.getNano());
+	}
+
+	/**
+	 * Moves the given file into place, atomically where the file system allows.
+	 * 
+	 * @param from the file to move.
+	 * @param to   the file to replace.
+	 * @throws IOException there was an error moving the file.
+	 */
+	static void replace(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Writes a single entity to a snapshot.
+	 * 
+	 * @author Cardinal System
+	 *
+	 * @param <V> the type of entity.
+	 */
+	@FunctionalInterface
+	public interface EntityWriter<V> {
+
+		/**
+		 * Writes the given entity.
+		 * 
+		 * @param entity the entity.
+		 * @param out    the snapshot writer.
+		 * @throws IOException there was an error writing the entity.
+		 */
+		void write(V entity, SnapshotWriter out) throws IOException;
+	}
+}
@@ -0,0 +1,26 @@
+package com.Cardinal.PMC.lang;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is refused without being sent because recent requests
+ * suggest PlanetMinecraft is down.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class CircuitOpenException extends IOException {
+
+	private static final long serialVersionUID = -6179950348218473005L;
+
+	/**
+	 * Constructs a new {@link CircuitOpenException} for the given URL.
+	 * 
+	 * @param url
+	 *            the URL of the refused request.
+	 */
+	public CircuitOpenException(String url) {
+		super("Circuit open, request refused: " + url);
+	}
+
+}
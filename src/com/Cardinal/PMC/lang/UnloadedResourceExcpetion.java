@@ -1,7 +1,8 @@
 package com.Cardinal.PMC.lang;
 
 /**
- * An exception thrown when a requested resource has not been loaded.
+ * An exception thrown when a requested resource has not been loaded and the
+ * object holding it has no loader to lazily load it with.
  * 
  * @author Cardinal System
  *
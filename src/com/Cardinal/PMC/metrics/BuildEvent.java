@@ -0,0 +1,21 @@
+package com.Cardinal.PMC.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event spanning the construction and caching of an
+ * entity from the fields a loader read out of its page.
+ * 
+ * @author Cardinal System
+ *
+ */
+@Name("com.Cardinal.PMC.Build")
+@Label("Entity Construction")
+@Description("An entity constructed from a page by a loader")
+final class BuildEvent extends PageEvent {
+
+	@Label("Entity")
+	Class<?> entity;
+}
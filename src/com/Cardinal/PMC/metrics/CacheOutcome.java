@@ -0,0 +1,32 @@
+package com.Cardinal.PMC.metrics;
+
+/**
+ * How a loader's cache took part in reading a page, recorded with every
+ * {@linkplain PageEvent page event}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public enum CacheOutcome {
+
+	/**
+	 * The page is not one the loader caches an entity for, such as a feed page
+	 * or a tab of a user's profile.
+	 */
+	NONE,
+	/**
+	 * The loader had no entity cached for the page, so the page was downloaded
+	 * in full.
+	 */
+	MISS,
+	/**
+	 * The loader had an entity cached for the page and revalidated it, but the
+	 * page had changed and was downloaded again.
+	 */
+	MODIFIED,
+	/**
+	 * The loader had an entity cached for the page and revalidated it, and the
+	 * cached entity was still current.
+	 */
+	NOT_MODIFIED;
+}
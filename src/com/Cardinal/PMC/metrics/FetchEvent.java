@@ -0,0 +1,20 @@
+package com.Cardinal.PMC.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event spanning the download of a page by a loader,
+ * including the retries, throttling and caches of its fetcher. Failed
+ * downloads are recorded with their HTTP status, or 0 if they failed before
+ * one was received.
+ * 
+ * @author Cardinal System
+ *
+ */
+@Name("com.Cardinal.PMC.Fetch")
+@Label("Page Fetch")
+@Description("A page downloaded by a loader")
+final class FetchEvent extends PageEvent {
+}
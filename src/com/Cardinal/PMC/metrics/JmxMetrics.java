@@ -0,0 +1,168 @@
+package com.Cardinal.PMC.metrics;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.Cardinal.PMC.net.PageType;
+
+/**
+ * {@link Metrics} that keeps a {@link PageMetrics} for every loader and page
+ * type it is told about, and registers each one as an MXBean so the loaders
+ * can be watched with JConsole, JDK Mission Control or any JMX exporter. Beans
+ * are registered the first time their loader reports on their page type, and
+ * named
+ * <code>&lt;domain&gt;:type=PageMetrics,loader=&lt;loader&gt;,page=&lt;type&gt;</code>.
+ * Retries are registered under the loader name
+ * {@link JmxMetrics#RETRIES_LOADER}.
+ * <p>
+ * A bean whose name is already taken, such as by a second instance in the same
+ * domain, is still kept and can be read through
+ * {@link JmxMetrics#getPageMetrics(String, PageType)}, but is not registered.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class JmxMetrics implements Metrics, Closeable {
+
+	/**
+	 * The domain beans are registered in by default.
+	 */
+	public static final String DEFAULT_DOMAIN = "com.Cardinal.PMC";
+
+	/**
+	 * The loader name retries are registered under.
+	 */
+	public static final String RETRIES_LOADER = "RetryingPageFetcher";
+
+	private final MBeanServer server;
+	private final String domain;
+	private final ConcurrentHashMap<String, PageMetrics[]> loaders = new ConcurrentHashMap<String, PageMetrics[]>();
+	private final List<ObjectName> registered = new ArrayList<ObjectName>();
+
+	/**
+	 * Constructs a new {@link JmxMetrics} registering beans with the platform
+	 * MBean server, in the {@linkplain JmxMetrics#DEFAULT_DOMAIN default domain}.
+	 */
+	public JmxMetrics() {
+		this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+	}
+
+	/**
+	 * Constructs a new {@link JmxMetrics}.
+	 * 
+	 * @param server the server beans are registered with.
+	 * @param domain the domain beans are registered in.
+	 */
+	public JmxMetrics(MBeanServer server, String domain) {
+		this.server = server;
+		this.domain = domain;
+	}
+
+	/**
+	 * Unregisters every bean this registered. Measurements keep being recorded
+	 * and can still be read through
+	 * {@link JmxMetrics#getPageMetrics(String, PageType)}.
+	 */
+	@Override
+	public void close() {
+		synchronized (registered) {
+			for (ObjectName name : registered) {
+				try {
+					server.unregisterMBean(name);
+				} catch (JMException e) {
+					// Already unregistered by someone else.
+				}
+			}
+			registered.clear();
+		}
+	}
+
+	/**
+	 * Gets the domain beans are registered in.
+	 * 
+	 * @return the domain.
+	 */
+	public String getDomain() {
+		return domain;
+	}
+
+	/**
+	 * Gets the measurements of the given loader and page type, registering
+	 * their bean if this is the first time they are asked for.
+	 * 
+	 * @param loader the loader name.
+	 * @param type   the page type.
+	 * @return the measurements.
+	 */
+	public PageMetrics getPageMetrics(String loader, PageType type) {
+		PageMetrics[] types = loaders.get(loader);
+		if (types == null)
+			types = loaders.computeIfAbsent(loader, k -> new PageMetrics[PageType.values().length]);
+		PageMetrics metrics = types[type.ordinal()];
+		if (metrics != null)
+			return metrics;
+
+		synchronized (types) {
+			metrics = types[type.ordinal()];
+			if (metrics == null) {
+				metrics = new PageMetrics(loader, type);
+				register(metrics);
+				types[type.ordinal()] = metrics;
+			}
+		}
+		return metrics;
+	}
+
+	@Override
+	public void recordBytes(String loader, PageType type, long bytes) {
+		getPageMetrics(loader, type).recordBytes(bytes);
+	}
+
+	@Override
+	public void recordCache(String loader, PageType type, boolean hit) {
+		getPageMetrics(loader, type).recordCache(hit);
+	}
+
+	@Override
+	public void recordParseFailure(String loader, PageType type) {
+		getPageMetrics(loader, type).recordParseFailure();
+	}
+
+	@Override
+	public void recordRetry(PageType type) {
+		getPageMetrics(RETRIES_LOADER, type).recordRetry();
+	}
+
+	@Override
+	public void recordStage(String loader, PageType type, Stage stage, long nanos) {
+		getPageMetrics(loader, type).getStage(stage).record(nanos);
+	}
+
+	@Override
+	public String toString() {
+		return "JmxMetrics [domain=" + domain + ", loaders=" + loaders.keySet() + "]";
+	}
+
+	private void register(PageMetrics metrics) {
+		try {
+			ObjectName name = new ObjectName(domain + ":type=PageMetrics,loader="
+					+ metrics.getLoader() + ",page=" + metrics.getPageType());
+			server.registerMBean(metrics, name);
+			synchronized (registered) {
+				registered.add(name);
+			}
+		} catch (InstanceAlreadyExistsException e) {
+			// Keep measuring without a bean, see the class documentation.
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register the metrics of " + metrics.getLoader(), e);
+		}
+	}
+}
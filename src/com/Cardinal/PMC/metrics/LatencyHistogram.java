@@ -0,0 +1,172 @@
+package com.Cardinal.PMC.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class used to count latencies into buckets whose bounds double from one
+ * microsecond up to just over a minute, so a latency is recorded with a few
+ * uncontended additions and without allocating. Percentiles are read as the
+ * upper bound of the bucket they fall in, which makes them exact to within a
+ * factor of two.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class LatencyHistogram {
+
+	/**
+	 * The number of buckets. The last bucket holds every latency longer than
+	 * the bound of the one before it.
+	 */
+	public static final int BUCKETS = 28;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder(), totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Constructs a new, empty {@link LatencyHistogram}.
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++)
+			buckets[i] = new LongAdder();
+	}
+
+	/**
+	 * Records a latency.
+	 * 
+	 * @param nanos the latency, in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(nanos, 0) / 1000;
+		int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+		buckets[Math.min(bucket, BUCKETS - 1)].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Gets the upper bound of the given bucket.
+	 * 
+	 * @param bucket the bucket index.
+	 * @return the bound, in microseconds, or {@link Long#MAX_VALUE} for the last
+	 *         bucket.
+	 */
+	public static long getBound(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+	}
+
+	/**
+	 * Gets the number of latencies in each bucket. Bucket <code>i</code> holds
+	 * the latencies longer than the bound of bucket <code>i - 1</code> and up to
+	 * its own {@linkplain LatencyHistogram#getBound(int) bound}.
+	 * 
+	 * @return the bucket counts.
+	 */
+	public long[] getBuckets() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			counts[i] = buckets[i].sum();
+		return counts;
+	}
+
+	/**
+	 * Gets the number of latencies recorded.
+	 * 
+	 * @return the count.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the longest latency recorded.
+	 * 
+	 * @return the maximum, in milliseconds.
+	 */
+	public double getMaxMillis() {
+		return maxNanos.get() / 1e6;
+	}
+
+	/**
+	 * Gets the mean of the latencies recorded.
+	 * 
+	 * @return the mean, in milliseconds, or 0 if nothing was recorded.
+	 */
+	public double getMeanMillis() {
+		long count = getCount();
+		return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+	}
+
+	/**
+	 * Gets the median of the latencies recorded.
+	 * 
+	 * @return the median, in milliseconds.
+	 * @see LatencyHistogram#getPercentileMillis(double)
+	 */
+	public double getP50Millis() {
+		return getPercentileMillis(0.5);
+	}
+
+	/**
+	 * Gets the 95th percentile of the latencies recorded.
+	 * 
+	 * @return the percentile, in milliseconds.
+	 * @see LatencyHistogram#getPercentileMillis(double)
+	 */
+	public double getP95Millis() {
+		return getPercentileMillis(0.95);
+	}
+
+	/**
+	 * Gets the 99th percentile of the latencies recorded.
+	 * 
+	 * @return the percentile, in milliseconds.
+	 * @see LatencyHistogram#getPercentileMillis(double)
+	 */
+	public double getP99Millis() {
+		return getPercentileMillis(0.99);
+	}
+
+	/**
+	 * Gets the given percentile of the latencies recorded, as the bound of the
+	 * bucket it falls in. Percentiles falling in the last bucket are read as
+	 * the maximum.
+	 * 
+	 * @param quantile the percentile, between 0 and 1.
+	 * @return the percentile, in milliseconds, or 0 if nothing was recorded.
+	 */
+	public double getPercentileMillis(double quantile) {
+		long[] counts = getBuckets();
+		long total = 0;
+		for (long count : counts)
+			total += count;
+		if (total == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(quantile * total)), seen = 0;
+		for (int i = 0; i < BUCKETS - 1; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(getBound(i) / 1e3, getMaxMillis());
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Gets the sum of the latencies recorded.
+	 * 
+	 * @return the total, in milliseconds.
+	 */
+	public double getTotalMillis() {
+		return totalNanos.sum() / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [count=" + getCount() + ", mean=" + getMeanMillis() + "ms, p50=" + getP50Millis()
+				+ "ms, p99=" + getP99Millis() + "ms, max=" + getMaxMillis() + "ms]";
+	}
+}
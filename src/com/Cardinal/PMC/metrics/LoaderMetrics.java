@@ -0,0 +1,187 @@
+package com.Cardinal.PMC.metrics;
+
+import java.util.function.Supplier;
+
+import org.jsoup.nodes.Document;
+
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageType;
+
+/**
+ * A class used by a single loader to report to its {@link Metrics}. It holds
+ * the loader's name so each measurement is labeled with it, and the metrics
+ * can be replaced at any time without the fetcher and cache the loader handed
+ * this to noticing.
+ * <p>
+ * Stages are timed with {@link LoaderMetrics#stage(PageType, Stage, long)},
+ * which returns the time it recorded at so consecutive stages can be timed
+ * without reading the clock twice:
+ * 
+ * <pre>
+ * long time = System.nanoTime();
+ * Extraction doc = PLAN.extract(document);
+ * time = metrics.stage(type, Stage.EXTRACT, time);
+ * </pre>
+ * <p>
+ * Parses and entity constructions are also emitted as JDK Flight Recorder
+ * events, see {@link PageEvent}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public final class LoaderMetrics {
+
+	private final String loader;
+	private volatile Metrics metrics = Metrics.NOOP;
+
+	/**
+	 * Constructs a new {@link LoaderMetrics} reporting to
+	 * {@link Metrics#NOOP}.
+	 * 
+	 * @param loader the name of the loader, usually its simple class name.
+	 */
+	public LoaderMetrics(String loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Constructs an entity, recording the time it took.
+	 * 
+	 * @param <T>     the type of entity.
+	 * @param type    the page type.
+	 * @param page    the page the entity was read from.
+	 * @param outcome how the loader's cache took part in reading the page.
+	 * @param builder the function constructing the entity.
+	 * @return the entity.
+	 */
+	public <T> T build(PageType type, Page page, CacheOutcome outcome, Supplier<T> builder) {
+		BuildEvent event = new BuildEvent();
+		event.begin();
+		long start = System.nanoTime();
+		T entity = builder.get();
+		stage(type, Stage.BUILD, start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.set(loader, type, page, outcome);
+			event.entity = entity == null ? null : entity.getClass();
+			event.commit();
+		}
+		return entity;
+	}
+
+	/**
+	 * Records a lookup in the loader's entity cache.
+	 * 
+	 * @param type the page type of the entity looked up.
+	 * @param hit  whether a live entity was found.
+	 */
+	public void cache(PageType type, boolean hit) {
+		metrics.recordCache(loader, type, hit);
+	}
+
+	/**
+	 * Records a page that could not be read because an element was missing.
+	 * 
+	 * @param type the page type.
+	 */
+	public void failure(PageType type) {
+		metrics.recordParseFailure(loader, type);
+	}
+
+	/**
+	 * Records the download of a page.
+	 * 
+	 * @param type  the page type.
+	 * @param page  the downloaded page.
+	 * @param start the {@link System#nanoTime()} the download started at.
+	 * @return the time the download was recorded at.
+	 */
+	public long fetched(PageType type, Page page, long start) {
+		long now = System.nanoTime();
+		Metrics metrics = this.metrics;
+		metrics.recordStage(loader, type, Stage.FETCH, now - start);
+		metrics.recordBytes(loader, type, page.isNotModified() ? 0 : page.getBytes().length);
+		return now;
+	}
+
+	/**
+	 * Gets the name the loader's measurements are labeled with.
+	 * 
+	 * @return the loader name.
+	 */
+	public String getLoader() {
+		return loader;
+	}
+
+	/**
+	 * Gets the metrics the loader reports to.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Parses the given page, recording the time it took. The page is taken to
+	 * be one the loader does not cache an entity for.
+	 * 
+	 * @param type the page type.
+	 * @param page the page.
+	 * @return the page document.
+	 */
+	public Document parse(PageType type, Page page) {
+		return parse(type, page, CacheOutcome.NONE);
+	}
+
+	/**
+	 * Parses the given page, recording the time it took.
+	 * 
+	 * @param type    the page type.
+	 * @param page    the page.
+	 * @param outcome how the loader's cache took part in downloading the page.
+	 * @return the page document.
+	 */
+	public Document parse(PageType type, Page page, CacheOutcome outcome) {
+		ParseEvent event = new ParseEvent();
+		event.begin();
+		long start = System.nanoTime();
+		Document document = page.parse();
+		stage(type, Stage.PARSE, start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.set(loader, type, page, outcome);
+			event.commit();
+		}
+		return document;
+	}
+
+	/**
+	 * Sets the metrics the loader reports to.
+	 * 
+	 * @param metrics the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics == null ? Metrics.NOOP : metrics;
+	}
+
+	/**
+	 * Records the time a stage took.
+	 * 
+	 * @param type  the page type.
+	 * @param stage the stage.
+	 * @param start the {@link System#nanoTime()} the stage started at.
+	 * @return the time the stage was recorded at, which the next stage can start
+	 *         at.
+	 */
+	public long stage(PageType type, Stage stage, long start) {
+		long now = System.nanoTime();
+		metrics.recordStage(loader, type, stage, now - start);
+		return now;
+	}
+
+	@Override
+	public String toString() {
+		return "LoaderMetrics [loader=" + loader + ", metrics=" + metrics + "]";
+	}
+}
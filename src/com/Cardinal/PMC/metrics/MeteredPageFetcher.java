@@ -0,0 +1,104 @@
+package com.Cardinal.PMC.metrics;
+
+import java.io.IOException;
+
+import org.jsoup.HttpStatusException;
+
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageFetcher;
+import com.Cardinal.PMC.net.PageType;
+
+/**
+ * A {@link PageFetcher} that reports how long every download through another
+ * fetcher waited and how many bytes it brought to a loader's
+ * {@link LoaderMetrics}, labeled with the {@linkplain PageType#of(String) type}
+ * of the page. Failed downloads are not recorded. Every download, failed or
+ * not, is also emitted as a JDK Flight Recorder event, see {@link PageEvent}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class MeteredPageFetcher implements PageFetcher {
+
+	private final PageFetcher fetcher;
+	private final LoaderMetrics metrics;
+
+	/**
+	 * Constructs a new {@link MeteredPageFetcher}.
+	 * 
+	 * @param fetcher the fetcher that downloads the pages.
+	 * @param metrics the metrics of the loader downloading the pages.
+	 */
+	public MeteredPageFetcher(PageFetcher fetcher, LoaderMetrics metrics) {
+		this.fetcher = fetcher;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		PageType type = PageType.of(url);
+		return fetch(url, type, type == PageType.ENTITY ? CacheOutcome.MISS : CacheOutcome.NONE, false);
+	}
+
+	/**
+	 * Gets the fetcher that downloads the pages.
+	 * 
+	 * @return the wrapped fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the metrics downloads are reported to.
+	 * 
+	 * @return the loader metrics.
+	 */
+	public LoaderMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public Page revalidate(String url) throws IOException {
+		return fetch(url, PageType.of(url), CacheOutcome.MODIFIED, true);
+	}
+
+	@Override
+	public String toString() {
+		return "MeteredPageFetcher [fetcher=" + fetcher + ", metrics=" + metrics + "]";
+	}
+
+	/**
+	 * Downloads or revalidates a page, recording the download.
+	 * 
+	 * @param url        the URL of the page.
+	 * @param type       the page type.
+	 * @param outcome    the cache outcome if the page is downloaded.
+	 * @param revalidate whether to revalidate the page.
+	 * @return the page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	private Page fetch(String url, PageType type, CacheOutcome outcome, boolean revalidate) throws IOException {
+		FetchEvent event = new FetchEvent();
+		event.begin();
+		long start = System.nanoTime();
+		Page page = null;
+		try {
+			page = revalidate ? fetcher.revalidate(url) : fetcher.fetch(url);
+			metrics.fetched(type, page, start);
+			return page;
+		} catch (HttpStatusException e) {
+			event.status = e.getStatusCode();
+			throw e;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.set(metrics.getLoader(), type, page,
+						page != null && page.isNotModified() ? CacheOutcome.NOT_MODIFIED : outcome);
+				if (page == null)
+					event.url = url;
+				event.commit();
+			}
+		}
+	}
+}
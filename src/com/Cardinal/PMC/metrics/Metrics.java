@@ -0,0 +1,84 @@
+package com.Cardinal.PMC.metrics;
+
+import com.Cardinal.PMC.net.PageType;
+
+/**
+ * The interface the loaders report where their time goes through. Every
+ * measurement is labeled with the simple name of the loader that made it, such
+ * as <code>ThreadLoader</code>, and the {@link PageType} of the page it was
+ * made on, so an implementation can keep them apart or add them up as it sees
+ * fit.
+ * <p>
+ * Every method does nothing by default, and {@link Metrics#NOOP} is used until
+ * a loader is given another implementation. Implementations are called on the
+ * loading threads themselves, so they must be thread-safe and should return
+ * quickly.
+ * 
+ * @author Cardinal System
+ * @see JmxMetrics
+ *
+ */
+public interface Metrics {
+
+	/**
+	 * The metrics that record nothing, used by default.
+	 */
+	public static final Metrics NOOP = new Metrics() {
+
+		@Override
+		public String toString() {
+			return "Metrics.NOOP";
+		}
+	};
+
+	/**
+	 * Records the time a stage of loading a page took.
+	 * 
+	 * @param loader the loader.
+	 * @param type   the page type.
+	 * @param stage  the stage.
+	 * @param nanos  the time taken, in nanoseconds.
+	 */
+	public default void recordStage(String loader, PageType type, Stage stage, long nanos) {
+	}
+
+	/**
+	 * Records the size of a downloaded page.
+	 * 
+	 * @param loader the loader.
+	 * @param type   the page type.
+	 * @param bytes  the size of the page body, 0 for a not modified page.
+	 */
+	public default void recordBytes(String loader, PageType type, long bytes) {
+	}
+
+	/**
+	 * Records a lookup in a loader's entity cache.
+	 * 
+	 * @param loader the loader.
+	 * @param type   the page type of the entity looked up.
+	 * @param hit    true: a live entity was found.<br>
+	 *               false: the entity had to be loaded.
+	 */
+	public default void recordCache(String loader, PageType type, boolean hit) {
+	}
+
+	/**
+	 * Records a page that could not be read because an element it should have
+	 * was missing.
+	 * 
+	 * @param loader the loader.
+	 * @param type   the page type.
+	 */
+	public default void recordParseFailure(String loader, PageType type) {
+	}
+
+	/**
+	 * Records a failed request about to be retried. Retries happen in a fetcher
+	 * shared by every loader, so they are labeled by page type alone.
+	 * 
+	 * @param type the page type.
+	 */
+	public default void recordRetry(PageType type) {
+	}
+}
@@ -0,0 +1,65 @@
+package com.Cardinal.PMC.metrics;
+
+import com.Cardinal.PMC.net.Page;
+import com.Cardinal.PMC.net.PageType;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The fields shared by the JDK Flight Recorder events a loader emits while
+ * reading a page. Events are only filled in and committed while a recording
+ * that enables them is running, so they cost next to nothing otherwise, and
+ * they are recorded without a stack trace. Like any JFR event they can be
+ * given a threshold, for example
+ * <code>com.Cardinal.PMC.Fetch#threshold=20 ms</code>, to keep only the slow
+ * ones.
+ * 
+ * @author Cardinal System
+ *
+ */
+@Category({ "PMC-API", "Loading" })
+@StackTrace(false)
+abstract class PageEvent extends Event {
+
+	@Label("Loader")
+	String loader;
+
+	@Label("URL")
+	String url;
+
+	@Label("Page Type")
+	String pageType;
+
+	@Label("Size")
+	@DataAmount
+	long bytes;
+
+	@Label("Status")
+	int status;
+
+	@Label("Cache Outcome")
+	String cacheOutcome;
+
+	/**
+	 * Fills in the fields of this event from the given page.
+	 * 
+	 * @param loader  the loader name.
+	 * @param type    the page type.
+	 * @param page    the page, or null if it could not be downloaded.
+	 * @param outcome the cache outcome.
+	 */
+	void set(String loader, PageType type, Page page, CacheOutcome outcome) {
+		this.loader = loader;
+		this.pageType = type.name();
+		this.cacheOutcome = outcome.name();
+		if (page != null) {
+			this.url = page.getURL();
+			this.status = page.getStatus();
+			this.bytes = page.isNotModified() ? 0 : page.getBytes().length;
+		}
+	}
+}
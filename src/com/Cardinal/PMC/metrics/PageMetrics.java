@@ -0,0 +1,122 @@
+package com.Cardinal.PMC.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.Cardinal.PMC.net.PageType;
+
+/**
+ * The measurements {@link JmxMetrics} keeps for a single loader and page type.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class PageMetrics implements PageMetricsMXBean {
+
+	private final String loader;
+	private final PageType type;
+	private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+	private final LongAdder bytes = new LongAdder(), cacheHits = new LongAdder(), cacheMisses = new LongAdder(),
+			parseFailures = new LongAdder(), retries = new LongAdder();
+
+	/**
+	 * Constructs a new, empty {@link PageMetrics}.
+	 * 
+	 * @param loader the name of the loader measured.
+	 * @param type   the page type measured.
+	 */
+	public PageMetrics(String loader, PageType type) {
+		this.loader = loader;
+		this.type = type;
+		for (int i = 0; i < stages.length; i++)
+			stages[i] = new LatencyHistogram();
+	}
+
+	@Override
+	public LatencyHistogram getBuild() {
+		return getStage(Stage.BUILD);
+	}
+
+	@Override
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	@Override
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	@Override
+	public LatencyHistogram getExtract() {
+		return getStage(Stage.EXTRACT);
+	}
+
+	@Override
+	public LatencyHistogram getFetch() {
+		return getStage(Stage.FETCH);
+	}
+
+	@Override
+	public String getLoader() {
+		return loader;
+	}
+
+	@Override
+	public String getPageType() {
+		return type.name();
+	}
+
+	@Override
+	public LatencyHistogram getParse() {
+		return getStage(Stage.PARSE);
+	}
+
+	@Override
+	public long getParseFailures() {
+		return parseFailures.sum();
+	}
+
+	@Override
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	/**
+	 * Gets the latencies of the given stage.
+	 * 
+	 * @param stage the stage.
+	 * @return the latencies.
+	 */
+	public LatencyHistogram getStage(Stage stage) {
+		return stages[stage.ordinal()];
+	}
+
+	@Override
+	public String toString() {
+		return "PageMetrics [loader=" + loader + ", type=" + type + ", fetch=" + getFetch() + ", parse="
+				+ getParse() + ", extract=" + getExtract() + ", build=" + getBuild() + ", bytes=" + getBytes()
+				+ ", cacheHits=" + getCacheHits() + ", cacheMisses=" + getCacheMisses() + ", parseFailures="
+				+ getParseFailures() + ", retries=" + getRetries() + "]";
+	}
+
+	void recordBytes(long bytes) {
+		this.bytes.add(bytes);
+	}
+
+	void recordCache(boolean hit) {
+		(hit ? cacheHits : cacheMisses).increment();
+	}
+
+	void recordParseFailure() {
+		parseFailures.increment();
+	}
+
+	void recordRetry() {
+		retries.increment();
+	}
+}
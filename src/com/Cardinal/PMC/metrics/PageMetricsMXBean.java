@@ -0,0 +1,92 @@
+package com.Cardinal.PMC.metrics;
+
+/**
+ * The management interface {@link JmxMetrics} registers for every loader and
+ * page type it has seen, as one MBean named
+ * <code>com.Cardinal.PMC:type=PageMetrics,loader=&lt;loader&gt;,page=&lt;type&gt;</code>.
+ * Latencies are shown as composite attributes of their
+ * {@link LatencyHistogram}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public interface PageMetricsMXBean {
+
+	/**
+	 * Gets the name of the loader measured.
+	 * 
+	 * @return the loader name.
+	 */
+	public String getLoader();
+
+	/**
+	 * Gets the name of the page type measured.
+	 * 
+	 * @return the page type.
+	 */
+	public String getPageType();
+
+	/**
+	 * Gets the latencies of the {@link Stage#FETCH} stage.
+	 * 
+	 * @return the fetch latencies.
+	 */
+	public LatencyHistogram getFetch();
+
+	/**
+	 * Gets the latencies of the {@link Stage#PARSE} stage.
+	 * 
+	 * @return the parse latencies.
+	 */
+	public LatencyHistogram getParse();
+
+	/**
+	 * Gets the latencies of the {@link Stage#EXTRACT} stage.
+	 * 
+	 * @return the extraction latencies.
+	 */
+	public LatencyHistogram getExtract();
+
+	/**
+	 * Gets the latencies of the {@link Stage#BUILD} stage.
+	 * 
+	 * @return the construction latencies.
+	 */
+	public LatencyHistogram getBuild();
+
+	/**
+	 * Gets the number of bytes downloaded.
+	 * 
+	 * @return the byte count.
+	 */
+	public long getBytes();
+
+	/**
+	 * Gets the number of entity cache lookups that found a live entity.
+	 * 
+	 * @return the hit count.
+	 */
+	public long getCacheHits();
+
+	/**
+	 * Gets the number of entity cache lookups that had to load the entity.
+	 * 
+	 * @return the miss count.
+	 */
+	public long getCacheMisses();
+
+	/**
+	 * Gets the number of pages that could not be read because an element was
+	 * missing.
+	 * 
+	 * @return the failure count.
+	 */
+	public long getParseFailures();
+
+	/**
+	 * Gets the number of failed requests that were retried.
+	 * 
+	 * @return the retry count.
+	 */
+	public long getRetries();
+}
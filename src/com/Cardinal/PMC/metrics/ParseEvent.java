@@ -0,0 +1,18 @@
+package com.Cardinal.PMC.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event spanning the parse of a downloaded page into a
+ * document by a loader.
+ * 
+ * @author Cardinal System
+ *
+ */
+@Name("com.Cardinal.PMC.Parse")
+@Label("Page Parse")
+@Description("A page parsed into a document by a loader")
+final class ParseEvent extends PageEvent {
+}
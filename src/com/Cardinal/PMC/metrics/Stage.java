@@ -0,0 +1,32 @@
+package com.Cardinal.PMC.metrics;
+
+/**
+ * The stages a loader turns a URL into an entity in, each timed separately by
+ * {@link Metrics#recordStage(String, com.Cardinal.PMC.net.PageType, Stage, long)}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public enum Stage {
+
+	/**
+	 * Waiting for a page to be downloaded, including the retries, throttling and
+	 * caches of the loader's fetcher.
+	 */
+	FETCH,
+	/**
+	 * Parsing a downloaded page into a document. Feed pages read with a
+	 * {@link com.Cardinal.PMC.util.FeedScanner} are scanned, extracted and built
+	 * in this one stage.
+	 */
+	PARSE,
+	/**
+	 * Finding the elements of a parsed page and reading the fields of an entity
+	 * out of them.
+	 */
+	EXTRACT,
+	/**
+	 * Constructing an entity from its fields.
+	 */
+	BUILD;
+}
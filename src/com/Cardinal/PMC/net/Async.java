@@ -0,0 +1,161 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class of helpers used by the loaders' asynchronous methods.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class Async {
+
+	private static ExecutorService defaultExecutor;
+
+	private Async() {
+	}
+
+	/**
+	 * Gets the executor loaders run on unless told otherwise. On JDK 21 and newer
+	 * this is a virtual thread per task executor, so hundreds of loads can be
+	 * in flight without hundreds of platform threads; on older JDKs it is a
+	 * cached pool of daemon threads.
+	 * 
+	 * @return the default executor.
+	 */
+	public static synchronized ExecutorService defaultExecutor() {
+		if (defaultExecutor == null) {
+			try {
+				Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				defaultExecutor = (ExecutorService) virtual.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				AtomicInteger count = new AtomicInteger();
+				defaultExecutor = Executors.newCachedThreadPool(r -> {
+					java.lang.Thread t = new java.lang.Thread(r, "PMC-API-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+			}
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Runs the given task on the given executor. Checked exceptions thrown by the
+	 * task complete the future exceptionally.
+	 * 
+	 * @param task     the task.
+	 * @param executor the executor.
+	 * @return a future of the task's result.
+	 */
+	public static <T> CompletableFuture<T> supply(Callable<T> task, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return task.call();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Waits for the given future, unwrapping the exception it failed with.
+	 * Unchecked exceptions are rethrown as they are and checked exceptions other
+	 * than {@link IOException} are wrapped in one.
+	 * 
+	 * @param future the future.
+	 * @return the future's result.
+	 * @throws IOException the future failed with a checked exception, or the
+	 *                     wait was interrupted.
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			throw interrupted(e);
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * Submits the given task to the given executor, to be
+	 * {@linkplain Async#join(FutureTask) joined} later. Unlike
+	 * {@link Async#supply(Callable, Executor)}, the task can still be run by the
+	 * thread that joins it if the executor has not started it by then, so a task
+	 * that forks others on its own executor cannot starve waiting for them.
+	 * 
+	 * @param task     the task.
+	 * @param executor the executor.
+	 * @return the forked task.
+	 */
+	public static <T> FutureTask<T> fork(Callable<T> task, Executor executor) {
+		FutureTask<T> future = new FutureTask<T>(task);
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException e) {
+			// Run by join instead.
+		}
+		return future;
+	}
+
+	/**
+	 * Waits for a {@linkplain Async#fork(Callable, Executor) forked} task,
+	 * running it on the calling thread if its executor has not started it yet.
+	 * Its exception is unwrapped as by {@link Async#await(CompletableFuture)}.
+	 * 
+	 * @param task the forked task.
+	 * @return the task's result.
+	 * @throws IOException the task failed with a checked exception, or the wait
+	 *                     was interrupted.
+	 */
+	public static <T> T join(FutureTask<T> task) throws IOException {
+		task.run();
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			throw interrupted(e);
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	private static InterruptedIOException interrupted(InterruptedException e) {
+		java.lang.Thread.currentThread().interrupt();
+		InterruptedIOException ex = new InterruptedIOException("Interrupted waiting for a page");
+		ex.initCause(e);
+		return ex;
+	}
+
+	private static IOException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		while (cause instanceof CompletionException && cause.getCause() != null)
+			cause = cause.getCause();
+		if (cause instanceof UncheckedIOException)
+			return ((UncheckedIOException) cause).getCause();
+		if (cause instanceof IOException)
+			return (IOException) cause;
+		if (cause instanceof RuntimeException)
+			throw (RuntimeException) cause;
+		if (cause instanceof Error)
+			throw (Error) cause;
+		return new IOException(cause);
+	}
+}
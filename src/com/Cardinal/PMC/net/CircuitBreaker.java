@@ -0,0 +1,221 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.HttpStatusException;
+
+import com.Cardinal.PMC.lang.CircuitOpenException;
+
+/**
+ * A class used to fail fast while PlanetMinecraft is down. After a number of
+ * consecutive outage failures (5xx statuses, or no response at all) the
+ * circuit opens and requests are refused with a {@link CircuitOpenException}
+ * without being sent. Once the open duration has passed, a single trial request
+ * is let through: if the site answers, the circuit closes, otherwise it opens
+ * again.
+ * <p>
+ * Any answer other than a 5xx, including a 404 or a 429, shows the site is up
+ * and closes the circuit.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class CircuitBreaker {
+
+	/**
+	 * The states of a {@link CircuitBreaker}.
+	 */
+	public enum State {
+		/**
+		 * Requests are sent.
+		 */
+		CLOSED,
+		/**
+		 * Requests are refused.
+		 */
+		OPEN,
+		/**
+		 * A single trial request is sent to see whether the site is back.
+		 */
+		HALF_OPEN;
+	}
+
+	private final LongAdder rejected = new LongAdder(), trips = new LongAdder();
+	private State state = State.CLOSED;
+	private int failures, failureThreshold = 5;
+	private long openNanos = Duration.ofSeconds(30).toNanos(), openedAt;
+	private boolean trialInFlight;
+
+	/**
+	 * Asks to send a request, moving an open circuit to half open once its open
+	 * duration has passed.
+	 * 
+	 * @param url the URL of the request.
+	 * @throws CircuitOpenException the circuit is open, or half open with its
+	 *                              trial request already in flight.
+	 */
+	public synchronized void acquire(String url) throws CircuitOpenException {
+		if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+			state = State.HALF_OPEN;
+			trialInFlight = false;
+		}
+		if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+			rejected.increment();
+			throw new CircuitOpenException(url);
+		}
+		if (state == State.HALF_OPEN)
+			trialInFlight = true;
+	}
+
+	/**
+	 * Records a request that ended without telling whether the site is up, such
+	 * as one that threw an unchecked exception. A trial request in flight is
+	 * released, so the next request is let through as the trial instead of the
+	 * circuit staying half open for good.
+	 */
+	public synchronized void abandon() {
+		trialInFlight = false;
+	}
+
+	/**
+	 * Gets the number of consecutive outage failures needed to open the circuit.
+	 * 
+	 * @return the failure threshold.
+	 */
+	public synchronized int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * Gets how long the circuit stays open before a trial request is let
+	 * through.
+	 * 
+	 * @return the open duration.
+	 */
+	public synchronized Duration getOpenDuration() {
+		return Duration.ofNanos(openNanos);
+	}
+
+	/**
+	 * Gets the number of requests refused while the circuit was open.
+	 * 
+	 * @return the rejected request count.
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Gets the state of the circuit.
+	 * 
+	 * @return the state.
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the number of times the circuit has opened.
+	 * 
+	 * @return the trip count.
+	 */
+	public long getTrips() {
+		return trips.sum();
+	}
+
+	/**
+	 * Checks whether the given failure suggests the site is down.
+	 * 
+	 * @param failure the failure.
+	 * @return true for 5xx statuses and failures without a response.
+	 */
+	protected boolean isOutage(IOException failure) {
+		if (failure instanceof HttpStatusException)
+			return ((HttpStatusException) failure).getStatusCode() >= 500;
+		if (failure instanceof InterruptedIOException && !(failure instanceof SocketTimeoutException))
+			return false;
+		return !(failure instanceof CircuitOpenException);
+	}
+
+	/**
+	 * Records a failed request. Failures that are not
+	 * {@linkplain CircuitBreaker#isOutage(IOException) outages} do not count
+	 * against the site, and a status among them shows the site is up.
+	 * 
+	 * @param failure the failure.
+	 */
+	public synchronized void onFailure(IOException failure) {
+		if (isOutage(failure)) {
+			trialInFlight = false;
+			// Requests sent before the circuit opened should not keep it open longer.
+			if (state == State.OPEN)
+				return;
+			if (state == State.HALF_OPEN || ++failures >= failureThreshold)
+				trip();
+		} else if (failure instanceof HttpStatusException) {
+			onSuccess();
+		} else if (!(failure instanceof CircuitOpenException)) {
+			trialInFlight = false;
+		}
+	}
+
+	/**
+	 * Records a successful request, closing the circuit.
+	 */
+	public synchronized void onSuccess() {
+		state = State.CLOSED;
+		failures = 0;
+		trialInFlight = false;
+	}
+
+	/**
+	 * Closes the circuit and forgets recent failures.
+	 */
+	public void reset() {
+		onSuccess();
+	}
+
+	/**
+	 * Sets the number of consecutive outage failures needed to open the circuit.
+	 * Defaults to 5.
+	 * 
+	 * @param failureThreshold the failure threshold (at least 1).
+	 * @return this circuit breaker.
+	 */
+	public synchronized CircuitBreaker setFailureThreshold(int failureThreshold) {
+		if (failureThreshold < 1)
+			throw new IllegalArgumentException("failureThreshold must be at least 1: " + failureThreshold);
+		this.failureThreshold = failureThreshold;
+		return this;
+	}
+
+	/**
+	 * Sets how long the circuit stays open before a trial request is let
+	 * through. Defaults to 30 seconds.
+	 * 
+	 * @param openDuration the open duration.
+	 * @return this circuit breaker.
+	 */
+	public synchronized CircuitBreaker setOpenDuration(Duration openDuration) {
+		if (openDuration.isNegative())
+			throw new IllegalArgumentException("Negative open duration: " + openDuration);
+		this.openNanos = openDuration.toNanos();
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "CircuitBreaker [state=" + getState() + ", trips=" + getTrips() + ", rejected=" + getRejected() + "]";
+	}
+
+	private void trip() {
+		state = State.OPEN;
+		openedAt = System.nanoTime();
+		failures = 0;
+		trips.increment();
+	}
+}
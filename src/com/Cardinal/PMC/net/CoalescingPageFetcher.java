@@ -0,0 +1,75 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+
+/**
+ * A {@link PageFetcher} that shares downloads between concurrent callers. While
+ * a page is being downloaded, other requests for the same
+ * {@linkplain PageFetcher#canonical(String) canonical URL} wait for that
+ * download instead of starting their own.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class CoalescingPageFetcher implements PageFetcher {
+
+	private final PageFetcher fetcher;
+	private final SingleFlight<Page> fetches = new SingleFlight<Page>(),
+			revalidations = new SingleFlight<Page>();
+
+	/**
+	 * Constructs a new {@link CoalescingPageFetcher}.
+	 * 
+	 * @param fetcher the fetcher that actually downloads pages.
+	 */
+	public CoalescingPageFetcher(PageFetcher fetcher) {
+		this.fetcher = fetcher;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		return fetches.run(PageFetcher.canonical(url), () -> fetcher.fetch(url));
+	}
+
+	/**
+	 * Gets the number of requests that shared a download already in flight.
+	 * 
+	 * @return the coalesced request count.
+	 */
+	public long getCoalesced() {
+		return fetches.getCoalesced() + revalidations.getCoalesced();
+	}
+
+	/**
+	 * Gets the fetcher that actually downloads pages.
+	 * 
+	 * @return the wrapped fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the number of requests passed on to the wrapped fetcher.
+	 * 
+	 * @return the executed request count.
+	 */
+	public long getRequests() {
+		return fetches.getExecuted() + revalidations.getExecuted();
+	}
+
+	/**
+	 * {@inheritDoc} Revalidations are only shared with other revalidations, since
+	 * a not modified page is no use to a caller that has nothing cached.
+	 */
+	@Override
+	public Page revalidate(String url) throws IOException {
+		return revalidations.run(PageFetcher.canonical(url), () -> fetcher.revalidate(url));
+	}
+
+	@Override
+	public String toString() {
+		return "CoalescingPageFetcher [fetcher=" + fetcher + ", requests=" + getRequests() + ", coalesced="
+				+ getCoalesced() + "]";
+	}
+}
@@ -0,0 +1,286 @@
+package com.Cardinal.PMC.net;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An adaptive limit on the number of requests in flight at once. The limit
+ * follows additive increase, multiplicative decrease (AIMD): every successful
+ * request made while at least half the limit was in use raises it by
+ * <code>1 / limit</code>, so it grows by about one per round of requests, and
+ * a dropped request or a latency spike multiplies it by the
+ * {@linkplain ConcurrencyLimiter#setBackoff(double) backoff ratio}. Only
+ * requests started after the last decrease can decrease the limit again, so a
+ * burst of failures from one round only backs off once.
+ * <p>
+ * A request is a latency spike when it takes longer than the
+ * {@linkplain ConcurrencyLimiter#setSpikeFactor(double) spike factor} times the
+ * moving average latency of successful requests.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class ConcurrencyLimiter {
+
+	/**
+	 * The starting limit of a limiter constructed without one.
+	 */
+	public static final int DEFAULT_INITIAL_LIMIT = 4;
+
+	/**
+	 * The maximum limit of a limiter constructed without one.
+	 */
+	public static final int DEFAULT_MAX_LIMIT = 32;
+
+	/**
+	 * The weight given to each new sample in the moving average latency.
+	 */
+	private static final double SMOOTHING = 0.1;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition released = lock.newCondition();
+	private final LongAdder successes = new LongAdder(), drops = new LongAdder(), spikes = new LongAdder(),
+			decreases = new LongAdder();
+	private double limit;
+	private int minLimit = 1, maxLimit;
+	private int inFlight;
+	private double backoff = 0.5, spikeFactor = 3;
+	private double averageNanos = -1;
+	private long lastDecrease = System.nanoTime();
+
+	/**
+	 * Constructs a new {@link ConcurrencyLimiter} starting at the
+	 * {@linkplain ConcurrencyLimiter#DEFAULT_INITIAL_LIMIT default limit}.
+	 */
+	public ConcurrencyLimiter() {
+		this(DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+	}
+
+	/**
+	 * Constructs a new {@link ConcurrencyLimiter}.
+	 * 
+	 * @param initialLimit the starting limit.
+	 * @param maxLimit     the limit is never raised above this.
+	 */
+	public ConcurrencyLimiter(int initialLimit, int maxLimit) {
+		if (maxLimit < 1 || initialLimit < 1 || initialLimit > maxLimit)
+			throw new IllegalArgumentException(
+					"Expected 1 <= initialLimit <= maxLimit: " + initialLimit + ", " + maxLimit);
+		this.limit = initialLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Takes a slot, waiting until fewer requests than the limit are in flight.
+	 * Every call must be followed by a call to
+	 * {@link ConcurrencyLimiter#release(long, boolean)}.
+	 * 
+	 * @return the start time of the request, to be passed to
+	 *         {@link ConcurrencyLimiter#release(long, boolean)}.
+	 * @throws InterruptedIOException the thread was interrupted while waiting.
+	 */
+	public long acquire() throws InterruptedIOException {
+		lock.lock();
+		try {
+			while (inFlight >= (int) limit)
+				released.await();
+			inFlight++;
+		} catch (InterruptedException e) {
+			java.lang.Thread.currentThread().interrupt();
+			InterruptedIOException ex = new InterruptedIOException("Interrupted waiting for a request slot");
+			ex.initCause(e);
+			throw ex;
+		} finally {
+			lock.unlock();
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Gets the moving average latency of successful requests.
+	 * 
+	 * @return the average latency, or {@link Duration#ZERO} before the first
+	 *         success.
+	 */
+	public Duration getAverageLatency() {
+		lock.lock();
+		try {
+			return averageNanos < 0 ? Duration.ZERO : Duration.ofNanos((long) averageNanos);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of times the limit was decreased.
+	 * 
+	 * @return the decrease count.
+	 */
+	public long getDecreases() {
+		return decreases.sum();
+	}
+
+	/**
+	 * Gets the number of requests released as dropped.
+	 * 
+	 * @return the dropped request count.
+	 */
+	public long getDrops() {
+		return drops.sum();
+	}
+
+	/**
+	 * Gets the number of requests in flight.
+	 * 
+	 * @return the in-flight request count.
+	 */
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the current limit on requests in flight.
+	 * 
+	 * @return the limit.
+	 */
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of successful requests that were slow enough to count as a
+	 * latency spike.
+	 * 
+	 * @return the spike count.
+	 */
+	public long getSpikes() {
+		return spikes.sum();
+	}
+
+	/**
+	 * Gets the number of requests released as successful.
+	 * 
+	 * @return the successful request count.
+	 */
+	public long getSuccesses() {
+		return successes.sum();
+	}
+
+	/**
+	 * Frees the slot taken by a request and adjusts the limit by its outcome.
+	 * 
+	 * @param start   the start time returned by
+	 *                {@link ConcurrencyLimiter#acquire()}.
+	 * @param dropped whether the request failed in a way that suggests the server
+	 *                is overloaded.
+	 */
+	public void release(long start, boolean dropped) {
+		long now = System.nanoTime(), latency = now - start;
+		lock.lock();
+		try {
+			int used = inFlight--;
+			boolean spike = false;
+			if (dropped) {
+				drops.increment();
+			} else {
+				successes.increment();
+				spike = averageNanos >= 0 && latency > averageNanos * spikeFactor;
+				if (spike)
+					spikes.increment();
+				averageNanos = averageNanos < 0 ? latency : averageNanos + (latency - averageNanos) * SMOOTHING;
+			}
+
+			if ((dropped || spike) && start - lastDecrease > 0) {
+				limit = Math.max(minLimit, limit * backoff);
+				lastDecrease = now;
+				decreases.increment();
+			} else if (!dropped && !spike && used * 2 >= limit) {
+				// Only grow a limit that is being used, or it drifts up while idle.
+				limit = Math.min(maxLimit, limit + 1 / limit);
+			}
+			released.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the ratio the limit is multiplied by when it is decreased. Defaults to
+	 * 0.5.
+	 * 
+	 * @param backoff the backoff ratio, between 0 and 1 exclusive.
+	 * @return this limiter.
+	 */
+	public ConcurrencyLimiter setBackoff(double backoff) {
+		if (!(backoff > 0 && backoff < 1))
+			throw new IllegalArgumentException("Backoff must be between 0 and 1: " + backoff);
+		lock.lock();
+		try {
+			this.backoff = backoff;
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the bounds of the limit. The current limit is clamped to them.
+	 * 
+	 * @param minLimit the limit is never lowered below this (at least 1).
+	 * @param maxLimit the limit is never raised above this.
+	 * @return this limiter.
+	 */
+	public ConcurrencyLimiter setLimits(int minLimit, int maxLimit) {
+		if (minLimit < 1 || minLimit > maxLimit)
+			throw new IllegalArgumentException("Expected 1 <= minLimit <= maxLimit: " + minLimit + ", " + maxLimit);
+		lock.lock();
+		try {
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			limit = Math.max(minLimit, Math.min(maxLimit, limit));
+			released.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	/**
+	 * Sets how many times slower than the average a successful request must be
+	 * to count as a latency spike. Defaults to 3.
+	 * 
+	 * @param spikeFactor the spike factor, greater than 1.
+	 * @return this limiter.
+	 */
+	public ConcurrencyLimiter setSpikeFactor(double spikeFactor) {
+		if (!(spikeFactor > 1))
+			throw new IllegalArgumentException("Spike factor must be greater than 1: " + spikeFactor);
+		lock.lock();
+		try {
+			this.spikeFactor = spikeFactor;
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrencyLimiter [limit=" + getLimit() + ", inFlight=" + getInFlight() + ", successes="
+				+ getSuccesses() + ", drops=" + getDrops() + ", spikes=" + getSpikes() + ", decreases="
+				+ getDecreases() + "]";
+	}
+}
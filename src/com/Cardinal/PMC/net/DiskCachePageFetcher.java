@@ -0,0 +1,667 @@
+package com.Cardinal.PMC.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * A {@link PageFetcher} that keeps the pages downloaded by another fetcher in a
+ * directory, so they survive restarts. Bodies are gzip-compressed and stored
+ * under the SHA-1 of their content, so identical pages are stored once. An
+ * append-only index maps each {@linkplain PageFetcher#canonical(String)
+ * canonical URL} to its body and response metadata.
+ * <p>
+ * Cached pages are served until they outlive the time to live, after which
+ * they are downloaded (or {@linkplain PageFetcher#revalidate(String)
+ * revalidated}) again. The least recently used pages are evicted once the
+ * bodies exceed the maximum size. In {@linkplain
+ * DiskCachePageFetcher#setOffline(boolean) offline} mode pages are only ever
+ * served from the cache, however old, so a crawl can be replayed without any
+ * network access.
+ * <p>
+ * Only 200 (OK) pages are cached. A directory must not be used by two caches
+ * at once.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class DiskCachePageFetcher implements PageFetcher, Closeable {
+
+	/**
+	 * The time to live of a cache constructed without one.
+	 */
+	public static final Duration DEFAULT_TTL = Duration.ofDays(1);
+
+	/**
+	 * The maximum size of a cache constructed without one, in bytes of
+	 * compressed bodies.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+	private static final int MAGIC = 0x504D4343, VERSION = 1;
+	private static final byte PUT = 1, REMOVE = 2;
+
+	private final Path directory, indexFile;
+	private final PageFetcher fetcher;
+	private final LinkedHashMap<String, Entry> index = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private final Map<String, Integer> references = new HashMap<String, Integer>();
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), stores = new LongAdder(),
+			evictions = new LongAdder();
+	private DataOutputStream log;
+	private int logRecords;
+	private long size, maxSize = DEFAULT_MAX_SIZE;
+	private long ttlMillis = DEFAULT_TTL.toMillis();
+	private volatile boolean offline;
+
+	/**
+	 * Opens the cache in the given directory, creating it if needed.
+	 * 
+	 * @param directory the cache directory.
+	 * @param fetcher   the fetcher that downloads pages missing from the cache,
+	 *                  or null to serve only cached pages.
+	 * @throws IOException there was an error reading the index.
+	 */
+	public DiskCachePageFetcher(Path directory, PageFetcher fetcher) throws IOException {
+		this.directory = directory;
+		this.indexFile = directory.resolve("index");
+		this.fetcher = fetcher;
+		this.offline = fetcher == null;
+		Files.createDirectories(directory);
+		synchronized (this) {
+			if (!readIndex())
+				compact();
+			else
+				openLog();
+		}
+	}
+
+	/**
+	 * Removes every page from the cache.
+	 * 
+	 * @throws IOException there was an error deleting the bodies.
+	 */
+	public synchronized void clear() throws IOException {
+		for (String hash : new ArrayList<String>(references.keySet()))
+			Files.deleteIfExists(blob(hash));
+		index.clear();
+		references.clear();
+		size = 0;
+		compact();
+	}
+
+	/**
+	 * Closes the index. The cache cannot be used afterwards.
+	 * 
+	 * @throws IOException there was an error closing the index.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (log != null) {
+			log.close();
+			log = null;
+		}
+	}
+
+	/**
+	 * Checks whether the page at the given URL is cached, fresh or not.
+	 * 
+	 * @param url the page URL.
+	 * @return true if the page is cached.
+	 */
+	public synchronized boolean contains(String url) {
+		return index.containsKey(PageFetcher.canonical(url));
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		String key = PageFetcher.canonical(url);
+		Page cached = getCached(key, url);
+		if (cached != null)
+			return cached;
+
+		Page page = fetcher.fetch(url);
+		store(key, page);
+		return page;
+	}
+
+	/**
+	 * Gets the directory the cache is stored in.
+	 * 
+	 * @return the cache directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Gets the number of pages cached.
+	 * 
+	 * @return the page count.
+	 */
+	public synchronized int getEntryCount() {
+		return index.size();
+	}
+
+	/**
+	 * Gets the number of pages evicted to keep the cache under its maximum size.
+	 * 
+	 * @return the eviction count.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Gets the fetcher that downloads pages missing from the cache.
+	 * 
+	 * @return the wrapped fetcher, or null if this cache only serves cached pages.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the number of requests served from the cache.
+	 * 
+	 * @return the hit count.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the maximum total size of the cached bodies.
+	 * 
+	 * @return the maximum size in bytes.
+	 */
+	public synchronized long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the number of requests that were not served from the cache.
+	 * 
+	 * @return the miss count.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the total size of the cached bodies.
+	 * 
+	 * @return the size in bytes of compressed bodies.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of pages written to the cache.
+	 * 
+	 * @return the store count.
+	 */
+	public long getStores() {
+		return stores.sum();
+	}
+
+	/**
+	 * Gets how long a page is served from the cache before it is downloaded
+	 * again.
+	 * 
+	 * @return the time to live, or null if pages never go stale.
+	 */
+	public synchronized Duration getTtl() {
+		return ttlMillis < 0 ? null : Duration.ofMillis(ttlMillis);
+	}
+
+	/**
+	 * Removes the page at the given URL from the cache.
+	 * 
+	 * @param url the page URL.
+	 * @throws IOException there was an error updating the index.
+	 */
+	public synchronized void invalidate(String url) throws IOException {
+		remove(PageFetcher.canonical(url), false);
+	}
+
+	/**
+	 * Checks whether this cache serves only cached pages.
+	 * 
+	 * @return true if this cache never downloads pages.
+	 */
+	public boolean isOffline() {
+		return offline;
+	}
+
+	/**
+	 * {@inheritDoc} Fresh cached pages are returned as they are. A stale page is
+	 * revalidated, and if it has not changed its time to live starts over.
+	 */
+	@Override
+	public Page revalidate(String url) throws IOException {
+		String key = PageFetcher.canonical(url);
+		Page cached = getCached(key, url);
+		if (cached != null)
+			return cached;
+
+		boolean stale;
+		synchronized (this) {
+			stale = index.containsKey(key);
+		}
+		if (!stale)
+			return fetch(url);
+
+		Page page = fetcher.revalidate(url);
+		if (page.isNotModified())
+			touch(key);
+		else
+			store(key, page);
+		return page;
+	}
+
+	/**
+	 * Sets the maximum total size of the cached bodies. The least recently used
+	 * pages are evicted once it is exceeded.
+	 * 
+	 * @param maxSize the maximum size in bytes.
+	 * @return this cache.
+	 * @throws IOException there was an error evicting pages.
+	 */
+	public synchronized DiskCachePageFetcher setMaxSize(long maxSize) throws IOException {
+		if (maxSize < 0)
+			throw new IllegalArgumentException("Negative max size: " + maxSize);
+		this.maxSize = maxSize;
+		evict();
+		return this;
+	}
+
+	/**
+	 * Sets whether this cache serves only cached pages. Offline, stale pages are
+	 * served as they are and missing pages fail with a 404
+	 * {@link HttpStatusException}.
+	 * 
+	 * @param offline whether to stop downloading pages.
+	 * @return this cache.
+	 */
+	public DiskCachePageFetcher setOffline(boolean offline) {
+		if (!offline && fetcher == null)
+			throw new IllegalStateException("No fetcher to download pages with");
+		this.offline = offline;
+		return this;
+	}
+
+	/**
+	 * Sets how long a page is served from the cache before it is downloaded
+	 * again. Defaults to {@link DiskCachePageFetcher#DEFAULT_TTL}.
+	 * 
+	 * @param ttl the time to live, or null to never let pages go stale.
+	 * @return this cache.
+	 */
+	public synchronized DiskCachePageFetcher setTtl(Duration ttl) {
+		this.ttlMillis = ttl == null ? -1 : ttl.toMillis();
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "DiskCachePageFetcher [directory=" + directory + ", entries=" + getEntryCount() + ", size="
+				+ getSize() + ", hits=" + getHits() + ", misses=" + getMisses() + ", offline=" + offline + "]";
+	}
+
+	/**
+	 * Gets the file the body with the given hash is stored in.
+	 */
+	private Path blob(String hash) {
+		return directory.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+	}
+
+	/**
+	 * Rewrites the index with only the live entries, then reopens it for
+	 * appending.
+	 */
+	private void compact() throws IOException {
+		if (log != null)
+			log.close();
+		Path temp = directory.resolve("index.tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			// Oldest first, so replaying the index restores the access order.
+			for (Map.Entry<String, Entry> e : index.entrySet())
+				writePut(out, e.getKey(), e.getValue());
+		}
+		move(temp, indexFile);
+		logRecords = index.size();
+		openLog();
+	}
+
+	/**
+	 * Serves the page for the given key from the cache if it is fresh, or if this
+	 * cache is offline.
+	 * 
+	 * @return the page, or null if it must be downloaded.
+	 * @throws HttpStatusException the cache is offline and the page is not
+	 *                             cached.
+	 */
+	private Page getCached(String key, String url) throws IOException {
+		Entry entry;
+		boolean offline = this.offline;
+		synchronized (this) {
+			entry = index.get(key);
+		}
+		if (entry != null && (offline || entry.isFresh(ttlMillis))) {
+			try {
+				Page page = entry.read(blob(entry.hash));
+				hits.increment();
+				return page;
+			} catch (IOException e) {
+				// The body was evicted or damaged since the lookup, forget it.
+				synchronized (this) {
+					if (index.get(key) == entry)
+						remove(key, false);
+				}
+			}
+		}
+
+		misses.increment();
+		if (offline)
+			throw new HttpStatusException("No cached page for URL", 404, url);
+		return null;
+	}
+
+	/**
+	 * Evicts the least recently used pages until the cache fits its maximum size.
+	 */
+	private void evict() throws IOException {
+		Iterator<Map.Entry<String, Entry>> entries = index.entrySet().iterator();
+		while (size > maxSize && entries.hasNext()) {
+			Map.Entry<String, Entry> eldest = entries.next();
+			entries.remove();
+			release(eldest.getKey(), eldest.getValue(), true);
+		}
+	}
+
+	/**
+	 * Moves the given file into place, atomically where the file system allows.
+	 */
+	private static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void openLog() throws IOException {
+		log = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(indexFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+	}
+
+	/**
+	 * Loads the index, keeping the entries whose bodies still exist.
+	 * 
+	 * @return true if the index was read as it is, false if it was missing,
+	 *         damaged or of another version and needs rewriting.
+	 */
+	private boolean readIndex() throws IOException {
+		if (!Files.exists(indexFile))
+			return false;
+		Set<String> released = new HashSet<String>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return false;
+			while (true) {
+				int type = in.read();
+				if (type == -1)
+					break;
+				String key = in.readUTF();
+				logRecords++;
+				if (type == PUT) {
+					Entry entry = Entry.read(in);
+					released.add(remove(key, true));
+					if (Files.exists(blob(entry.hash)))
+						put(key, entry);
+				} else if (type == REMOVE) {
+					released.add(remove(key, true));
+				} else {
+					return false;
+				}
+			}
+		} catch (EOFException e) {
+			// A record cut short by a crash, drop it.
+			return false;
+		} finally {
+			// Bodies replaced without being removed, such as by older versions.
+			released.remove(null);
+			released.removeAll(references.keySet());
+			for (String hash : released)
+				Files.deleteIfExists(blob(hash));
+		}
+		if (logRecords > 2 * index.size() + 1000)
+			return false;
+		// The index is not open for appending yet, so rewrite it after evicting.
+		long evicted = evictions.sum();
+		evict();
+		return evictions.sum() == evicted;
+	}
+
+	/**
+	 * Adds the given entry to the in-memory index.
+	 */
+	private void put(String key, Entry entry) {
+		index.put(key, entry);
+		if (references.merge(entry.hash, 1, Integer::sum) == 1)
+			size += entry.length;
+	}
+
+	/**
+	 * Records the removal of the given key, and drops its reference to its body,
+	 * deleting the body once no page refers to it.
+	 */
+	private void release(String key, Entry entry, boolean evicted) throws IOException {
+		if (evicted)
+			evictions.increment();
+		if (log != null) {
+			log.write(REMOVE);
+			log.writeUTF(key);
+			log.flush();
+			logRecords++;
+		}
+		if (unreference(entry))
+			Files.deleteIfExists(blob(entry.hash));
+	}
+
+	/**
+	 * Removes the given key from the index.
+	 * 
+	 * @param quietly whether to leave the removal out of the log and keep the
+	 *                body, as when the index is being loaded or the key is put
+	 *                again right after.
+	 * @return the hash of the body if it was removed quietly and no page refers
+	 *         to it anymore, which the caller deletes once it is sure no page
+	 *         does, or null.
+	 */
+	private String remove(String key, boolean quietly) throws IOException {
+		Entry entry = index.remove(key);
+		if (entry == null)
+			return null;
+		if (quietly)
+			return unreference(entry) ? entry.hash : null;
+		release(key, entry, false);
+		return null;
+	}
+
+	/**
+	 * Writes the body of the given page and adds it to the index.
+	 */
+	private void store(String key, Page page) throws IOException {
+		if (page.getStatus() != 200)
+			return;
+		byte[] body = page.getBytes();
+		String hash = MemoryPageFetcher.sha1(body);
+		Path file = blob(hash);
+		long length;
+		synchronized (this) {
+			length = references.containsKey(hash) ? Files.size(file) : -1;
+		}
+		if (length < 0) {
+			Files.createDirectories(file.getParent());
+			Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+				out.write(body);
+			}
+			length = Files.size(temp);
+			move(temp, file);
+		}
+
+		Entry entry = new Entry(page.getURL(), hash, System.currentTimeMillis(), page.getCharset().name(),
+				length, page.getHeaders());
+		synchronized (this) {
+			if (log == null)
+				throw new IOException("Cache closed: " + directory);
+			String released = remove(key, true);
+			put(key, entry);
+			if (released != null && !references.containsKey(released))
+				Files.deleteIfExists(blob(released));
+			writePut(log, key, entry);
+			log.flush();
+			logRecords++;
+			stores.increment();
+			evict();
+			if (logRecords > 2 * index.size() + 1000)
+				compact();
+		}
+	}
+
+	/**
+	 * Drops a reference to the body of the given entry.
+	 * 
+	 * @return true if no page refers to the body anymore.
+	 */
+	private boolean unreference(Entry entry) {
+		if (references.merge(entry.hash, -1, Integer::sum) > 0)
+			return false;
+		references.remove(entry.hash);
+		size -= entry.length;
+		return true;
+	}
+
+	/**
+	 * Restarts the time to live of the page for the given key.
+	 */
+	private synchronized void touch(String key) throws IOException {
+		Entry entry = index.get(key);
+		if (entry == null || log == null)
+			return;
+		entry = new Entry(entry.url, entry.hash, System.currentTimeMillis(), entry.charset, entry.length,
+				entry.headers);
+		index.put(key, entry);
+		writePut(log, key, entry);
+		log.flush();
+		logRecords++;
+	}
+
+	private static void writePut(DataOutputStream out, String key, Entry entry) throws IOException {
+		out.write(PUT);
+		out.writeUTF(key);
+		entry.write(out);
+	}
+
+	/**
+	 * A cached page: where its body is, and the response it came with.
+	 */
+	private static class Entry {
+
+		private final String url, hash, charset;
+		private final long storedAt, length;
+		private final Map<String, List<String>> headers;
+
+		private Entry(String url, String hash, long storedAt, String charset, long length,
+				Map<String, List<String>> headers) {
+			this.url = url;
+			this.hash = hash;
+			this.storedAt = storedAt;
+			this.charset = charset;
+			this.length = length;
+			this.headers = headers;
+		}
+
+		private boolean isFresh(long ttlMillis) {
+			return ttlMillis < 0 || System.currentTimeMillis() - storedAt < ttlMillis;
+		}
+
+		/**
+		 * Reads and decompresses the body, checking it against its hash.
+		 */
+		private Page read(Path file) throws IOException {
+			byte[] body;
+			try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+				body = in.readAllBytes();
+			}
+			if (!MemoryPageFetcher.sha1(body).equals(hash))
+				throw new NoSuchFileException(file.toString(), null, "Body does not match its hash");
+			return new Page(url, 200, headers, body, Charset.forName(charset));
+		}
+
+		private static Entry read(DataInputStream in) throws IOException {
+			String url = in.readUTF(), hash = in.readUTF();
+			long storedAt = in.readLong();
+			String charset = in.readUTF();
+			long length = in.readLong();
+			int count = in.readInt();
+			Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+			for (int i = 0; i < count; i++) {
+				String name = in.readUTF();
+				int values = in.readInt();
+				List<String> list = new ArrayList<String>(values);
+				for (int v = 0; v < values; v++)
+					list.add(in.readUTF());
+				headers.put(name, list);
+			}
+			return new Entry(url, hash, storedAt, charset, length, headers);
+		}
+
+		private void write(DataOutputStream out) throws IOException {
+			out.writeUTF(url);
+			out.writeUTF(hash);
+			out.writeLong(storedAt);
+			out.writeUTF(charset);
+			out.writeLong(length);
+			out.writeInt(headers.size());
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				out.writeUTF(header.getKey());
+				out.writeInt(header.getValue().size());
+				for (String value : header.getValue())
+					out.writeUTF(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.Cardinal.PMC.net;
+
+import java.util.List;
+
+/**
+ * The items read from a single page of a feed, along with the number of rows
+ * the page had before any were filtered out, such as those by ignored users. A
+ * page whose rows were all filtered out has no items but does not end the
+ * feed; only a page without any rows does.
+ *
+ * @author Cardinal System
+ *
+ * @param <T> the type of item.
+ */
+public class FeedPage<T> {
+
+	private final List<T> items;
+	private final int rows;
+
+	/**
+	 * Constructs a new {@link FeedPage}.
+	 *
+	 * @param items the items read from the page, in page order.
+	 * @param rows  the number of rows on the page, including those that were
+	 *              filtered out.
+	 */
+	public FeedPage(List<T> items, int rows) {
+		this.items = items;
+		this.rows = rows;
+	}
+
+	/**
+	 * Gets the items read from the page.
+	 *
+	 * @return the items, in page order.
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Gets the number of rows on the page, including those that were filtered
+	 * out.
+	 *
+	 * @return the row count.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Checks whether the page had no rows at all, marking the end of its feed.
+	 *
+	 * @return true if the page had no rows.
+	 */
+	public boolean isEnd() {
+		return rows == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "FeedPage [items=" + items.size() + ", rows=" + rows + "]";
+	}
+}
@@ -0,0 +1,165 @@
+package com.Cardinal.PMC.net;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Flow.Publisher} of the items of a paginated feed. Every subscriber
+ * gets its own pass over the feed, and pages are only downloaded as the
+ * subscriber {@linkplain Flow.Subscription#request(long) requests} items, so a
+ * slow subscriber slows the crawl down rather than letting unread items pile
+ * up. Items are published as soon as their page is parsed.
+ * <p>
+ * Items are delivered on the publisher's executor, one signal at a time. Only
+ * errors reading the feed are signalled with
+ * {@link Flow.Subscriber#onError(Throwable)}. A subscriber that throws from
+ * {@link Flow.Subscriber#onNext(Object)} has its subscription cancelled, and
+ * the exception is passed to the delivering thread's uncaught exception
+ * handler.
+ * 
+ * @author Cardinal System
+ *
+ * @param <T> the type of feed item.
+ */
+public class FeedPublisher<T> implements Flow.Publisher<T> {
+
+	private final Supplier<Stream<T>> feed;
+	private final Executor executor;
+
+	/**
+	 * Constructs a new {@link FeedPublisher}.
+	 * 
+	 * @param feed     opens a lazily paginated stream of the feed, such as one
+	 *                 from {@link PagePrefetcher#stream(String, Function)}. It
+	 *                 is called once per subscriber.
+	 * @param executor the executor items are delivered on.
+	 */
+	public FeedPublisher(Supplier<Stream<T>> feed, Executor executor) {
+		this.feed = feed;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber, "subscriber");
+		FeedSubscription subscription = new FeedSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * A single subscriber's pass over the feed. Requests add to the demand, and
+	 * a drain task running on the executor delivers items until the demand is
+	 * met. The work-in-progress counter makes sure only one drain task runs at a
+	 * time.
+	 */
+	private class FeedSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable invalidRequest;
+		private boolean terminated;
+		private Stream<T> stream;
+		private Iterator<T> items;
+
+		private FeedSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+				cancelled = true;
+			} else {
+				demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void close() {
+			if (stream != null) {
+				stream.close();
+				stream = null;
+			}
+			items = null;
+		}
+
+		private void drain() {
+			if (terminated)
+				return;
+			if (cancelled) {
+				close();
+				if (invalidRequest != null) {
+					terminated = true;
+					subscriber.onError(invalidRequest);
+				}
+				return;
+			}
+
+			while (demand.get() > 0 && !cancelled) {
+				T item;
+				try {
+					if (items == null) {
+						stream = feed.get();
+						items = stream.iterator();
+					}
+					item = items.hasNext() ? items.next() : null;
+				} catch (RuntimeException e) {
+					terminated = true;
+					close();
+					subscriber.onError(e);
+					return;
+				}
+				if (item == null) {
+					terminated = true;
+					close();
+					subscriber.onComplete();
+					return;
+				}
+
+				demand.decrementAndGet();
+				try {
+					subscriber.onNext(item);
+				} catch (RuntimeException e) {
+					// A subscriber may not throw (rule 2.13), so its error is not
+					// signalled back to it. The subscription is cancelled instead.
+					terminated = true;
+					cancelled = true;
+					close();
+					java.lang.Thread thread = java.lang.Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+					return;
+				}
+			}
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0)
+				executor.execute(this);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A spliterator over the items of a paginated feed. Pages are only downloaded
+ * once the items of the previous page have been consumed, and the feed ends at
+ * the first page without any rows. Pages whose rows were all filtered out are
+ * skipped.
+ * 
+ * @author Cardinal System
+ *
+ * @param <T> the type of feed item.
+ * @see PagePrefetcher#stream(String, Function)
+ */
+class FeedSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+	private final PageFetcher fetcher;
+	private final Executor executor;
+	private final String url;
+	private final Function<Page, FeedPage<T>> parser;
+	private final boolean prefetch;
+	private Iterator<T> page = Collections.emptyIterator();
+	private FutureTask<FeedPage<T>> next;
+	private int pageNumber;
+	private boolean done;
+
+	/**
+	 * Constructs a new {@link FeedSpliterator}.
+	 * 
+	 * @param fetcher  the fetcher used to download pages.
+	 * @param executor the executor the next page is prefetched on. A prefetch
+	 *                 the executor has not started by the time its page is
+	 *                 needed is run by the consuming thread instead.
+	 * @param url      the URL of the first page. Page <code>p</code> is at
+	 *                 <code>url&amp;p=p</code>.
+	 * @param parser   the function used to get the items and row count of a
+	 *                 page.
+	 * @param prefetch whether to download the next page in the background while
+	 *                 the current one is consumed.
+	 */
+	FeedSpliterator(PageFetcher fetcher, Executor executor, String url, Function<Page, FeedPage<T>> parser,
+			boolean prefetch) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		this.fetcher = fetcher;
+		this.executor = executor;
+		this.url = url;
+		this.parser = parser;
+		this.prefetch = prefetch;
+	}
+
+	/**
+	 * Stops this feed and cancels the prefetch of the next page, if any.
+	 */
+	void close() {
+		done = true;
+		if (next != null) {
+			next.cancel(true);
+			next = null;
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		while (!page.hasNext()) {
+			if (done)
+				return false;
+			FeedPage<T> items = nextPage();
+			if (items.isEnd()) {
+				close();
+				return false;
+			}
+			page = items.getItems().iterator();
+		}
+		action.accept(page.next());
+		return true;
+	}
+
+	private FeedPage<T> load(int pageNumber) throws IOException {
+		return parser.apply(fetcher.fetch(pageNumber == 1 ? url : url + "&p=" + pageNumber));
+	}
+
+	private FeedPage<T> nextPage() {
+		int number = ++pageNumber;
+		try {
+			FeedPage<T> items;
+			if (next != null) {
+				items = Async.join(next);
+				next = null;
+			} else {
+				items = load(number);
+			}
+			if (prefetch && !items.isEnd())
+				next = Async.fork(() -> load(number + 1), executor);
+			return items;
+		} catch (IOException e) {
+			close();
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package com.Cardinal.PMC.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A {@link PageFetcher} backed by a pooled, keep-alive {@link HttpClient}.
+ * Connections are reused across requests (and multiplexed over HTTP/2 where
+ * the server supports it), so a single instance should be shared by all
+ * loaders. Error statuses are thrown as {@link PageStatusException}s.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class HttpPageFetcher implements PageFetcher {
+
+	/**
+	 * The user agent sent with every request.
+	 */
+	public static final String USER_AGENT = "PMCAPI";
+
+	/**
+	 * The number of pages validators are kept for by default.
+	 */
+	public static final int DEFAULT_MAX_VALIDATORS = 10_000;
+
+	private static HttpPageFetcher defaultFetcher;
+
+	private final HttpClient client;
+	private Duration timeout = Duration.ofSeconds(30);
+	/**
+	 * The validators (<code>[ETag, Last-Modified]</code>) of the
+	 * {@linkplain PageType#ENTITY entity} pages fetched with this fetcher, keyed
+	 * by URL in access order.
+	 */
+	private final LinkedHashMap<String, String[]> validators = new LinkedHashMap<String, String[]>(16, 0.75f,
+			true);
+	private int maxValidators = DEFAULT_MAX_VALIDATORS;
+
+	/**
+	 * Constructs a new {@link HttpPageFetcher} with its own connection pool.
+	 */
+	public HttpPageFetcher() {
+		this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(Redirect.NORMAL)
+				.connectTimeout(Duration.ofSeconds(30)).build());
+	}
+
+	/**
+	 * Constructs a new {@link HttpPageFetcher} that sends its requests through the
+	 * given client.
+	 * 
+	 * @param client the HTTP client.
+	 */
+	public HttpPageFetcher(HttpClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Gets the fetcher shared by loaders that were constructed without one.
+	 * 
+	 * @return the shared fetcher.
+	 */
+	public static synchronized HttpPageFetcher getDefault() {
+		if (defaultFetcher == null)
+			defaultFetcher = new HttpPageFetcher();
+		return defaultFetcher;
+	}
+
+	/**
+	 * Sets the maximum time to wait for a response.
+	 * 
+	 * @param timeout the request timeout.
+	 * @return this fetcher.
+	 */
+	public HttpPageFetcher setTimeout(Duration timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		return get(url, false);
+	}
+
+	@Override
+	public Page revalidate(String url) throws IOException {
+		return get(url, true);
+	}
+
+	/**
+	 * Forgets the validators stored for every page.
+	 */
+	public void clearValidators() {
+		synchronized (validators) {
+			validators.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of pages validators are kept for.
+	 * 
+	 * @return the maximum number of validators.
+	 */
+	public int getMaxValidators() {
+		return maxValidators;
+	}
+
+	/**
+	 * Sets the number of pages validators are kept for. Validators are only kept
+	 * for {@linkplain PageType#ENTITY entity} pages, the only pages the loaders
+	 * revalidate, and the least recently used are forgotten beyond this number.
+	 * A page whose validators were forgotten is downloaded in full the next time
+	 * it is revalidated. Defaults to
+	 * {@link HttpPageFetcher#DEFAULT_MAX_VALIDATORS}, the default size of the
+	 * loaders' caches.
+	 * 
+	 * @param maxValidators the maximum number of validators (at least 0).
+	 * @return this fetcher.
+	 */
+	public HttpPageFetcher setMaxValidators(int maxValidators) {
+		if (maxValidators < 0)
+			throw new IllegalArgumentException("maxValidators must be at least 0: " + maxValidators);
+		synchronized (validators) {
+			this.maxValidators = maxValidators;
+			trimValidators();
+		}
+		return this;
+	}
+
+	/**
+	 * Issues a GET request for the given URL and stores the validators of the
+	 * response if it is an entity page.
+	 * 
+	 * @param url         the page URL.
+	 * @param conditional whether to send the stored validators.
+	 * @return the page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	private Page get(String url, boolean conditional) throws IOException {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(toURI(url)).timeout(timeout)
+				.header("User-Agent", USER_AGENT).header("Accept-Encoding", "gzip").GET();
+
+		String[] stored = null;
+		if (conditional)
+			synchronized (validators) {
+				stored = validators.get(url);
+			}
+		if (stored != null) {
+			if (stored[0] != null)
+				builder.header("If-None-Match", stored[0]);
+			if (stored[1] != null)
+				builder.header("If-Modified-Since", stored[1]);
+		}
+
+		HttpResponse<byte[]> response = send(builder.build());
+		int status = response.statusCode();
+		if (status == 304 && stored != null)
+			return new Page(response.uri().toString(), status, response.headers().map(), null, null);
+		if (status < 200 || status >= 400)
+			throw new PageStatusException(status, url,
+					PageStatusException.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+
+		if (PageType.of(url) == PageType.ENTITY) {
+			String etag = response.headers().firstValue("ETag").orElse(null),
+					modified = response.headers().firstValue("Last-Modified").orElse(null);
+			synchronized (validators) {
+				if (etag != null || modified != null) {
+					validators.put(url, new String[] { etag, modified });
+					trimValidators();
+				} else {
+					validators.remove(url);
+				}
+			}
+		}
+
+		return toPage(response);
+	}
+
+	/**
+	 * Forgets the least recently used validators until no more than
+	 * {@link HttpPageFetcher#getMaxValidators()} are left. Must be called while
+	 * holding the validators' lock.
+	 */
+	private void trimValidators() {
+		Iterator<String> urls = validators.keySet().iterator();
+		while (validators.size() > maxValidators) {
+			urls.next();
+			urls.remove();
+		}
+	}
+
+	/**
+	 * Sends the given request, translating interrupts into
+	 * {@link InterruptedIOException}s.
+	 * 
+	 * @param request the request.
+	 * @return the response.
+	 * @throws IOException there was an error sending the request.
+	 */
+	protected HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+		try {
+			return client.send(request, BodyHandlers.ofByteArray());
+		} catch (InterruptedException e) {
+			java.lang.Thread.currentThread().interrupt();
+			InterruptedIOException ex = new InterruptedIOException("Interrupted fetching " + request.uri());
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Converts the given response into a {@link Page}, decompressing the body if
+	 * needed.
+	 * 
+	 * @param response the response.
+	 * @return the page.
+	 * @throws IOException there was an error decompressing the body.
+	 */
+	protected Page toPage(HttpResponse<byte[]> response) throws IOException {
+		byte[] body = response.body();
+		if (body.length > 0 && "gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(""))) {
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+				body = in.readAllBytes();
+			}
+		}
+		Charset charset = charsetOf(response.headers().firstValue("Content-Type").orElse(null));
+		return new Page(response.uri().toString(), response.statusCode(), response.headers().map(), body, charset);
+	}
+
+	/**
+	 * Gets the charset declared by the given content type, defaulting to UTF-8.
+	 * 
+	 * @param contentType the Content-Type header value.
+	 * @return the charset.
+	 */
+	private static Charset charsetOf(String contentType) {
+		if (contentType != null) {
+			int i = contentType.toLowerCase().indexOf("charset=");
+			if (i != -1) {
+				String name = contentType.substring(i + 8).replace("\"", "").trim();
+				int end = name.indexOf(';');
+				if (end != -1)
+					name = name.substring(0, end).trim();
+				try {
+					return Charset.forName(name);
+				} catch (IllegalArgumentException e) {
+					// fall through to the default
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Converts the given URL into a {@link URI}, escaping any illegal characters
+	 * (such as spaces in search keywords).
+	 * 
+	 * @param url the URL.
+	 * @return the URI.
+	 * @throws MalformedURLException the URL is invalid.
+	 */
+	protected static URI toURI(String url) throws MalformedURLException {
+		try {
+			return URI.create(url);
+		} catch (IllegalArgumentException e) {
+			URL u = new URL(url);
+			try {
+				return new URI(u.getProtocol(), u.getUserInfo(), u.getHost(), u.getPort(), u.getPath(), u.getQuery(),
+						u.getRef());
+			} catch (URISyntaxException ex) {
+				MalformedURLException mue = new MalformedURLException(url);
+				mue.initCause(ex);
+				throw mue;
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * An offline {@link PageFetcher} that serves pages from memory or from saved
+ * HTML files, used for testing loaders without touching the network.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class MemoryPageFetcher implements PageFetcher {
+
+	private final Map<String, Page> pages = new ConcurrentHashMap<String, Page>();
+	private final Path directory;
+
+	/**
+	 * Constructs a new, empty {@link MemoryPageFetcher}.
+	 */
+	public MemoryPageFetcher() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a new {@link MemoryPageFetcher} that falls back to the HTML files
+	 * in the given directory. Files are looked up by
+	 * {@link MemoryPageFetcher#fileName(String)}.
+	 * 
+	 * @param directory the directory of saved pages.
+	 */
+	public MemoryPageFetcher(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Stores the given HTML under the given URL.
+	 * 
+	 * @param url  the page URL.
+	 * @param html the page HTML.
+	 * @return this fetcher.
+	 */
+	public MemoryPageFetcher put(String url, String html) {
+		return put(new Page(url, html));
+	}
+
+	/**
+	 * Stores the given saved HTML file under the given URL.
+	 * 
+	 * @param url  the page URL.
+	 * @param file the HTML file.
+	 * @return this fetcher.
+	 * @throws IOException there was an error reading the file.
+	 */
+	public MemoryPageFetcher put(String url, Path file) throws IOException {
+		return put(new Page(url, new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Stores the given page under its URL.
+	 * 
+	 * @param page the page.
+	 * @return this fetcher.
+	 */
+	public MemoryPageFetcher put(Page page) {
+		pages.put(page.getURL(), page);
+		return this;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		Page page = pages.get(url);
+		if (page != null)
+			return page;
+
+		if (directory != null) {
+			Path file = directory.resolve(fileName(url));
+			if (Files.isRegularFile(file))
+				return new Page(url, 200, null, Files.readAllBytes(file), StandardCharsets.UTF_8);
+		}
+
+		throw new HttpStatusException("No page stored for URL", 404, url);
+	}
+
+	/**
+	 * Gets the name of the file a page is saved under. Short URLs are
+	 * URL-encoded, long ones are hashed.
+	 * 
+	 * @param url the page URL.
+	 * @return the file name.
+	 */
+	public static String fileName(String url) {
+		try {
+			String name = URLEncoder.encode(url, "UTF-8");
+			if (name.length() <= 200)
+				return name + ".html";
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return sha1(url) + ".html";
+	}
+
+	/**
+	 * Hashes the given string with SHA-1.
+	 * 
+	 * @param s the string.
+	 * @return the hex digest.
+	 */
+	static String sha1(String s) {
+		return sha1(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Hashes the given bytes with SHA-1.
+	 * 
+	 * @param bytes the bytes.
+	 * @return the hex digest.
+	 */
+	static String sha1(byte[] bytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.Cardinal.PMC.net;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+ * A class used to represent a downloaded page.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class Page {
+
+	private final String url;
+	private final int status;
+	private final Map<String, List<String>> headers;
+	private final byte[] body;
+	private final Charset charset;
+
+	/**
+	 * Constructs a new {@link Page}.
+	 * 
+	 * @param url     the final URL of the page (after redirects).
+	 * @param status  the HTTP status code.
+	 * @param headers the response headers.
+	 * @param body    the raw response body.
+	 * @param charset the charset of the body.
+	 */
+	public Page(String url, int status, Map<String, List<String>> headers, byte[] body, Charset charset) {
+		this.url = url;
+		this.status = status;
+		TreeMap<String, List<String>> map = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+		if (headers != null)
+			map.putAll(headers);
+		this.headers = Collections.unmodifiableMap(map);
+		this.body = body == null ? new byte[0] : body;
+		this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+	}
+
+	/**
+	 * Constructs a new 200 (OK) {@link Page} with the given HTML and no headers.
+	 * 
+	 * @param url  the URL of the page.
+	 * @param html the page HTML.
+	 */
+	public Page(String url, String html) {
+		this(url, 200, null, html.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets the URL of this page.
+	 * 
+	 * @return the URL.
+	 */
+	public String getURL() {
+		return url;
+	}
+
+	/**
+	 * Gets the HTTP status code of this page.
+	 * 
+	 * @return the status code.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Checks whether this page is a 304 (Not Modified) response to a
+	 * {@linkplain PageFetcher#revalidate(String) revalidation}. Such pages have no
+	 * body.
+	 * 
+	 * @return true: the page has not changed since it was last fetched.<br>
+	 *         false: this page holds a fresh copy.
+	 */
+	public boolean isNotModified() {
+		return status == 304;
+	}
+
+	/**
+	 * Gets the response headers. Header names are case-insensitive.
+	 * 
+	 * @return the headers.
+	 */
+	public Map<String, List<String>> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Gets the first value of the given response header.
+	 * 
+	 * @param name the header name.
+	 * @return the header value, or null if the header is not present.
+	 */
+	public String getHeader(String name) {
+		List<String> values = headers.get(name);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	/**
+	 * Gets the raw response body.
+	 * 
+	 * @return the body bytes.
+	 */
+	public byte[] getBytes() {
+		return body;
+	}
+
+	/**
+	 * Gets the charset of the response body.
+	 * 
+	 * @return the charset.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Gets the decoded response body.
+	 * 
+	 * @return the body.
+	 */
+	public String getBody() {
+		return new String(body, charset);
+	}
+
+	/**
+	 * Parses this page into a jsoup {@link Document}, using the page URL as the
+	 * base URI.
+	 * 
+	 * @return the document.
+	 */
+	public Document parse() {
+		return Jsoup.parse(getBody(), url);
+	}
+
+	@Override
+	public String toString() {
+		return status + " " + url;
+	}
+}
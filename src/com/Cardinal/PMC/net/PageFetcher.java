@@ -0,0 +1,76 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * The transport used by every loader to download PlanetMinecraft pages.
+ * Implementations are expected to be thread-safe so a single instance can be
+ * shared by all the loaders of a {@link com.Cardinal.PMC.PlanetMinecraft}.
+ * 
+ * @author Cardinal System
+ * @see HttpPageFetcher
+ * @see MemoryPageFetcher
+ * @see CoalescingPageFetcher
+ * @see DiskCachePageFetcher
+ * @see RecordingPageFetcher
+ * @see ReplayPageFetcher
+ * @see RetryingPageFetcher
+ * @see ThrottledPageFetcher
+ *
+ */
+public interface PageFetcher {
+
+	/**
+	 * Downloads the page at the given URL.
+	 * 
+	 * @param url the URL of the page.
+	 * @return the downloaded page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	public Page fetch(String url) throws IOException;
+
+	/**
+	 * Downloads the page at the given URL unless it has not changed since it was
+	 * last fetched, in which case the returned page is
+	 * {@linkplain Page#isNotModified() not modified} and has no body. Fetchers
+	 * that cannot revalidate simply download the page again.
+	 * 
+	 * @param url the URL of the page.
+	 * @return the downloaded page, or a not modified page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	public default Page revalidate(String url) throws IOException {
+		return fetch(url);
+	}
+
+	/**
+	 * Reduces the given URL to the form used to recognize two URLs as the same
+	 * page: the scheme and host are lower-cased, a default port and the fragment
+	 * are dropped, and an empty path becomes <code>/</code>. URLs that cannot be
+	 * parsed are returned as they are.
+	 * 
+	 * @param url the URL.
+	 * @return the canonical URL.
+	 */
+	public static String canonical(String url) {
+		try {
+			URI uri = new URI(url);
+			if (uri.isOpaque() || uri.getHost() == null)
+				return url;
+			String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+			int port = uri.getPort();
+			if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443))
+				port = -1;
+			String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+			String query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+			return (scheme == null ? "" : scheme + ":") + "//" + uri.getHost().toLowerCase(Locale.ROOT)
+					+ (port == -1 ? "" : ":" + port) + path + query;
+		} catch (URISyntaxException e) {
+			return url;
+		}
+	}
+
+}
@@ -0,0 +1,299 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.Cardinal.PMC.lang.MissingPostException;
+
+/**
+ * A class used to download and parse a range of pages concurrently. At most
+ * {@link PagePrefetcher#getMaxConcurrency()} pages are in flight at once and
+ * the parsed results are always returned in page order. Open-ended feeds can
+ * instead be {@linkplain PagePrefetcher#stream(String, Function) streamed} a
+ * page at a time.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class PagePrefetcher {
+
+	private final PageFetcher fetcher;
+	private Executor executor;
+	private int maxConcurrency = 4;
+	private boolean prefetchNextPage;
+
+	/**
+	 * Constructs a new {@link PagePrefetcher} that runs on the
+	 * {@linkplain Async#defaultExecutor() default executor}.
+	 * 
+	 * @param fetcher the fetcher used to download pages.
+	 */
+	public PagePrefetcher(PageFetcher fetcher) {
+		this(fetcher, Async.defaultExecutor());
+	}
+
+	/**
+	 * Constructs a new {@link PagePrefetcher} that runs on the given executor.
+	 * 
+	 * @param fetcher  the fetcher used to download pages.
+	 * @param executor the executor pages are downloaded on.
+	 */
+	public PagePrefetcher(PageFetcher fetcher, Executor executor) {
+		this.fetcher = fetcher;
+		this.executor = executor;
+	}
+
+	/**
+	 * Gets the maximum number of pages downloaded at once.
+	 * 
+	 * @return the maximum concurrency.
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Sets the maximum number of pages downloaded at once.
+	 * 
+	 * @param maxConcurrency the maximum concurrency (at least 1).
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		if (maxConcurrency < 1)
+			throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Gets the executor pages are downloaded on.
+	 * 
+	 * @return the executor.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Checks whether {@linkplain PagePrefetcher#stream(String, Function) streams}
+	 * download their next page in the background.
+	 * 
+	 * @return true if streams prefetch their next page.
+	 */
+	public boolean isPrefetchNextPage() {
+		return prefetchNextPage;
+	}
+
+	/**
+	 * Sets whether {@linkplain PagePrefetcher#stream(String, Function) streams}
+	 * download their next page in the background while the current one is
+	 * consumed. This hides the latency of each page at the cost of downloading
+	 * one page that may never be consumed. Disabled by default.
+	 * 
+	 * @param prefetchNextPage whether to prefetch the next page.
+	 */
+	public void setPrefetchNextPage(boolean prefetchNextPage) {
+		this.prefetchNextPage = prefetchNextPage;
+	}
+
+	/**
+	 * Sets the executor pages are downloaded on.
+	 * 
+	 * @param executor the executor.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Builds the URLs of the pages in the given range by appending
+	 * <code>&amp;p=</code> to the given URL.
+	 * 
+	 * @param url       the feed URL.
+	 * @param startPage the first page (inclusive).
+	 * @param endPage   the last page (exclusive).
+	 * @return the page URLs.
+	 */
+	public static List<String> range(String url, int startPage, int endPage) {
+		List<String> urls = new ArrayList<String>(Math.max(0, endPage - startPage));
+		for (int p = startPage; p < endPage; p++)
+			urls.add(url + "&p=" + p);
+		return urls;
+	}
+
+	/**
+	 * Downloads and parses the given pages concurrently. The parser may be invoked
+	 * from several threads at once. One of the pages is downloaded on the calling
+	 * thread, so this never waits for a worker the executor has not started yet,
+	 * and still completes if the executor rejects the other workers.
+	 * 
+	 * @param urls   the page URLs.
+	 * @param parser converts a page into its items.
+	 * @return the items of every page, in page order.
+	 * @throws IOException there was an error downloading one of the pages. Pages
+	 *                     not yet started are skipped.
+	 */
+	public <T> List<T> getPages(List<String> urls, Function<Page, List<T>> parser) throws IOException {
+		return flatten(Async.await(fetchPages(urls, parser, null, true)));
+	}
+
+	/**
+	 * An asynchronous version of {@link PagePrefetcher#getPages(List, Function)}.
+	 * Every page is downloaded on the executor and the returned future is
+	 * completed by the worker that finishes the last page, so no task waits on
+	 * another and the range completes on any executor, even a single thread. If
+	 * the executor rejects every worker, the future fails with the
+	 * {@link RejectedExecutionException}.
+	 * 
+	 * @param urls   the page URLs.
+	 * @param parser converts a page into its items.
+	 * @return a future of the items of every page, in page order.
+	 */
+	public <T> CompletableFuture<List<T>> getPagesAsync(List<String> urls, Function<Page, List<T>> parser) {
+		return fetchPages(urls, parser, null, false).thenApply(PagePrefetcher::flatten);
+	}
+
+	/**
+	 * Downloads and parses the given pages concurrently, like
+	 * {@link PagePrefetcher#getPages(List, Function)}, but a page that cannot be
+	 * downloaded or parsed does not stop the others. Its failure is returned along
+	 * with the items of every page that was read. A page the parser failed on,
+	 * such as one missing an element, fails with a {@link MissingPostException}
+	 * caused by the parser's exception.
+	 * 
+	 * @param urls   the page URLs.
+	 * @param parser converts a page into its items.
+	 * @return the items of the downloaded pages and the failures of the others.
+	 * @throws IOException the wait for the pages was interrupted.
+	 */
+	public <T> PartialResult<T> getPagesPartial(List<String> urls, Function<Page, List<T>> parser)
+			throws IOException {
+		IOException[] failures = new IOException[urls.size()];
+		return partial(urls, Async.await(fetchPages(urls, parser, failures, true)), failures);
+	}
+
+	/**
+	 * Downloads and parses the given pages with at most
+	 * {@link PagePrefetcher#getMaxConcurrency()} workers. The returned future is
+	 * completed once every page has been downloaded, or as soon as one fails when
+	 * no failure array is given. Workers stop taking pages once it is completed,
+	 * including by cancellation. If the executor rejects a worker, no more are
+	 * submitted and the range is finished by the workers already running; if
+	 * none are, the future fails with the rejection.
+	 * 
+	 * @param urls     the page URLs.
+	 * @param parser   converts a page into its items.
+	 * @param failures receives the failure of each page that could not be
+	 *                 downloaded or parsed, or null to stop at the first
+	 *                 failure.
+	 * @param inline   whether to run one of the workers on the calling thread.
+	 * @return a future of the items of each page, null for failed pages.
+	 */
+	private <T> CompletableFuture<List<List<T>>> fetchPages(List<String> urls, Function<Page, List<T>> parser,
+			IOException[] failures, boolean inline) {
+		int size = urls.size();
+		List<List<T>> results = new ArrayList<List<T>>(size);
+		for (int i = 0; i < size; i++)
+			results.add(null);
+		CompletableFuture<List<List<T>>> done = new CompletableFuture<List<List<T>>>();
+		if (size == 0) {
+			done.complete(results);
+			return done;
+		}
+
+		AtomicInteger next = new AtomicInteger(), remaining = new AtomicInteger(size);
+		Runnable worker = () -> {
+			int i;
+			while (!done.isDone() && (i = next.getAndIncrement()) < size) {
+				try {
+					List<T> items = parser.apply(fetcher.fetch(urls.get(i)));
+					synchronized (results) {
+						results.set(i, items);
+					}
+				} catch (IOException e) {
+					if (failures == null) {
+						done.completeExceptionally(e);
+						return;
+					}
+					failures[i] = e;
+				} catch (RuntimeException e) {
+					if (failures == null) {
+						done.completeExceptionally(e);
+						return;
+					}
+					failures[i] = new MissingPostException(urls.get(i), e);
+				} catch (Error e) {
+					done.completeExceptionally(e);
+					return;
+				}
+				if (remaining.decrementAndGet() == 0)
+					done.complete(results);
+			}
+		};
+
+		int workers = Math.min(maxConcurrency, size) - (inline ? 1 : 0);
+		for (int w = 0; w < workers; w++) {
+			try {
+				executor.execute(worker);
+			} catch (RejectedExecutionException e) {
+				// The workers already started, or the calling thread, finish the range.
+				if (w == 0 && !inline)
+					done.completeExceptionally(e);
+				break;
+			}
+		}
+		if (inline)
+			worker.run();
+		return done;
+	}
+
+	private static <T> List<T> flatten(List<List<T>> pages) {
+		List<T> items = new ArrayList<T>();
+		for (List<T> page : pages)
+			items.addAll(page);
+		return items;
+	}
+
+	private static <T> PartialResult<T> partial(List<String> urls, List<List<T>> pages, IOException[] failures) {
+		List<T> items = new ArrayList<T>();
+		Map<String, IOException> failed = new LinkedHashMap<String, IOException>();
+		for (int i = 0; i < pages.size(); i++) {
+			if (failures[i] != null)
+				failed.put(urls.get(i), failures[i]);
+			else
+				items.addAll(pages.get(i));
+		}
+		return new PartialResult<T>(items, failed);
+	}
+
+	/**
+	 * Lazily streams the items of a paginated feed. A page is only downloaded once
+	 * every item of the previous page has been consumed, so short-circuiting
+	 * operations such as {@link Stream#limit(long)} and
+	 * {@link Stream#findFirst()} never download pages they do not need. The
+	 * stream ends at the first page without any rows; a page whose rows were all
+	 * filtered out by the parser is skipped. Closing the stream cancels a
+	 * {@linkplain PagePrefetcher#setPrefetchNextPage(boolean) prefetched} page.
+	 * <p>
+	 * Errors downloading a page are thrown from the terminal operation as an
+	 * {@link UncheckedIOException}.
+	 * 
+	 * @param url    the URL of the first page. Page <code>p</code> is at
+	 *               <code>url&amp;p=p</code>.
+	 * @param parser converts a page into its items and row count.
+	 * @return the stream of items, in page order.
+	 */
+	public <T> Stream<T> stream(String url, Function<Page, FeedPage<T>> parser) {
+		FeedSpliterator<T> feed = new FeedSpliterator<T>(fetcher, executor, url, parser, prefetchNextPage);
+		return StreamSupport.stream(feed, false).onClose(feed::close);
+	}
+}
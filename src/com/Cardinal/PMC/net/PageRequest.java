@@ -0,0 +1,21 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+
+/**
+ * A request passed on by a wrapping {@link PageFetcher} to the fetcher it
+ * wraps.
+ * 
+ * @author Cardinal System
+ *
+ */
+interface PageRequest {
+
+	/**
+	 * Sends the request.
+	 * 
+	 * @return the page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	Page send() throws IOException;
+}
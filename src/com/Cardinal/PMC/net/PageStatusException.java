@@ -0,0 +1,70 @@
+package com.Cardinal.PMC.net;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * Thrown when a page is answered with an error status. Carries the delay the
+ * server asked for in its <code>Retry-After</code> header, if any.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class PageStatusException extends HttpStatusException {
+
+	private static final long serialVersionUID = -2816307525364211740L;
+
+	private final Duration retryAfter;
+
+	/**
+	 * Constructs a new {@link PageStatusException}.
+	 * 
+	 * @param status     the HTTP status code.
+	 * @param url        the URL of the page.
+	 * @param retryAfter the delay asked for by the server, or null if it did not
+	 *                   ask for one.
+	 */
+	public PageStatusException(int status, String url, Duration retryAfter) {
+		super("HTTP error fetching URL", status, url);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Gets the delay the server asked for before the page is requested again.
+	 * 
+	 * @return the delay, or null if the server did not ask for one.
+	 */
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+	/**
+	 * Parses a <code>Retry-After</code> header, which is either a number of
+	 * seconds or an HTTP date.
+	 * 
+	 * @param value the header value, or null.
+	 * @return the delay (never negative), or null if the value is missing or
+	 *         cannot be parsed.
+	 */
+	public static Duration parseRetryAfter(String value) {
+		if (value == null)
+			return null;
+		value = value.trim();
+		try {
+			return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+		} catch (NumberFormatException e) {
+			// not a number of seconds, try a date
+		}
+		try {
+			Duration delay = Duration.between(ZonedDateTime.now(),
+					ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+			return delay.isNegative() ? Duration.ZERO : delay;
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+}
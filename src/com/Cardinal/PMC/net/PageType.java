@@ -0,0 +1,46 @@
+package com.Cardinal.PMC.net;
+
+/**
+ * The classes of page the loaders request, used to give each its own
+ * {@link RetryPolicy}.
+ * 
+ * @author Cardinal System
+ *
+ */
+public enum PageType {
+
+	/**
+	 * A page of a listing, such as a forum category, a submission feed or search
+	 * results.
+	 */
+	FEED,
+	/**
+	 * The page of a single thread, submission, wall post or user.
+	 */
+	ENTITY,
+	/**
+	 * A tab of a user's profile, such as their about page or their forum threads.
+	 */
+	SUB_PAGE;
+
+	private static final String[] SUB_PAGES = { "about/", "forum/", "submissions/", "subscribers/",
+			"subscriptions/", "wall/" };
+
+	/**
+	 * Classifies a PlanetMinecraft URL. URLs with a query string are feeds, member
+	 * URLs ending in one of the profile tabs are sub-pages, and any other URL is
+	 * an entity.
+	 * 
+	 * @param url the URL.
+	 * @return the page type.
+	 */
+	public static PageType of(String url) {
+		if (url.indexOf('?') != -1 || url.contains("&p="))
+			return FEED;
+		if (url.contains("/member/"))
+			for (String tab : SUB_PAGES)
+				if (url.endsWith("/" + tab))
+					return SUB_PAGE;
+		return ENTITY;
+	}
+}
@@ -0,0 +1,76 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The items of a range of pages, along with the pages that could not be
+ * downloaded or parsed. Returned by range methods that keep the pages they did get
+ * rather than failing the whole range over one page.
+ * 
+ * @author Cardinal System
+ *
+ * @param <T> the type of item.
+ */
+public class PartialResult<T> {
+
+	private final List<T> items;
+	private final Map<String, IOException> failures;
+
+	/**
+	 * Constructs a new {@link PartialResult}.
+	 * 
+	 * @param items    the items of the pages that were downloaded, in page order.
+	 * @param failures the failure of each page that was not, keyed by URL in page
+	 *                 order.
+	 */
+	public PartialResult(List<T> items, Map<String, IOException> failures) {
+		this.items = items;
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Gets the URLs of the pages that could not be downloaded or parsed.
+	 * 
+	 * @return the failed URLs, in page order.
+	 */
+	public List<String> getFailedPages() {
+		return new ArrayList<String>(failures.keySet());
+	}
+
+	/**
+	 * Gets the failure of each page that could not be downloaded or
+	 * parsed.
+	 * 
+	 * @return the failures keyed by URL, in page order.
+	 */
+	public Map<String, IOException> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Gets the items of the pages that were downloaded.
+	 * 
+	 * @return the items, in page order.
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Checks whether every page was downloaded.
+	 * 
+	 * @return true if no page failed.
+	 */
+	public boolean isComplete() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "PartialResult [items=" + items.size() + ", failedPages=" + failures.keySet() + "]";
+	}
+}
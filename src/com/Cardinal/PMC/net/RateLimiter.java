@@ -0,0 +1,191 @@
+package com.Cardinal.PMC.net;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A token bucket used to pace outbound requests. The bucket refills at a fixed
+ * rate up to its burst size, and every request takes one token. A request that
+ * finds the bucket empty reserves the next token and sleeps until it is due,
+ * so waiting requests are let through in the order they arrived.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class RateLimiter {
+
+	/**
+	 * The number of requests per second allowed by a limiter constructed without
+	 * a rate.
+	 */
+	public static final double DEFAULT_RATE = 5;
+
+	/**
+	 * The burst size of a limiter constructed without one.
+	 */
+	public static final int DEFAULT_BURST = 10;
+
+	private final LongAdder acquired = new LongAdder(), throttled = new LongAdder(), waitNanos = new LongAdder();
+	private double rate;
+	private int burst;
+	private double tokens;
+	private long refilled = System.nanoTime();
+
+	/**
+	 * Constructs a new {@link RateLimiter} with the
+	 * {@linkplain RateLimiter#DEFAULT_RATE default rate} and
+	 * {@linkplain RateLimiter#DEFAULT_BURST burst size}.
+	 */
+	public RateLimiter() {
+		this(DEFAULT_RATE, DEFAULT_BURST);
+	}
+
+	/**
+	 * Constructs a new {@link RateLimiter}. The bucket starts full.
+	 * 
+	 * @param rate  the number of requests allowed per second.
+	 * @param burst the number of requests that may be sent at once after a quiet
+	 *              period.
+	 */
+	public RateLimiter(double rate, int burst) {
+		setRate(rate);
+		setBurst(burst);
+		this.tokens = burst;
+	}
+
+	/**
+	 * Takes a token from the bucket, waiting until one is available.
+	 * 
+	 * @throws InterruptedIOException the thread was interrupted while waiting.
+	 *                                The token is returned to the bucket.
+	 */
+	public void acquire() throws InterruptedIOException {
+		long wait;
+		synchronized (this) {
+			refill(System.nanoTime());
+			tokens--;
+			wait = tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9);
+		}
+		acquired.increment();
+		if (wait <= 0)
+			return;
+
+		throttled.increment();
+		waitNanos.add(wait);
+		try {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		} catch (InterruptedException e) {
+			synchronized (this) {
+				tokens++;
+			}
+			java.lang.Thread.currentThread().interrupt();
+			InterruptedIOException ex = new InterruptedIOException("Interrupted waiting for a request token");
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Gets the number of tokens taken from this bucket.
+	 * 
+	 * @return the acquired token count.
+	 */
+	public long getAcquired() {
+		return acquired.sum();
+	}
+
+	/**
+	 * Gets the number of tokens that could be taken right now without waiting.
+	 * Negative if requests are already waiting for tokens.
+	 * 
+	 * @return the available token count.
+	 */
+	public synchronized double getAvailable() {
+		refill(System.nanoTime());
+		return tokens;
+	}
+
+	/**
+	 * Gets the maximum number of requests sent at once after a quiet period.
+	 * 
+	 * @return the burst size.
+	 */
+	public synchronized int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * Gets the number of requests allowed per second.
+	 * 
+	 * @return the rate.
+	 */
+	public synchronized double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Gets the number of requests that had to wait for a token.
+	 * 
+	 * @return the throttled request count.
+	 */
+	public long getThrottled() {
+		return throttled.sum();
+	}
+
+	/**
+	 * Gets the total time requests have spent waiting for tokens.
+	 * 
+	 * @return the total wait time.
+	 */
+	public Duration getWaitTime() {
+		return Duration.ofNanos(waitNanos.sum());
+	}
+
+	/**
+	 * Sets the maximum number of requests sent at once after a quiet period.
+	 * 
+	 * @param burst the burst size (at least 1).
+	 * @return this limiter.
+	 */
+	public synchronized RateLimiter setBurst(int burst) {
+		if (burst < 1)
+			throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+		refill(System.nanoTime());
+		this.burst = burst;
+		tokens = Math.min(tokens, burst);
+		return this;
+	}
+
+	/**
+	 * Sets the number of requests allowed per second.
+	 * 
+	 * @param rate the rate (greater than 0).
+	 * @return this limiter.
+	 */
+	public synchronized RateLimiter setRate(double rate) {
+		if (!(rate > 0) || Double.isInfinite(rate))
+			throw new IllegalArgumentException("Rate must be positive and finite: " + rate);
+		if (this.rate > 0)
+			refill(System.nanoTime());
+		this.rate = rate;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimiter [rate=" + getRate() + ", burst=" + getBurst() + ", acquired=" + getAcquired()
+				+ ", throttled=" + getThrottled() + ", waitTime=" + getWaitTime() + "]";
+	}
+
+	/**
+	 * Adds the tokens earned since the last refill, up to the burst size.
+	 * 
+	 * @param now the current {@link System#nanoTime()}.
+	 */
+	private void refill(long now) {
+		tokens = Math.min(burst, tokens + (now - refilled) / 1e9 * rate);
+		refilled = now;
+	}
+}
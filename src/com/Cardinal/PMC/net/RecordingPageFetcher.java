@@ -0,0 +1,239 @@
+package com.Cardinal.PMC.net;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * A {@link PageFetcher} that saves every response downloaded by another
+ * fetcher to a directory, so a {@link ReplayPageFetcher} can serve them again
+ * without any network access. Each response is saved under its
+ * {@linkplain PageFetcher#canonical(String) canonical URL} as two files: the
+ * raw body, named by {@link MemoryPageFetcher#fileName(String)} so a
+ * {@link MemoryPageFetcher} can read the directory too, and a plain-text
+ * <code>.response</code> file beside it holding the status, final URL, charset
+ * and headers. Error statuses are recorded without a body, and replayed as the
+ * same {@link PageStatusException}.
+ * <p>
+ * Recording a URL again replaces its earlier recording. Not modified responses
+ * to a {@linkplain PageFetcher#revalidate(String) revalidation} leave the
+ * recording as it is.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class RecordingPageFetcher implements PageFetcher {
+
+	private final Path directory;
+	private final PageFetcher fetcher;
+	private final LongAdder recordings = new LongAdder();
+
+	/**
+	 * Constructs a new {@link RecordingPageFetcher}, creating the directory if
+	 * needed.
+	 * 
+	 * @param directory the directory to save responses to.
+	 * @param fetcher   the fetcher that downloads the pages.
+	 * @throws IOException there was an error creating the directory.
+	 */
+	public RecordingPageFetcher(Path directory, PageFetcher fetcher) throws IOException {
+		this.directory = directory;
+		this.fetcher = fetcher;
+		Files.createDirectories(directory);
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		Page page;
+		try {
+			page = fetcher.fetch(url);
+		} catch (HttpStatusException e) {
+			recordError(url, e);
+			throw e;
+		}
+		record(url, page);
+		return page;
+	}
+
+	/**
+	 * Gets the directory responses are saved to.
+	 * 
+	 * @return the directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Gets the fetcher that downloads the pages.
+	 * 
+	 * @return the wrapped fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the number of responses saved.
+	 * 
+	 * @return the recording count.
+	 */
+	public long getRecordings() {
+		return recordings.sum();
+	}
+
+	@Override
+	public Page revalidate(String url) throws IOException {
+		Page page;
+		try {
+			page = fetcher.revalidate(url);
+		} catch (HttpStatusException e) {
+			recordError(url, e);
+			throw e;
+		}
+		if (!page.isNotModified())
+			record(url, page);
+		return page;
+	}
+
+	@Override
+	public String toString() {
+		return "RecordingPageFetcher [directory=" + directory + ", recordings=" + getRecordings() + "]";
+	}
+
+	/**
+	 * Gets the file the body of the given URL is saved in.
+	 * 
+	 * @param directory the recording directory.
+	 * @param url       the page URL.
+	 * @return the body file.
+	 */
+	static Path body(Path directory, String url) {
+		return directory.resolve(MemoryPageFetcher.fileName(PageFetcher.canonical(url)));
+	}
+
+	/**
+	 * Gets the file the response of the given URL is described in.
+	 * 
+	 * @param directory the recording directory.
+	 * @param url       the page URL.
+	 * @return the response file.
+	 */
+	static Path response(Path directory, String url) {
+		Path body = body(directory, url);
+		return body.resolveSibling(body.getFileName() + ".response");
+	}
+
+	/**
+	 * Reads a recorded response.
+	 * 
+	 * @param directory the recording directory.
+	 * @param url       the page URL.
+	 * @return the page, or null if the URL was not recorded.
+	 * @throws PageStatusException the URL was recorded with an error status.
+	 * @throws IOException         there was an error reading the recording.
+	 */
+	static Page read(Path directory, String url) throws IOException {
+		Path response = response(directory, url);
+		if (!Files.isRegularFile(response))
+			return null;
+
+		try (BufferedReader in = new BufferedReader(
+				new StringReader(new String(Files.readAllBytes(response), StandardCharsets.UTF_8)))) {
+			String line = in.readLine();
+			int space = line == null ? -1 : line.indexOf(' ');
+			if (space == -1)
+				throw new IOException("Damaged recording: " + response);
+			int status = Integer.parseInt(line.substring(0, space));
+			String finalURL = line.substring(space + 1);
+			String charset = in.readLine();
+
+			Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+			while ((line = in.readLine()) != null) {
+				// Pseudo-headers such as :status start with a colon of their own.
+				int colon = line.indexOf(':', 1);
+				if (colon == -1)
+					throw new IOException("Damaged recording: " + response);
+				headers.computeIfAbsent(line.substring(0, colon), k -> new ArrayList<String>())
+						.add(line.substring(colon + 1).trim());
+			}
+
+			if (status < 200 || status >= 400) {
+				List<String> retryAfter = headers.get("Retry-After");
+				throw new PageStatusException(status, url,
+						PageStatusException.parseRetryAfter(retryAfter == null ? null : retryAfter.get(0)));
+			}
+			return new Page(finalURL, status, headers, Files.readAllBytes(body(directory, url)),
+					Charset.forName(charset));
+		} catch (NumberFormatException e) {
+			throw new IOException("Damaged recording: " + response, e);
+		}
+	}
+
+	/**
+	 * Saves the given page, body first so a response file never refers to a
+	 * missing body.
+	 */
+	private void record(String url, Page page) throws IOException {
+		write(body(directory, url), page.getBytes());
+		write(response(directory, url), describe(page.getStatus(), page.getURL(), page.getCharset().name(),
+				page.getHeaders()));
+		recordings.increment();
+	}
+
+	/**
+	 * Saves an error status, dropping any body recorded before.
+	 */
+	private void recordError(String url, HttpStatusException e) throws IOException {
+		Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+		if (e instanceof PageStatusException) {
+			Duration retryAfter = ((PageStatusException) e).getRetryAfter();
+			if (retryAfter != null)
+				headers.put("Retry-After", List.of(Long.toString(retryAfter.getSeconds())));
+		}
+		write(response(directory, url), describe(e.getStatusCode(), url, StandardCharsets.UTF_8.name(), headers));
+		Files.deleteIfExists(body(directory, url));
+		recordings.increment();
+	}
+
+	private static byte[] describe(int status, String url, String charset, Map<String, List<String>> headers) {
+		StringBuilder response = new StringBuilder();
+		response.append(status).append(' ').append(url).append('\n').append(charset).append('\n');
+		for (Map.Entry<String, List<String>> header : headers.entrySet())
+			for (String value : header.getValue())
+				response.append(header.getKey()).append(": ").append(value).append('\n');
+		return response.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the given file through a temporary file, so a crash never leaves it
+	 * half written.
+	 */
+	private void write(Path file, byte[] bytes) throws IOException {
+		Path temp = Files.createTempFile(directory, "recording", ".tmp");
+		try {
+			Files.write(temp, bytes);
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+}
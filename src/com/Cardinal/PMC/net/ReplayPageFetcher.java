@@ -0,0 +1,154 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * An offline {@link PageFetcher} that serves the responses saved by a
+ * {@link RecordingPageFetcher}, so loaders can be tested and benchmarked end to
+ * end without any network access. Every page is served exactly as it was
+ * recorded, error statuses included, and URLs that were never recorded fail
+ * with a 404 {@link HttpStatusException}.
+ * <p>
+ * Responses can be delayed by an artificial latency, optionally with a random
+ * jitter added, to mimic the round trip to the site. Each request sleeps on
+ * its own thread, so concurrent requests overlap as they would over the
+ * network.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class ReplayPageFetcher implements PageFetcher {
+
+	private final Path directory;
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+	private volatile long latencyNanos, jitterNanos;
+
+	/**
+	 * Constructs a new {@link ReplayPageFetcher} without latency.
+	 * 
+	 * @param directory the directory a {@link RecordingPageFetcher} saved
+	 *                  responses to.
+	 */
+	public ReplayPageFetcher(Path directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		delay();
+		Page page = RecordingPageFetcher.read(directory, url);
+		if (page == null) {
+			misses.increment();
+			throw new HttpStatusException("No recorded page for URL", 404, url);
+		}
+		hits.increment();
+		return page;
+	}
+
+	/**
+	 * Gets the directory responses are served from.
+	 * 
+	 * @return the directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Gets the number of requests served from a recording, error statuses
+	 * included.
+	 * 
+	 * @return the hit count.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the maximum random delay added to the latency of every response.
+	 * 
+	 * @return the jitter.
+	 */
+	public Duration getJitter() {
+		return Duration.ofNanos(jitterNanos);
+	}
+
+	/**
+	 * Gets the delay before every response.
+	 * 
+	 * @return the latency.
+	 */
+	public Duration getLatency() {
+		return Duration.ofNanos(latencyNanos);
+	}
+
+	/**
+	 * Gets the number of requests for URLs that were never recorded.
+	 * 
+	 * @return the miss count.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Sets the delay before every response.
+	 * 
+	 * @param latency the latency.
+	 * @return this fetcher.
+	 */
+	public ReplayPageFetcher setLatency(Duration latency) {
+		return setLatency(latency, Duration.ZERO);
+	}
+
+	/**
+	 * Sets the delay before every response. Each response waits the latency
+	 * plus a random part of the jitter, chosen uniformly.
+	 * 
+	 * @param latency the latency.
+	 * @param jitter  the maximum random delay added to the latency.
+	 * @return this fetcher.
+	 */
+	public ReplayPageFetcher setLatency(Duration latency, Duration jitter) {
+		if (latency.isNegative() || jitter.isNegative())
+			throw new IllegalArgumentException("Negative latency: " + latency + " + " + jitter);
+		this.latencyNanos = latency.toNanos();
+		this.jitterNanos = jitter.toNanos();
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplayPageFetcher [directory=" + directory + ", latency=" + getLatency() + ", jitter=" + getJitter()
+				+ ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+
+	/**
+	 * Waits out the latency of a response.
+	 * 
+	 * @throws InterruptedIOException the thread was interrupted while waiting.
+	 */
+	private void delay() throws InterruptedIOException {
+		long delay = latencyNanos, jitter = jitterNanos;
+		if (jitter > 0)
+			delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+		if (delay <= 0)
+			return;
+		try {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		} catch (InterruptedException e) {
+			java.lang.Thread.currentThread().interrupt();
+			InterruptedIOException ex = new InterruptedIOException("Interrupted replaying a response");
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jsoup.HttpStatusException;
+
+import com.Cardinal.PMC.lang.CircuitOpenException;
+import com.Cardinal.PMC.lang.MissingPostException;
+
+/**
+ * A class used to decide whether, and after how long, a failed request is
+ * retried. Delays grow exponentially from the base delay up to the maximum
+ * delay, and each is jittered to a random value between half and all of it so
+ * clients that failed together do not retry together. When the server sends a
+ * <code>Retry-After</code> header, its delay is used instead.
+ * <p>
+ * Failures without a response (timeouts, refused or reset connections) and the
+ * statuses 408, 429, 500, 502, 503 and 504 are retried. Other statuses, such as
+ * 404, would fail again and are not.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class RetryPolicy {
+
+	private int maxAttempts = 3;
+	private Duration baseDelay = Duration.ofMillis(500), maxDelay = Duration.ofSeconds(30),
+			maxRetryAfter = Duration.ofMinutes(2);
+	private double multiplier = 2;
+
+	/**
+	 * Gets a policy that never retries.
+	 * 
+	 * @return a policy of a single attempt.
+	 */
+	public static RetryPolicy none() {
+		return new RetryPolicy().setMaxAttempts(1);
+	}
+
+	/**
+	 * Gets the initial delay between attempts.
+	 * 
+	 * @return the base delay.
+	 */
+	public Duration getBaseDelay() {
+		return baseDelay;
+	}
+
+	/**
+	 * Gets the delay before the next attempt.
+	 * 
+	 * @param attempt the number of attempts made so far.
+	 * @param failure the failure of the last attempt.
+	 * @return the delay.
+	 */
+	public Duration getDelay(int attempt, IOException failure) {
+		Duration retryAfter = retryAfter(failure);
+		if (retryAfter != null)
+			return retryAfter;
+
+		double ceiling = Math.min(maxDelay.toNanos(), baseDelay.toNanos() * Math.pow(multiplier, attempt - 1));
+		return Duration.ofNanos((long) (ceiling / 2 + ThreadLocalRandom.current().nextDouble(ceiling / 2 + 1)));
+	}
+
+	/**
+	 * Gets the maximum number of attempts, counting the first.
+	 * 
+	 * @return the maximum attempts.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Gets the maximum delay between attempts.
+	 * 
+	 * @return the maximum delay.
+	 */
+	public Duration getMaxDelay() {
+		return maxDelay;
+	}
+
+	/**
+	 * Gets the longest <code>Retry-After</code> delay this policy waits for.
+	 * 
+	 * @return the maximum <code>Retry-After</code> delay.
+	 */
+	public Duration getMaxRetryAfter() {
+		return maxRetryAfter;
+	}
+
+	/**
+	 * Gets the factor the delay grows by after each attempt.
+	 * 
+	 * @return the multiplier.
+	 */
+	public double getMultiplier() {
+		return multiplier;
+	}
+
+	/**
+	 * Checks whether the given failure might succeed if retried.
+	 * 
+	 * @param failure the failure.
+	 * @return true if the failure is worth retrying.
+	 */
+	public boolean isRetryable(IOException failure) {
+		if (failure instanceof CircuitOpenException)
+			return false;
+		if (failure instanceof HttpStatusException) {
+			switch (((HttpStatusException) failure).getStatusCode()) {
+			case 408:
+			case 429:
+			case 500:
+			case 502:
+			case 503:
+			case 504:
+				Duration retryAfter = retryAfter(failure);
+				return retryAfter == null || retryAfter.compareTo(maxRetryAfter) <= 0;
+			default:
+				return false;
+			}
+		}
+		// An interrupt, unlike a timeout, means the caller gave up.
+		if (failure instanceof InterruptedIOException && !(failure instanceof SocketTimeoutException))
+			return false;
+		return !(failure instanceof MissingPostException);
+	}
+
+	/**
+	 * Sets the initial delay between attempts. Defaults to 500 milliseconds.
+	 * 
+	 * @param baseDelay the base delay.
+	 * @return this policy.
+	 */
+	public RetryPolicy setBaseDelay(Duration baseDelay) {
+		if (baseDelay.isNegative())
+			throw new IllegalArgumentException("Negative base delay: " + baseDelay);
+		this.baseDelay = baseDelay;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of attempts, counting the first. Defaults to 3.
+	 * 
+	 * @param maxAttempts the maximum attempts (at least 1).
+	 * @return this policy.
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1)
+			throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum delay between attempts. Defaults to 30 seconds.
+	 * 
+	 * @param maxDelay the maximum delay.
+	 * @return this policy.
+	 */
+	public RetryPolicy setMaxDelay(Duration maxDelay) {
+		if (maxDelay.isNegative())
+			throw new IllegalArgumentException("Negative max delay: " + maxDelay);
+		this.maxDelay = maxDelay;
+		return this;
+	}
+
+	/**
+	 * Sets the longest <code>Retry-After</code> delay this policy waits for.
+	 * Failures asking for a longer delay are not retried. Defaults to 2 minutes.
+	 * 
+	 * @param maxRetryAfter the maximum <code>Retry-After</code> delay.
+	 * @return this policy.
+	 */
+	public RetryPolicy setMaxRetryAfter(Duration maxRetryAfter) {
+		this.maxRetryAfter = maxRetryAfter;
+		return this;
+	}
+
+	/**
+	 * Sets the factor the delay grows by after each attempt. Defaults to 2.
+	 * 
+	 * @param multiplier the multiplier (at least 1).
+	 * @return this policy.
+	 */
+	public RetryPolicy setMultiplier(double multiplier) {
+		if (!(multiplier >= 1))
+			throw new IllegalArgumentException("multiplier must be at least 1: " + multiplier);
+		this.multiplier = multiplier;
+		return this;
+	}
+
+	/**
+	 * Checks whether a request that failed with the given failure is attempted
+	 * again.
+	 * 
+	 * @param attempt the number of attempts made so far.
+	 * @param failure the failure of the last attempt.
+	 * @return true if the request should be retried.
+	 */
+	public boolean shouldRetry(int attempt, IOException failure) {
+		return attempt < maxAttempts && isRetryable(failure);
+	}
+
+	@Override
+	public String toString() {
+		return "RetryPolicy [maxAttempts=" + maxAttempts + ", baseDelay=" + baseDelay + ", maxDelay=" + maxDelay
+				+ ", multiplier=" + multiplier + ", maxRetryAfter=" + maxRetryAfter + "]";
+	}
+
+	private static Duration retryAfter(IOException failure) {
+		return failure instanceof PageStatusException ? ((PageStatusException) failure).getRetryAfter() : null;
+	}
+}
@@ -0,0 +1,214 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.Cardinal.PMC.metrics.Metrics;
+
+/**
+ * A {@link PageFetcher} that retries failed requests passed on to another
+ * fetcher. Every request is {@linkplain PageType classified} by its URL and
+ * retried according to the {@link RetryPolicy} of its page type, and every
+ * attempt goes through a shared {@link CircuitBreaker}, so once the site is
+ * down requests fail fast instead of waiting out their retries.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class RetryingPageFetcher implements PageFetcher {
+
+	private final PageFetcher fetcher;
+	private final Map<PageType, RetryPolicy> policies = new EnumMap<PageType, RetryPolicy>(PageType.class);
+	private final LongAdder retries = new LongAdder(), failures = new LongAdder();
+	private CircuitBreaker circuitBreaker = new CircuitBreaker();
+	private Function<String, PageType> classifier = PageType::of;
+	private volatile Metrics metrics = Metrics.NOOP;
+
+	/**
+	 * Constructs a new {@link RetryingPageFetcher}. Feed and entity pages get
+	 * three attempts and sub-pages two.
+	 * 
+	 * @param fetcher the fetcher that actually downloads pages.
+	 */
+	public RetryingPageFetcher(PageFetcher fetcher) {
+		this.fetcher = fetcher;
+		policies.put(PageType.FEED, new RetryPolicy());
+		policies.put(PageType.ENTITY, new RetryPolicy());
+		policies.put(PageType.SUB_PAGE, new RetryPolicy().setMaxAttempts(2));
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		return retry(url, () -> fetcher.fetch(url));
+	}
+
+	/**
+	 * Gets the circuit breaker every attempt goes through.
+	 * 
+	 * @return the circuit breaker.
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * Gets the number of requests that failed after their last attempt.
+	 * 
+	 * @return the failed request count.
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Gets the fetcher that actually downloads pages.
+	 * 
+	 * @return the wrapped fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the metrics retries are reported to.
+	 * 
+	 * @return the metrics.
+	 */
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Gets the retry policy of the given page type.
+	 * 
+	 * @param type the page type.
+	 * @return the retry policy.
+	 */
+	public RetryPolicy getPolicy(PageType type) {
+		return policies.get(type);
+	}
+
+	/**
+	 * Gets the number of attempts made after a failed one.
+	 * 
+	 * @return the retry count.
+	 */
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	@Override
+	public Page revalidate(String url) throws IOException {
+		return retry(url, () -> fetcher.revalidate(url));
+	}
+
+	/**
+	 * Sets the circuit breaker every attempt goes through. A breaker may be
+	 * shared between fetchers.
+	 * 
+	 * @param circuitBreaker the circuit breaker.
+	 * @return this fetcher.
+	 */
+	public RetryingPageFetcher setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		return this;
+	}
+
+	/**
+	 * Sets the function used to classify request URLs. Defaults to
+	 * {@link PageType#of(String)}.
+	 * 
+	 * @param classifier the classifier.
+	 * @return this fetcher.
+	 */
+	public RetryingPageFetcher setClassifier(Function<String, PageType> classifier) {
+		this.classifier = classifier;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics every retry is reported to, labeled with the page type of
+	 * the request.
+	 * 
+	 * @param metrics the metrics, see {@link Metrics#NOOP} to stop reporting.
+	 * @return this fetcher.
+	 */
+	public RetryingPageFetcher setMetrics(Metrics metrics) {
+		this.metrics = metrics == null ? Metrics.NOOP : metrics;
+		return this;
+	}
+
+	/**
+	 * Sets the retry policy of the given page type.
+	 * 
+	 * @param type   the page type.
+	 * @param policy the retry policy, see {@link RetryPolicy#none()} to disable
+	 *               retries.
+	 * @return this fetcher.
+	 */
+	public RetryingPageFetcher setPolicy(PageType type, RetryPolicy policy) {
+		policies.put(type, policy);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryingPageFetcher [fetcher=" + fetcher + ", retries=" + getRetries() + ", failures="
+				+ getFailures() + ", circuitBreaker=" + circuitBreaker + "]";
+	}
+
+	/**
+	 * Sends the given request until it succeeds or its retry policy gives up.
+	 * 
+	 * @param url     the URL of the request.
+	 * @param request the request.
+	 * @return the page.
+	 * @throws IOException the last attempt failed, or the circuit breaker refused
+	 *                     an attempt.
+	 */
+	private Page retry(String url, PageRequest request) throws IOException {
+		PageType type = classifier.apply(url);
+		RetryPolicy policy = getPolicy(type);
+		CircuitBreaker breaker = circuitBreaker;
+		IOException last = null;
+		for (int attempt = 1;; attempt++) {
+			try {
+				breaker.acquire(url);
+				Page page = request.send();
+				breaker.onSuccess();
+				return page;
+			} catch (RuntimeException | Error e) {
+				breaker.abandon();
+				failures.increment();
+				throw e;
+			} catch (IOException e) {
+				breaker.onFailure(e);
+				if (last != null && e != last)
+					e.addSuppressed(last);
+				if (!policy.shouldRetry(attempt, e)) {
+					failures.increment();
+					throw e;
+				}
+				last = e;
+			}
+
+			retries.increment();
+			metrics.recordRetry(type);
+			try {
+				TimeUnit.NANOSECONDS.sleep(policy.getDelay(attempt, last).toNanos());
+			} catch (InterruptedException e) {
+				java.lang.Thread.currentThread().interrupt();
+				InterruptedIOException ex = new InterruptedIOException("Interrupted waiting to retry " + url);
+				ex.initCause(e);
+				ex.addSuppressed(last);
+				failures.increment();
+				throw ex;
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class used to deduplicate concurrent work. While a task is running for a
+ * key, any other caller that {@linkplain SingleFlight#run(String, Callable)
+ * runs} a task for the same key waits for the running task and shares its
+ * result instead of running its own.
+ * 
+ * @author Cardinal System
+ *
+ * @param <V> the type of result shared.
+ */
+public class SingleFlight<V> {
+
+	private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<String, CompletableFuture<V>>();
+	private final LongAdder executed = new LongAdder(), coalesced = new LongAdder();
+
+	/**
+	 * Gets the number of calls that shared the result of a task already running
+	 * for their key.
+	 * 
+	 * @return the coalesced call count.
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * Gets the number of tasks that were actually run.
+	 * 
+	 * @return the executed task count.
+	 */
+	public long getExecuted() {
+		return executed.sum();
+	}
+
+	/**
+	 * Gets the number of keys a task is currently running for.
+	 * 
+	 * @return the in-flight key count.
+	 */
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Runs the given task on the calling thread, unless a task is already running
+	 * for the given key, in which case this waits for that task's result instead.
+	 * 
+	 * @param key  the key.
+	 * @param task the task.
+	 * @return the result of the task, or of the task already running.
+	 * @throws IOException the task failed. Checked exceptions other than
+	 *                     {@link IOException} are wrapped in one.
+	 */
+	public V run(String key, Callable<? extends V> task) throws IOException {
+		CompletableFuture<V> future = new CompletableFuture<V>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+		if (running != null) {
+			coalesced.increment();
+			// Wait on a copy so an interrupted caller cannot cancel the shared task.
+			return Async.await(running.copy());
+		}
+
+		executed.increment();
+		try {
+			future.complete(task.call());
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		} finally {
+			inFlight.remove(key, future);
+		}
+		return Async.await(future);
+	}
+
+	@Override
+	public String toString() {
+		return "SingleFlight [executed=" + getExecuted() + ", coalesced=" + getCoalesced() + ", inFlight="
+				+ getInFlight() + "]";
+	}
+}
@@ -0,0 +1,125 @@
+package com.Cardinal.PMC.net;
+
+import java.io.IOException;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * A {@link PageFetcher} that paces the requests passed on to another fetcher.
+ * Each request first takes a token from a {@link RateLimiter}, then a slot
+ * from a {@link ConcurrencyLimiter}. Responses with status 429 (Too Many
+ * Requests) or 5xx, and requests that fail without a response (such as
+ * timeouts), are released as dropped and shrink the concurrency limit; other
+ * error statuses, like 404, mean the server is keeping up and count as
+ * successes.
+ * <p>
+ * Both limiters may be shared between several fetchers to pace them together.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class ThrottledPageFetcher implements PageFetcher {
+
+	private final PageFetcher fetcher;
+	private final RateLimiter rateLimiter;
+	private final ConcurrencyLimiter concurrencyLimiter;
+
+	/**
+	 * Constructs a new {@link ThrottledPageFetcher} with a default
+	 * {@link RateLimiter} and {@link ConcurrencyLimiter}.
+	 * 
+	 * @param fetcher the fetcher that actually downloads pages.
+	 */
+	public ThrottledPageFetcher(PageFetcher fetcher) {
+		this(fetcher, new RateLimiter(), new ConcurrencyLimiter());
+	}
+
+	/**
+	 * Constructs a new {@link ThrottledPageFetcher}.
+	 * 
+	 * @param fetcher            the fetcher that actually downloads pages.
+	 * @param rateLimiter        paces the requests.
+	 * @param concurrencyLimiter limits the requests in flight.
+	 */
+	public ThrottledPageFetcher(PageFetcher fetcher, RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter) {
+		this.fetcher = fetcher;
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+
+	@Override
+	public Page fetch(String url) throws IOException {
+		return throttle(() -> fetcher.fetch(url));
+	}
+
+	/**
+	 * Gets the limiter on requests in flight.
+	 * 
+	 * @return the concurrency limiter.
+	 */
+	public ConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	/**
+	 * Gets the fetcher that actually downloads pages.
+	 * 
+	 * @return the wrapped fetcher.
+	 */
+	public PageFetcher getFetcher() {
+		return fetcher;
+	}
+
+	/**
+	 * Gets the limiter pacing the requests.
+	 * 
+	 * @return the rate limiter.
+	 */
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	@Override
+	public Page revalidate(String url) throws IOException {
+		return throttle(() -> fetcher.revalidate(url));
+	}
+
+	@Override
+	public String toString() {
+		return "ThrottledPageFetcher [fetcher=" + fetcher + ", rateLimiter=" + rateLimiter + ", concurrencyLimiter="
+				+ concurrencyLimiter + "]";
+	}
+
+	/**
+	 * Checks whether the given status means the server is overloaded.
+	 * 
+	 * @param status the HTTP status code.
+	 * @return true for 429 and 5xx statuses.
+	 */
+	protected boolean isOverloaded(int status) {
+		return status == 429 || status >= 500;
+	}
+
+	/**
+	 * Sends the given request once both limiters allow it.
+	 * 
+	 * @param request the request.
+	 * @return the page.
+	 * @throws IOException there was an error downloading the page.
+	 */
+	private Page throttle(PageRequest request) throws IOException {
+		rateLimiter.acquire();
+		long start = concurrencyLimiter.acquire();
+		boolean dropped = true;
+		try {
+			Page page = request.send();
+			dropped = false;
+			return page;
+		} catch (HttpStatusException e) {
+			dropped = isOverloaded(e.getStatusCode());
+			throw e;
+		} finally {
+			concurrencyLimiter.release(start, dropped);
+		}
+	}
+}
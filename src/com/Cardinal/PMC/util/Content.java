@@ -0,0 +1,206 @@
+package com.Cardinal.PMC.util;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+
+import com.Cardinal.PMC.cache.SnapshotReader;
+import com.Cardinal.PMC.cache.SnapshotWriter;
+
+/**
+ * A class used to hold the content of a post (a thread, reply, submission
+ * description or wall post). Content is detached from the page it was parsed
+ * from and kept as its HTML, encoded in UTF-8 without pretty printing, so a
+ * loaded post does not keep its page's DOM alive. The HTML is parsed again the
+ * first time its element is requested, and the parsed element is only softly
+ * kept, so it is dropped again when memory runs low.
+ * <p>
+ * The URL of the page is kept along with the HTML, so links in the parsed
+ * element still resolve with {@link Element#absUrl(String)}. An element that
+ * can only appear inside a table, such as a table cell, is parsed inside the
+ * table elements it belongs in, so it comes back as itself rather than as its
+ * contents.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class Content {
+
+	private final byte[] html;
+	private final String baseUri;
+	private SoftReference<Element> element;
+
+	private Content(byte[] html, String baseUri) {
+		this.html = html;
+		this.baseUri = baseUri == null ? "" : baseUri;
+	}
+
+	/**
+	 * Copies the HTML of the given element, detaching it from its page.
+	 * 
+	 * @param element the element.
+	 * @return the content, or null if the element is null.
+	 */
+	public static Content of(Element element) {
+		if (element == null)
+			return null;
+		Document shell = Document.createShell("");
+		shell.outputSettings().prettyPrint(false);
+		Element copy = element.clone();
+		shell.body().appendChild(copy);
+		return new Content(copy.outerHtml().getBytes(StandardCharsets.UTF_8), element.baseUri());
+	}
+
+	/**
+	 * Wraps the given HTML.
+	 * 
+	 * @param html    the outer HTML of the content's element.
+	 * @param baseUri the URL of the page the HTML is from, which relative links
+	 *                are resolved against, or null if not known.
+	 * @return the content, or null if the HTML is null.
+	 */
+	public static Content ofHtml(String html, String baseUri) {
+		return html == null ? null : new Content(html.getBytes(StandardCharsets.UTF_8), baseUri);
+	}
+
+	/**
+	 * Reads content written by {@link Content#write(Content, SnapshotWriter)}.
+	 * 
+	 * @param in the snapshot reader.
+	 * @return the content, or null if it was written as null.
+	 * @throws IOException there was an error reading the content.
+	 */
+	public static Content read(SnapshotReader in) throws IOException {
+		byte[] html = in.readBytes();
+		return html == null ? null : new Content(html, in.readSymbol());
+	}
+
+	/**
+	 * Writes the given content to a snapshot as its UTF-8 HTML followed by the
+	 * URL of its page, without parsing it.
+	 * 
+	 * @param content the content, or null.
+	 * @param out     the snapshot writer.
+	 * @throws IOException there was an error writing the content.
+	 */
+	public static void write(Content content, SnapshotWriter out) throws IOException {
+		if (content == null) {
+			out.writeBytes(null);
+		} else {
+			out.writeBytes(content.html);
+			out.writeSymbol(content.baseUri);
+		}
+	}
+
+	/**
+	 * Gets the URL of the page this content is from.
+	 * 
+	 * @return the base URI relative links are resolved against.
+	 */
+	public String getBaseUri() {
+		return baseUri;
+	}
+
+	/**
+	 * Gets the element of this content, parsing it if it has not been parsed yet
+	 * or was dropped since.
+	 * 
+	 * @return the element.
+	 */
+	public synchronized Element getElement() {
+		Element element = this.element == null ? null : this.element.get();
+		if (element == null) {
+			String html = getHtml();
+			Element parent = Document.createShell(baseUri).body();
+			for (String tag : context(html))
+				parent = parent.appendElement(tag);
+			parent.insertChildren(0, Parser.parseFragment(html, parent, baseUri));
+			element = parent.childNodeSize() == 1 && parent.childrenSize() == 1 ? parent.child(0) : parent;
+			this.element = new SoftReference<Element>(element);
+		}
+		return element;
+	}
+
+	/**
+	 * Gets the HTML of this content, without parsing it.
+	 * 
+	 * @return the outer HTML of the content's element.
+	 */
+	public String getHtml() {
+		return new String(html, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets the size of this content's HTML.
+	 * 
+	 * @return the size in bytes.
+	 */
+	public int getSize() {
+		return html.length;
+	}
+
+	/**
+	 * Gets the text of this content, parsing it if need be.
+	 * 
+	 * @return the text.
+	 */
+	public String getText() {
+		return getElement().text();
+	}
+
+	/**
+	 * Checks whether this content's element is available without parsing.
+	 * 
+	 * @return true if the element was parsed and has not been dropped since.
+	 */
+	public synchronized boolean isParsed() {
+		return element != null && element.get() != null;
+	}
+
+	@Override
+	public String toString() {
+		return getHtml();
+	}
+
+	/**
+	 * Gets the elements the root element of the given HTML has to be parsed
+	 * inside of to keep its tag. Table elements outside of a table are dropped
+	 * by the parser, leaving only their contents.
+	 * 
+	 * @param html the outer HTML of an element.
+	 * @return the tags of the enclosing elements, outermost first, or none if
+	 *         the root element can be parsed in the body.
+	 */
+	private static String[] context(String html) {
+		int start = 0;
+		while (start < html.length() && Character.isWhitespace(html.charAt(start)))
+			start++;
+		if (start == html.length() || html.charAt(start) != '<')
+			return new String[0];
+		int end = ++start;
+		while (end < html.length() && Character.isLetterOrDigit(html.charAt(end)))
+			end++;
+		switch (html.substring(start, end).toLowerCase(Locale.ROOT)) {
+		case "td":
+		case "th":
+			return new String[] { "table", "tbody", "tr" };
+		case "tr":
+			return new String[] { "table", "tbody" };
+		case "col":
+			return new String[] { "table", "colgroup" };
+		case "tbody":
+		case "thead":
+		case "tfoot":
+		case "caption":
+		case "colgroup":
+			return new String[] { "table" };
+		default:
+			return new String[0];
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package com.Cardinal.PMC.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeFilter.FilterResult;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * A class used to find every element a page type needs in a single pass over
+ * the page. A plan is a tree of {@link Rule}s, each holding an
+ * {@link Evaluator} built once, typically from an
+ * {@link com.Cardinal.PMC.ElementIdentifiers} name. A rule either finds the
+ * first element it matches or collects every element it matches, and a rule
+ * added to another rule only matches inside the element its parent found, the
+ * element itself included. A rule therefore finds exactly what the matching
+ * chain of <code>getElementsByClass</code>, <code>getElementsByTag</code> and
+ * <code>getElementById</code> calls finds, but the page is walked once for all
+ * rules instead of once per call, and the walk stops as soon as no rule can
+ * match anymore.
+ * <p>
+ * Rules must all be added before the plan is first used. A plan may then be
+ * used by any number of threads at once.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class ExtractionPlan {
+
+	private final List<Rule> rules = new ArrayList<Rule>();
+
+	/**
+	 * Adds a rule finding the first element the given evaluator matches.
+	 * 
+	 * @param evaluator the evaluator.
+	 * @return the rule.
+	 */
+	public Rule first(Evaluator evaluator) {
+		return add(null, evaluator, false);
+	}
+
+	/**
+	 * Adds a rule collecting every element the given evaluator matches.
+	 * 
+	 * @param evaluator the evaluator.
+	 * @return the rule.
+	 */
+	public Rule all(Evaluator evaluator) {
+		return add(null, evaluator, true);
+	}
+
+	/**
+	 * Walks the given element and its descendants once, applying every rule of
+	 * this plan.
+	 * 
+	 * @param root the element to walk, usually a page's document.
+	 * @return the elements found by each rule.
+	 */
+	public Extraction extract(Element root) {
+		Extraction extraction = new Extraction(this, root);
+		NodeTraversor.filter(new NodeFilter() {
+
+			@Override
+			public FilterResult head(Node node, int depth) {
+				return extraction.head(node);
+			}
+
+			@Override
+			public FilterResult tail(Node node, int depth) {
+				return extraction.tail(node);
+			}
+		}, root);
+		return extraction;
+	}
+
+	private Rule add(Rule parent, Evaluator evaluator, boolean all) {
+		if (parent != null && parent.all)
+			throw new IllegalArgumentException("Rules cannot be added to a rule collecting every match");
+		Rule rule = new Rule(this, parent, evaluator, all, rules.size());
+		rules.add(rule);
+		if (parent != null)
+			parent.children.add(rule);
+		return rule;
+	}
+
+	/**
+	 * A single step of an {@link ExtractionPlan}.
+	 * 
+	 * @author Cardinal System
+	 *
+	 */
+	public static final class Rule {
+
+		private final ExtractionPlan plan;
+		private final Rule parent;
+		private final Evaluator evaluator;
+		private final boolean all;
+		private final int index;
+		private final List<Rule> children = new ArrayList<Rule>();
+
+		private Rule(ExtractionPlan plan, Rule parent, Evaluator evaluator, boolean all, int index) {
+			this.plan = plan;
+			this.parent = parent;
+			this.evaluator = evaluator;
+			this.all = all;
+			this.index = index;
+		}
+
+		/**
+		 * Adds a rule finding the first element the given evaluator matches inside
+		 * the element this rule finds.
+		 * 
+		 * @param evaluator the evaluator.
+		 * @return the rule.
+		 * @throws IllegalArgumentException this rule collects every element it
+		 *                                  matches.
+		 */
+		public Rule first(Evaluator evaluator) {
+			return plan.add(this, evaluator, false);
+		}
+
+		/**
+		 * Adds a rule collecting every element the given evaluator matches inside
+		 * the element this rule finds.
+		 * 
+		 * @param evaluator the evaluator.
+		 * @return the rule.
+		 * @throws IllegalArgumentException this rule collects every element it
+		 *                                  matches.
+		 */
+		public Rule all(Evaluator evaluator) {
+			return plan.add(this, evaluator, true);
+		}
+	}
+
+	/**
+	 * The elements an {@link ExtractionPlan} found in a page.
+	 * 
+	 * @author Cardinal System
+	 *
+	 */
+	public static final class Extraction {
+
+		private final ExtractionPlan plan;
+		private final Object[] found;
+		private final Element[] scopes;
+		private final boolean[] active, done;
+		private int remaining;
+
+		private Extraction(ExtractionPlan plan, Element root) {
+			int size = plan.rules.size();
+			this.plan = plan;
+			this.found = new Object[size];
+			this.scopes = new Element[size];
+			this.active = new boolean[size];
+			this.done = new boolean[size];
+			this.remaining = size;
+			for (Rule rule : plan.rules) {
+				if (rule.parent == null) {
+					scopes[rule.index] = root;
+					active[rule.index] = true;
+				}
+			}
+		}
+
+		/**
+		 * Gets the element found by the given rule.
+		 * 
+		 * @param rule a rule finding the first element it matches.
+		 * @return the element, or null if the rule matched nothing.
+		 */
+		public Element get(Rule rule) {
+			check(rule, false);
+			return (Element) found[rule.index];
+		}
+
+		/**
+		 * Gets the elements collected by the given rule.
+		 * 
+		 * @param rule a rule collecting every element it matches.
+		 * @return the elements in page order, empty if the rule matched nothing, or
+		 *         null if the rule's parent found nothing.
+		 */
+		public Elements getAll(Rule rule) {
+			check(rule, true);
+			Elements elements = (Elements) found[rule.index];
+			return elements == null && scopes[rule.index] != null ? new Elements() : elements;
+		}
+
+		private FilterResult head(Node node) {
+			if (!(node instanceof Element))
+				return FilterResult.CONTINUE;
+			Element element = (Element) node;
+			for (Rule rule : plan.rules) {
+				int i = rule.index;
+				if (!active[i] || !rule.evaluator.matches(scopes[i], element))
+					continue;
+				if (rule.all) {
+					if (found[i] == null)
+						found[i] = new Elements();
+					((Elements) found[i]).add(element);
+					continue;
+				}
+				found[i] = element;
+				active[i] = false;
+				finish(i);
+				for (Rule child : rule.children) {
+					scopes[child.index] = element;
+					active[child.index] = true;
+				}
+			}
+			return remaining == 0 ? FilterResult.STOP : FilterResult.CONTINUE;
+		}
+
+		private FilterResult tail(Node node) {
+			for (Rule rule : plan.rules)
+				if (rule.parent != null && scopes[rule.index] == node && active[rule.index])
+					close(rule);
+			return remaining == 0 ? FilterResult.STOP : FilterResult.CONTINUE;
+		}
+
+		/**
+		 * Closes a rule whose scope has ended, along with the rules under it if it
+		 * found nothing.
+		 */
+		private void close(Rule rule) {
+			active[rule.index] = false;
+			finish(rule.index);
+			if (found[rule.index] == null)
+				for (Rule child : rule.children)
+					close(child);
+		}
+
+		private void finish(int index) {
+			if (!done[index]) {
+				done[index] = true;
+				remaining--;
+			}
+		}
+
+		private void check(Rule rule, boolean all) {
+			if (rule.plan != plan)
+				throw new IllegalArgumentException("Rule of another plan");
+			if (rule.all != all)
+				throw new IllegalArgumentException(all ? "Rule finds a single element" : "Rule collects elements");
+		}
+	}
+}
@@ -0,0 +1,1163 @@
+package com.Cardinal.PMC.util;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jsoup.internal.StringUtil;
+import org.jsoup.parser.Parser;
+
+/**
+ * A class used to extract the rows of a feed page (a list of forums threads or
+ * submissions) in a single pass over the page's HTML, without building a jsoup
+ * {@link org.jsoup.nodes.Document}. A row is an element with the row class;
+ * for each row the scanner finds its first two links and the first link inside
+ * its first element with the author class, and hands them to a
+ * {@link RowHandler} as soon as the row's element closes.
+ * <p>
+ * The scanner keeps a stack of the open element names and follows the HTML
+ * tree construction rules that decide which element a tag or text ends up in:
+ * implied end tags, tables, <code>select</code> elements, raw text elements
+ * and misnested formatting elements. It gives up on markup whose tree it cannot
+ * be sure to build the way jsoup would, such as links closed by another
+ * element's end tag, in which case {@link FeedScanner#scan(String, String,
+ * RowHandler)} returns false and the page should be parsed with jsoup instead.
+ * <p>
+ * A scanner may be reused for any number of pages, but not by several threads
+ * at once.
+ * 
+ * @author Cardinal System
+ *
+ */
+public class FeedScanner {
+
+	private static final Set<String> VOID = set("area", "base", "basefont", "bgsound", "br", "col", "embed", "frame",
+			"hr", "img", "image", "input", "keygen", "link", "meta", "param", "source", "track", "wbr");
+	private static final Set<String> RAW_TEXT = set("iframe", "noembed", "noframes", "script", "style", "textarea",
+			"title", "xmp");
+	private static final Set<String> FORMATTING = set("a", "b", "big", "code", "em", "font", "i", "nobr", "s",
+			"small", "strike", "strong", "tt", "u");
+	private static final Set<String> SPECIAL = set("address", "applet", "area", "article", "aside", "base",
+			"basefont", "bgsound", "blockquote", "body", "br", "button", "caption", "center", "col", "colgroup", "dd",
+			"details", "dir", "div", "dl", "dt", "embed", "fieldset", "figcaption", "figure", "footer", "form",
+			"frame", "frameset", "h1", "h2", "h3", "h4", "h5", "h6", "head", "header", "hgroup", "hr", "html",
+			"iframe", "img", "input", "keygen", "li", "link", "listing", "main", "marquee", "menu", "meta", "nav",
+			"noembed", "noframes", "noscript", "object", "ol", "p", "param", "plaintext", "pre", "script", "section",
+			"select", "source", "style", "summary", "table", "tbody", "td", "template", "textarea", "tfoot", "th",
+			"thead", "title", "tr", "track", "ul", "wbr", "xmp");
+	private static final Set<String> CLOSES_P = set("address", "article", "aside", "blockquote", "center", "details",
+			"dialog", "dir", "div", "dl", "fieldset", "figcaption", "figure", "footer", "h1", "h2", "h3", "h4", "h5",
+			"h6", "header", "hgroup", "hr", "listing", "main", "menu", "nav", "ol", "p", "plaintext", "pre",
+			"section", "summary", "ul", "xmp");
+	private static final Set<String> BLOCK_END = set("address", "article", "aside", "blockquote", "button", "center",
+			"details", "dialog", "dir", "div", "dl", "fieldset", "figcaption", "figure", "footer", "header", "hgroup",
+			"listing", "main", "menu", "nav", "ol", "pre", "section", "summary", "ul");
+	private static final Set<String> HEADINGS = set("h1", "h2", "h3", "h4", "h5", "h6");
+	private static final Set<String> HEAD = set("base", "basefont", "bgsound", "command", "head", "html", "link",
+			"meta", "noframes", "noscript", "script", "style", "template", "title");
+	private static final Set<String> SCOPE = set("applet", "caption", "html", "marquee", "object", "table", "td",
+			"th", "template");
+	private static final Set<String> MARKERS = set("applet", "caption", "marquee", "object", "td", "template", "th");
+	private static final Set<String> TABLE = set("caption", "col", "colgroup", "frame", "head", "tbody", "td",
+			"tfoot", "th", "thead", "tr");
+	private static final Set<String> TABLE_CONTEXT = set("caption", "table", "tbody", "td", "tfoot", "th", "thead",
+			"tr");
+	private static final Set<String> ROW_UNSUPPORTED = set("applet", "body", "button", "caption", "col",
+			"colgroup", "form", "frame", "frameset", "head", "html", "listing", "marquee", "nobr", "object",
+			"optgroup", "option", "plaintext", "pre", "select", "table", "tbody", "td", "template", "tfoot", "th",
+			"thead", "tr");
+
+	private static final Pattern CONTROL_CHARACTERS = Pattern.compile("[\\x00-\\x1f]");
+	private static final String[] REFERENCES = { "amp;", "lt;", "gt;", "quot;", "#39;", "nbsp;" };
+	private static final char[] DECODED = { '&', '<', '>', '"', '\'', '\u00A0' };
+
+	private final String rowClass, authorClass;
+	private final StringBuilder titleText = new StringBuilder(), authorText = new StringBuilder();
+	private String[] stack = new String[64];
+	private int depth;
+
+	private String html, baseUri;
+	private URL base;
+	private int pos, length;
+	private boolean inHead, headNoscript, quirks, formOpen, baseSet;
+	private int rows;
+
+	private int rowDepth, links, titleDepth, authorDepth, authorBoxDepth;
+	private String titleHref, categoryHref, authorHref;
+	private boolean authorBoxClosed;
+
+	private String tagName;
+	private boolean selfClosing;
+	private int classStart, classEnd, hrefStart, hrefEnd;
+
+	/**
+	 * Constructs a new {@link FeedScanner}.
+	 * 
+	 * @param rowClass    the class of the elements holding one feed row each.
+	 * @param authorClass the class of the element inside a row that holds its
+	 *                    author's link.
+	 */
+	public FeedScanner(String rowClass, String authorClass) {
+		this.rowClass = rowClass;
+		this.authorClass = authorClass;
+	}
+
+	/**
+	 * Scans the given page, handing every row to the given handler in page order.
+	 * If the scan fails, rows already handed over must be discarded.
+	 * 
+	 * @param html    the page HTML.
+	 * @param baseUri the URL of the page, which relative links are resolved
+	 *                against.
+	 * @param handler the row handler.
+	 * @return true if the whole page was scanned.<br>
+	 *         false if the page has markup the scanner does not support, or the
+	 *         handler rejected a row.
+	 */
+	public boolean scan(String html, String baseUri, RowHandler handler) {
+		this.html = html;
+		this.baseUri = baseUri;
+		this.base = null;
+		this.pos = 0;
+		this.length = html.length();
+		this.depth = 0;
+		this.inHead = true;
+		this.headNoscript = quirks = formOpen = baseSet = false;
+		this.rows = 0;
+		this.rowDepth = -1;
+		if (html.indexOf('\0') != -1)
+			return false;
+		try {
+			while (pos < length) {
+				int lt = html.indexOf('<', pos);
+				int end = lt == -1 ? length : lt;
+				if (end > pos)
+					text(pos, end);
+				if (lt == -1)
+					break;
+				pos = lt;
+				if (!markup(handler))
+					break;
+			}
+			return rowDepth == -1;
+		} catch (UnsupportedMarkup e) {
+			return false;
+		} finally {
+			this.html = null;
+			Arrays.fill(stack, 0, depth, null);
+		}
+	}
+
+	/**
+	 * Gets the absolute URL of the current row's first link.
+	 * 
+	 * @return the URL, empty if the link has no <code>href</code>, or null if the
+	 *         row has no link.
+	 */
+	public String getURL() {
+		return links < 1 ? null : titleHref == null ? "" : resolve(titleHref);
+	}
+
+	/**
+	 * Gets the own text of the current row's first link.
+	 * 
+	 * @return the text, or null if the row has no link.
+	 */
+	public String getTitle() {
+		return links < 1 ? null : titleText.toString().trim();
+	}
+
+	/**
+	 * Gets the <code>href</code> of the current row's second link, as written in
+	 * the page.
+	 * 
+	 * @return the <code>href</code>, empty if the link has none, or null if the
+	 *         row has fewer than two links.
+	 */
+	public String getCategoryHref() {
+		return links < 2 ? null : categoryHref == null ? "" : categoryHref;
+	}
+
+	/**
+	 * Gets the absolute URL of the first link inside the current row's first
+	 * author element.
+	 * 
+	 * @return the URL, empty if the link has no <code>href</code>, or null if
+	 *         there is no such link.
+	 */
+	public String getAuthorURL() {
+		return authorDepth == -2 ? null : authorHref == null ? "" : resolve(authorHref);
+	}
+
+	/**
+	 * Gets the own text of the first link inside the current row's first author
+	 * element.
+	 * 
+	 * @return the text, or null if there is no such link.
+	 */
+	public String getAuthor() {
+		return authorDepth == -2 ? null : authorText.toString().trim();
+	}
+
+	/**
+	 * Handles a piece of text.
+	 */
+	private void text(int start, int end) {
+		if (inHead && !isWhitespace(start, end))
+			inHead = false;
+		if (rowDepth == -1 || depth == 0)
+			return;
+		int top = depth - 1;
+		if (top != titleDepth && top != authorDepth)
+			return;
+		String text = html.substring(start, end);
+		if (text.indexOf('&') != -1)
+			text = unescape(text, false);
+		if (top == titleDepth)
+			StringUtil.appendNormalisedWhitespace(titleText, text, lastIsSpace(titleText));
+		if (top == authorDepth)
+			StringUtil.appendNormalisedWhitespace(authorText, text, lastIsSpace(authorText));
+	}
+
+	/**
+	 * Handles the markup starting at the current position, which is a
+	 * <code>&lt;</code>.
+	 * 
+	 * @return false if the rest of the page is text.
+	 */
+	private boolean markup(RowHandler handler) {
+		if (pos + 1 >= length) {
+			text(pos, length);
+			pos = length;
+			return true;
+		}
+		char next = html.charAt(pos + 1);
+		if (next == '!')
+			return declaration();
+		if (next == '?') {
+			bogusComment(pos + 2);
+			return true;
+		}
+		if (next == '/') {
+			if (pos + 2 >= length) {
+				text(pos, length);
+				pos = length;
+			} else if (isAsciiLetter(html.charAt(pos + 2))) {
+				if (!tag(pos + 2))
+					return end();
+				endTag(handler);
+			} else if (html.charAt(pos + 2) == '>') {
+				pos += 3;
+			} else {
+				bogusComment(pos + 2);
+			}
+			return true;
+		}
+		if (!isAsciiLetter(next)) {
+			text(pos, pos + 1);
+			pos++;
+			return true;
+		}
+		if (!tag(pos + 1))
+			return end();
+		return startTag(handler);
+	}
+
+	/**
+	 * Handles a comment, doctype or CDATA section.
+	 */
+	private boolean declaration() {
+		if (html.startsWith("<!--", pos)) {
+			int i = pos + 4;
+			if (i < length && html.charAt(i) == '>') {
+				pos = i + 1;
+				return true;
+			}
+			if (i + 1 < length && html.charAt(i) == '-' && html.charAt(i + 1) == '>') {
+				pos = i + 2;
+				return true;
+			}
+			while (true) {
+				int dashes = html.indexOf("--", i);
+				if (dashes == -1)
+					return end();
+				int j = dashes + 2;
+				while (j < length && html.charAt(j) == '-')
+					j++;
+				if (j < length && html.charAt(j) == '>') {
+					pos = j + 1;
+					return true;
+				}
+				if (j + 1 < length && html.charAt(j) == '!' && html.charAt(j + 1) == '>') {
+					pos = j + 2;
+					return true;
+				}
+				i = j;
+			}
+		}
+		if (html.regionMatches(true, pos + 2, "DOCTYPE", 0, 7)) {
+			int close = html.indexOf('>', pos);
+			if (close == -1)
+				return end();
+			if (isWhitespace(pos + 9, close))
+				quirks = true;
+			pos = close + 1;
+			return true;
+		}
+		if (html.startsWith("[CDATA[", pos + 2)) {
+			if (rowDepth != -1)
+				throw UnsupportedMarkup.INSTANCE;
+			int close = html.indexOf("]]>", pos);
+			if (close == -1)
+				return end();
+			pos = close + 3;
+			return true;
+		}
+		bogusComment(pos + 2);
+		return true;
+	}
+
+	private void bogusComment(int from) {
+		int close = html.indexOf('>', from);
+		pos = close == -1 ? length : close + 1;
+	}
+
+	/**
+	 * Handles the end of the page inside markup, which jsoup drops.
+	 */
+	private boolean end() {
+		if (rowDepth != -1)
+			throw UnsupportedMarkup.INSTANCE;
+		pos = length;
+		return false;
+	}
+
+	/**
+	 * Reads a start or end tag whose name starts at the given position, keeping
+	 * the <code>class</code> and <code>href</code> attributes.
+	 * 
+	 * @return false if the page ends inside the tag.
+	 */
+	private boolean tag(int nameStart) {
+		int i = nameStart;
+		while (i < length && !isTagNameEnd(html.charAt(i)))
+			i++;
+		if (i >= length)
+			return false;
+		tagName = html.substring(nameStart, i).toLowerCase(Locale.ROOT);
+		if ("image".equals(tagName))
+			tagName = "img";
+		selfClosing = false;
+		classStart = hrefStart = -1;
+		boolean afterName = false;
+		while (true) {
+			while (i < length && isWhitespace(html.charAt(i)))
+				i++;
+			if (i >= length)
+				return false;
+			char c = html.charAt(i);
+			if (c == '>') {
+				pos = i + 1;
+				return true;
+			}
+			if (c == '<' && !afterName) {
+				pos = i;
+				return true;
+			}
+			if (c == '/') {
+				if (i + 1 < length && html.charAt(i + 1) == '>') {
+					selfClosing = true;
+					pos = i + 2;
+					return true;
+				}
+				i++;
+				afterName = false;
+				continue;
+			}
+			int nameEnd = i + 1;
+			while (nameEnd < length && !isAttributeNameEnd(html.charAt(nameEnd)))
+				nameEnd++;
+			int j = nameEnd;
+			while (j < length && isWhitespace(html.charAt(j)))
+				j++;
+			if (j >= length)
+				return false;
+			if (html.charAt(j) != '=') {
+				attribute(i, nameEnd, -1, -1);
+				i = j;
+				afterName = true;
+				continue;
+			}
+			j++;
+			while (j < length && isWhitespace(html.charAt(j)))
+				j++;
+			if (j >= length)
+				return false;
+			char quote = html.charAt(j);
+			if (quote == '"' || quote == '\'') {
+				int close = html.indexOf(quote, j + 1);
+				if (close == -1)
+					return false;
+				attribute(i, nameEnd, j + 1, close);
+				i = close + 1;
+			} else if (quote == '>') {
+				attribute(i, nameEnd, j, j);
+				i = j;
+			} else {
+				int close = j;
+				while (close < length && !isWhitespace(html.charAt(close)) && html.charAt(close) != '>')
+					close++;
+				attribute(i, nameEnd, j, close);
+				i = close;
+			}
+			afterName = false;
+		}
+	}
+
+	private void attribute(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+		int nameLength = nameEnd - nameStart;
+		if (valueStart == -1)
+			valueStart = valueEnd = nameEnd;
+		if (classStart == -1 && nameLength == 5 && html.regionMatches(true, nameStart, "class", 0, 5)) {
+			classStart = valueStart;
+			classEnd = valueEnd;
+		} else if (hrefStart == -1 && nameLength == 4 && html.regionMatches(true, nameStart, "href", 0, 4)) {
+			hrefStart = valueStart;
+			hrefEnd = valueEnd;
+		}
+	}
+
+	/**
+	 * Handles the start tag just read.
+	 * 
+	 * @return false if the rest of the page is text.
+	 */
+	private boolean startTag(RowHandler handler) {
+		String name = tagName;
+		boolean row = classStart != -1 && hasClass(rowClass);
+		if (headNoscript) {
+			if (row && HEAD.contains(name))
+				throw UnsupportedMarkup.INSTANCE;
+			if (("style".equals(name) || "noframes".equals(name)) && !selfClosing)
+				skipRawText(name);
+			return true;
+		}
+		if (inHead && !HEAD.contains(name))
+			inHead = false;
+		if (select() != -1) {
+			if (row)
+				throw UnsupportedMarkup.INSTANCE;
+			if (!selectStartTag(name, handler))
+				return true;
+		}
+		if (rowDepth != -1 && (row || ROW_UNSUPPORTED.contains(name)))
+			throw UnsupportedMarkup.INSTANCE;
+		if (classStart != -1 && FORMATTING.contains(name) && !"a".equals(name)
+				&& (row || hasClass(authorClass)))
+			throw UnsupportedMarkup.INSTANCE;
+		if (row && ("a".equals(name) || ROW_UNSUPPORTED.contains(name) || VOID.contains(name)
+				|| RAW_TEXT.contains(name) || isTableContext() || indexOf("pre") != -1))
+			throw UnsupportedMarkup.INSTANCE;
+
+		switch (name) {
+		case "html":
+		case "head":
+		case "body":
+			if (row || selfClosing && inHead)
+				throw UnsupportedMarkup.INSTANCE;
+			return true;
+		case "frameset":
+		case "template":
+			throw UnsupportedMarkup.INSTANCE;
+		case "noscript":
+			if (inHead) {
+				if (row)
+					throw UnsupportedMarkup.INSTANCE;
+				headNoscript = !selfClosing;
+				return true;
+			}
+			break;
+		case "a":
+			for (int i = depth - 1; i >= 0 && !MARKERS.contains(stack[i]); i--)
+				if ("a".equals(stack[i]))
+					throw UnsupportedMarkup.INSTANCE;
+			break;
+		case "nobr":
+			if (indexOf("nobr") != -1)
+				throw UnsupportedMarkup.INSTANCE;
+			break;
+		case "button":
+			int button = inScope("button");
+			if (button != -1)
+				popTo(button, handler);
+			break;
+		case "form":
+			if (formOpen && indexOf("template") == -1)
+				return true;
+			closeP(handler);
+			formOpen = !selfClosing;
+			break;
+		case "li":
+		case "dd":
+		case "dt":
+			for (int i = depth - 1; i >= 0; i--) {
+				String open = stack[i];
+				if ("li".equals(name) ? "li".equals(open) : "dd".equals(open) || "dt".equals(open)) {
+					popTo(i, handler);
+					break;
+				}
+				if (SPECIAL.contains(open) && !"address".equals(open) && !"div".equals(open) && !"p".equals(open))
+					break;
+			}
+			closeP(handler);
+			break;
+		case "option":
+		case "optgroup":
+			if (depth > 0 && "option".equals(stack[depth - 1]))
+				popTo(depth - 1, handler);
+			break;
+		case "table":
+			if (isTableContext()) {
+				int table = inScope("table");
+				if (table != -1)
+					popTo(table, handler);
+			} else if (!quirks) {
+				closeP(handler);
+			}
+			break;
+		case "base":
+			if (!baseSet && hrefStart != -1) {
+				String href = StringUtil.resolve(baseUri, value(hrefStart, hrefEnd));
+				if (!href.isEmpty()) {
+					if (rows > 0)
+						throw UnsupportedMarkup.INSTANCE;
+					baseUri = href;
+					base = null;
+					baseSet = true;
+				}
+			}
+			return true;
+		default:
+			if (TABLE.contains(name))
+				return tableStartTag(name, handler);
+			if (CLOSES_P.contains(name))
+				closeP(handler);
+			if (HEADINGS.contains(name) && depth > 0 && HEADINGS.contains(stack[depth - 1]))
+				popTo(depth - 1, handler);
+		}
+
+		if (rowDepth != -1 && (VOID.contains(name) || RAW_TEXT.contains(name) && !selfClosing)) {
+			if ("br".equals(name))
+				br();
+			if (authorBoxDepth == -1 && !authorBoxClosed && hasClass(authorClass))
+				authorBoxClosed = true;
+		}
+		if ("plaintext".equals(name)) {
+			if (rowDepth != -1)
+				throw UnsupportedMarkup.INSTANCE;
+			pos = length;
+			return false;
+		}
+		if (VOID.contains(name))
+			return true;
+		if (RAW_TEXT.contains(name) && !selfClosing) {
+			if (!"script".equals(name) && !"style".equals(name) && isTableContext())
+				throw UnsupportedMarkup.INSTANCE;
+			skipRawText(name);
+			return true;
+		}
+
+		push(name);
+		if (rowDepth != -1) {
+			if ("a".equals(name))
+				link();
+			if (authorBoxDepth == -1 && !authorBoxClosed && hasClass(authorClass))
+				authorBoxDepth = depth - 1;
+		} else if (row) {
+			startRow();
+		}
+		if (selfClosing)
+			popTo(depth - 1, handler);
+		return true;
+	}
+
+	/**
+	 * Handles a start tag inside a <code>select</code> element.
+	 * 
+	 * @return true if the tag should be handled as it would be outside the
+	 *         <code>select</code>.
+	 */
+	private boolean selectStartTag(String name, RowHandler handler) {
+		switch (name) {
+		case "option":
+		case "optgroup":
+			if ("option".equals(stack[depth - 1]))
+				popTo(depth - 1, handler);
+			if ("optgroup".equals(name) && "optgroup".equals(stack[depth - 1]))
+				popTo(depth - 1, handler);
+			if (!selfClosing)
+				push(name);
+			return false;
+		case "script":
+			return true;
+		case "select":
+			popTo(select(), handler);
+			return false;
+		case "input":
+		case "keygen":
+		case "textarea":
+			popTo(select(), handler);
+			return true;
+		default:
+			if (!TABLE_CONTEXT.contains(name) || lastIndexOf("table") == -1)
+				return false;
+			popTo(select(), handler);
+			return true;
+		}
+	}
+
+	/**
+	 * Handles the start tag of a table part, which is ignored outside tables.
+	 */
+	private boolean tableStartTag(String name, RowHandler handler) {
+		if (lastIndexOf("table") == -1)
+			return true;
+		String context = tableContext();
+		if (context == null)
+			throw UnsupportedMarkup.INSTANCE;
+		if ("td".equals(context) || "th".equals(context) || "caption".equals(context)) {
+			popTo(lastIndexOf(context), handler);
+			context = tableContext();
+		}
+		int index = lastIndexOf(context);
+		switch (name) {
+		case "td":
+		case "th":
+			popTo(index + 1, handler);
+			if ("table".equals(context))
+				push("tbody");
+			if (!"tr".equals(context))
+				push("tr");
+			break;
+		case "tr":
+			popTo("tr".equals(context) ? index : index + 1, handler);
+			if ("table".equals(context))
+				push("tbody");
+			break;
+		case "caption":
+		case "col":
+		case "colgroup":
+		case "tbody":
+		case "tfoot":
+		case "thead":
+			popTo(lastIndexOf("table") + 1, handler);
+			if ("col".equals(name) || "colgroup".equals(name))
+				return true;
+			break;
+		default:
+			return true;
+		}
+		if (!selfClosing)
+			push(name);
+		return true;
+	}
+
+	/**
+	 * Handles the end tag just read.
+	 */
+	private void endTag(RowHandler handler) {
+		String name = tagName;
+		if (headNoscript) {
+			if ("noscript".equals(name))
+				headNoscript = false;
+			return;
+		}
+		if (inHead && !"head".equals(name) && !"body".equals(name) && !"html".equals(name) && !"br".equals(name)
+				&& !"template".equals(name))
+			return;
+		if (!"template".equals(name))
+			inHead = false;
+		int select = select();
+		if (select != -1) {
+			switch (name) {
+			case "select":
+				popTo(select, handler);
+				return;
+			case "option":
+				if ("option".equals(stack[depth - 1]))
+					popTo(depth - 1, handler);
+				return;
+			case "optgroup":
+				if ("option".equals(stack[depth - 1]) && "optgroup".equals(stack[depth - 2]))
+					popTo(depth - 1, handler);
+				if ("optgroup".equals(stack[depth - 1]))
+					popTo(depth - 1, handler);
+				return;
+			default:
+				if (!TABLE_CONTEXT.contains(name) || lastIndexOf(name) == -1 || lastIndexOf("table") == -1)
+					return;
+				popTo(select, handler);
+			}
+		}
+
+		switch (name) {
+		case "head":
+		case "body":
+		case "html":
+			return;
+		case "br":
+			if (rowDepth != -1)
+				br();
+			return;
+		case "p":
+			closeP(handler);
+			return;
+		case "li":
+			int li = inScope("li", "ol", "ul");
+			if (li != -1)
+				popTo(li, handler);
+			return;
+		case "form":
+			if (rowDepth != -1)
+				throw UnsupportedMarkup.INSTANCE;
+			formOpen = false;
+			int form = inScope("form");
+			if (form != -1) {
+				System.arraycopy(stack, form + 1, stack, form, depth - form - 1);
+				stack[--depth] = null;
+			}
+			return;
+		case "caption":
+		case "table":
+		case "tbody":
+		case "td":
+		case "tfoot":
+		case "th":
+		case "thead":
+		case "tr":
+			for (int i = depth - 1; i >= 0; i--) {
+				if (name.equals(stack[i])) {
+					popTo(i, handler);
+					return;
+				}
+				if ("table".equals(stack[i]) || "template".equals(stack[i]))
+					return;
+			}
+			return;
+		case "applet":
+		case "marquee":
+		case "object":
+		case "template":
+			int marker = inScope(name);
+			if (marker != -1)
+				popTo(marker, handler);
+			return;
+		default:
+			if (FORMATTING.contains(name)) {
+				formattingEndTag(name, handler);
+			} else if (HEADINGS.contains(name)) {
+				for (int i = depth - 1; i >= 0 && !SCOPE.contains(stack[i]); i--) {
+					if (HEADINGS.contains(stack[i])) {
+						popTo(i, handler);
+						return;
+					}
+				}
+			} else if (BLOCK_END.contains(name) || "dd".equals(name) || "dt".equals(name)) {
+				int block = inScope(name);
+				if (block != -1)
+					popTo(block, handler);
+			} else {
+				for (int i = depth - 1; i >= 0; i--) {
+					if (name.equals(stack[i])) {
+						popTo(i, handler);
+						return;
+					}
+					if (SPECIAL.contains(stack[i]))
+						return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Handles the end tag of a formatting element. Only the cases where jsoup's
+	 * adoption agency leaves the links and rows of the page as they are are
+	 * supported.
+	 */
+	private void formattingEndTag(String name, RowHandler handler) {
+		int index = lastIndexOf(name);
+		if (index == -1) {
+			if (rowDepth != -1)
+				throw UnsupportedMarkup.INSTANCE;
+			return;
+		}
+		boolean special = false;
+		for (int i = index + 1; i < depth; i++) {
+			if (SCOPE.contains(stack[i])) {
+				if (rowDepth != -1)
+					throw UnsupportedMarkup.INSTANCE;
+				return;
+			}
+			special |= SPECIAL.contains(stack[i]);
+		}
+		if (!special) {
+			popTo(index, handler);
+			return;
+		}
+		if (rowDepth != -1 || "a".equals(name) || !SPECIAL.contains(stack[index + 1]))
+			throw UnsupportedMarkup.INSTANCE;
+		System.arraycopy(stack, index + 1, stack, index, depth - index - 1);
+		stack[--depth] = null;
+	}
+
+	/**
+	 * Pops every element above the given one, and the element itself. A
+	 * formatting element closed by another element is reopened by jsoup wherever
+	 * text or tags follow, unless a table cell around it is closed too. This is
+	 * only supported outside rows, and never for links.
+	 * 
+	 * @param index the stack index of the element.
+	 */
+	private void popTo(int index, RowHandler handler) {
+		if (index >= depth)
+			return;
+		if (rowDepth != -1 && index < rowDepth)
+			throw UnsupportedMarkup.INSTANCE;
+		boolean marker = false;
+		for (int i = index; i < depth; i++) {
+			String open = stack[i];
+			if (i > index && !marker && FORMATTING.contains(open)
+					&& ("a".equals(open) || rowDepth != -1 && index > rowDepth))
+				throw UnsupportedMarkup.INSTANCE;
+			marker |= MARKERS.contains(open);
+		}
+		for (int i = depth - 1; i >= index; i--) {
+			if (i == titleDepth)
+				titleDepth = -1;
+			if (i == authorDepth)
+				authorDepth = -1;
+			if (i == authorBoxDepth) {
+				authorBoxDepth = -1;
+				authorBoxClosed = true;
+			}
+			stack[i] = null;
+		}
+		depth = index;
+		if (index == rowDepth) {
+			rowDepth = -1;
+			rows++;
+			if (!handler.row(this))
+				throw UnsupportedMarkup.INSTANCE;
+		}
+	}
+
+	private void push(String name) {
+		if (depth == stack.length)
+			stack = Arrays.copyOf(stack, depth * 2);
+		stack[depth++] = name;
+	}
+
+	private void startRow() {
+		rowDepth = depth - 1;
+		links = 0;
+		titleDepth = -1;
+		authorDepth = -2;
+		authorBoxDepth = hasClass(authorClass) ? rowDepth : -1;
+		authorBoxClosed = false;
+		titleHref = categoryHref = authorHref = null;
+		titleText.setLength(0);
+		authorText.setLength(0);
+	}
+
+	/**
+	 * Records the link just opened inside the current row.
+	 */
+	private void link() {
+		String href = hrefStart == -1 ? null : value(hrefStart, hrefEnd);
+		int index = depth - 1;
+		if (links == 0) {
+			titleHref = href;
+			titleDepth = index;
+		} else if (links == 1) {
+			categoryHref = href;
+		}
+		links++;
+		if (authorDepth == -2 && (authorBoxDepth != -1 || !authorBoxClosed && classStart != -1
+				&& hasClass(authorClass))) {
+			authorHref = href;
+			authorDepth = index;
+			authorBoxClosed = true;
+		}
+	}
+
+	/**
+	 * Handles a <code>br</code> element, which adds a space to the own text of
+	 * its parent link.
+	 */
+	private void br() {
+		int top = depth - 1;
+		if (top == titleDepth && !lastIsSpace(titleText))
+			titleText.append(' ');
+		if (top == authorDepth && !lastIsSpace(authorText))
+			authorText.append(' ');
+	}
+
+	private void closeP(RowHandler handler) {
+		int p = inScope("p", "button");
+		if (p != -1)
+			popTo(p, handler);
+	}
+
+	/**
+	 * Skips the content of a raw text element up to its end tag. Like jsoup, a
+	 * <code>title</code> or <code>textarea</code> that is never closed ends at
+	 * the next tag instead of at the end of the page.
+	 */
+	private void skipRawText(String name) {
+		int i = pos;
+		while (true) {
+			int close = html.indexOf("</", i);
+			if (close == -1 || close + 2 + name.length() > length) {
+				if (("title".equals(name) || "textarea".equals(name)) && indexOf("</" + name, pos, length) == -1) {
+					for (int lt = html.indexOf('<', pos); lt != -1 && lt + 1 < length; lt = html.indexOf('<', lt + 1)) {
+						if (isAsciiLetter(html.charAt(lt + 1))) {
+							pos = lt;
+							return;
+						}
+					}
+				}
+				end();
+				return;
+			}
+			int after = close + 2 + name.length();
+			if (html.regionMatches(true, close + 2, name, 0, name.length())
+					&& (after == length || isTagNameEnd(html.charAt(after)) && html.charAt(after) != '<')) {
+				if ("script".equals(name)) {
+					int comment = indexOf("<!--", pos, close);
+					if (comment != -1 && indexOf("<script", comment, close) != -1)
+						throw UnsupportedMarkup.INSTANCE;
+				}
+				if (!tag(close + 2))
+					end();
+				return;
+			}
+			i = close + 2;
+		}
+	}
+
+	/**
+	 * Gets the name of the innermost table part the current node is in.
+	 * 
+	 * @return the element name, or null if there is no open table.
+	 */
+	private String tableContext() {
+		for (int i = depth - 1; i >= 0; i--) {
+			String open = stack[i];
+			if (TABLE_CONTEXT.contains(open))
+				return open;
+			if ("template".equals(open))
+				return null;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether elements inserted now would be moved out of a table by
+	 * jsoup.
+	 */
+	private boolean isTableContext() {
+		String context = tableContext();
+		return context != null && !"td".equals(context) && !"th".equals(context) && !"caption".equals(context);
+	}
+
+	/**
+	 * Gets the stack index of the innermost <code>select</code> element.
+	 */
+	private int select() {
+		for (int i = depth - 1; i >= 0; i--) {
+			String open = stack[i];
+			if ("select".equals(open))
+				return i;
+			if (!"option".equals(open) && !"optgroup".equals(open))
+				return -1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the given element in scope.
+	 * 
+	 * @param extra additional scope boundaries.
+	 * @return the stack index of the element, or -1 if it is not in scope.
+	 */
+	private int inScope(String name, String... extra) {
+		for (int i = depth - 1; i >= 0; i--) {
+			String open = stack[i];
+			if (name.equals(open))
+				return i;
+			if (SCOPE.contains(open))
+				return -1;
+			if (extra != null)
+				for (String boundary : extra)
+					if (boundary.equals(open))
+						return -1;
+		}
+		return -1;
+	}
+
+	private int indexOf(String name) {
+		for (int i = 0; i < depth; i++)
+			if (name.equals(stack[i]))
+				return i;
+		return -1;
+	}
+
+	private int lastIndexOf(String name) {
+		for (int i = depth - 1; i >= 0; i--)
+			if (name.equals(stack[i]))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Finds the given text between the given positions, ignoring case.
+	 */
+	private int indexOf(String target, int from, int to) {
+		char first = target.charAt(0);
+		for (int i = from; i + target.length() <= to; i++) {
+			char c = html.charAt(i);
+			if ((c == first || Character.toLowerCase(c) == first)
+					&& html.regionMatches(true, i, target, 0, target.length()))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether the last read tag has the given class. Like jsoup, classes
+	 * are compared ignoring case.
+	 */
+	private boolean hasClass(String name) {
+		if (classStart == -1)
+			return false;
+		String classes = indexOf("&", classStart, classEnd) != -1 ? value(classStart, classEnd) : null;
+		int start = classes == null ? classStart : 0, end = classes == null ? classEnd : classes.length();
+		String source = classes == null ? html : classes;
+		int wanted = name.length(), from = -1;
+		for (int i = start; i <= end; i++) {
+			if (i == end || Character.isWhitespace(source.charAt(i))) {
+				if (from != -1 && i - from == wanted && source.regionMatches(true, from, name, 0, wanted))
+					return true;
+				from = -1;
+			} else if (from == -1) {
+				from = i;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves the given link against the page URL the way jsoup does, parsing
+	 * the page URL only once per page.
+	 */
+	private String resolve(String href) {
+		try {
+			if (base == null)
+				base = new URL(CONTROL_CHARACTERS.matcher(baseUri).replaceAll(""));
+			return StringUtil.resolve(base, href).toExternalForm();
+		} catch (MalformedURLException e) {
+			return StringUtil.resolve(baseUri, href);
+		}
+	}
+
+	private String value(int start, int end) {
+		String value = html.substring(start, end);
+		return value.indexOf('&') == -1 ? value : unescape(value, true);
+	}
+
+	/**
+	 * Decodes the character references in the given text. The references feed
+	 * pages are full of are decoded here, anything else is left to jsoup.
+	 */
+	private static String unescape(String text, boolean inAttribute) {
+		StringBuilder decoded = new StringBuilder(text.length());
+		int from = 0;
+		for (int amp = text.indexOf('&'); amp != -1; amp = text.indexOf('&', from)) {
+			decoded.append(text, from, amp);
+			int i = 0;
+			while (i < REFERENCES.length && !text.startsWith(REFERENCES[i], amp + 1))
+				i++;
+			if (i == REFERENCES.length)
+				return Parser.unescapeEntities(text, inAttribute);
+			decoded.append(DECODED[i]);
+			from = amp + 1 + REFERENCES[i].length();
+		}
+		return decoded.append(text, from, text.length()).toString();
+	}
+
+	private boolean isWhitespace(int start, int end) {
+		for (int i = start; i < end; i++)
+			if (!isWhitespace(html.charAt(i)))
+				return false;
+		return true;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
+	private static boolean isTagNameEnd(char c) {
+		return isWhitespace(c) || c == '/' || c == '>' || c == '<';
+	}
+
+	private static boolean isAttributeNameEnd(char c) {
+		return isWhitespace(c) || c == '/' || c == '>' || c == '=';
+	}
+
+	private static boolean isAsciiLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean lastIsSpace(StringBuilder text) {
+		return text.length() != 0 && text.charAt(text.length() - 1) == ' ';
+	}
+
+	private static Set<String> set(String... names) {
+		return new HashSet<String>(Arrays.asList(names));
+	}
+
+	/**
+	 * Receives the rows of a feed page.
+	 * 
+	 * @author Cardinal System
+	 *
+	 */
+	@FunctionalInterface
+	public interface RowHandler {
+
+		/**
+		 * Handles the current row of the given scanner.
+		 * 
+		 * @param row the scanner, positioned on the row.
+		 * @return false if the row cannot be handled, which fails the scan.
+		 */
+		boolean row(FeedScanner row);
+	}
+
+	/**
+	 * Thrown to stop a scan at markup that is not supported.
+	 */
+	private static class UnsupportedMarkup extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+		private static final UnsupportedMarkup INSTANCE = new UnsupportedMarkup();
+
+		private UnsupportedMarkup() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.Cardinal.PMC.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * A class used to parse the timestamps and counts shown on Planet Minecraft
+ * pages. Values are read straight from the text, without splitting it,
+ * copying parts of it or compiling regular expressions.
+ * 
+ * @author Cardinal System
+ *
+ */
+public final class Parsing {
+
+	private Parsing() {
+	}
+
+	/**
+	 * Parses an ISO date-time string, such as the title of a time element, into
+	 * a {@link LocalDateTime}. Only the date, hour and minute are read; seconds
+	 * and offsets are ignored.
+	 * 
+	 * @param datetime the date-time string, formatted as
+	 *                 <code>yyyy-MM-ddTHH:mm</code> optionally followed by
+	 *                 seconds and an offset.
+	 * @return the date-time.
+	 * @throws IndexOutOfBoundsException a separator is missing.
+	 * @throws NumberFormatException     a field is not a number.
+	 * @throws DateTimeException         a field is out of range.
+	 */
+	public static LocalDateTime parseDateTime(CharSequence datetime) {
+		int length = datetime.length();
+		int time = require(datetime, 'T', 0, length);
+		int month = require(datetime, '-', 0, time);
+		int day = require(datetime, '-', month + 1, time);
+		int dayEnd = indexOf(datetime, '-', day + 1, time);
+		int minute = require(datetime, ':', time + 1, length);
+		int minuteEnd = indexOf(datetime, ':', minute + 1, length);
+
+		return LocalDateTime.of(Integer.parseInt(datetime, 0, month, 10),
+				Integer.parseInt(datetime, month + 1, day, 10),
+				Integer.parseInt(datetime, day + 1, dayEnd == -1 ? time : dayEnd, 10),
+				Integer.parseInt(datetime, time + 1, minute, 10),
+				Integer.parseInt(datetime, minute + 1, minuteEnd == -1 ? length : minuteEnd, 10));
+	}
+
+	/**
+	 * Parses a count that may be grouped with commas, such as
+	 * <code>12,345</code>.
+	 * 
+	 * @param count the count.
+	 * @return the count as an int.
+	 * @throws NumberFormatException the count is not a number or does not fit
+	 *                               in an int.
+	 */
+	public static int parseCount(CharSequence count) {
+		int length = count.length(), i = 0;
+		boolean negative = false;
+		if (length > 0 && (count.charAt(0) == '-' || count.charAt(0) == '+')) {
+			negative = count.charAt(0) == '-';
+			i++;
+		}
+
+		long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		boolean digits = false;
+		for (; i < length; i++) {
+			char c = count.charAt(i);
+			if (c == ',')
+				continue;
+			if (c < '0' || c > '9')
+				throw new NumberFormatException("For input string: \"" + count + "\"");
+			value = value * 10 + (c - '0');
+			if (value > limit)
+				throw new NumberFormatException("Count out of range: \"" + count + "\"");
+			digits = true;
+		}
+		if (!digits)
+			throw new NumberFormatException("For input string: \"" + count + "\"");
+		return (int) (negative ? -value : value);
+	}
+
+	private static int require(CharSequence text, char c, int from, int to) {
+		int index = indexOf(text, c, from, to);
+		if (index == -1)
+			throw new IndexOutOfBoundsException("Missing '" + c + "' in \"" + text + "\"");
+		return index;
+	}
+
+	private static int indexOf(CharSequence text, char c, int from, int to) {
+		for (int i = from; i < to; i++)
+			if (text.charAt(i) == c)
+				return i;
+		return -1;
+	}
+}
@@ -0,0 +1,425 @@
+package com.Cardinal.PMC.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A class used to represent a tree of replies or comments. The posts are
+ * stored in depth-first order in parallel <code>int</code> arrays, so a post's
+ * replies directly follow it and its whole subtree is one contiguous range.
+ * This makes depth-first iteration a linear scan and subtree counts a single
+ * array read, without boxing an ID per reply. Posts are found by ID through a
+ * sorted ID table.
+ * <p>
+ * A tree is immutable once built, and may be read by any number of threads.
+ * 
+ * @author Cardinal System
+ *
+ * @param <T> the type of post.
+ */
+public class PostTree<T> implements Iterable<T> {
+
+	private final Object[] posts;
+	private final int[] ids, parents, depths, sizes;
+	private final int[] sortedIds, sortedIndexes;
+	private final int rootCount;
+
+	/**
+	 * Builds a new {@link PostTree}. Posts keep their given order among their
+	 * siblings. Posts whose parent ID is 0, or is not the ID of another post in
+	 * the list, become roots.
+	 * 
+	 * @param posts    the posts, in page order.
+	 * @param id       the function giving a post's ID.
+	 * @param parentID the function giving the ID of a post's parent, or 0 if it
+	 *                 has none.
+	 */
+	public PostTree(List<? extends T> posts, ToIntFunction<? super T> id, ToIntFunction<? super T> parentID) {
+		int n = posts.size();
+		int[] pageIds = new int[n], pageParents = new int[n];
+		for (int i = 0; i < n; i++)
+			pageIds[i] = id.applyAsInt(posts.get(i));
+
+		long[] byId = sortById(pageIds);
+		for (int i = 0; i < n; i++) {
+			int parent = parentID.applyAsInt(posts.get(i));
+			pageParents[i] = parent == 0 ? -1 : find(byId, parent);
+			if (pageParents[i] == i)
+				pageParents[i] = -1;
+		}
+
+		// Link children in page order, then lay the posts out depth first.
+		int[] firstChild = new int[n], nextSibling = new int[n];
+		Arrays.fill(firstChild, -1);
+		Arrays.fill(nextSibling, -1);
+		for (int i = n - 1; i >= 0; i--) {
+			int parent = pageParents[i];
+			if (parent >= 0) {
+				nextSibling[i] = firstChild[parent];
+				firstChild[parent] = i;
+			}
+		}
+
+		this.posts = new Object[n];
+		this.ids = new int[n];
+		this.parents = new int[n];
+		this.depths = new int[n];
+		this.sizes = new int[n];
+		int[] position = new int[n], stack = new int[n];
+		boolean[] placed = new boolean[n];
+		int next = 0, roots = 0;
+		// Posts caught in a parent cycle are never reached from a root, so the
+		// second pass roots them where the cycle was entered.
+		for (int pass = 0; pass < 2; pass++) {
+			for (int root = 0; root < n; root++) {
+				if (placed[root] || (pass == 0 && pageParents[root] >= 0))
+					continue;
+				roots++;
+				int top = 0;
+				stack[top++] = root;
+				while (top > 0) {
+					int page = stack[--top];
+					if (placed[page])
+						continue;
+					placed[page] = true;
+					int at = next++;
+					position[page] = at;
+					this.posts[at] = posts.get(page);
+					this.ids[at] = pageIds[page];
+					boolean isRoot = page == root;
+					this.parents[at] = isRoot ? -1 : position[pageParents[page]];
+					this.depths[at] = isRoot ? 0 : this.depths[this.parents[at]] + 1;
+
+					int children = 0;
+					for (int child = firstChild[page]; child >= 0; child = nextSibling[child])
+						children++;
+					top += children;
+					int slot = top;
+					// Push in reverse so the first child is visited first.
+					for (int child = firstChild[page]; child >= 0; child = nextSibling[child])
+						stack[--slot] = child;
+				}
+			}
+		}
+		this.rootCount = roots;
+
+		for (int i = n - 1; i >= 0; i--) {
+			sizes[i]++;
+			if (parents[i] >= 0)
+				sizes[parents[i]] += sizes[i];
+		}
+
+		long[] sorted = sortById(ids);
+		this.sortedIds = new int[n];
+		this.sortedIndexes = new int[n];
+		for (int i = 0; i < n; i++) {
+			sortedIds[i] = (int) (sorted[i] >> 32);
+			sortedIndexes[i] = (int) sorted[i];
+		}
+	}
+
+	/**
+	 * Checks whether this tree contains a post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return true if the post is in this tree.
+	 */
+	public boolean contains(int ID) {
+		return indexOf(ID) >= 0;
+	}
+
+	/**
+	 * Gets the post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return the post, or null if this tree has no post with the given ID.
+	 */
+	public T get(int ID) {
+		int index = indexOf(ID);
+		return index < 0 ? null : getAt(index);
+	}
+
+	/**
+	 * Gets the post at the given depth-first position.
+	 * 
+	 * @param index the position.
+	 * @return the post.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getAt(int index) {
+		return (T) posts[index];
+	}
+
+	/**
+	 * Gets the IDs of the direct replies to the post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return the reply IDs in page order, empty if the post is not in this tree.
+	 */
+	public int[] getChildIDs(int ID) {
+		int index = indexOf(ID);
+		if (index < 0)
+			return new int[0];
+		int[] children = new int[getChildCount(index)];
+		int i = 0;
+		for (int child = getFirstChild(index); child >= 0; child = getNextSibling(child))
+			children[i++] = ids[child];
+		return children;
+	}
+
+	/**
+	 * Gets the direct replies to the post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return the replies in page order, empty if the post is not in this tree.
+	 */
+	public List<T> getChildren(int ID) {
+		int index = indexOf(ID);
+		if (index < 0)
+			return List.of();
+		int[] children = new int[getChildCount(index)];
+		int i = 0;
+		for (int child = getFirstChild(index); child >= 0; child = getNextSibling(child))
+			children[i++] = child;
+		return view(children);
+	}
+
+	/**
+	 * Gets the depth of the post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return 0 for a root, 1 for a reply to a root, and so on, or -1 if the post
+	 *         is not in this tree.
+	 */
+	public int getDepth(int ID) {
+		int index = indexOf(ID);
+		return index < 0 ? -1 : depths[index];
+	}
+
+	/**
+	 * Gets the depth-first position of the first reply to the post at the given
+	 * position.
+	 * 
+	 * @param index the position of the post.
+	 * @return the position of its first reply, or -1 if it has none.
+	 */
+	public int getFirstChild(int index) {
+		return sizes[index] > 1 ? index + 1 : -1;
+	}
+
+	/**
+	 * Gets the ID of the post at the given depth-first position.
+	 * 
+	 * @param index the position.
+	 * @return the post ID.
+	 */
+	public int getIDAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Gets the depth-first position of the next reply to the same parent as the
+	 * post at the given position.
+	 * 
+	 * @param index the position of the post.
+	 * @return the position of its next sibling, or -1 if it has none.
+	 */
+	public int getNextSibling(int index) {
+		int next = index + sizes[index];
+		return next < ids.length && parents[next] == parents[index] ? next : -1;
+	}
+
+	/**
+	 * Gets the post the post with the given ID replies to.
+	 * 
+	 * @param ID the post ID.
+	 * @return the parent, or null if the post is a root or not in this tree.
+	 */
+	public T getParent(int ID) {
+		int index = indexOf(ID);
+		return index < 0 || parents[index] < 0 ? null : getAt(parents[index]);
+	}
+
+	/**
+	 * Gets the depth-first position of the parent of the post at the given
+	 * position.
+	 * 
+	 * @param index the position of the post.
+	 * @return the position of its parent, or -1 if it is a root.
+	 */
+	public int getParentAt(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * Gets the posts that do not reply to another post in this tree.
+	 * 
+	 * @return the roots in page order.
+	 */
+	public List<T> getRoots() {
+		int[] roots = new int[rootCount];
+		int i = 0;
+		for (int root = ids.length == 0 ? -1 : 0; root >= 0; root = getNextSibling(root))
+			roots[i++] = root;
+		return view(roots);
+	}
+
+	/**
+	 * Gets the post with the given ID followed by all of its replies, their
+	 * replies, and so on, in depth-first order.
+	 * 
+	 * @param ID the post ID.
+	 * @return the subtree, empty if the post is not in this tree.
+	 */
+	public List<T> getSubtree(int ID) {
+		int index = indexOf(ID);
+		return index < 0 ? List.of() : range(index, index + sizes[index]);
+	}
+
+	/**
+	 * Gets the number of replies under the post with the given ID, counting
+	 * replies to replies.
+	 * 
+	 * @param ID the post ID.
+	 * @return the number of descendants, or -1 if the post is not in this tree.
+	 */
+	public int getSubtreeCount(int ID) {
+		int index = indexOf(ID);
+		return index < 0 ? -1 : sizes[index] - 1;
+	}
+
+	/**
+	 * Gets the depth-first position of the post with the given ID.
+	 * 
+	 * @param ID the post ID.
+	 * @return the position, or -1 if this tree has no post with the given ID.
+	 */
+	public int indexOf(int ID) {
+		int i = Arrays.binarySearch(sortedIds, ID);
+		if (i < 0)
+			return -1;
+		// Duplicate IDs resolve to the first post with the ID.
+		while (i > 0 && sortedIds[i - 1] == ID)
+			i--;
+		return sortedIndexes[i];
+	}
+
+	/**
+	 * Iterates over every post in depth-first order: each post is followed by its
+	 * replies before its next sibling.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < posts.length;
+			}
+
+			@Override
+			public T next() {
+				if (next >= posts.length)
+					throw new NoSuchElementException();
+				return getAt(next++);
+			}
+		};
+	}
+
+	/**
+	 * Gets the number of posts in this tree.
+	 * 
+	 * @return the size.
+	 */
+	public int size() {
+		return posts.length;
+	}
+
+	/**
+	 * Gets every post in this tree in depth-first order.
+	 * 
+	 * @return the posts.
+	 */
+	public List<T> toList() {
+		return range(0, posts.length);
+	}
+
+	@Override
+	public String toString() {
+		return "PostTree [size=" + posts.length + ", roots=" + rootCount + "]";
+	}
+
+	private int getChildCount(int index) {
+		int count = 0;
+		for (int child = getFirstChild(index); child >= 0; child = getNextSibling(child))
+			count++;
+		return count;
+	}
+
+	private List<T> range(int from, int to) {
+		return new AbstractList<T>() {
+			@Override
+			public T get(int index) {
+				if (index < 0 || index >= to - from)
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+				return getAt(from + index);
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		};
+	}
+
+	private List<T> view(int[] indexes) {
+		return new AbstractList<T>() {
+			@Override
+			public T get(int index) {
+				return getAt(indexes[index]);
+			}
+
+			@Override
+			public int size() {
+				return indexes.length;
+			}
+		};
+	}
+
+	/**
+	 * Finds the position of the given ID in a table built by
+	 * {@link PostTree#sortById(int[])}, preferring the first of duplicate IDs.
+	 */
+	private static int find(long[] byId, int ID) {
+		int low = 0, high = byId.length - 1, found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = (int) (byId[mid] >> 32);
+			if (midId < ID) {
+				low = mid + 1;
+			} else {
+				if (midId == ID)
+					found = (int) byId[mid];
+				high = mid - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Packs each ID with its position into a long, the ID in the high bits, and
+	 * sorts them so IDs can be binary searched without boxing.
+	 */
+	private static long[] sortById(int[] ids) {
+		long[] byId = new long[ids.length];
+		for (int i = 0; i < ids.length; i++)
+			byId[i] = (long) ids[i] << 32 | i;
+		Arrays.sort(byId);
+		return byId;
+	}
+}